@@ -0,0 +1,57 @@
+package app.bench;
+
+import app.model.AnalysisHabitMood;
+import app.model.AnalysisSnapshot;
+import app.service.AnalysisService;
+import app.service.HabitImpactEngine;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// AnalysisService.getSevenRandomAnalyses (panel analisis di dashboard) dan HabitImpactEngine
+// untuk N habit x Y tahun data
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class AnalysisBenchmark {
+
+    @Param({"10", "200"})
+    int habits;
+
+    @Param({"1", "5"})
+    int years;
+
+    @Param({"FAKE", "STUB_DB"})
+    Backend backend;
+
+    private AnalysisService service;
+    private AnalysisSnapshot fullHistory;
+
+    @Setup
+    public void setUp() {
+        SyntheticData data = SyntheticData.generate(habits, years);
+        // Timeout besar: yang diukur waktu analisis, bukan placeholder
+        service = new AnalysisService(backend.analysisRepository(data, 0), 60_000L);
+        fullHistory = data.analysisSnapshot(data.getStart(), data.getEnd());
+    }
+
+    @Benchmark
+    public List<String> sevenRandomAnalyses() {
+        return service.getSevenRandomAnalyses();
+    }
+
+    // Seluruh riwayat, hanya perhitungan (snapshot sudah di memori)
+    @Benchmark
+    public List<AnalysisHabitMood> habitImpactEngine() {
+        return HabitImpactEngine.compute(fullHistory, 1);
+    }
+
+    // Muat snapshot seluruh riwayat lewat repository + hitung
+    @Benchmark
+    public List<AnalysisHabitMood> habitImpactsWithLoad() {
+        return service.getHabitImpacts(years * 365, 0);
+    }
+}
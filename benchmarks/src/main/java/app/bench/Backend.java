@@ -0,0 +1,83 @@
+package app.bench;
+
+import app.model.AnalysisSnapshot;
+import app.model.Mood;
+import app.model.WeekSnapshot;
+import app.repository.AnalysisRepository;
+import app.repository.HabitRepository;
+import app.repository.MoodRepository;
+import java.time.LocalDate;
+import java.util.Map;
+import javax.sql.DataSource;
+
+// Sumber data untuk benchmark:
+// - FAKE: repository palsu yang langsung mengembalikan objek jadi (biaya facade/service saja)
+// - STUB_DB: repository asli di atas StubDatabase (ikut mengukur JDBC & mapping baris, plus latency simulasi)
+public enum Backend {
+    FAKE,
+    STUB_DB;
+
+    public HabitRepository habitRepository(SyntheticData data, long roundTripMicros) {
+        return this == FAKE ? new FakeHabitRepository(data) : new HabitRepository(stub(data, roundTripMicros));
+    }
+
+    public AnalysisRepository analysisRepository(SyntheticData data, long roundTripMicros) {
+        return this == FAKE ? new FakeAnalysisRepository(data) : new AnalysisRepository(stub(data, roundTripMicros));
+    }
+
+    public MoodRepository moodRepository(SyntheticData data, long roundTripMicros) {
+        return this == FAKE ? new FakeMoodRepository(data) : new MoodRepository(stub(data, roundTripMicros));
+    }
+
+    private static DataSource stub(SyntheticData data, long roundTripMicros) {
+        return new StubDatabase(data, roundTripMicros).dataSource();
+    }
+
+    static final class FakeHabitRepository extends HabitRepository {
+        private final SyntheticData data;
+
+        FakeHabitRepository(SyntheticData data) {
+            super((DataSource) null);
+            this.data = data;
+        }
+
+        @Override
+        public WeekSnapshot loadWeekSnapshot(LocalDate weekStart) {
+            return data.weekSnapshot(weekStart);
+        }
+    }
+
+    static final class FakeAnalysisRepository extends AnalysisRepository {
+        private final SyntheticData data;
+
+        FakeAnalysisRepository(SyntheticData data) {
+            super((DataSource) null);
+            this.data = data;
+        }
+
+        @Override
+        public AnalysisSnapshot loadAnalysisSnapshot(LocalDate startDate, LocalDate endDate) {
+            return data.analysisSnapshot(startDate, endDate);
+        }
+    }
+
+    static final class FakeMoodRepository extends MoodRepository {
+        private final SyntheticData data;
+
+        FakeMoodRepository(SyntheticData data) {
+            super((DataSource) null);
+            this.data = data;
+        }
+
+        @Override
+        public Mood getMoodByDate(LocalDate date) {
+            int value = data.getMoodValue(date);
+            return value > 0 ? new Mood((int) date.toEpochDay(), value, date.toString()) : null;
+        }
+
+        @Override
+        public Map<LocalDate, Mood> getMoodsBetween(LocalDate startDate, LocalDate endDate) {
+            return data.moodsBetween(startDate, endDate);
+        }
+    }
+}
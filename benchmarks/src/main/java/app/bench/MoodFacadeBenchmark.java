@@ -0,0 +1,66 @@
+package app.bench;
+
+import app.facade.MoodFacade;
+import app.model.Mood;
+import app.model.MoodSeries;
+import app.model.MoodTrend;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// MoodFacade: getMood dengan cache hangat vs. akses acak di 10 tahun (melebihi kapasitas LRU),
+// deret bulanan untuk grafik, dan tren harian yang di-downsample
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MoodFacadeBenchmark {
+
+    @Param({"FAKE", "STUB_DB"})
+    Backend backend;
+
+    private SyntheticData data;
+    private MoodFacade facade;
+    private LocalDate today;
+    private LocalDate[] scattered;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        data = SyntheticData.generate(5, 10);
+        facade = new MoodFacade(backend.moodRepository(data, 0));
+        today = data.getEnd();
+        facade.getMood(today);
+
+        // Langkah 397 hari: tanggal berurutan tidak pernah berdekatan, cache terus berputar
+        scattered = new LocalDate[4096];
+        for (int i = 0; i < scattered.length; i++) {
+            scattered[i] = data.getStart().plusDays((i * 397L) % data.getDays());
+        }
+    }
+
+    @Benchmark
+    public Mood getMoodCached() {
+        return facade.getMood(today);
+    }
+
+    @Benchmark
+    public Mood getMoodScattered() {
+        LocalDate date = scattered[next];
+        next = (next + 1) & (scattered.length - 1);
+        return facade.getMood(date);
+    }
+
+    @Benchmark
+    public MoodSeries getMoodSeriesMonth() {
+        return facade.getMoodSeries(today.withDayOfMonth(1), today.lengthOfMonth());
+    }
+
+    // Seluruh 10 tahun harian -> 300 titik (LTTB)
+    @Benchmark
+    public MoodTrend rawTrendTenYears() {
+        return facade.getRawMoodTrend(data.getStart(), data.getEnd(), 300);
+    }
+}
@@ -0,0 +1,164 @@
+package app.bench;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.Date;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.LockSupport;
+import javax.sql.DataSource;
+
+// Database pengganti di dalam proses: DataSource JDBC (proxy) yang menjawab query read repository
+// dari SyntheticData. Jadi kode JDBC & mapping baris di repository ikut terukur, tanpa PostgreSQL.
+// roundTripMicros mensimulasikan latency jaringan per query. Query lain -> SQLException.
+public final class StubDatabase {
+
+    private static final String[] SNAPSHOT_COLUMNS = {"id", "name", "date", "mood_value"};
+    private static final String[] MOOD_COLUMNS = {"id", "mood_value", "date"};
+
+    private final SyntheticData data;
+    private final long roundTripNanos;
+
+    public StubDatabase(SyntheticData data, long roundTripMicros) {
+        this.data = data;
+        this.roundTripNanos = roundTripMicros * 1_000L;
+    }
+
+    public DataSource dataSource() {
+        Connection connection = connection();
+        return proxy(DataSource.class, (p, method, args) -> switch (method.getName()) {
+            case "getConnection" -> connection;
+            case "toString" -> "StubDatabase";
+            case "hashCode" -> System.identityHashCode(p);
+            case "equals" -> p == args[0];
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    private Connection connection() {
+        return proxy(Connection.class, (p, method, args) -> switch (method.getName()) {
+            case "prepareStatement" -> statement((String) args[0]);
+            case "getAutoCommit", "isValid" -> true;
+            case "isClosed" -> false;
+            case "setAutoCommit", "commit", "rollback", "close" -> null;
+            case "toString" -> "StubConnection";
+            case "hashCode" -> System.identityHashCode(p);
+            case "equals" -> p == args[0];
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    private PreparedStatement statement(String sql) {
+        Map<Integer, Object> params = new HashMap<>();
+        return proxy(PreparedStatement.class, (p, method, args) -> switch (method.getName()) {
+            case "setInt", "setDate", "setString" -> {
+                params.put((Integer) args[0], args[1]);
+                yield null;
+            }
+            case "setFetchSize", "close" -> null;
+            case "executeQuery" -> execute(sql, params);
+            case "toString" -> sql;
+            case "hashCode" -> System.identityHashCode(p);
+            case "equals" -> p == args[0];
+            default -> throw new UnsupportedOperationException(method.getName());
+        });
+    }
+
+    private ResultSet execute(String sql, Map<Integer, Object> params) throws SQLException {
+        if (roundTripNanos > 0) {
+            LockSupport.parkNanos(roundTripNanos);
+        }
+        if (sql.contains("UNION ALL SELECT NULL, NULL, m.date")) {
+            return resultSet(SNAPSHOT_COLUMNS, snapshotRows(date(params, 1), date(params, 2)));
+        }
+        if (sql.startsWith("SELECT id, mood_value, date FROM mood WHERE date = ?")) {
+            LocalDate date = date(params, 1);
+            return resultSet(MOOD_COLUMNS, moodRows(date, date));
+        }
+        if (sql.startsWith("SELECT id, mood_value, date FROM mood WHERE date BETWEEN ? AND ?")) {
+            return resultSet(MOOD_COLUMNS, moodRows(date(params, 1), date(params, 2)));
+        }
+        throw new SQLException("StubDatabase: query tidak didukung: " + sql);
+    }
+
+    private static LocalDate date(Map<Integer, Object> params, int index) {
+        return ((Date) params.get(index)).toLocalDate();
+    }
+
+    // Sama dengan hasil UNION di loadWeekSnapshot / loadAnalysisSnapshot: baris habit (LEFT JOIN log), lalu baris mood
+    private List<Object[]> snapshotRows(LocalDate from, LocalDate to) {
+        List<Object[]> rows = new ArrayList<>();
+        for (int h = 0; h < data.getHabitCount(); h++) {
+            int id = data.getHabits().get(h).getId();
+            String name = data.getHabits().get(h).getName();
+            boolean any = false;
+            for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+                if (data.isDone(h, date)) {
+                    rows.add(new Object[] {id, name, Date.valueOf(date), null});
+                    any = true;
+                }
+            }
+            if (!any) rows.add(new Object[] {id, name, null, null});
+        }
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            int mood = data.getMoodValue(date);
+            if (mood > 0) rows.add(new Object[] {null, null, Date.valueOf(date), mood});
+        }
+        return rows;
+    }
+
+    private List<Object[]> moodRows(LocalDate from, LocalDate to) {
+        List<Object[]> rows = new ArrayList<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            int mood = data.getMoodValue(date);
+            if (mood > 0) rows.add(new Object[] {(int) date.toEpochDay(), mood, Date.valueOf(date)});
+        }
+        return rows;
+    }
+
+    private static ResultSet resultSet(String[] columns, List<Object[]> rows) {
+        Map<String, Integer> index = new HashMap<>();
+        for (int i = 0; i < columns.length; i++) {
+            index.put(columns[i], i);
+        }
+        int[] cursor = {-1};
+        boolean[] lastNull = {false};
+        return proxy(ResultSet.class, (p, method, args) -> {
+            switch (method.getName()) {
+                case "next":
+                    return ++cursor[0] < rows.size();
+                case "close":
+                    return null;
+                case "wasNull":
+                    return lastNull[0];
+                case "getInt", "getString", "getDate", "getDouble":
+                    Object value = rows.get(cursor[0])[args[0] instanceof String name ? index.get(name) : (Integer) args[0] - 1];
+                    lastNull[0] = value == null;
+                    return convert(method.getName(), value);
+                default:
+                    throw new UnsupportedOperationException(method.getName());
+            }
+        });
+    }
+
+    private static Object convert(String getter, Object value) {
+        return switch (getter) {
+            case "getInt" -> value == null ? 0 : ((Number) value).intValue();
+            case "getDouble" -> value == null ? 0.0 : ((Number) value).doubleValue();
+            case "getString" -> value == null ? null : value.toString();
+            default -> value;
+        };
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, InvocationHandler handler) {
+        return (T) Proxy.newProxyInstance(StubDatabase.class.getClassLoader(), new Class<?>[] {type}, handler);
+    }
+}
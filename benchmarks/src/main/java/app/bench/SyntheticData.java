@@ -0,0 +1,130 @@
+package app.bench;
+
+import app.model.AnalysisSnapshot;
+import app.model.Habit;
+import app.model.Mood;
+import app.model.WeekSnapshot;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Data sintetis yang bisa diulang (seed tetap): N habit, Y tahun habit log & mood sampai hari ini.
+// Setiap habit punya peluang dilakukan sendiri; ~85% hari punya mood, sedikit naik di hari habit pertama dilakukan.
+public final class SyntheticData {
+
+    public static final long SEED = 20240101L;
+
+    private final LocalDate start;
+    private final int days;
+    private final List<Habit> habits = new ArrayList<>();
+    private final BitSet[] done;   // per habit, bit ke-i = start + i
+    private final int[] moods;     // 0 = tidak ada mood
+
+    private SyntheticData(int habitCount, int years, long seed) {
+        Random random = new Random(seed);
+        LocalDate end = LocalDate.now();
+        this.start = end.minusYears(years).plusDays(1);
+        this.days = (int) (end.toEpochDay() - start.toEpochDay()) + 1;
+
+        done = new BitSet[habitCount];
+        for (int h = 0; h < habitCount; h++) {
+            habits.add(new Habit(h + 1, "Habit " + (h + 1)));
+            double probability = 0.1 + 0.8 * random.nextDouble();
+            done[h] = new BitSet(days);
+            for (int d = 0; d < days; d++) {
+                if (random.nextDouble() < probability) done[h].set(d);
+            }
+        }
+
+        moods = new int[days];
+        for (int d = 0; d < days; d++) {
+            if (random.nextDouble() < 0.85) {
+                int bonus = habitCount > 0 && done[0].get(d) ? 1 : 0;
+                moods[d] = Math.min(5, 1 + random.nextInt(5) + bonus);
+            }
+        }
+    }
+
+    public static SyntheticData generate(int habitCount, int years) {
+        return new SyntheticData(habitCount, years, SEED);
+    }
+
+    public LocalDate getStart() { return start; }
+
+    public LocalDate getEnd() { return start.plusDays(days - 1L); }
+
+    public int getDays() { return days; }
+
+    public List<Habit> getHabits() { return habits; }
+
+    public int getHabitCount() { return habits.size(); }
+
+    public boolean isDone(int habitIndex, LocalDate date) {
+        int d = indexOf(date);
+        return d >= 0 && d < days && done[habitIndex].get(d);
+    }
+
+    // 0 jika tidak ada mood atau di luar rentang data
+    public int getMoodValue(LocalDate date) {
+        int d = indexOf(date);
+        return d >= 0 && d < days ? moods[d] : 0;
+    }
+
+    private int indexOf(LocalDate date) {
+        return (int) (date.toEpochDay() - start.toEpochDay());
+    }
+
+    // --- Bentuk yang dikembalikan repository asli ---
+
+    public WeekSnapshot weekSnapshot(LocalDate weekStart) {
+        BitSet[] completions = new BitSet[habits.size()];
+        int[] moodValues = new int[WeekSnapshot.DAYS];
+        for (int day = 0; day < WeekSnapshot.DAYS; day++) {
+            moodValues[day] = getMoodValue(weekStart.plusDays(day));
+        }
+        for (int h = 0; h < habits.size(); h++) {
+            completions[h] = new BitSet(WeekSnapshot.DAYS);
+            for (int day = 0; day < WeekSnapshot.DAYS; day++) {
+                if (isDone(h, weekStart.plusDays(day))) completions[h].set(day);
+            }
+        }
+        return new WeekSnapshot(weekStart, habits, completions, moodValues);
+    }
+
+    public AnalysisSnapshot analysisSnapshot(LocalDate from, LocalDate to) {
+        int length = (int) (to.toEpochDay() - from.toEpochDay()) + 1;
+        int[] ids = new int[habits.size()];
+        String[] names = new String[habits.size()];
+        BitSet[] doneDays = new BitSet[habits.size()];
+        int offset = indexOf(from);
+        for (int h = 0; h < habits.size(); h++) {
+            ids[h] = habits.get(h).getId();
+            names[h] = habits.get(h).getName();
+            doneDays[h] = new BitSet(length);
+            for (int i = 0; i < length; i++) {
+                int d = offset + i;
+                if (d >= 0 && d < days && done[h].get(d)) doneDays[h].set(i);
+            }
+        }
+        int[] moodByDay = new int[length];
+        for (int i = 0; i < length; i++) {
+            moodByDay[i] = getMoodValue(from.plusDays(i));
+        }
+        return new AnalysisSnapshot(from, length, ids, names, doneDays, moodByDay);
+    }
+
+    public Map<LocalDate, Mood> moodsBetween(LocalDate from, LocalDate to) {
+        Map<LocalDate, Mood> result = new LinkedHashMap<>();
+        for (LocalDate date = from; !date.isAfter(to); date = date.plusDays(1)) {
+            int value = getMoodValue(date);
+            if (value > 0) {
+                result.put(date, new Mood((int) date.toEpochDay(), value, date.toString()));
+            }
+        }
+        return result;
+    }
+}
@@ -0,0 +1,56 @@
+package app.bench;
+
+import app.facade.HabitFacade;
+import app.model.PeriodType;
+import app.model.WeekSnapshot;
+import java.time.LocalDate;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.*;
+
+// Biaya WeeklyTrackerView.loadData(): satu HabitFacade.getWeekSnapshot per minggu yang dibuka
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@State(Scope.Benchmark)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class WeekSnapshotBenchmark {
+
+    @Param({"10", "100", "1000"})
+    int habits;
+
+    @Param({"FAKE", "STUB_DB"})
+    Backend backend;
+
+    // Latency simulasi per query (hanya STUB_DB)
+    @Param({"0"})
+    long roundTripMicros;
+
+    private HabitFacade facade;
+    private LocalDate[] weeks;
+    private int next;
+
+    @Setup
+    public void setUp() {
+        SyntheticData data = SyntheticData.generate(habits, 1);
+        facade = new HabitFacade(backend.habitRepository(data, roundTripMicros), 60_000L);
+        // 52 minggu terakhir bergantian, seperti user membuka-buka riwayat
+        weeks = new LocalDate[52];
+        LocalDate current = PeriodType.WEEK.startOf(data.getEnd());
+        for (int i = 0; i < weeks.length; i++) {
+            weeks[i] = current.minusWeeks(i);
+        }
+    }
+
+    @TearDown
+    public void tearDown() {
+        facade.close();
+    }
+
+    @Benchmark
+    public WeekSnapshot loadWeek() {
+        LocalDate week = weeks[next];
+        next = (next + 1) % weeks.length;
+        return facade.getWeekSnapshot(week);
+    }
+}
@@ -2,6 +2,10 @@ package app;
 
 import javax.swing.SwingUtilities;
 import java.util.logging.Logger;
+import app.config.DatabaseConnection;
+import app.metrics.Metrics;
+import app.metrics.MetricsReporter;
+import app.offline.OfflineMode;
 import app.view.MainDashboard;
 
 public class Main {
@@ -16,6 +20,20 @@ public class Main {
         
         LOGGER.info("=== Starting MoodFlow Application ===");
 
+        // Metrics lewat JMX (JConsole: app.metrics) dan opsional dump berkala ke -Dmoodflow.metrics.file
+        Metrics.global().registerMBean();
+        MetricsReporter.fromSystemProperties(Metrics.global());
+
+        // Mode offline (-Dmoodflow.offline.dir): UI langsung jalan dari store lokal,
+        // koneksi database & migrasi dikerjakan SyncEngine di belakang
+        OfflineMode offline = OfflineMode.getInstance();
+        if (offline != null) {
+            offline.start();
+        } else {
+            // Inisialisasi pool di main thread, supaya koneksi pertama tidak dibuka dari EDT
+            DatabaseConnection.getInstance();
+        }
+
         SwingUtilities.invokeLater(() -> {
             MainDashboard dashboard = new MainDashboard();
             dashboard.setVisible(true);
@@ -0,0 +1,17 @@
+package app.activity;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+// Satu baris log aktivitas. habitId 0 / date null jika tidak relevan.
+public record ActivityEvent(long sequence, Instant timestamp, Type type, int habitId, LocalDate date, String message) {
+
+    public enum Type {
+        HABIT_ADDED,
+        HABIT_DELETED,
+        HABIT_DONE,
+        HABIT_UNDONE,
+        MOOD_SET,
+        MOOD_BATCH
+    }
+}
@@ -0,0 +1,180 @@
+package app.activity;
+
+import app.async.DbExecutor;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.AbstractList;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Log aktivitas berkapasitas tetap (ring buffer): event paling lama ditimpa saat penuh.
+// Sebagai List<String> isinya pesan dari yang paling lama ke paling baru (live view, read-only).
+// Semua akses disinkronkan pada objek ini, jadi iterasi harus di dalam synchronized (log).
+// Opsional: setiap event juga ditulis ke file (di thread terpisah) dan dimuat lagi saat start.
+public class ActivityLog extends AbstractList<String> {
+
+    private static final Logger LOGGER = Logger.getLogger(ActivityLog.class.getName());
+
+    public static final int DEFAULT_CAPACITY = 500;
+
+    // -Dmoodflow.activity.dir=<folder> untuk menyimpan log ke <folder>/<nama>.log
+    private static final String DIR_PROPERTY = "moodflow.activity.dir";
+
+    private final ActivityEvent[] ring;
+    private int head;  // index event paling lama
+    private int count;
+    private long lastSequence;
+
+    private final Path file; // null = hanya di memori
+    private ExecutorService writer;
+
+    public ActivityLog(int capacity) {
+        this(capacity, null);
+    }
+
+    public ActivityLog(int capacity, Path file) {
+        if (capacity <= 0) {
+            throw new IllegalArgumentException("capacity harus > 0");
+        }
+        this.ring = new ActivityEvent[capacity];
+        this.file = file;
+        if (file != null) {
+            load();
+        }
+    }
+
+    // Log dengan kapasitas default; dipersist jika property moodflow.activity.dir diset
+    public static ActivityLog named(String name) {
+        String dir = System.getProperty(DIR_PROPERTY);
+        Path path = (dir == null || dir.isBlank()) ? null : Paths.get(dir, name + ".log");
+        return new ActivityLog(DEFAULT_CAPACITY, path);
+    }
+
+    public ActivityEvent append(ActivityEvent.Type type, int habitId, LocalDate date, String message) {
+        ActivityEvent event;
+        synchronized (this) {
+            event = new ActivityEvent(++lastSequence, Instant.now(), type, habitId, date, message);
+            store(event);
+        }
+        if (file != null) {
+            persist(event);
+        }
+        return event;
+    }
+
+    // --- List<String> (read-only view) ---
+
+    @Override
+    public synchronized String get(int index) {
+        return getEvent(index).message();
+    }
+
+    @Override
+    public synchronized int size() {
+        return count;
+    }
+
+    public synchronized ActivityEvent getEvent(int index) {
+        if (index < 0 || index >= count) {
+            throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + count);
+        }
+        return ring[(head + index) % ring.length];
+    }
+
+    public int getCapacity() {
+        return ring.length;
+    }
+
+    // Nomor urut event terakhir (0 = belum ada event)
+    public synchronized long getLastSequence() {
+        return lastSequence;
+    }
+
+    // Event dengan sequence > afterSequence yang masih ada di buffer, dari yang paling lama.
+    // Jika sebagian sudah tertimpa, event pertama yang dikembalikan bukan afterSequence + 1.
+    public synchronized List<ActivityEvent> eventsSince(long afterSequence) {
+        long firstSequence = lastSequence - count + 1;
+        int skip = (int) Math.max(0, Math.min(count, afterSequence - firstSequence + 1));
+        List<ActivityEvent> events = new ArrayList<>(count - skip);
+        for (int i = skip; i < count; i++) {
+            events.add(ring[(head + i) % ring.length]);
+        }
+        return events;
+    }
+
+    // Harus dipanggil sambil memegang lock objek ini
+    private void store(ActivityEvent event) {
+        if (count < ring.length) {
+            ring[(head + count) % ring.length] = event;
+            count++;
+        } else {
+            ring[head] = event;
+            head = (head + 1) % ring.length;
+        }
+    }
+
+    // --- PERSISTENSI (satu event per baris, dipisah tab) ---
+
+    private synchronized void persist(ActivityEvent event) {
+        if (writer == null) {
+            writer = Executors.newSingleThreadExecutor(DbExecutor.daemonThreadFactory("moodflow-activity-log"));
+        }
+        String line = event.timestamp() + "\t" + event.type() + "\t" + event.habitId() + "\t"
+                + (event.date() == null ? "" : event.date()) + "\t"
+                + event.message().replace('\t', ' ').replace('\n', ' ');
+        writer.execute(() -> {
+            try {
+                Files.createDirectories(file.toAbsolutePath().getParent());
+                try (BufferedWriter out = Files.newBufferedWriter(file, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND)) {
+                    out.write(line);
+                    out.newLine();
+                }
+            } catch (IOException e) {
+                LOGGER.log(Level.WARNING, "Gagal menulis activity log ke " + file, e);
+            }
+        });
+    }
+
+    // Muat kembali event terakhir (sebanyak kapasitas) dari file
+    private void load() {
+        if (!Files.exists(file)) return;
+        Deque<String> tail = new ArrayDeque<>(ring.length);
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String line;
+            while ((line = in.readLine()) != null) {
+                if (tail.size() == ring.length) tail.removeFirst();
+                tail.addLast(line);
+            }
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Gagal membaca activity log dari " + file, e);
+            return;
+        }
+        for (String line : tail) {
+            String[] parts = line.split("\t", 5);
+            if (parts.length < 5) continue;
+            try {
+                LocalDate date = parts[3].isEmpty() ? null : LocalDate.parse(parts[3]);
+                store(new ActivityEvent(++lastSequence, Instant.parse(parts[0]),
+                        ActivityEvent.Type.valueOf(parts[1]), Integer.parseInt(parts[2]), date, parts[4]));
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.FINE, "Baris activity log dilewati: {0}", line);
+            }
+        }
+    }
+}
@@ -0,0 +1,98 @@
+package app.async;
+
+import app.debug.QueryAction;
+import app.debug.QueryInspector;
+import app.metrics.Metrics;
+
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Loader async untuk view. Semua method dipanggil dari EDT.
+// - request dengan key yang sama saat masih loading -> digabung jadi satu reload setelahnya
+// - request dengan key berbeda (mis. minggu lain) -> load lama dibatalkan, hasilnya dibuang
+// Dengan nama: latensi request -> hasil tampil dicatat di Metrics sebagai "<nama>.load",
+// plus counter "<nama>.coalesced", "<nama>.cancelled" dan "<nama>.errors".
+public class CoalescingLoader<K, T> {
+
+    private static final Logger LOGGER = Logger.getLogger(CoalescingLoader.class.getName());
+
+    private final Function<K, T> loader;
+    private final Consumer<T> onResult;
+    private final String metricName; // null = tanpa metrics
+
+    private CompletableFuture<T> inFlight;
+    private K inFlightKey;
+    private boolean reloadPending = false;
+    private long generation = 0;
+
+    public CoalescingLoader(Function<K, T> loader, Consumer<T> onResult) {
+        this(null, loader, onResult);
+    }
+
+    public CoalescingLoader(String metricName, Function<K, T> loader, Consumer<T> onResult) {
+        this.metricName = metricName;
+        this.loader = loader;
+        this.onResult = onResult;
+    }
+
+    public void request(K key) {
+        if (inFlight != null && !inFlight.isDone()) {
+            if (Objects.equals(key, inFlightKey)) {
+                reloadPending = true;
+                count("coalesced");
+                return;
+            }
+            inFlight.cancel(true);
+            count("cancelled");
+        }
+        start(key);
+    }
+
+    public boolean isLoading() {
+        return inFlight != null && !inFlight.isDone();
+    }
+
+    private void start(K key) {
+        long gen = ++generation;
+        inFlightKey = key;
+        reloadPending = false;
+        long startNanos = System.nanoTime();
+        // Mode debug: semua query load ini dilaporkan sebagai satu aksi
+        QueryAction action = QueryInspector.beginAction(metricName != null ? metricName : "CoalescingLoader");
+        try {
+            inFlight = DbExecutor.read(() -> loader.apply(key));
+        } finally {
+            if (action != null) {
+                action.close();
+            }
+        }
+        inFlight.whenCompleteAsync((result, error) -> {
+            if (gen != generation) return; // hasil basi, sudah ada request yang lebih baru
+
+            if (error != null) {
+                count("errors");
+                LOGGER.log(Level.WARNING, "Async load gagal untuk " + key, error);
+            } else {
+                onResult.accept(result);
+                if (metricName != null) {
+                    Metrics.global().latency(metricName + ".load").record(System.nanoTime() - startNanos);
+                }
+            }
+            if (reloadPending) {
+                start(key);
+            } else {
+                inFlight = null;
+            }
+        }, DbExecutor.EDT);
+    }
+
+    private void count(String suffix) {
+        if (metricName != null) {
+            Metrics.increment(metricName + "." + suffix);
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package app.async;
+
+import app.debug.QueryInspector;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.SwingUtilities;
+
+// Executor khusus untuk semua pekerjaan database, supaya EDT tidak pernah menunggu JDBC.
+// Read berjalan paralel; write dijalankan serial agar urutan klik user tetap terjaga.
+public final class DbExecutor {
+
+    private static final Logger LOGGER = Logger.getLogger(DbExecutor.class.getName());
+
+    private static final int READ_THREADS = 4;
+
+    private static final ExecutorService READ_POOL =
+            Executors.newFixedThreadPool(READ_THREADS, daemonThreadFactory("moodflow-db-read"));
+    private static final ExecutorService WRITE_POOL =
+            Executors.newSingleThreadExecutor(daemonThreadFactory("moodflow-db-write"));
+
+    // Menjalankan lanjutan future di EDT
+    public static final Executor EDT = SwingUtilities::invokeLater;
+
+    // Read pool sebagai Executor biasa (mis. untuk prefetch yang menangani error-nya sendiri)
+    public static final Executor READ = READ_POOL::execute;
+
+    private DbExecutor() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    public static <T> CompletableFuture<T> read(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(logged(task), READ_POOL);
+    }
+
+    public static <T> CompletableFuture<T> write(Supplier<T> task) {
+        return CompletableFuture.supplyAsync(logged(task), WRITE_POOL);
+    }
+
+    public static CompletableFuture<Void> write(Runnable task) {
+        return write(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    // Error di background tidak boleh hilang diam-diam (banyak caller yang fire-and-forget).
+    // Aksi QueryInspector yang sedang terbuka (mode debug) ikut dibawa ke thread DB.
+    private static <T> Supplier<T> logged(Supplier<T> task) {
+        Supplier<T> inspected = QueryInspector.propagate(task);
+        return () -> {
+            try {
+                return inspected.get();
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.SEVERE, "Background database task gagal", e);
+                throw e;
+            }
+        };
+    }
+
+    // Thread daemon bernama, supaya tidak menahan JVM saat aplikasi ditutup
+    public static ThreadFactory daemonThreadFactory(String prefix) {
+        AtomicInteger counter = new AtomicInteger(1);
+        return r -> {
+            Thread t = new Thread(r, prefix + "-" + counter.getAndIncrement());
+            t.setDaemon(true);
+            return t;
+        };
+    }
+}
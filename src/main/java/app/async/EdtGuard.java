@@ -0,0 +1,36 @@
+package app.async;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.swing.SwingUtilities;
+
+// Debug checker: aktifkan dengan -Dmoodflow.debug.edt=true untuk menolak akses JDBC dari EDT.
+public final class EdtGuard {
+
+    private static final Logger LOGGER = Logger.getLogger(EdtGuard.class.getName());
+
+    private static final boolean ENABLED = Boolean.getBoolean("moodflow.debug.edt");
+    private static final AtomicLong VIOLATIONS = new AtomicLong();
+
+    private EdtGuard() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    public static boolean isEnabled() {
+        return ENABLED;
+    }
+
+    public static long getViolationCount() {
+        return VIOLATIONS.get();
+    }
+
+    public static void checkNotOnEdt(String operation) {
+        if (ENABLED && SwingUtilities.isEventDispatchThread()) {
+            VIOLATIONS.incrementAndGet();
+            IllegalStateException e = new IllegalStateException("JDBC dipanggil dari EDT: " + operation);
+            LOGGER.log(Level.SEVERE, e.getMessage(), e);
+            throw e;
+        }
+    }
+}
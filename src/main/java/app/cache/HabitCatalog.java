@@ -0,0 +1,113 @@
+package app.cache;
+
+import app.model.Habit;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+// Katalog habit di memori: snapshot immutable yang diganti utuh setiap perubahan (copy-on-write).
+// Pembaca (UI maupun thread analisis) cukup membaca field volatile tanpa lock;
+// penulis disinkronkan satu sama lain. Lookup by id pakai hash table int (tanpa boxing).
+public class HabitCatalog {
+
+    private static final Snapshot EMPTY = new Snapshot(0, false, List.of());
+
+    private volatile Snapshot current = EMPTY;
+
+    public static final class Snapshot {
+        private final long version;
+        private final boolean complete; // true = berisi semua habit di DB
+        private final List<Habit> habits;
+        private final int[] keys;       // open addressing, 0 = slot kosong (id DB mulai dari 1, id lokal offline negatif)
+        private final Habit[] values;
+        private final int mask;
+
+        private Snapshot(long version, boolean complete, List<Habit> habits) {
+            this.version = version;
+            this.complete = complete;
+            this.habits = Collections.unmodifiableList(new ArrayList<>(habits));
+
+            int capacity = Integer.highestOneBit(Math.max(4, habits.size() * 2 - 1)) << 1;
+            this.keys = new int[capacity];
+            this.values = new Habit[capacity];
+            this.mask = capacity - 1;
+            for (Habit h : habits) {
+                int slot = slotOf(h.getId());
+                keys[slot] = h.getId();
+                values[slot] = h;
+            }
+        }
+
+        private int slotOf(int id) {
+            int slot = mix(id) & mask;
+            while (keys[slot] != 0 && keys[slot] != id) {
+                slot = (slot + 1) & mask;
+            }
+            return slot;
+        }
+
+        private static int mix(int id) {
+            int h = id * 0x9E3779B9;
+            return h ^ (h >>> 16);
+        }
+
+        public long getVersion() { return version; }
+
+        public boolean isComplete() { return complete; }
+
+        public List<Habit> getHabits() { return habits; }
+
+        public int size() { return habits.size(); }
+
+        public Habit get(int id) {
+            if (id == 0) return null;
+            return values[slotOf(id)];
+        }
+    }
+
+    public Snapshot snapshot() {
+        return current;
+    }
+
+    // Isi katalog dengan daftar lengkap dari DB. Diabaikan jika katalog berubah sejak
+    // pembacaan dimulai (expectedVersion), supaya hasil query lama tidak menimpa perubahan baru.
+    public synchronized boolean replaceAll(List<Habit> habits, long expectedVersion) {
+        if (current.version != expectedVersion) return false;
+        current = new Snapshot(expectedVersion + 1, true, habits);
+        return true;
+    }
+
+    // Tambah/ganti satu habit (mis. habit baru, atau hasil getHabitById)
+    public synchronized void put(Habit habit) {
+        if (habit.getId() == 0) return; // id belum diketahui
+        Snapshot old = current;
+        List<Habit> habits = new ArrayList<>(old.habits);
+        boolean replaced = false;
+        for (int i = 0; i < habits.size(); i++) {
+            if (habits.get(i).getId() == habit.getId()) {
+                habits.set(i, habit);
+                replaced = true;
+                break;
+            }
+        }
+        if (!replaced) {
+            habits.add(habit);
+        }
+        current = new Snapshot(old.version + 1, old.complete, habits);
+    }
+
+    public synchronized void remove(int id) {
+        Snapshot old = current;
+        if (old.get(id) == null) return;
+        List<Habit> habits = new ArrayList<>(old.habits);
+        habits.removeIf(h -> h.getId() == id);
+        current = new Snapshot(old.version + 1, old.complete, habits);
+    }
+
+    // Isi tidak lagi dianggap lengkap; getHabits berikutnya akan membaca ulang dari DB
+    public synchronized void invalidate() {
+        Snapshot old = current;
+        current = new Snapshot(old.version + 1, false, old.habits);
+    }
+}
@@ -0,0 +1,114 @@
+package app.cache;
+
+import app.metrics.Metrics;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+// Cache berukuran tetap: entri yang paling lama tidak diakses dibuang duluan.
+// Entri boleh diberi masa berlaku sendiri (mis. untuk negative cache).
+// Thread-safe (semua akses lewat lock objek ini), plus statistik hit/miss/eviction untuk sizing.
+public class LruCache<K, V> {
+
+    private static final long NO_EXPIRY = Long.MAX_VALUE;
+
+    private record Entry<V>(V value, long expiresAtNanos) {}
+
+    private final int maxSize;
+    private final LinkedHashMap<K, Entry<V>> map;
+
+    private long hits;
+    private long misses;
+    private long evictions;
+
+    public LruCache(int maxSize) {
+        if (maxSize <= 0) {
+            throw new IllegalArgumentException("maxSize harus > 0");
+        }
+        this.maxSize = maxSize;
+        // accessOrder = true -> urutan iterasi dari yang paling lama tidak dipakai
+        this.map = new LinkedHashMap<>(16, 0.75f, true) {
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<K, Entry<V>> eldest) {
+                if (size() > LruCache.this.maxSize) {
+                    evictions++;
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    // null = tidak ada di cache atau sudah kedaluwarsa (miss)
+    public synchronized V get(K key) {
+        Entry<V> entry = map.get(key);
+        if (entry != null && entry.expiresAtNanos() != NO_EXPIRY && System.nanoTime() - entry.expiresAtNanos() >= 0) {
+            map.remove(key);
+            entry = null;
+        }
+        if (entry != null) {
+            hits++;
+            return entry.value();
+        }
+        misses++;
+        return null;
+    }
+
+    public synchronized void put(K key, V value) {
+        map.put(key, new Entry<>(value, NO_EXPIRY));
+    }
+
+    public synchronized void put(K key, V value, long ttlMillis) {
+        map.put(key, new Entry<>(value, System.nanoTime() + ttlMillis * 1_000_000L));
+    }
+
+    public synchronized void putAll(Map<? extends K, ? extends V> values) {
+        for (Map.Entry<? extends K, ? extends V> entry : values.entrySet()) {
+            put(entry.getKey(), entry.getValue());
+        }
+    }
+
+    public synchronized void remove(K key) {
+        map.remove(key);
+    }
+
+    public synchronized void clear() {
+        map.clear();
+    }
+
+    public synchronized boolean containsKey(K key) {
+        return map.containsKey(key);
+    }
+
+    public synchronized int size() {
+        return map.size();
+    }
+
+    public int getMaxSize() { return maxSize; }
+
+    // Statistik cache ini tampil di Metrics sebagai gauge "<nama>.hits/.misses/.evictions/.size"
+    public void registerMetrics(String name) {
+        Metrics metrics = Metrics.global();
+        metrics.gauge(name + ".hits", this::getHitCount);
+        metrics.gauge(name + ".misses", this::getMissCount);
+        metrics.gauge(name + ".evictions", this::getEvictionCount);
+        metrics.gauge(name + ".size", this::size);
+    }
+
+    public synchronized long getHitCount() { return hits; }
+
+    public synchronized long getMissCount() { return misses; }
+
+    public synchronized long getEvictionCount() { return evictions; }
+
+    public synchronized double getHitRate() {
+        long total = hits + misses;
+        return total == 0 ? 0.0 : (double) hits / total;
+    }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("LruCache{size=%d/%d, hits=%d, misses=%d, evictions=%d, hitRate=%.2f}",
+                map.size(), maxSize, hits, misses, evictions, getHitRate());
+    }
+}
@@ -0,0 +1,187 @@
+package app.cache;
+
+import app.metrics.Metrics;
+import app.model.PeriodType;
+import java.time.LocalDate;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import java.util.function.UnaryOperator;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Cache per periode (minggu/bulan) untuk navigasi riwayat di view.
+// - get(start): dipanggil dari thread background; memakai hasil/load yang sudah ada, atau memuat sendiri
+// - peek(start): aman dari EDT, hanya mengembalikan hasil yang sudah selesai (null jika belum)
+// - prefetchAround(center): memuat periode sebelum & sesudah di background,
+//   dan membuang periode yang lebih jauh dari radius
+// Load yang sedang berjalan ikut disimpan (sebagai future), jadi satu periode tidak pernah dimuat dua kali.
+public class PeriodCache<T> {
+
+    private static final Logger LOGGER = Logger.getLogger(PeriodCache.class.getName());
+
+    public static final int DEFAULT_RADIUS = 2;
+
+    private final PeriodType type;
+    private final Function<LocalDate, T> loader;
+    private final Executor executor;
+    private final int radius;
+    private final TreeMap<LocalDate, CompletableFuture<T>> entries = new TreeMap<>();
+
+    private long hits;
+    private long misses;
+    private long prefetches;
+    private long evictions;
+
+    public PeriodCache(PeriodType type, Function<LocalDate, T> loader, Executor executor) {
+        this(type, loader, executor, DEFAULT_RADIUS);
+    }
+
+    public PeriodCache(PeriodType type, Function<LocalDate, T> loader, Executor executor, int radius) {
+        if (radius < 1) {
+            throw new IllegalArgumentException("radius harus >= 1");
+        }
+        this.type = type;
+        this.loader = loader;
+        this.executor = executor;
+        this.radius = radius;
+    }
+
+    public PeriodType getType() { return type; }
+
+    public T get(LocalDate start) {
+        LocalDate key = type.startOf(start);
+        CompletableFuture<T> future;
+        boolean owner = false;
+        synchronized (this) {
+            future = entries.get(key);
+            if (future == null) {
+                future = new CompletableFuture<>();
+                entries.put(key, future);
+                owner = true;
+                misses++;
+            } else {
+                hits++;
+            }
+        }
+        if (owner) {
+            load(key, future);
+        }
+        return future.join();
+    }
+
+    public synchronized T peek(LocalDate start) {
+        CompletableFuture<T> future = entries.get(type.startOf(start));
+        if (future == null || !future.isDone() || future.isCompletedExceptionally()) {
+            return null;
+        }
+        return future.join();
+    }
+
+    public void prefetchAround(LocalDate center) {
+        LocalDate key = type.startOf(center);
+        evictOutside(key);
+        for (int i = 1; i <= radius; i++) {
+            prefetch(type.shift(key, -i));
+            prefetch(type.shift(key, i));
+        }
+    }
+
+    private void prefetch(LocalDate key) {
+        CompletableFuture<T> future;
+        synchronized (this) {
+            if (entries.containsKey(key)) return;
+            future = new CompletableFuture<>();
+            entries.put(key, future);
+            prefetches++;
+        }
+        CompletableFuture<T> target = future;
+        try {
+            executor.execute(() -> load(key, target));
+        } catch (RuntimeException e) {
+            // Executor menolak (mis. sedang shutdown): periode ini dimuat saat benar-benar dibuka
+            discard(key, target, e);
+        }
+    }
+
+    private void load(LocalDate key, CompletableFuture<T> future) {
+        try {
+            future.complete(loader.apply(key));
+        } catch (RuntimeException e) {
+            discard(key, future, e);
+        }
+    }
+
+    // Load gagal tidak di-cache; request berikutnya mencoba lagi
+    private void discard(LocalDate key, CompletableFuture<T> future, RuntimeException error) {
+        synchronized (this) {
+            entries.remove(key, future);
+        }
+        LOGGER.log(Level.WARNING, "Load periode " + key + " gagal", error);
+        future.completeExceptionally(error);
+    }
+
+    private synchronized void evictOutside(LocalDate center) {
+        LocalDate low = type.shift(center, -radius);
+        LocalDate high = type.shift(center, radius);
+        Map<LocalDate, CompletableFuture<T>> before = entries.headMap(low, false);
+        Map<LocalDate, CompletableFuture<T>> after = entries.tailMap(high, false);
+        evictions += before.size() + after.size();
+        before.clear();
+        after.clear();
+    }
+
+    // Perubahan kecil (satu sel) ditambal langsung ke hasil yang sudah ada, jadi periode itu tetap instan.
+    // Load yang masih berjalan mungkin belum melihat perubahan ini -> dibuang saja.
+    public synchronized void update(LocalDate date, UnaryOperator<T> change) {
+        LocalDate key = type.startOf(date);
+        CompletableFuture<T> future = entries.get(key);
+        if (future == null) return;
+        if (future.isDone() && !future.isCompletedExceptionally()) {
+            entries.put(key, CompletableFuture.completedFuture(change.apply(future.join())));
+        } else {
+            entries.remove(key);
+        }
+    }
+
+    // Data di tanggal ini berubah -> periode yang memuatnya dimuat ulang saat dibutuhkan
+    public synchronized void invalidate(LocalDate date) {
+        entries.remove(type.startOf(date));
+    }
+
+    public synchronized void invalidateAll() {
+        entries.clear();
+    }
+
+    public synchronized boolean contains(LocalDate start) {
+        return entries.containsKey(type.startOf(start));
+    }
+
+    public synchronized int size() { return entries.size(); }
+
+    // Statistik cache ini tampil di Metrics sebagai gauge "<nama>.hits/.misses/.prefetches/.evictions/.size"
+    public void registerMetrics(String name) {
+        Metrics metrics = Metrics.global();
+        metrics.gauge(name + ".hits", this::getHitCount);
+        metrics.gauge(name + ".misses", this::getMissCount);
+        metrics.gauge(name + ".prefetches", this::getPrefetchCount);
+        metrics.gauge(name + ".evictions", this::getEvictionCount);
+        metrics.gauge(name + ".size", this::size);
+    }
+
+    public synchronized long getHitCount() { return hits; }
+
+    public synchronized long getMissCount() { return misses; }
+
+    public synchronized long getPrefetchCount() { return prefetches; }
+
+    public synchronized long getEvictionCount() { return evictions; }
+
+    @Override
+    public synchronized String toString() {
+        return String.format("PeriodCache[%s, size=%d, hits=%d, misses=%d, prefetches=%d, evictions=%d]",
+                type, entries.size(), hits, misses, prefetches, evictions);
+    }
+}
@@ -0,0 +1,597 @@
+package app.config;
+
+import java.io.PrintWriter;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLFeatureNotSupportedException;
+import java.sql.SQLTimeoutException;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+import app.async.DbExecutor;
+import app.async.EdtGuard;
+import app.metrics.LatencyHistogram;
+import app.metrics.Metrics;
+
+// Pool koneksi sederhana: jumlah terbatas, validasi saat dipinjam, idle eviction & max lifetime.
+// Repository meminjam koneksi per operasi dan mengembalikannya lewat close().
+// Per koneksi fisik ada cache PreparedStatement (kunci: teks SQL, LRU): prepareStatement(sql) yang sama
+// memakai ulang statement fisik yang sama, jadi driver bisa beralih ke server-side prepared plan
+// (pgjdbc: setelah prepareThreshold eksekusi) walaupun repository menutup statement setiap kali.
+public class ConnectionPool implements DataSource, AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(ConnectionPool.class.getName());
+
+    public static final long DEFAULT_VALIDATION_BYPASS_MS = 500;
+    public static final int DEFAULT_STATEMENT_CACHE_SIZE = 32;
+    private static final int VALIDATION_TIMEOUT_SECONDS = 2;
+
+    @FunctionalInterface
+    public interface ConnectionFactory {
+        Connection create() throws SQLException;
+    }
+
+    private final ConnectionFactory factory;
+    private final int maxSize;
+    private final long borrowTimeoutMillis;
+    private final long idleTimeoutMillis;
+    private final long maxLifetimeMillis;
+    private final long validationBypassMillis;
+    private final int statementCacheSize;
+
+    private final Semaphore permits;
+    private final LinkedBlockingDeque<PooledConnection> idle = new LinkedBlockingDeque<>();
+    private final ScheduledExecutorService reaper;
+    private volatile boolean closed = false;
+
+    // Metrics
+    private final AtomicLong borrowCount = new AtomicLong();
+    private final AtomicLong createdCount = new AtomicLong();
+    private final AtomicLong destroyedCount = new AtomicLong();
+    private final AtomicLong validationFailures = new AtomicLong();
+    private final AtomicLong brokenConnections = new AtomicLong();
+    private final AtomicLong borrowTimeouts = new AtomicLong();
+    private final AtomicLong totalWaitNanos = new AtomicLong();
+    private final AtomicLong maxWaitNanos = new AtomicLong();
+    private final AtomicLong statementCacheHits = new AtomicLong();
+    private final AtomicLong statementCacheMisses = new AtomicLong();
+    private final AtomicLong statementCacheEvictions = new AtomicLong();
+    private volatile LatencyHistogram waitHistogram; // diisi registerMetrics
+
+    public ConnectionPool(ConnectionFactory factory, int maxSize, long borrowTimeoutMillis,
+                          long idleTimeoutMillis, long maxLifetimeMillis) {
+        this(factory, maxSize, borrowTimeoutMillis, idleTimeoutMillis, maxLifetimeMillis, DEFAULT_VALIDATION_BYPASS_MS);
+    }
+
+    // validationBypassMillis: koneksi yang baru dipakai dalam rentang ini tidak divalidasi ulang
+    public ConnectionPool(ConnectionFactory factory, int maxSize, long borrowTimeoutMillis,
+                          long idleTimeoutMillis, long maxLifetimeMillis, long validationBypassMillis) {
+        this(factory, maxSize, borrowTimeoutMillis, idleTimeoutMillis, maxLifetimeMillis, validationBypassMillis,
+                DEFAULT_STATEMENT_CACHE_SIZE);
+    }
+
+    // statementCacheSize: jumlah PreparedStatement yang disimpan per koneksi (0 = tanpa cache)
+    public ConnectionPool(ConnectionFactory factory, int maxSize, long borrowTimeoutMillis,
+                          long idleTimeoutMillis, long maxLifetimeMillis, long validationBypassMillis,
+                          int statementCacheSize) {
+        if (maxSize <= 0) throw new IllegalArgumentException("maxSize harus > 0");
+        if (statementCacheSize < 0) throw new IllegalArgumentException("statementCacheSize harus >= 0");
+        this.factory = factory;
+        this.maxSize = maxSize;
+        this.borrowTimeoutMillis = borrowTimeoutMillis;
+        this.idleTimeoutMillis = idleTimeoutMillis;
+        this.maxLifetimeMillis = maxLifetimeMillis;
+        this.validationBypassMillis = validationBypassMillis;
+        this.statementCacheSize = statementCacheSize;
+        this.permits = new Semaphore(maxSize, true);
+
+        this.reaper = Executors.newSingleThreadScheduledExecutor(DbExecutor.daemonThreadFactory("moodflow-pool-reaper"));
+        long period = Math.max(1000, Math.min(idleTimeoutMillis, maxLifetimeMillis) / 2);
+        reaper.scheduleWithFixedDelay(this::evictIdle, period, period, TimeUnit.MILLISECONDS);
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        if (closed) throw new SQLException("Connection pool sudah ditutup");
+        EdtGuard.checkNotOnEdt("ConnectionPool.getConnection");
+
+        long start = System.nanoTime();
+        try {
+            if (!permits.tryAcquire(borrowTimeoutMillis, TimeUnit.MILLISECONDS)) {
+                borrowTimeouts.incrementAndGet();
+                throw new SQLTimeoutException("Timeout menunggu koneksi dari pool (" + borrowTimeoutMillis + " ms)");
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new SQLException("Interrupted saat menunggu koneksi", e);
+        }
+        recordWait(System.nanoTime() - start);
+
+        try {
+            PooledConnection pc;
+            while ((pc = idle.pollFirst()) != null) {
+                if (isExpired(pc, System.currentTimeMillis()) || !validate(pc)) {
+                    destroy(pc);
+                    continue;
+                }
+                break;
+            }
+            if (pc == null) {
+                pc = new PooledConnection(factory.create());
+                createdCount.incrementAndGet();
+            }
+            borrowCount.incrementAndGet();
+            return pc.lease();
+        } catch (SQLException | RuntimeException e) {
+            permits.release();
+            throw e;
+        }
+    }
+
+    private void recordWait(long nanos) {
+        totalWaitNanos.addAndGet(nanos);
+        maxWaitNanos.accumulateAndGet(nanos, Math::max);
+        LatencyHistogram histogram = waitHistogram;
+        if (histogram != null) {
+            histogram.record(nanos);
+        }
+    }
+
+    private boolean isExpired(PooledConnection pc, long now) {
+        return now - pc.createdAt >= maxLifetimeMillis;
+    }
+
+    private boolean validate(PooledConnection pc) {
+        if (System.currentTimeMillis() - pc.lastUsedAt < validationBypassMillis) {
+            return true;
+        }
+        try {
+            if (pc.physical.isValid(VALIDATION_TIMEOUT_SECONDS)) return true;
+        } catch (SQLException e) {
+            LOGGER.log(Level.FINE, "Validasi koneksi gagal", e);
+        }
+        validationFailures.incrementAndGet();
+        return false;
+    }
+
+    private void release(PooledConnection pc) {
+        try {
+            if (closed || pc.broken || isExpired(pc, System.currentTimeMillis())) {
+                destroy(pc);
+                return;
+            }
+            try {
+                reclaimStatements(pc);
+                // Driver menandai koneksi closed setelah IO error fatal
+                if (pc.physical.isClosed()) {
+                    pc.broken = true;
+                    brokenConnections.incrementAndGet();
+                    destroy(pc);
+                    return;
+                }
+                if (!pc.physical.getAutoCommit()) {
+                    pc.physical.rollback();
+                    pc.physical.setAutoCommit(true);
+                }
+            } catch (SQLException e) {
+                LOGGER.log(Level.FINE, "Reset koneksi gagal, dibuang dari pool", e);
+                destroy(pc);
+                return;
+            }
+            pc.lastUsedAt = System.currentTimeMillis();
+            idle.offerFirst(pc);
+        } finally {
+            permits.release();
+        }
+    }
+
+    private void destroy(PooledConnection pc) {
+        destroyedCount.incrementAndGet();
+        pc.statements.clear(); // ikut tertutup bersama koneksi fisik
+        try {
+            pc.physical.close();
+        } catch (SQLException e) {
+            LOGGER.log(Level.FINE, "Gagal menutup koneksi", e);
+        }
+    }
+
+    // --- STATEMENT CACHE (hanya diakses oleh pemegang lease, jadi tanpa lock) ---
+
+    private PreparedStatement prepareCached(PooledConnection pc, Connection lease, String sql) throws SQLException {
+        CachedStatement cached = pc.statements.get(sql);
+        if (cached != null && cached.lease != null) {
+            // SQL yang sama sedang terbuka di lease ini (mis. query bersarang): statement biasa tanpa cache
+            return pc.physical.prepareStatement(sql);
+        }
+        if (cached == null) {
+            statementCacheMisses.incrementAndGet();
+            cached = new CachedStatement(sql, pc.physical.prepareStatement(sql));
+            pc.statements.put(sql, cached);
+            evictStatements(pc);
+        } else {
+            statementCacheHits.incrementAndGet();
+        }
+        return cached.open(pc, lease);
+    }
+
+    // Statement paling lama tidak dipakai ditutup; yang sedang terbuka dilewati
+    private void evictStatements(PooledConnection pc) {
+        Iterator<CachedStatement> it = pc.statements.values().iterator();
+        while (pc.statements.size() > statementCacheSize && it.hasNext()) {
+            CachedStatement cached = it.next();
+            if (cached.lease == null) {
+                it.remove();
+                statementCacheEvictions.incrementAndGet();
+                closeQuietly(cached.physical);
+            }
+        }
+    }
+
+    // Dipanggil saat statement di-close: setting dipulihkan lalu siap dipakai lagi,
+    // atau dibuang jika ada setting yang tidak bisa dipulihkan
+    private void returnStatement(PooledConnection pc, CachedStatement cached) {
+        cached.lease = null;
+        if (cached.openResult != null) {
+            closeQuietly(cached.openResult);
+            cached.openResult = null;
+        }
+        if (cached.reusable && pc.statements.get(cached.sql) == cached) {
+            try {
+                cached.physical.clearParameters();
+                cached.physical.clearBatch();
+                cached.restoreSettings();
+                return;
+            } catch (SQLException e) {
+                LOGGER.log(Level.FINE, "Reset statement gagal, dibuang dari cache", e);
+            }
+        }
+        pc.statements.remove(cached.sql, cached);
+        closeQuietly(cached.physical);
+    }
+
+    // Statement yang lupa di-close repository dikembalikan ke cache saat koneksinya dikembalikan
+    private void reclaimStatements(PooledConnection pc) {
+        for (CachedStatement cached : pc.statements.values().toArray(new CachedStatement[0])) {
+            if (cached.lease != null) {
+                cached.lease.closed = true;
+                returnStatement(pc, cached);
+            }
+        }
+    }
+
+    private static void closeQuietly(AutoCloseable resource) {
+        try {
+            resource.close();
+        } catch (Exception e) {
+            LOGGER.log(Level.FINE, "Gagal menutup resource JDBC", e);
+        }
+    }
+
+    // Dipanggil berkala oleh reaper; public agar bisa dipicu manual (mis. dari test)
+    public void evictIdle() {
+        long now = System.currentTimeMillis();
+        Iterator<PooledConnection> it = idle.iterator();
+        while (it.hasNext()) {
+            PooledConnection pc = it.next();
+            boolean idleTooLong = now - pc.lastUsedAt >= idleTimeoutMillis;
+            if ((idleTooLong || isExpired(pc, now)) && idle.remove(pc)) {
+                destroy(pc);
+            }
+        }
+    }
+
+    @Override
+    public void close() {
+        closed = true;
+        reaper.shutdownNow();
+        PooledConnection pc;
+        while ((pc = idle.pollFirst()) != null) {
+            destroy(pc);
+        }
+    }
+
+    // --- METRICS ---
+
+    public int getMaxSize() { return maxSize; }
+    public int getActiveCount() { return maxSize - permits.availablePermits(); }
+    public int getIdleCount() { return idle.size(); }
+    public long getBorrowCount() { return borrowCount.get(); }
+    public long getCreatedCount() { return createdCount.get(); }
+    public long getDestroyedCount() { return destroyedCount.get(); }
+    public long getValidationFailures() { return validationFailures.get(); }
+    public long getBrokenConnections() { return brokenConnections.get(); }
+    public long getBorrowTimeouts() { return borrowTimeouts.get(); }
+    public int getStatementCacheSize() { return statementCacheSize; }
+    public long getStatementCacheHits() { return statementCacheHits.get(); }
+    public long getStatementCacheMisses() { return statementCacheMisses.get(); }
+    public long getStatementCacheEvictions() { return statementCacheEvictions.get(); }
+
+    public double getAverageBorrowWaitMillis() {
+        long n = borrowCount.get();
+        return n == 0 ? 0.0 : totalWaitNanos.get() / 1_000_000.0 / n;
+    }
+
+    public double getMaxBorrowWaitMillis() {
+        return maxWaitNanos.get() / 1_000_000.0;
+    }
+
+    // Statistik pool sebagai gauge "<nama>.*", waktu tunggu pinjam sebagai histogram "<nama>.borrowWait"
+    public void registerMetrics(String name) {
+        Metrics metrics = Metrics.global();
+        metrics.gauge(name + ".active", this::getActiveCount);
+        metrics.gauge(name + ".idle", this::getIdleCount);
+        metrics.gauge(name + ".borrowed", this::getBorrowCount);
+        metrics.gauge(name + ".created", this::getCreatedCount);
+        metrics.gauge(name + ".destroyed", this::getDestroyedCount);
+        metrics.gauge(name + ".validationFailures", this::getValidationFailures);
+        metrics.gauge(name + ".broken", this::getBrokenConnections);
+        metrics.gauge(name + ".borrowTimeouts", this::getBorrowTimeouts);
+        metrics.gauge(name + ".statementCache.hits", this::getStatementCacheHits);
+        metrics.gauge(name + ".statementCache.misses", this::getStatementCacheMisses);
+        metrics.gauge(name + ".statementCache.evictions", this::getStatementCacheEvictions);
+        waitHistogram = metrics.latency(name + ".borrowWait");
+    }
+
+    @Override
+    public String toString() {
+        return String.format("ConnectionPool{active=%d, idle=%d, max=%d, borrowed=%d, created=%d, destroyed=%d, "
+                        + "validationFailures=%d, broken=%d, timeouts=%d, avgWaitMs=%.3f, maxWaitMs=%.3f}",
+                getActiveCount(), getIdleCount(), maxSize, getBorrowCount(), getCreatedCount(), getDestroyedCount(),
+                getValidationFailures(), getBrokenConnections(), getBorrowTimeouts(),
+                getAverageBorrowWaitMillis(), getMaxBorrowWaitMillis());
+    }
+
+    // --- DataSource boilerplate ---
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        throw new SQLFeatureNotSupportedException("Gunakan getConnection() tanpa kredensial");
+    }
+
+    @Override
+    public PrintWriter getLogWriter() { return null; }
+
+    @Override
+    public void setLogWriter(PrintWriter out) {
+        // tidak dipakai, logging lewat java.util.logging
+    }
+
+    @Override
+    public void setLoginTimeout(int seconds) {
+        // timeout diatur lewat borrowTimeoutMillis
+    }
+
+    @Override
+    public int getLoginTimeout() { return (int) (borrowTimeoutMillis / 1000); }
+
+    @Override
+    public Logger getParentLogger() { return LOGGER; }
+
+    @Override
+    public <T> T unwrap(Class<T> iface) throws SQLException {
+        if (iface.isInstance(this)) return iface.cast(this);
+        throw new SQLException("Bukan wrapper untuk " + iface.getName());
+    }
+
+    @Override
+    public boolean isWrapperFor(Class<?> iface) { return iface.isInstance(this); }
+
+    // Koneksi fisik + metadata pool
+    private final class PooledConnection {
+        private final Connection physical;
+        private final long createdAt = System.currentTimeMillis();
+        private volatile long lastUsedAt = createdAt;
+        private volatile boolean broken = false;
+        // accessOrder = true -> iterasi dari statement yang paling lama tidak dipakai
+        private final LinkedHashMap<String, CachedStatement> statements = new LinkedHashMap<>(16, 0.75f, true);
+
+        private PooledConnection(Connection physical) {
+            this.physical = physical;
+        }
+
+        private Connection lease() {
+            return (Connection) Proxy.newProxyInstance(
+                    Connection.class.getClassLoader(),
+                    new Class<?>[] { Connection.class },
+                    new LeaseHandler(this));
+        }
+    }
+
+    // Proxy yang dipegang repository: close() mengembalikan koneksi ke pool
+    private final class LeaseHandler implements InvocationHandler {
+        private final PooledConnection pc;
+        private boolean returned = false;
+
+        private LeaseHandler(PooledConnection pc) {
+            this.pc = pc;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "close":
+                    if (!returned) {
+                        returned = true;
+                        release(pc);
+                    }
+                    return null;
+                case "isClosed":
+                    return returned || pc.physical.isClosed();
+                case "toString":
+                    return "PooledConnection[" + pc.physical + "]";
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                default:
+                    break;
+            }
+            if (returned) {
+                throw new SQLException("Koneksi sudah dikembalikan ke pool");
+            }
+            try {
+                if (statementCacheSize > 0 && method.getName().equals("prepareStatement") && args.length == 1) {
+                    return prepareCached(pc, (Connection) proxy, (String) args[0]);
+                }
+                return method.invoke(pc.physical, args);
+            } catch (InvocationTargetException e) {
+                throw markIfBroken(pc, e.getCause());
+            } catch (SQLException e) {
+                throw markIfBroken(pc, e);
+            }
+        }
+    }
+
+    // PreparedStatement fisik yang disimpan di cache koneksi; lease != null selama sedang dipakai
+    private final class CachedStatement {
+        private final String sql;
+        private final PreparedStatement physical;
+        private StatementLease lease;
+        private ResultSet openResult;
+        private boolean reusable = true;
+        // Nilai awal setting yang diubah selama lease ini, per nama setter
+        private final Map<String, Object> originalSettings = new HashMap<>();
+
+        private CachedStatement(String sql, PreparedStatement physical) {
+            this.sql = sql;
+            this.physical = physical;
+        }
+
+        // Dicatat sekali per lease, sebelum setter pertama kali dipanggil
+        private void rememberSetting(String setter) throws SQLException {
+            if (originalSettings.containsKey(setter)) return;
+            Object original = switch (setter) {
+                case "setFetchSize" -> physical.getFetchSize();
+                case "setFetchDirection" -> physical.getFetchDirection();
+                case "setMaxRows" -> physical.getMaxRows();
+                case "setMaxFieldSize" -> physical.getMaxFieldSize();
+                case "setQueryTimeout" -> physical.getQueryTimeout();
+                case "setPoolable" -> physical.isPoolable();
+                default -> throw new IllegalArgumentException(setter);
+            };
+            originalSettings.put(setter, original);
+        }
+
+        private void restoreSettings() throws SQLException {
+            for (Map.Entry<String, Object> entry : originalSettings.entrySet()) {
+                Object value = entry.getValue();
+                switch (entry.getKey()) {
+                    case "setFetchSize" -> physical.setFetchSize((Integer) value);
+                    case "setFetchDirection" -> physical.setFetchDirection((Integer) value);
+                    case "setMaxRows" -> physical.setMaxRows((Integer) value);
+                    case "setMaxFieldSize" -> physical.setMaxFieldSize((Integer) value);
+                    case "setQueryTimeout" -> physical.setQueryTimeout((Integer) value);
+                    case "setPoolable" -> physical.setPoolable((Boolean) value);
+                    default -> throw new IllegalStateException(entry.getKey());
+                }
+            }
+            originalSettings.clear();
+        }
+
+        private PreparedStatement open(PooledConnection pc, Connection connection) {
+            lease = new StatementLease(pc, this, connection);
+            return (PreparedStatement) Proxy.newProxyInstance(
+                    PreparedStatement.class.getClassLoader(),
+                    new Class<?>[] { PreparedStatement.class },
+                    lease);
+        }
+    }
+
+    // Setting ini menempel di statement fisik. Yang punya getter dipulihkan ke nilai awal saat kembali ke cache
+    // (mis. fetch size untuk streaming snapshot analisis); sisanya membuat statement tidak dikembalikan ke cache.
+    private static final Set<String> RESTORABLE_SETTERS = Set.of(
+            "setFetchSize", "setFetchDirection", "setMaxRows", "setMaxFieldSize", "setQueryTimeout", "setPoolable");
+    private static final Set<String> STATEFUL_SETTERS = Set.of(
+            "setLargeMaxRows", "setEscapeProcessing", "setCursorName", "closeOnCompletion");
+
+    // Proxy yang dipegang repository: close() mengembalikan statement ke cache, bukan menutupnya
+    private final class StatementLease implements InvocationHandler {
+        private final PooledConnection pc;
+        private final CachedStatement cached;
+        private final Connection connection;
+        private boolean closed = false;
+
+        private StatementLease(PooledConnection pc, CachedStatement cached, Connection connection) {
+            this.pc = pc;
+            this.cached = cached;
+            this.connection = connection;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            String name = method.getName();
+            switch (name) {
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        returnStatement(pc, cached);
+                    }
+                    return null;
+                case "isClosed":
+                    return closed;
+                case "getConnection":
+                    return connection;
+                case "toString":
+                    return "CachedStatement[" + cached.sql + "]";
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                default:
+                    break;
+            }
+            if (closed) {
+                throw new SQLException("Statement sudah ditutup");
+            }
+            if (RESTORABLE_SETTERS.contains(name)) {
+                try {
+                    cached.rememberSetting(name);
+                } catch (SQLException e) {
+                    cached.reusable = false;
+                }
+            } else if (STATEFUL_SETTERS.contains(name)) {
+                cached.reusable = false;
+            }
+            try {
+                Object result = method.invoke(cached.physical, args);
+                if (result instanceof ResultSet rs) {
+                    cached.openResult = rs;
+                }
+                return result;
+            } catch (InvocationTargetException e) {
+                throw markIfBroken(pc, e.getCause());
+            }
+        }
+    }
+
+    private Throwable markIfBroken(PooledConnection pc, Throwable error) {
+        if (error instanceof SQLException sqlEx && isConnectionError(sqlEx)) {
+            pc.broken = true;
+            brokenConnections.incrementAndGet();
+        }
+        return error;
+    }
+
+    // SQLState kelas 08 = connection exception (server restart, socket putus, dst.)
+    private static boolean isConnectionError(SQLException e) {
+        String state = e.getSQLState();
+        return state != null && state.startsWith("08");
+    }
+}
@@ -1,39 +1,61 @@
 package app.config;
 
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
 import java.sql.Connection;
 import java.sql.DriverManager;
 import java.sql.SQLException;
 import java.util.logging.Level;
 import java.util.logging.Logger;
-import io.github.cdimascio.dotenv.Dotenv; 
+import javax.sql.DataSource;
+import io.github.cdimascio.dotenv.Dotenv;
+import app.debug.QueryInspector;
 
 // memberitahu SonarQube agar mengabaikan peringatan Singleton
 @SuppressWarnings("java:S6548")
 public class DatabaseConnection {
-    
+
     // Setup Logger
     private static final Logger LOGGER = Logger.getLogger(DatabaseConnection.class.getName());
-    
+
     private static DatabaseConnection instance;
-    private Connection connection;
+    private final ConnectionPool pool;
+    private final DataSource dataSource;
 
-    private final Dotenv dotenv = Dotenv.load(); 
+    private final Dotenv dotenv = Dotenv.load();
 
     private final String dbUrl = dotenv.get("DB_URL");
     private final String dbUser = dotenv.get("DB_USERNAME");
     private final String dbPassword = dotenv.get("DB_PASSWORD");
 
+    // Pengaturan pool (opsional di .env)
+    private final int poolSize = Integer.parseInt(dotenv.get("DB_POOL_SIZE", "8"));
+    private final long borrowTimeoutMs = Long.parseLong(dotenv.get("DB_POOL_BORROW_TIMEOUT_MS", "5000"));
+    private final long idleTimeoutMs = Long.parseLong(dotenv.get("DB_POOL_IDLE_TIMEOUT_MS", "300000"));
+    private final long maxLifetimeMs = Long.parseLong(dotenv.get("DB_POOL_MAX_LIFETIME_MS", "1800000"));
+    private final int statementCacheSize = Integer.parseInt(
+        dotenv.get("DB_STATEMENT_CACHE_SIZE", String.valueOf(ConnectionPool.DEFAULT_STATEMENT_CACHE_SIZE)));
+
     private DatabaseConnection() {
-        try {
-            // Validasi URL dan User
-            if (dbUrl == null || dbUser == null) {
-                LOGGER.log(Level.WARNING, "Gagal membaca .env! Pastikan file .env ada dan isinya benar.");
-            }
-
-            connection = DriverManager.getConnection(dbUrl, dbUser, dbPassword);
-            
-            LOGGER.info("Connected to PostgreSQL!");
+        // Validasi URL dan User
+        if (dbUrl == null || dbUser == null) {
+            LOGGER.log(Level.WARNING, "Gagal membaca .env! Pastikan file .env ada dan isinya benar.");
+        }
+
+        pool = new ConnectionPool(
+            () -> DriverManager.getConnection(dbUrl, dbUser, dbPassword),
+            poolSize, borrowTimeoutMs, idleTimeoutMs, maxLifetimeMs,
+            ConnectionPool.DEFAULT_VALIDATION_BYPASS_MS, statementCacheSize);
+        pool.registerMetrics("ConnectionPool");
 
+        // -Dmoodflow.debug.queries=true: semua statement repository dicatat per aksi UI
+        QueryInspector inspector = QueryInspector.installed();
+        dataSource = inspector == null ? pool : inspector.wrap(pool);
+
+        // Cek koneksi awal + migrasi schema; kalau gagal, pool tetap dipakai dan akan mencoba lagi saat dipinjam
+        try (Connection conn = pool.getConnection()) {
+            LOGGER.info("Connected to PostgreSQL!");
+            SchemaMigration.apply(conn);
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Database connection failed", e);
         }
@@ -46,7 +68,24 @@ public class DatabaseConnection {
         return instance;
     }
 
-    public Connection getConnection() {
-        return connection;
+    // DataSource yang baru membuat pool (koneksi awal + migrasi) saat koneksi pertama diminta,
+    // jadi repository bisa dibuat di thread mana pun tanpa menunggu database
+    public static DataSource lazyDataSource() {
+        return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(), new Class<?>[] { DataSource.class },
+            (proxy, method, args) -> {
+                try {
+                    return method.invoke(getInstance().getDataSource(), args);
+                } catch (InvocationTargetException e) {
+                    throw e.getCause();
+                }
+            });
+    }
+
+    public DataSource getDataSource() {
+        return dataSource;
+    }
+
+    public ConnectionPool getPool() {
+        return pool;
     }
-}
\ No newline at end of file
+}
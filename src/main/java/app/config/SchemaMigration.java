@@ -0,0 +1,201 @@
+package app.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Migrasi schema bernomor versi, dijalankan saat startup.
+// - Versi yang sudah jalan dicatat di schema_migrations beserta checksum statement-nya
+// - Migrasi yang sudah tercatat tidak dijalankan lagi; kalau isinya diubah (checksum beda) startup migrasi dibatalkan
+// - Semua migrasi yang tertunda dijalankan dalam satu transaksi (DDL PostgreSQL transaksional): semua atau tidak sama sekali
+// Migrasi yang sudah dirilis tidak boleh diedit, tambahkan versi baru di akhir daftar.
+public class SchemaMigration {
+
+    private static final Logger LOGGER = Logger.getLogger(SchemaMigration.class.getName());
+
+    // Kunci advisory lock: dua instance yang start bersamaan tidak menjalankan migrasi yang sama dua kali
+    private static final long LOCK_KEY = 0x4D6F6F64466C6F77L; // "MoodFlow"
+
+    private static final String CREATE_HISTORY_SQL =
+        "CREATE TABLE IF NOT EXISTS schema_migrations (" +
+            "version INT PRIMARY KEY, description VARCHAR(200) NOT NULL, checksum CHAR(64) NOT NULL, " +
+            "applied_at TIMESTAMP NOT NULL DEFAULT now())";
+
+    record Migration(int version, String description, List<String> statements) {
+
+        Migration {
+            statements = List.copyOf(statements);
+        }
+
+        String checksum() {
+            try {
+                MessageDigest digest = MessageDigest.getInstance("SHA-256");
+                for (String sql : statements) {
+                    digest.update(sql.getBytes(StandardCharsets.UTF_8));
+                    digest.update((byte) 0);
+                }
+                return HexFormat.of().formatHex(digest.digest());
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 tidak tersedia", e);
+            }
+        }
+    }
+
+    static final List<Migration> MIGRATIONS = List.of(
+        // Database lama sudah punya tabel-tabel ini, jadi semuanya IF NOT EXISTS
+        new Migration(1, "Base schema", List.of(
+            "CREATE TABLE IF NOT EXISTS habits (id SERIAL PRIMARY KEY, name VARCHAR(255) NOT NULL)",
+            "CREATE TABLE IF NOT EXISTS habit_logs (habit_id INT NOT NULL, date DATE NOT NULL)",
+            "CREATE TABLE IF NOT EXISTS mood (" +
+                "id SERIAL PRIMARY KEY, mood_value INT NOT NULL CHECK (mood_value BETWEEN 1 AND 5), date DATE NOT NULL)"
+        )),
+        // ON CONFLICT (date) di MoodRepository butuh unique constraint pada mood.date.
+        // Duplikat lama (hasil DELETE+INSERT yang balapan) dibersihkan dulu, yang terbaru dipertahankan.
+        new Migration(2, "Unique mood per day", List.of(
+            "DELETE FROM mood a USING mood b WHERE a.date = b.date AND a.id < b.id",
+            "CREATE UNIQUE INDEX IF NOT EXISTS mood_date_key ON mood (date)"
+        )),
+        new Migration(3, "habit_logs constraints and indexes", List.of(
+            // Log milik habit yang sudah dihapus ikut terhitung di analisis; dibersihkan sebelum FK dipasang
+            "DELETE FROM habit_logs hl WHERE NOT EXISTS (SELECT 1 FROM habits h WHERE h.id = hl.habit_id)",
+            "DELETE FROM habit_logs a USING habit_logs b " +
+                "WHERE a.habit_id = b.habit_id AND a.date = b.date AND a.ctid < b.ctid",
+            // (habit_id, date): ON CONFLICT DO NOTHING, isHabitDone, riwayat per habit
+            "CREATE UNIQUE INDEX IF NOT EXISTS habit_logs_habit_date_key ON habit_logs (habit_id, date)",
+            // (date, habit_id): scan rentang tanggal + join ke habits bisa index-only
+            "CREATE INDEX IF NOT EXISTS habit_logs_date_habit_idx ON habit_logs (date, habit_id)",
+            // FK lama (nama tidak diketahui, mungkin tanpa CASCADE) diganti dengan yang ON DELETE CASCADE
+            "DO $$ DECLARE fk RECORD; BEGIN " +
+                "FOR fk IN SELECT conname FROM pg_constraint " +
+                "WHERE conrelid = 'habit_logs'::regclass AND contype = 'f' LOOP " +
+                "EXECUTE 'ALTER TABLE habit_logs DROP CONSTRAINT ' || quote_ident(fk.conname); " +
+                "END LOOP; END $$",
+            "ALTER TABLE habit_logs ADD CONSTRAINT habit_logs_habit_id_fkey " +
+                "FOREIGN KEY (habit_id) REFERENCES habits (id) ON DELETE CASCADE"
+        )),
+        // Versi per baris untuk sinkronisasi store lokal (SyncRepository): satu sequence untuk semua tabel,
+        // naik setiap INSERT/UPDATE; baris yang dihapus dicatat di sync_tombstones dengan versi baru
+        new Migration(4, "Sync version stamps", List.of(
+            "CREATE SEQUENCE IF NOT EXISTS sync_version_seq",
+            "ALTER TABLE habits ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT nextval('sync_version_seq')",
+            "ALTER TABLE habit_logs ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT nextval('sync_version_seq')",
+            "ALTER TABLE mood ADD COLUMN IF NOT EXISTS version BIGINT NOT NULL DEFAULT nextval('sync_version_seq')",
+            "CREATE INDEX IF NOT EXISTS habits_version_idx ON habits (version)",
+            "CREATE INDEX IF NOT EXISTS habit_logs_version_idx ON habit_logs (version)",
+            "CREATE INDEX IF NOT EXISTS mood_version_idx ON mood (version)",
+            // Kunci dari store lokal untuk habit yang dibuat offline: create diulang setelah balasan hilang
+            // tidak membuat habit ganda (HabitRepository.createHabit dengan clientKey)
+            "ALTER TABLE habits ADD COLUMN IF NOT EXISTS client_key UUID",
+            "CREATE UNIQUE INDEX IF NOT EXISTS habits_client_key_idx ON habits (client_key)",
+            "CREATE TABLE IF NOT EXISTS sync_tombstones (" +
+                "table_name VARCHAR(20) NOT NULL, row_key VARCHAR(40) NOT NULL, version BIGINT NOT NULL, " +
+                "PRIMARY KEY (table_name, row_key))",
+            "CREATE INDEX IF NOT EXISTS sync_tombstones_version_idx ON sync_tombstones (version)",
+            "CREATE OR REPLACE FUNCTION sync_bump_version() RETURNS trigger LANGUAGE plpgsql AS $$ BEGIN " +
+                "NEW.version := nextval('sync_version_seq'); RETURN NEW; END $$",
+            // Key sama dengan yang dipakai store lokal: id habit, tanggal mood, "habit_id:date" untuk log
+            "CREATE OR REPLACE FUNCTION sync_record_delete() RETURNS trigger LANGUAGE plpgsql AS $$ " +
+                "DECLARE old_row JSONB := to_jsonb(OLD); BEGIN " +
+                "INSERT INTO sync_tombstones (table_name, row_key, version) VALUES (TG_TABLE_NAME, " +
+                "CASE TG_TABLE_NAME WHEN 'habits' THEN old_row->>'id' WHEN 'mood' THEN old_row->>'date' " +
+                "ELSE (old_row->>'habit_id') || ':' || (old_row->>'date') END, nextval('sync_version_seq')) " +
+                "ON CONFLICT (table_name, row_key) DO UPDATE SET version = EXCLUDED.version; " +
+                "RETURN OLD; END $$",
+            "CREATE TRIGGER habits_sync_version BEFORE UPDATE ON habits " +
+                "FOR EACH ROW EXECUTE FUNCTION sync_bump_version()",
+            "CREATE TRIGGER habit_logs_sync_version BEFORE UPDATE ON habit_logs " +
+                "FOR EACH ROW EXECUTE FUNCTION sync_bump_version()",
+            "CREATE TRIGGER mood_sync_version BEFORE UPDATE ON mood " +
+                "FOR EACH ROW EXECUTE FUNCTION sync_bump_version()",
+            "CREATE TRIGGER habits_sync_delete AFTER DELETE ON habits " +
+                "FOR EACH ROW EXECUTE FUNCTION sync_record_delete()",
+            "CREATE TRIGGER habit_logs_sync_delete AFTER DELETE ON habit_logs " +
+                "FOR EACH ROW EXECUTE FUNCTION sync_record_delete()",
+            "CREATE TRIGGER mood_sync_delete AFTER DELETE ON mood " +
+                "FOR EACH ROW EXECUTE FUNCTION sync_record_delete()"
+        ))
+    );
+
+    private SchemaMigration() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    public static boolean apply(Connection conn) {
+        return apply(conn, MIGRATIONS);
+    }
+
+    static boolean apply(Connection conn, List<Migration> migrations) {
+        try {
+            conn.setAutoCommit(false);
+            try {
+                try (Statement stmt = conn.createStatement()) {
+                    stmt.execute("SELECT pg_advisory_xact_lock(" + LOCK_KEY + ")");
+                    stmt.execute(CREATE_HISTORY_SQL);
+                }
+                Map<Integer, String> applied = loadApplied(conn);
+                int count = 0;
+                for (Migration migration : migrations) {
+                    String checksum = applied.get(migration.version());
+                    if (checksum == null) {
+                        run(conn, migration);
+                        count++;
+                    } else if (!checksum.equals(migration.checksum())) {
+                        throw new SQLException("Migration V" + migration.version()
+                                + " was modified after it was applied (checksum mismatch)");
+                    }
+                }
+                conn.commit();
+                if (count > 0) {
+                    LOGGER.info("Applied " + count + " schema migration(s)");
+                }
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Schema migration failed", e);
+            return false;
+        }
+    }
+
+    private static Map<Integer, String> loadApplied(Connection conn) throws SQLException {
+        Map<Integer, String> applied = new HashMap<>();
+        try (PreparedStatement stmt = conn.prepareStatement("SELECT version, checksum FROM schema_migrations");
+             ResultSet rs = stmt.executeQuery()) {
+            while (rs.next()) {
+                applied.put(rs.getInt("version"), rs.getString("checksum"));
+            }
+        }
+        return applied;
+    }
+
+    private static void run(Connection conn, Migration migration) throws SQLException {
+        try (Statement stmt = conn.createStatement()) {
+            for (String sql : migration.statements()) {
+                stmt.execute(sql);
+            }
+        }
+        try (PreparedStatement stmt = conn.prepareStatement(
+                "INSERT INTO schema_migrations (version, description, checksum) VALUES (?, ?, ?)")) {
+            stmt.setInt(1, migration.version());
+            stmt.setString(2, migration.description());
+            stmt.setString(3, migration.checksum());
+            stmt.executeUpdate();
+        }
+        LOGGER.info("Schema migration V" + migration.version() + " applied: " + migration.description());
+    }
+}
@@ -0,0 +1,145 @@
+package app.debug;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+import java.util.regex.Pattern;
+
+// Semua statement yang dijalankan untuk satu aksi UI (mis. buka minggu, simpan mood), plus temuan:
+// - N+1: statement dengan bentuk sama dijalankan >= repeatThreshold kali
+// - SLOW: satu statement >= slowMillis
+// - EDT: statement dijalankan di Event Dispatch Thread
+// Aksi selesai setelah scope-nya ditutup dan semua task background yang ikut membawanya selesai.
+public final class QueryAction implements AutoCloseable {
+
+    private static final Pattern STRING_LITERAL = Pattern.compile("'(?:[^']|'')*'");
+    private static final Pattern NUMBER_LITERAL = Pattern.compile("\\b\\d+(?:\\.\\d+)?\\b");
+    private static final Pattern WHITESPACE = Pattern.compile("\\s+");
+
+    public record Execution(String sql, long nanos, boolean onEdt, String thread) {}
+
+    private final String name;
+    private final long slowNanos;
+    private final int repeatThreshold;
+    private final Consumer<QueryAction> onFinish;
+    private final long startNanos = System.nanoTime();
+    private final List<Execution> executions = new ArrayList<>();
+    private final AtomicInteger pending = new AtomicInteger(1);
+
+    private long elapsedNanos = -1;
+    private Runnable onClose; // memulihkan aksi sebelumnya di thread pembuka scope
+
+    QueryAction(String name, long slowNanos, int repeatThreshold, Consumer<QueryAction> onFinish) {
+        this.name = name;
+        this.slowNanos = slowNanos;
+        this.repeatThreshold = repeatThreshold;
+        this.onFinish = onFinish;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    synchronized void add(Execution execution) {
+        executions.add(execution);
+    }
+
+    public synchronized List<Execution> getExecutions() {
+        return List.copyOf(executions);
+    }
+
+    void setOnClose(Runnable onClose) {
+        this.onClose = onClose;
+    }
+
+    // Task background yang membawa aksi ini menahan laporan sampai selesai
+    void retain() {
+        pending.incrementAndGet();
+    }
+
+    void release() {
+        if (pending.decrementAndGet() == 0) {
+            synchronized (this) {
+                elapsedNanos = System.nanoTime() - startNanos;
+            }
+            onFinish.accept(this);
+        }
+    }
+
+    // Menutup scope di thread pembuka; laporan keluar setelah task yang tersisa selesai
+    @Override
+    public void close() {
+        if (onClose != null) {
+            onClose.run();
+            onClose = null;
+        }
+        release();
+    }
+
+    public synchronized List<String> getFindings() {
+        List<String> findings = new ArrayList<>();
+        for (Map.Entry<String, List<Execution>> group : byShape().entrySet()) {
+            int count = group.getValue().size();
+            if (count >= repeatThreshold) {
+                findings.add(String.format("N+1: %dx %s", count, group.getKey()));
+            }
+        }
+        int onEdt = 0;
+        for (Execution execution : executions) {
+            if (execution.nanos() >= slowNanos) {
+                findings.add(String.format("SLOW: %.1f ms %s", millis(execution.nanos()), shapeOf(execution.sql())));
+            }
+            if (execution.onEdt()) onEdt++;
+        }
+        if (onEdt > 0) {
+            findings.add(onEdt + " statement dijalankan di EDT");
+        }
+        return findings;
+    }
+
+    public synchronized String report() {
+        long totalNanos = 0;
+        for (Execution execution : executions) {
+            totalNanos += execution.nanos();
+        }
+        StringBuilder out = new StringBuilder(String.format("[query] %s: %d statement, %.1f ms di database",
+                name, executions.size(), millis(totalNanos)));
+        if (elapsedNanos >= 0) {
+            out.append(String.format(" (aksi %.1f ms)", millis(elapsedNanos)));
+        }
+        for (Map.Entry<String, List<Execution>> group : byShape().entrySet()) {
+            long groupNanos = 0;
+            for (Execution execution : group.getValue()) {
+                groupNanos += execution.nanos();
+            }
+            out.append(String.format("%n  %4dx %9.2f ms  %s", group.getValue().size(), millis(groupNanos), group.getKey()));
+        }
+        for (String finding : getFindings()) {
+            out.append("\n  !! ").append(finding);
+        }
+        return out.toString();
+    }
+
+    // Urutan sesuai statement pertama dari tiap bentuk
+    private Map<String, List<Execution>> byShape() {
+        Map<String, List<Execution>> groups = new LinkedHashMap<>();
+        for (Execution execution : executions) {
+            groups.computeIfAbsent(shapeOf(execution.sql()), s -> new ArrayList<>()).add(execution);
+        }
+        return groups;
+    }
+
+    // Literal diganti ?, jadi "WHERE id = 1" dan "WHERE id = 2" dihitung sebagai bentuk yang sama
+    static String shapeOf(String sql) {
+        String shape = STRING_LITERAL.matcher(sql).replaceAll("?");
+        shape = NUMBER_LITERAL.matcher(shape).replaceAll("?");
+        return WHITESPACE.matcher(shape).replaceAll(" ").trim();
+    }
+
+    private static double millis(long nanos) {
+        return nanos / 1_000_000.0;
+    }
+}
@@ -0,0 +1,234 @@
+package app.debug;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.sql.Wrapper;
+import java.util.List;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+import javax.swing.SwingUtilities;
+
+// Debug: aktifkan dengan -Dmoodflow.debug.queries=true.
+// Membungkus DataSource repository dan mencatat setiap statement ke aksi UI yang sedang berjalan:
+// - aksi dibuka dengan begin(nama) (CoalescingLoader membuka satu per load),
+//   dan ikut terbawa ke task DbExecutor yang di-submit selama aksi terbuka
+// - statement tanpa aksi: task background jadi aksi sendiri (dinamai dari pemanggilnya),
+//   statement di EDT dikumpulkan per event EDT
+// Setiap aksi yang selesai dilaporkan ke log (WARNING jika ada temuan N+1 / SLOW / EDT).
+// Threshold: -Dmoodflow.debug.slowQueryMs (default 100), -Dmoodflow.debug.repeatThreshold (default 5).
+public class QueryInspector {
+
+    private static final Logger LOGGER = Logger.getLogger(QueryInspector.class.getName());
+
+    private static final String ENABLED_PROPERTY = "moodflow.debug.queries";
+    private static final long DEFAULT_SLOW_MILLIS = 100;
+    private static final int DEFAULT_REPEAT_THRESHOLD = 5;
+
+    // Frame dari paket ini tidak dipakai sebagai nama aksi: yang dicari adalah kode view/facade pemanggilnya
+    private static final List<String> INFRASTRUCTURE = List.of(
+            "app.debug.", "app.async.", "app.config.", "app.repository.",
+            "java.", "javax.", "jdk.", "sun.", "com.sun.", "org.postgresql.");
+
+    private static volatile QueryInspector installed = Boolean.getBoolean(ENABLED_PROPERTY)
+            ? new QueryInspector(Long.getLong("moodflow.debug.slowQueryMs", DEFAULT_SLOW_MILLIS),
+                    Integer.getInteger("moodflow.debug.repeatThreshold", DEFAULT_REPEAT_THRESHOLD),
+                    QueryInspector::log)
+            : null;
+
+    private final long slowNanos;
+    private final int repeatThreshold;
+    private final Consumer<QueryAction> sink;
+    private final ThreadLocal<QueryAction> current = new ThreadLocal<>();
+    private QueryAction edtAction; // hanya diakses dari EDT
+
+    public QueryInspector(long slowMillis, int repeatThreshold, Consumer<QueryAction> sink) {
+        if (repeatThreshold < 2) {
+            throw new IllegalArgumentException("repeatThreshold harus >= 2");
+        }
+        this.slowNanos = slowMillis * 1_000_000L;
+        this.repeatThreshold = repeatThreshold;
+        this.sink = sink;
+    }
+
+    // null = inspector tidak aktif
+    public static QueryInspector installed() {
+        return installed;
+    }
+
+    public static void install(QueryInspector inspector) {
+        installed = inspector;
+    }
+
+    // Untuk pemanggil yang tidak peduli apakah inspector aktif; null (no-op di try-with-resources) jika tidak aktif
+    public static QueryAction beginAction(String name) {
+        QueryInspector inspector = installed;
+        return inspector == null ? null : inspector.begin(name);
+    }
+
+    // Task yang di-submit ke thread lain tetap tercatat di aksi yang sedang terbuka
+    public static <T> Supplier<T> propagate(Supplier<T> task) {
+        QueryInspector inspector = installed;
+        return inspector == null ? task : inspector.bind(task);
+    }
+
+    // --- AKSI ---
+
+    public QueryAction begin(String name) {
+        QueryAction action = newAction(name);
+        QueryAction previous = current.get();
+        current.set(action);
+        action.setOnClose(() -> restore(previous));
+        return action;
+    }
+
+    public <T> Supplier<T> bind(Supplier<T> task) {
+        QueryAction parent = current.get();
+        String name = parent == null ? callerName() : null;
+        if (parent != null) {
+            parent.retain();
+        }
+        return () -> {
+            QueryAction action = parent != null ? parent : newAction(name);
+            QueryAction previous = current.get();
+            current.set(action);
+            try {
+                return task.get();
+            } finally {
+                restore(previous);
+                action.release();
+            }
+        };
+    }
+
+    private QueryAction newAction(String name) {
+        return new QueryAction(name, slowNanos, repeatThreshold, sink);
+    }
+
+    private void restore(QueryAction previous) {
+        if (previous == null) {
+            current.remove();
+        } else {
+            current.set(previous);
+        }
+    }
+
+    void record(String sql, long nanos) {
+        boolean onEdt = SwingUtilities.isEventDispatchThread();
+        QueryAction.Execution execution =
+                new QueryAction.Execution(sql, nanos, onEdt, Thread.currentThread().getName());
+        QueryAction action = current.get();
+        if (action == null && onEdt) {
+            action = edtAction();
+        }
+        if (action == null) {
+            QueryAction single = newAction(callerName());
+            single.add(execution);
+            single.release();
+            return;
+        }
+        action.add(execution);
+    }
+
+    // Statement di EDT tanpa aksi: satu aksi untuk seluruh event EDT yang sedang berjalan
+    // (mis. semua query dari satu paintComponent), dilaporkan setelah event itu selesai
+    private QueryAction edtAction() {
+        if (edtAction == null) {
+            QueryAction action = newAction(callerName() + " (EDT)");
+            edtAction = action;
+            SwingUtilities.invokeLater(() -> {
+                edtAction = null;
+                action.release();
+            });
+        }
+        return edtAction;
+    }
+
+    private static String callerName() {
+        return StackWalker.getInstance().walk(frames -> frames
+                .filter(f -> INFRASTRUCTURE.stream().noneMatch(f.getClassName()::startsWith))
+                .findFirst()
+                .map(f -> f.getClassName().substring(f.getClassName().lastIndexOf('.') + 1) + "." + f.getMethodName())
+                .orElse("unknown"));
+    }
+
+    private static void log(QueryAction action) {
+        if (action.getFindings().isEmpty()) {
+            LOGGER.info(action.report());
+        } else {
+            LOGGER.warning(action.report());
+        }
+    }
+
+    // --- JDBC PROXY ---
+
+    public DataSource wrap(DataSource dataSource) {
+        return proxy(DataSource.class, dataSource, (target, method, args) -> {
+            Object result = method.invoke(target, args);
+            return result instanceof Connection conn ? wrapConnection(conn) : result;
+        });
+    }
+
+    private Connection wrapConnection(Connection connection) {
+        return proxy(Connection.class, connection, (target, method, args) -> {
+            Object result = method.invoke(target, args);
+            if (result instanceof PreparedStatement stmt && method.getName().equals("prepareStatement")) {
+                String sql = (String) args[0];
+                return proxy(PreparedStatement.class, stmt, (t, m, a) -> execute(t, m, a, sql));
+            }
+            if (result instanceof Statement stmt && method.getName().equals("createStatement")) {
+                return proxy(Statement.class, stmt, (t, m, a) -> execute(t, m, a, null));
+            }
+            return result;
+        });
+    }
+
+    // execute*/executeBatch dicatat; SQL dari prepareStatement, atau argumen execute untuk Statement biasa
+    private Object execute(Object target, Method method, Object[] args, String preparedSql) throws Throwable {
+        if (!method.getName().startsWith("execute")) {
+            return method.invoke(target, args);
+        }
+        String sql = preparedSql;
+        if (sql == null) {
+            sql = args != null && args.length > 0 && args[0] instanceof String s ? s : "<batch>";
+        }
+        long start = System.nanoTime();
+        try {
+            return method.invoke(target, args);
+        } finally {
+            record(sql, System.nanoTime() - start);
+        }
+    }
+
+    @FunctionalInterface
+    private interface Handler {
+        Object handle(Object target, Method method, Object[] args) throws Throwable;
+    }
+
+    private static <T> T proxy(Class<T> type, T target, Handler handler) {
+        InvocationHandler invocation = (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "unwrap":
+                    return ((Wrapper) target).unwrap((Class<?>) args[0]);
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                default:
+                    break;
+            }
+            try {
+                return handler.handle(target, method, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+        };
+        return type.cast(Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, invocation));
+    }
+}
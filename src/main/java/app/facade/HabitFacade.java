@@ -2,42 +2,99 @@ package app.facade;
 
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
 import java.util.List;
-import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.IntConsumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import app.activity.ActivityEvent;
+import app.activity.ActivityLog;
+import app.async.DbExecutor;
+import app.cache.HabitCatalog;
 import app.model.Habit;
+import app.model.HabitDay;
+import app.model.WeekSnapshot;
+import app.observer.ChangeEvent;
+import app.observer.ChangeListener;
+import app.observer.EventBus;
 import app.observer.IObserver;
 import app.repository.HabitRepository;
 
-public class HabitFacade {
+public class HabitFacade implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(HabitFacade.class.getName());
+
+    private static final long DEFAULT_FLUSH_DELAY_MS = 300;
+    private static final long RETRY_DELAY_MS = 5000;
 
     private HabitRepository repository;
     
-    // Cache & Log
-    private Map<Integer, Habit> habitCache = new HashMap<>();
-    private LinkedList<String> activityLog = new LinkedList<>();
-    private List<IObserver> observers = new ArrayList<>();
+    // Cache & Log (thread-safe, karena dipakai juga dari thread DbExecutor)
+    private final HabitCatalog habitCatalog = new HabitCatalog();
+    private final ActivityLog activityLog = ActivityLog.named("habit");
+    private final EventBus eventBus;
+    private final Map<IObserver, ChangeListener> observerAdapters = new ConcurrentHashMap<>();
+
+    // Write-behind: toggle checkbox dikumpulkan dulu, lalu ditulis batch (guarded by pendingWrites)
+    private final Map<HabitDay, Boolean> pendingWrites = new LinkedHashMap<>();
+    private final List<IntConsumer> pendingListeners = new CopyOnWriteArrayList<>();
+    private final long flushDelayMillis;
+    private ScheduledExecutorService flushTimer;
+    private ScheduledFuture<?> scheduledFlush;
 
     public HabitFacade() {
-        this.repository = new HabitRepository();
+        this(new EventBus());
+    }
+
+    // Bus dibagi dengan MoodFacade supaya listener menerima satu batch untuk keduanya
+    public HabitFacade(EventBus eventBus) {
+        this(new HabitRepository(), DEFAULT_FLUSH_DELAY_MS, eventBus);
     }
 
     public HabitFacade(HabitRepository repository) {
+        this(repository, DEFAULT_FLUSH_DELAY_MS);
+    }
+
+    // Tanpa bus eksplisit: event dikirim langsung (sinkron) seperti IObserver dulu
+    public HabitFacade(HabitRepository repository, long flushDelayMillis) {
+        this(repository, flushDelayMillis, EventBus.direct());
+    }
+
+    public HabitFacade(HabitRepository repository, long flushDelayMillis, EventBus eventBus) {
         this.repository = repository;
+        this.flushDelayMillis = flushDelayMillis;
+        this.eventBus = eventBus;
     }
 
+    public EventBus getEventBus() {
+        return eventBus;
+    }
+
+    // IObserver lama tetap didukung: dipanggil sekali per batch event
     public void addObserver(IObserver observer) {
-        observers.add(observer);
+        ChangeListener adapter = events -> observer.onDataChanged();
+        if (observerAdapters.putIfAbsent(observer, adapter) == null) {
+            eventBus.subscribe(adapter);
+        }
     }
 
-    private void notifyObservers() {
-        for (IObserver observer : observers) {
-            observer.onDataChanged();
+    public void removeObserver(IObserver observer) {
+        ChangeListener adapter = observerAdapters.remove(observer);
+        if (adapter != null) {
+            eventBus.unsubscribe(adapter);
         }
     }
 
-    public List<String> getActivityLog() {
+    public ActivityLog getActivityLog() {
         return activityLog;
     }
 
@@ -50,9 +107,13 @@ public class HabitFacade {
         boolean isSuccess = repository.createHabit(habit);
         
         if (isSuccess) {
-            activityLog.add("Menambahkan habit baru: " + name);
-            habitCache.clear(); // Clear cache agar reload ulang dari DB saat getHabits
-            notifyObservers();
+            activityLog.append(ActivityEvent.Type.HABIT_ADDED, habit.getId(), null, "Menambahkan habit baru: " + name);
+            if (habit.getId() > 0) {
+                habitCatalog.put(habit);
+            } else {
+                habitCatalog.invalidate(); // id tidak diketahui, reload dari DB saat getHabits
+            }
+            eventBus.publish(ChangeEvent.habitAdded(habit.getId()));
         }
         return isSuccess;
     }
@@ -64,56 +125,223 @@ public class HabitFacade {
         boolean isSuccess = repository.deleteHabit(id);
         
         if (isSuccess) {
-            activityLog.add("Menghapus habit: " + habitName);
-            habitCache.remove(id);
-            notifyObservers();
+            activityLog.append(ActivityEvent.Type.HABIT_DELETED, id, null, "Menghapus habit: " + habitName);
+            habitCatalog.remove(id);
+            discardPendingWrites(id);
+            eventBus.publish(ChangeEvent.habitDeleted(id));
         }
         return isSuccess;
     }
 
+    // Dari memori selama katalog lengkap; query ulang hanya setelah katalog di-invalidate.
+    // List yang dikembalikan immutable.
     public List<Habit> getHabits() {
-        List<Habit> habits = repository.getAllHabits();
-        for (Habit h : habits) {
-            habitCache.put(h.getId(), h); 
+        HabitCatalog.Snapshot snapshot = habitCatalog.snapshot();
+        if (snapshot.isComplete()) {
+            return snapshot.getHabits();
         }
-        return habits;
+        List<Habit> habits = repository.getAllHabits();
+        fillCatalog(habits, snapshot.getVersion());
+        return Collections.unmodifiableList(habits);
     }
 
     // Helper internal untuk mengambil nama habit (dipakai saat log status update)
     public Habit getHabit(int id) {
-        if (habitCache.containsKey(id)) {
-            return habitCache.get(id);
+        HabitCatalog.Snapshot snapshot = habitCatalog.snapshot();
+        Habit cached = snapshot.get(id);
+        if (cached != null || snapshot.isComplete()) {
+            return cached;
         }
         Habit h = repository.getHabitById(id);
         if (h != null) {
-            habitCache.put(id, h);
+            habitCatalog.put(h);
         }
         return h;
     }
+
+    // Snapshot katalog untuk dibaca dari thread lain tanpa lock
+    public HabitCatalog.Snapshot getHabitCatalog() {
+        return habitCatalog.snapshot();
+    }
+
+    // Daftar kosong tidak dianggap lengkap: bisa jadi query gagal (repository menelan error)
+    private void fillCatalog(List<Habit> habits, long version) {
+        if (!habits.isEmpty()) {
+            habitCatalog.replaceAll(habits, version);
+        }
+    }
     
+    // Perubahan dari sinkronisasi store lokal (data dari server, habit lokal yang mendapat id server):
+    // katalog disesuaikan lalu event diteruskan ke listener facade ini
+    public void applyRemoteChanges(List<ChangeEvent> events) {
+        List<ChangeEvent> habitEvents = new ArrayList<>();
+        for (ChangeEvent event : events) {
+            if (event.source() != ChangeEvent.Source.HABIT) continue;
+            if (event.type() != ChangeEvent.Type.HABIT_STATUS) {
+                habitCatalog.invalidate();
+            }
+            habitEvents.add(event);
+        }
+        eventBus.publishAll(habitEvents);
+    }
+
     // --- TRACKING STATUS ---
     
     public boolean getHabitStatus(int habitId, LocalDate date) {
-        return repository.isHabitDone(habitId, date);
+        Boolean pending;
+        synchronized (pendingWrites) {
+            pending = pendingWrites.get(new HabitDay(habitId, date));
+        }
+        return (pending != null) ? pending : repository.isHabitDone(habitId, date);
+    }
+
+    // Seluruh status satu minggu (habit x hari + mood) dalam satu kali query,
+    // ditimpa dengan perubahan yang belum sempat ditulis ke DB
+    public WeekSnapshot getWeekSnapshot(LocalDate weekStart) {
+        Map<HabitDay, Boolean> overlay = copyPendingWrites();
+        long catalogVersion = habitCatalog.snapshot().getVersion();
+        WeekSnapshot snapshot = repository.loadWeekSnapshot(weekStart);
+        overlay.putAll(copyPendingWrites());
+
+        // Snapshot memuat semua habit, sekalian mengisi katalog
+        fillCatalog(snapshot.getHabits(), catalogVersion);
+        return snapshot.withCompletions(overlay);
     }
 
+    // Langsung berlaku di memori; penulisan ke DB ditunda dan digabung (write-behind)
     public void updateHabitStatus(int habitId, LocalDate date, boolean isCompleted) {
-        boolean success = repository.setHabitStatus(habitId, date, isCompleted);
+        int pendingCount;
+        synchronized (pendingWrites) {
+            pendingWrites.put(new HabitDay(habitId, date), isCompleted);
+            pendingCount = pendingWrites.size();
+            scheduleFlush(flushDelayMillis);
+        }
+
+        Habit h = getHabit(habitId);
+        String habitName = (h != null) ? h.getName() : "Habit ID " + habitId;
+        String tgl = date.getDayOfMonth() + "/" + date.getMonthValue();
+        String pesan;
         
-        if(success) {
-            Habit h = getHabit(habitId);
-            String habitName = (h != null) ? h.getName() : "Habit ID " + habitId;
-            String tgl = date.getDayOfMonth() + "/" + date.getMonthValue();
-            String pesan;
-            
-            if (isCompleted) {
-                pesan = "[v] Selesai: " + habitName + " (" + tgl + ")";
-            } else {
-                pesan = "[x] Batal: " + habitName + " (" + tgl + ")";
+        if (isCompleted) {
+            pesan = "[v] Selesai: " + habitName + " (" + tgl + ")";
+        } else {
+            pesan = "[x] Batal: " + habitName + " (" + tgl + ")";
+        }
+        
+        activityLog.append(isCompleted ? ActivityEvent.Type.HABIT_DONE : ActivityEvent.Type.HABIT_UNDONE,
+                habitId, date, pesan);
+        firePendingChanged(pendingCount);
+        eventBus.publish(ChangeEvent.habitStatus(habitId, date, isCompleted));
+    }
+
+    // --- WRITE-BEHIND ---
+
+    public int getPendingWriteCount() {
+        synchronized (pendingWrites) {
+            return pendingWrites.size();
+        }
+    }
+
+    public void addPendingWritesListener(IntConsumer listener) {
+        pendingListeners.add(listener);
+    }
+
+    public void removePendingWritesListener(IntConsumer listener) {
+        pendingListeners.remove(listener);
+    }
+
+    // Tulis semua perubahan tertunda dalam satu transaksi. Entri baru dihapus dari antrean
+    // setelah commit, dan hanya jika tidak di-toggle lagi selama penulisan berlangsung.
+    public synchronized boolean flushPendingWrites() {
+        Map<HabitDay, Boolean> batch = copyPendingWrites();
+        if (batch.isEmpty()) return true;
+
+        boolean success = repository.setHabitStatuses(batch);
+        int pendingCount;
+        synchronized (pendingWrites) {
+            if (success) {
+                for (Map.Entry<HabitDay, Boolean> entry : batch.entrySet()) {
+                    pendingWrites.remove(entry.getKey(), entry.getValue());
+                }
+            }
+            pendingCount = pendingWrites.size();
+            if (pendingCount > 0) {
+                scheduleFlush(success ? flushDelayMillis : RETRY_DELAY_MS);
             }
-            
-            activityLog.add(pesan);
-            notifyObservers();
         }
+        if (!success) {
+            LOGGER.log(Level.WARNING, "Flush habit status gagal, {0} perubahan akan dicoba lagi", pendingCount);
+        }
+        firePendingChanged(pendingCount);
+        return success;
+    }
+
+    public CompletableFuture<Boolean> flushPendingWritesAsync() {
+        return DbExecutor.write(this::flushPendingWrites);
+    }
+
+    // Dipanggil saat aplikasi ditutup: pastikan tidak ada perubahan yang hilang
+    @Override
+    public void close() {
+        synchronized (pendingWrites) {
+            if (flushTimer != null) {
+                flushTimer.shutdownNow();
+                flushTimer = null;
+            }
+        }
+        flushPendingWrites();
+    }
+
+    private Map<HabitDay, Boolean> copyPendingWrites() {
+        synchronized (pendingWrites) {
+            return new LinkedHashMap<>(pendingWrites);
+        }
+    }
+
+    private void discardPendingWrites(int habitId) {
+        int pendingCount;
+        synchronized (pendingWrites) {
+            pendingWrites.keySet().removeIf(key -> key.habitId() == habitId);
+            pendingCount = pendingWrites.size();
+        }
+        firePendingChanged(pendingCount);
+    }
+
+    // Harus dipanggil sambil memegang lock pendingWrites
+    private void scheduleFlush(long delayMillis) {
+        if (scheduledFlush != null && !scheduledFlush.isDone()) return;
+        if (flushTimer == null) {
+            flushTimer = Executors.newSingleThreadScheduledExecutor(DbExecutor.daemonThreadFactory("moodflow-habit-flush"));
+        }
+        // Flush dijalankan lewat writer DbExecutor agar urutannya tetap dengan add/delete habit
+        scheduledFlush = flushTimer.schedule(this::flushPendingWritesAsync, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void firePendingChanged(int pendingCount) {
+        for (IntConsumer listener : pendingListeners) {
+            listener.accept(pendingCount);
+        }
+    }
+
+    // --- ASYNC API (dijalankan di DbExecutor, bukan di EDT) ---
+
+    public CompletableFuture<WeekSnapshot> getWeekSnapshotAsync(LocalDate weekStart) {
+        return DbExecutor.read(() -> getWeekSnapshot(weekStart));
+    }
+
+    public CompletableFuture<List<Habit>> getHabitsAsync() {
+        return DbExecutor.read(this::getHabits);
+    }
+
+    public CompletableFuture<Boolean> addHabitAsync(String name) {
+        return DbExecutor.write(() -> addHabit(name));
+    }
+
+    public CompletableFuture<Boolean> deleteHabitAsync(int id) {
+        return DbExecutor.write(() -> deleteHabit(id));
+    }
+
+    public CompletableFuture<Void> updateHabitStatusAsync(int habitId, LocalDate date, boolean isCompleted) {
+        return DbExecutor.write(() -> updateHabitStatus(habitId, date, isCompleted));
     }
 }
\ No newline at end of file
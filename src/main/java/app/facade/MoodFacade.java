@@ -1,47 +1,88 @@
 package app.facade;
 
+import app.activity.ActivityEvent;
+import app.activity.ActivityLog;
+import app.async.DbExecutor;
+import app.cache.LruCache;
 import app.model.Mood;
+import app.model.MoodBucket;
+import app.model.MoodSeries;
+import app.model.MoodTrend;
+import app.model.TrendResolution;
+import app.observer.ChangeEvent;
+import app.observer.ChangeListener;
+import app.observer.EventBus;
 import app.observer.IObserver;
 import app.repository.MoodRepository;
+import app.service.Downsampler;
 import java.time.LocalDate;
 import java.util.ArrayList;
-import java.util.HashMap;
-import java.util.LinkedList;
 import java.util.List;
 import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
 
 public class MoodFacade {
 
     private MoodRepository repo;
     
+    // ~2 tahun data harian; Optional.empty() = hari tanpa mood (negative cache)
+    private static final int CACHE_SIZE = 730;
+    // Hari kosong bisa saja terisi dari luar (atau query gagal diam-diam), jadi tidak disimpan selamanya
+    private static final long NEGATIVE_TTL_MS = 5 * 60 * 1000L;
+
     // Cache & Log
-    private Map<LocalDate, Mood> moodCache = new HashMap<>();
+    private final LruCache<LocalDate, Optional<Mood>> moodCache = new LruCache<>(CACHE_SIZE);
     
-    private List<String> activityLog = new LinkedList<>();
+    private final ActivityLog activityLog = ActivityLog.named("mood");
     
     private final String[] moodEmojis = {"", "😭", "😞", "😐", "😊", "😄"};
     
-    private List<IObserver> observers = new ArrayList<>();
+    private final EventBus eventBus;
+    private final Map<IObserver, ChangeListener> observerAdapters = new ConcurrentHashMap<>();
 
     public MoodFacade() {
-        this.repo = new MoodRepository();
+        this(new EventBus());
+    }
+
+    // Bus dibagi dengan HabitFacade supaya listener menerima satu batch untuk keduanya
+    public MoodFacade(EventBus eventBus) {
+        this(new MoodRepository(), eventBus);
     }
 
+    // Tanpa bus eksplisit: event dikirim langsung (sinkron) seperti IObserver dulu
     public MoodFacade(MoodRepository repo) {
+        this(repo, EventBus.direct());
+    }
+
+    public MoodFacade(MoodRepository repo, EventBus eventBus) {
         this.repo = repo;
+        this.eventBus = eventBus;
+        moodCache.registerMetrics("MoodFacade.moodCache");
+    }
+
+    public EventBus getEventBus() {
+        return eventBus;
     }
 
+    // IObserver lama tetap didukung: dipanggil sekali per batch event
     public void addObserver(IObserver observer) {
-        observers.add(observer);
+        ChangeListener adapter = events -> observer.onDataChanged();
+        if (observerAdapters.putIfAbsent(observer, adapter) == null) {
+            eventBus.subscribe(adapter);
+        }
     }
 
-    private void notifyObservers() {
-        for (IObserver observer : observers) {
-            observer.onDataChanged();
+    public void removeObserver(IObserver observer) {
+        ChangeListener adapter = observerAdapters.remove(observer);
+        if (adapter != null) {
+            eventBus.unsubscribe(adapter);
         }
     }
 
-    public List<String> getActivityLog() {
+    public ActivityLog getActivityLog() {
         return activityLog;
     }
 
@@ -54,27 +95,147 @@ public class MoodFacade {
         if (success) {
             if (moodValue > 0) {
                 Mood newMood = new Mood(moodValue, date.toString());
-                moodCache.put(date, newMood);
+                moodCache.put(date, Optional.of(newMood));
                 
                 String emoji = moodEmojis[moodValue]; 
                 String tgl = date.getDayOfMonth() + "/" + date.getMonthValue();
                 String logPesan = "Input Mood: " + emoji + " (" + tgl + ")";
-                activityLog.add(logPesan);
+                activityLog.append(ActivityEvent.Type.MOOD_SET, 0, date, logPesan);
             } else {
-                moodCache.remove(date); 
+                moodCache.put(date, Optional.empty());
             }
-            notifyObservers(); 
+            eventBus.publish(ChangeEvent.mood(date, moodValue));
         }
     }
 
+    // Simpan banyak hari sekaligus (import / bulk edit), observer cukup dipanggil sekali
+    public boolean saveMoods(Map<LocalDate, Integer> moods) {
+        Map<LocalDate, Integer> valid = new TreeMap<>();
+        for (Map.Entry<LocalDate, Integer> entry : moods.entrySet()) {
+            Integer value = entry.getValue();
+            if (value != null && value >= 0 && value <= 5) {
+                valid.put(entry.getKey(), value);
+            }
+        }
+        if (valid.isEmpty()) return false;
+
+        boolean success = repo.upsertMoods(valid);
+        if (success) {
+            for (Map.Entry<LocalDate, Integer> entry : valid.entrySet()) {
+                LocalDate date = entry.getKey();
+                if (entry.getValue() > 0) {
+                    moodCache.put(date, Optional.of(new Mood(entry.getValue(), date.toString())));
+                } else {
+                    moodCache.put(date, Optional.empty());
+                }
+            }
+            activityLog.append(ActivityEvent.Type.MOOD_BATCH, 0, null, "Input Mood: " + valid.size() + " hari sekaligus");
+            List<ChangeEvent> events = new ArrayList<>();
+            for (Map.Entry<LocalDate, Integer> entry : valid.entrySet()) {
+                events.add(ChangeEvent.mood(entry.getKey(), entry.getValue()));
+            }
+            eventBus.publishAll(events);
+        }
+        return success;
+    }
+
+    // Perubahan mood dari sinkronisasi store lokal: cache diperbarui lalu event diteruskan
+    public void applyRemoteChanges(List<ChangeEvent> events) {
+        List<ChangeEvent> moodEvents = new ArrayList<>();
+        for (ChangeEvent event : events) {
+            if (event.source() != ChangeEvent.Source.MOOD) continue;
+            if (event.value() > 0) {
+                moodCache.put(event.date(), Optional.of(new Mood(event.value(), event.date().toString())));
+            } else {
+                moodCache.put(event.date(), Optional.empty());
+            }
+            moodEvents.add(event);
+        }
+        eventBus.publishAll(moodEvents);
+    }
+
     public Mood getMood(LocalDate date) {
-        if (moodCache.containsKey(date)) {
-            return moodCache.get(date);
+        Optional<Mood> cached = moodCache.get(date);
+        if (cached != null) {
+            return cached.orElse(null);
         }
+        // Hari tanpa mood juga disimpan, supaya tidak query ulang ke DB
         Mood m = repo.getMoodByDate(date);
-        if (m != null) {
-            moodCache.put(date, m);
-        }
+        cacheMood(date, m);
         return m;
     }
+
+    // Satu query untuk seluruh rentang (mis. seminggu / sebulan); semua hari di rentang masuk cache,
+    // termasuk yang kosong. Hasil hanya berisi hari yang punya mood.
+    public Map<LocalDate, Mood> getMoods(LocalDate from, LocalDate to) {
+        Map<LocalDate, Mood> moods = repo.getMoodsBetween(from, to);
+        for (LocalDate d = from; !d.isAfter(to); d = d.plusDays(1)) {
+            cacheMood(d, moods.get(d));
+        }
+        return moods;
+    }
+
+    private void cacheMood(LocalDate date, Mood mood) {
+        if (mood != null) {
+            moodCache.put(date, Optional.of(mood));
+        } else {
+            moodCache.put(date, Optional.empty(), NEGATIVE_TTL_MS);
+        }
+    }
+
+    // Statistik cache (hit/miss/eviction) untuk menentukan ukuran
+    public LruCache<LocalDate, Optional<Mood>> getCache() {
+        return moodCache;
+    }
+
+    public MoodSeries getMoodSeries(LocalDate start, int days) {
+        Map<LocalDate, Mood> moods = getMoods(start, start.plusDays(days - 1L));
+
+        int[] values = new int[days];
+        for (int i = 0; i < days; i++) {
+            Mood m = moods.get(start.plusDays(i));
+            values[i] = (m != null) ? m.getMoodValue() : 0;
+        }
+        return new MoodSeries(start, values);
+    }
+
+    // Tren rentang panjang: agregasi per bucket di database, ukuran bucket menyesuaikan jumlah titik yang muat di grafik
+    public MoodTrend getMoodTrend(LocalDate from, LocalDate to, int maxPoints) {
+        TrendResolution resolution = TrendResolution.forRange(from, to, maxPoints);
+        return new MoodTrend(from, to, resolution, false, repo.getMoodBuckets(from, to, resolution));
+    }
+
+    // Deret harian asli, dikurangi jadi maxPoints titik dengan LTTB.
+    // Tidak lewat moodCache supaya tren bertahun-tahun tidak mengusir hari-hari yang sering dibuka.
+    public MoodTrend getRawMoodTrend(LocalDate from, LocalDate to, int maxPoints) {
+        Map<LocalDate, Mood> moods = repo.getMoodsBetween(from, to);
+        double[] x = new double[moods.size()];
+        double[] y = new double[moods.size()];
+        List<LocalDate> dates = new ArrayList<>(moods.keySet());
+        dates.sort(null);
+        for (int i = 0; i < dates.size(); i++) {
+            x[i] = dates.get(i).toEpochDay();
+            y[i] = moods.get(dates.get(i)).getMoodValue();
+        }
+
+        List<MoodBucket> points = new ArrayList<>();
+        for (int index : Downsampler.lttb(x, y, maxPoints)) {
+            points.add(MoodBucket.ofDay(dates.get(index), (int) y[index]));
+        }
+        return new MoodTrend(from, to, TrendResolution.DAY, true, points);
+    }
+
+    // --- ASYNC API (dijalankan di DbExecutor, bukan di EDT) ---
+
+    public CompletableFuture<Void> saveMoodAsync(int moodValue, LocalDate date) {
+        return DbExecutor.write(() -> saveMood(moodValue, date));
+    }
+
+    public CompletableFuture<Boolean> saveMoodsAsync(Map<LocalDate, Integer> moods) {
+        return DbExecutor.write(() -> saveMoods(moods));
+    }
+
+    public CompletableFuture<Mood> getMoodAsync(LocalDate date) {
+        return DbExecutor.read(() -> getMood(date));
+    }
 }
\ No newline at end of file
@@ -0,0 +1,25 @@
+package app.metrics;
+
+import java.util.concurrent.atomic.LongAdder;
+
+// Counter monotonic; LongAdder supaya increment dari banyak thread DB tidak saling berebut
+public final class Counter {
+
+    private final LongAdder value = new LongAdder();
+
+    public void increment() {
+        value.increment();
+    }
+
+    public void add(long amount) {
+        value.add(amount);
+    }
+
+    public long get() {
+        return value.sum();
+    }
+
+    void reset() {
+        value.reset();
+    }
+}
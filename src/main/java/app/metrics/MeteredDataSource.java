@@ -0,0 +1,120 @@
+package app.metrics;
+
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.CallableStatement;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.sql.Wrapper;
+import javax.sql.DataSource;
+
+// Timer & counter error repository di satu tempat: DataSource dibungkus sekali di constructor repository.
+// Setiap koneksi yang dipinjam (getConnection sampai close) tercatat sebagai satu panggilan
+// "<Repository>.<method>" (method pemilik yang meminjam koneksi, dicari dari stack), dan dihitung
+// ke "<Repository>.<method>.errors" jika ada SQLException selama peminjaman (termasuk gagal mendapat koneksi).
+public final class MeteredDataSource {
+
+    private static final StackWalker WALKER = StackWalker.getInstance();
+
+    private MeteredDataSource() {}
+
+    // null tetap null (repository lokal mode offline tidak memakai database)
+    public static DataSource wrap(DataSource dataSource, Class<?> owner) {
+        if (dataSource == null) return null;
+        InvocationHandler handler = (proxy, method, args) -> {
+            if (!method.getName().equals("getConnection")) {
+                return invoke(dataSource, method, args, null);
+            }
+            Lease lease = new Lease(callerName(owner), System.nanoTime());
+            try {
+                Object conn = invoke(dataSource, method, args, lease);
+                return conn == null ? null : proxy(Connection.class, conn, lease);
+            } catch (SQLException e) {
+                lease.end();
+                throw e;
+            }
+        };
+        return (DataSource) Proxy.newProxyInstance(DataSource.class.getClassLoader(),
+                new Class<?>[] { DataSource.class }, handler);
+    }
+
+    private static String callerName(Class<?> owner) {
+        String className = owner.getName();
+        return WALKER.walk(frames -> frames
+                .filter(f -> f.getClassName().equals(className))
+                .findFirst()
+                .map(f -> owner.getSimpleName() + "." + f.getMethodName())
+                .orElse(owner.getSimpleName()));
+    }
+
+    // Statement & result set dari koneksi ikut dibungkus supaya error-nya terhitung. Objek yang dioper balik
+    // ke driver sebagai parameter (Array, Blob, ...) tidak dibungkus: driver mengharapkan objeknya sendiri.
+    private static Object proxy(Class<?> type, Object target, Lease lease) {
+        InvocationHandler handler = (proxy, method, args) -> {
+            switch (method.getName()) {
+                case "unwrap":
+                    return ((Wrapper) target).unwrap((Class<?>) args[0]);
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "equals":
+                    return proxy == args[0];
+                default:
+                    break;
+            }
+            Object result;
+            try {
+                result = invoke(target, method, args, lease);
+            } finally {
+                if (target instanceof Connection && method.getName().equals("close")) {
+                    lease.end();
+                }
+            }
+            Class<?> resultType = method.getReturnType();
+            if (result != null && (resultType == Statement.class || resultType == PreparedStatement.class
+                    || resultType == CallableStatement.class || resultType == ResultSet.class)) {
+                return proxy(resultType, result, lease);
+            }
+            return result;
+        };
+        return Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, handler);
+    }
+
+    private static Object invoke(Object target, Method method, Object[] args, Lease lease) throws Throwable {
+        try {
+            return method.invoke(target, args);
+        } catch (InvocationTargetException e) {
+            if (lease != null && e.getCause() instanceof SQLException) {
+                lease.failed = true;
+            }
+            throw e.getCause();
+        }
+    }
+
+    // Satu peminjaman koneksi; dipakai dari satu thread seperti koneksinya
+    private static final class Lease {
+
+        private final String name;
+        private final long start;
+        private boolean failed;
+        private boolean ended;
+
+        private Lease(String name, long start) {
+            this.name = name;
+            this.start = start;
+        }
+
+        private void end() {
+            if (ended) return;
+            ended = true;
+            Metrics.global().latency(name).record(System.nanoTime() - start);
+            if (failed) {
+                Metrics.increment(name + ".errors");
+            }
+        }
+    }
+}
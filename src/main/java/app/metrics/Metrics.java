@@ -0,0 +1,137 @@
+package app.metrics;
+
+import java.lang.management.ManagementFactory;
+import java.time.Instant;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+import java.util.function.ToDoubleFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+// Registry metrik in-process: counter, gauge, dan histogram latensi, dikunci dengan nama
+// "<Kelas>.<method>" (mis. MoodRepository.getMoodByDate) supaya mudah dicari di laporan.
+// Method repository dicatat otomatis lewat MeteredDataSource; kode lain memakai latency(nama).record(nanos).
+// Metrik dibuat saat pertama dipakai; lookup berikutnya cukup satu get di ConcurrentHashMap.
+public final class Metrics implements MetricsMXBean {
+
+    private static final Logger LOGGER = Logger.getLogger(Metrics.class.getName());
+
+    public static final String MBEAN_NAME = "app.metrics:type=Metrics";
+
+    private static final Metrics GLOBAL = new Metrics();
+
+    private final Map<String, Counter> counters = new ConcurrentHashMap<>();
+    private final Map<String, LatencyHistogram> latencies = new ConcurrentHashMap<>();
+    private final Map<String, LongSupplier> gauges = new ConcurrentHashMap<>();
+
+    public static Metrics global() {
+        return GLOBAL;
+    }
+
+    public static void increment(String name) {
+        GLOBAL.counter(name).increment();
+    }
+
+    public Counter counter(String name) {
+        return counters.computeIfAbsent(name, n -> new Counter());
+    }
+
+    public LatencyHistogram latency(String name) {
+        return latencies.computeIfAbsent(name, n -> new LatencyHistogram());
+    }
+
+    // Nilai yang sudah dihitung di tempat lain (mis. statistik cache/pool); nama yang sama menggantikan yang lama
+    public void gauge(String name, LongSupplier value) {
+        gauges.put(name, value);
+    }
+
+    public void registerMBean() {
+        try {
+            MBeanServer server = ManagementFactory.getPlatformMBeanServer();
+            ObjectName objectName = new ObjectName(MBEAN_NAME);
+            if (!server.isRegistered(objectName)) {
+                server.registerMBean(this, objectName);
+            }
+        } catch (JMException e) {
+            LOGGER.log(Level.WARNING, "Failed to register metrics MBean", e);
+        }
+    }
+
+    // --- MXBean ---
+
+    @Override
+    public Map<String, Long> getCounters() {
+        Map<String, Long> values = new TreeMap<>();
+        counters.forEach((name, counter) -> values.put(name, counter.get()));
+        return values;
+    }
+
+    @Override
+    public Map<String, Long> getGauges() {
+        Map<String, Long> values = new TreeMap<>();
+        gauges.forEach((name, gauge) -> {
+            try {
+                values.put(name, gauge.getAsLong());
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.FINE, "Gauge " + name + " gagal dibaca", e);
+            }
+        });
+        return values;
+    }
+
+    @Override
+    public Map<String, Long> getLatencyCounts() {
+        Map<String, Long> values = new TreeMap<>();
+        latencies.forEach((name, histogram) -> values.put(name, histogram.getCount()));
+        return values;
+    }
+
+    @Override
+    public Map<String, Double> getLatencyP50Millis() {
+        return latencyMillis(h -> h.getValueAtPercentile(50));
+    }
+
+    @Override
+    public Map<String, Double> getLatencyP99Millis() {
+        return latencyMillis(h -> h.getValueAtPercentile(99));
+    }
+
+    @Override
+    public Map<String, Double> getLatencyMaxMillis() {
+        return latencyMillis(LatencyHistogram::getMaxNanos);
+    }
+
+    private Map<String, Double> latencyMillis(ToDoubleFunction<LatencyHistogram> nanos) {
+        Map<String, Double> values = new TreeMap<>();
+        latencies.forEach((name, histogram) -> values.put(name, nanos.applyAsDouble(histogram) / 1_000_000.0));
+        return values;
+    }
+
+    // Satu baris per metrik, diurutkan per nama; latensi dalam milidetik
+    @Override
+    public String getReport() {
+        StringBuilder out = new StringBuilder("# MoodFlow metrics ").append(Instant.now()).append('\n');
+        getCounters().forEach((name, value) ->
+                out.append(String.format("counter  %-50s %d%n", name, value)));
+        getGauges().forEach((name, value) ->
+                out.append(String.format("gauge    %-50s %d%n", name, value)));
+        new TreeMap<>(latencies).forEach((name, h) ->
+                out.append(String.format("latency  %-50s count=%d mean=%.3f p50=%.3f p90=%.3f p99=%.3f max=%.3f%n",
+                        name, h.getCount(), h.getMeanNanos() / 1_000_000.0,
+                        h.getValueAtPercentile(50) / 1_000_000.0, h.getValueAtPercentile(90) / 1_000_000.0,
+                        h.getValueAtPercentile(99) / 1_000_000.0, h.getMaxNanos() / 1_000_000.0)));
+        return out.toString();
+    }
+
+    // Counter & histogram di-nol-kan (gauge tetap, nilainya milik komponen lain)
+    @Override
+    public void reset() {
+        counters.values().forEach(Counter::reset);
+        latencies.values().forEach(LatencyHistogram::reset);
+    }
+}
@@ -0,0 +1,23 @@
+package app.metrics;
+
+import java.util.Map;
+
+// Dilihat lewat JConsole/VisualVM di app.metrics:type=Metrics
+public interface MetricsMXBean {
+
+    Map<String, Long> getCounters();
+
+    Map<String, Long> getGauges();
+
+    Map<String, Long> getLatencyCounts();
+
+    Map<String, Double> getLatencyP50Millis();
+
+    Map<String, Double> getLatencyP99Millis();
+
+    Map<String, Double> getLatencyMaxMillis();
+
+    String getReport();
+
+    void reset();
+}
@@ -0,0 +1,85 @@
+package app.metrics;
+
+import app.async.DbExecutor;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Menulis laporan Metrics ke file secara berkala (dan sekali lagi saat aplikasi ditutup).
+// File ditimpa utuh lewat file sementara + rename, jadi pembaca tidak pernah melihat laporan setengah jadi.
+public class MetricsReporter implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(MetricsReporter.class.getName());
+
+    // -Dmoodflow.metrics.file=<path> untuk mengaktifkan dump; interval dalam detik
+    private static final String FILE_PROPERTY = "moodflow.metrics.file";
+    private static final String INTERVAL_PROPERTY = "moodflow.metrics.interval";
+    private static final long DEFAULT_INTERVAL_SECONDS = 60;
+
+    private final Metrics metrics;
+    private final Path file;
+    private final ScheduledExecutorService scheduler;
+
+    public MetricsReporter(Metrics metrics, Path file, long intervalSeconds) {
+        if (intervalSeconds <= 0) {
+            throw new IllegalArgumentException("intervalSeconds harus > 0");
+        }
+        this.metrics = metrics;
+        this.file = file;
+        this.scheduler = Executors.newSingleThreadScheduledExecutor(DbExecutor.daemonThreadFactory("moodflow-metrics"));
+        scheduler.scheduleWithFixedDelay(this::dump, intervalSeconds, intervalSeconds, TimeUnit.SECONDS);
+    }
+
+    // null jika property tidak diset (dump ke file tidak aktif)
+    public static MetricsReporter fromSystemProperties(Metrics metrics) {
+        String path = System.getProperty(FILE_PROPERTY);
+        if (path == null || path.isBlank()) return null;
+
+        long interval = DEFAULT_INTERVAL_SECONDS;
+        String value = System.getProperty(INTERVAL_PROPERTY);
+        if (value != null) {
+            try {
+                interval = Long.parseLong(value.trim());
+            } catch (NumberFormatException e) {
+                LOGGER.log(Level.WARNING, "Invalid {0}: {1}, using default", new Object[] {INTERVAL_PROPERTY, value});
+            }
+        }
+        MetricsReporter reporter = new MetricsReporter(metrics, Paths.get(path), Math.max(1, interval));
+        Runtime.getRuntime().addShutdownHook(new Thread(reporter::close, "moodflow-metrics-shutdown"));
+        LOGGER.info("Metrics dump enabled: " + reporter.file.toAbsolutePath());
+        return reporter;
+    }
+
+    public Path getFile() {
+        return file;
+    }
+
+    public synchronized void dump() {
+        try {
+            Path target = file.toAbsolutePath();
+            Files.createDirectories(target.getParent());
+            Path temp = target.resolveSibling(target.getFileName() + ".tmp");
+            Files.writeString(temp, metrics.getReport(), StandardCharsets.UTF_8);
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Gagal menulis metrics ke " + file, e);
+        }
+    }
+
+    // Berhenti menjadwalkan lalu dump terakhir
+    @Override
+    public synchronized void close() {
+        if (scheduler.isShutdown()) return;
+        scheduler.shutdownNow();
+        dump();
+    }
+}
@@ -4,11 +4,30 @@ public class AnalysisHabitMood {
     private String habitName;
     private double moodImpact; // Positive: habit increases mood, negative: decreases
 
+    // Detail statistik (diisi HabitImpactEngine); 0 / NaN jika tidak dihitung
+    private int habitId;
+    private int daysDone;        // hari habit dilakukan & mood (setelah lag) tercatat
+    private int daysNotDone;     // hari ber-mood tanpa habit
+    private int lagDays;         // 1 = habit kemarin -> mood hari ini
+    private double standardError = Double.NaN;
+    private double confidence;   // 0..1, dari uji t Welch dua sisi (pendekatan normal)
+
     public AnalysisHabitMood(String habitName, double moodImpact) {
         this.habitName = habitName;
         this.moodImpact = moodImpact;
     }
 
+    public AnalysisHabitMood(int habitId, String habitName, double moodImpact, int daysDone, int daysNotDone,
+                             int lagDays, double standardError, double confidence) {
+        this(habitName, moodImpact);
+        this.habitId = habitId;
+        this.daysDone = daysDone;
+        this.daysNotDone = daysNotDone;
+        this.lagDays = lagDays;
+        this.standardError = standardError;
+        this.confidence = confidence;
+    }
+
     public String getHabitName() {
         return habitName;
     }
@@ -17,11 +36,43 @@ public class AnalysisHabitMood {
         return moodImpact;
     }
 
+    public int getHabitId() {
+        return habitId;
+    }
+
+    public int getDaysDone() {
+        return daysDone;
+    }
+
+    public int getDaysNotDone() {
+        return daysNotDone;
+    }
+
+    public int getSampleSize() {
+        return daysDone + daysNotDone;
+    }
+
+    public int getLagDays() {
+        return lagDays;
+    }
+
+    public double getStandardError() {
+        return standardError;
+    }
+
+    public double getConfidence() {
+        return confidence;
+    }
+
     @Override
     public String toString() {
         return "AnalysisHabitMood{"
                 + "habitName='" + habitName + "'\''" + 
                 ", moodImpact=" + moodImpact +
+                ", daysDone=" + daysDone +
+                ", daysNotDone=" + daysNotDone +
+                ", lagDays=" + lagDays +
+                ", confidence=" + confidence +
                 '}';
     }
-}
\ No newline at end of file
+}
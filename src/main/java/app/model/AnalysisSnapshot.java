@@ -0,0 +1,115 @@
+package app.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.EnumMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Data mood & habit log untuk satu rentang tanggal dalam bentuk kolom (array per atribut).
+// Dimuat sekali dari DB, lalu semua analyzer dihitung di memori.
+public class AnalysisSnapshot {
+
+    private final LocalDate startDate;
+    private final int days;
+
+    private final int[] habitIds;
+    private final String[] habitNames;
+    private final BitSet[] doneDays;  // per habit, bit ke-i = habit dilakukan pada startDate + i
+    private final int[] moodByDay;    // 0 = tidak ada mood
+
+    public AnalysisSnapshot(LocalDate startDate, int days, int[] habitIds, String[] habitNames,
+                            BitSet[] doneDays, int[] moodByDay) {
+        if (habitIds.length != habitNames.length || habitIds.length != doneDays.length || moodByDay.length != days) {
+            throw new IllegalArgumentException("Ukuran snapshot tidak valid");
+        }
+        this.startDate = startDate;
+        this.days = days;
+        this.habitIds = habitIds;
+        this.habitNames = habitNames;
+        this.doneDays = doneDays;
+        this.moodByDay = moodByDay;
+    }
+
+    public LocalDate getStartDate() { return startDate; }
+
+    public LocalDate getEndDate() { return startDate.plusDays(days - 1L); }
+
+    public int getDays() { return days; }
+
+    public int getHabitCount() { return habitIds.length; }
+
+    public int getHabitId(int habitIndex) { return habitIds[habitIndex]; }
+
+    public String getHabitName(int habitIndex) { return habitNames[habitIndex]; }
+
+    public boolean isDone(int habitIndex, int dayIndex) { return doneDays[habitIndex].get(dayIndex); }
+
+    public int getMood(int dayIndex) { return moodByDay[dayIndex]; }
+
+    // Bitset asli (tanpa salinan) untuk iterasi cepat; jangan diubah
+    public BitSet getDoneDays(int habitIndex) { return doneDays[habitIndex]; }
+
+    public int indexOfHabit(int habitId) {
+        for (int i = 0; i < habitIds.length; i++) {
+            if (habitIds[i] == habitId) return i;
+        }
+        return -1;
+    }
+
+    public int dayIndexOf(LocalDate date) {
+        return (int) (date.toEpochDay() - startDate.toEpochDay());
+    }
+
+    // Jumlah hari habit dilakukan dalam [from, to]
+    public int countDone(int habitIndex, LocalDate from, LocalDate to) {
+        int fromIdx = Math.max(0, dayIndexOf(from));
+        int toIdx = Math.min(days - 1, dayIndexOf(to));
+        if (fromIdx > toIdx) return 0;
+        return doneDays[habitIndex].get(fromIdx, toIdx + 1).cardinality();
+    }
+
+    // Habit yang paling sering dilakukan pada hari mood tinggi (> 3) atau rendah (< 3)
+    public List<String> getHabitsByMood(boolean isHighMood, int limit) {
+        Map<String, Integer> countByName = new LinkedHashMap<>();
+        for (int h = 0; h < habitIds.length; h++) {
+            int count = 0;
+            BitSet bits = doneDays[h];
+            for (int d = bits.nextSetBit(0); d >= 0; d = bits.nextSetBit(d + 1)) {
+                int mood = moodByDay[d];
+                if (mood > 0 && (isHighMood ? mood > 3 : mood < 3)) count++;
+            }
+            if (count > 0) countByName.merge(habitNames[h], count, Integer::sum);
+        }
+
+        List<Map.Entry<String, Integer>> entries = new ArrayList<>(countByName.entrySet());
+        entries.sort(Map.Entry.<String, Integer>comparingByValue().reversed()
+                .thenComparing(Map.Entry.comparingByKey()));
+
+        List<String> result = new ArrayList<>();
+        for (int i = 0; i < entries.size() && i < limit; i++) {
+            result.add(entries.get(i).getKey());
+        }
+        return result;
+    }
+
+    public Map<DayOfWeek, Double> getAverageMoodByDayOfWeek() {
+        double[] sum = new double[8];
+        int[] count = new int[8];
+        for (int d = 0; d < days; d++) {
+            if (moodByDay[d] > 0) {
+                int dow = startDate.plusDays(d).getDayOfWeek().getValue();
+                sum[dow] += moodByDay[d];
+                count[dow]++;
+            }
+        }
+        Map<DayOfWeek, Double> result = new EnumMap<>(DayOfWeek.class);
+        for (int dow = 1; dow <= 7; dow++) {
+            if (count[dow] > 0) result.put(DayOfWeek.of(dow), sum[dow] / count[dow]);
+        }
+        return result;
+    }
+}
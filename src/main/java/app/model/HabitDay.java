@@ -0,0 +1,7 @@
+package app.model;
+
+import java.time.LocalDate;
+
+// Kunci satu sel tracker: (habit, tanggal)
+public record HabitDay(int habitId, LocalDate date) {
+}
@@ -0,0 +1,12 @@
+package app.model;
+
+import java.time.LocalDate;
+
+// Ringkasan mood satu bucket grafik tren (hari/minggu/bulan/...). count = jumlah hari yang ada mood-nya.
+public record MoodBucket(LocalDate start, double average, int min, int max, int count) {
+
+    // Satu hari mentah sebagai bucket, untuk deret harian yang di-downsample
+    public static MoodBucket ofDay(LocalDate date, int moodValue) {
+        return new MoodBucket(date, moodValue, moodValue, moodValue, 1);
+    }
+}
@@ -0,0 +1,38 @@
+package app.model;
+
+import java.time.LocalDate;
+
+// Deret nilai mood harian yang immutable (dipakai grafik, tidak pernah query ke DB saat paint)
+public final class MoodSeries {
+
+    private final LocalDate start;
+    private final int[] values; // 0 = belum ada mood
+
+    public MoodSeries(LocalDate start, int[] values) {
+        this.start = start;
+        this.values = values.clone();
+    }
+
+    public static MoodSeries empty(LocalDate start, int days) {
+        return new MoodSeries(start, new int[days]);
+    }
+
+    public LocalDate getStart() { return start; }
+
+    public LocalDate getDate(int index) { return start.plusDays(index); }
+
+    public int size() { return values.length; }
+
+    public int getValue(int index) { return values[index]; }
+
+    public boolean hasValue(int index) { return values[index] > 0; }
+
+    // Salinan dengan nilai satu tanggal diganti; tanggal di luar deret diabaikan
+    public MoodSeries withValue(LocalDate date, int value) {
+        long index = date.toEpochDay() - start.toEpochDay();
+        if (index < 0 || index >= values.length || values[(int) index] == value) return this;
+        int[] copy = values.clone();
+        copy[(int) index] = value;
+        return new MoodSeries(start, copy);
+    }
+}
@@ -0,0 +1,19 @@
+package app.model;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Hasil query tren: bucket terurut menurut tanggal, hanya bucket yang punya data.
+// raw = titik harian asli (sudah di-downsample), bukan rata-rata per bucket.
+public record MoodTrend(LocalDate from, LocalDate to, TrendResolution resolution, boolean raw, List<MoodBucket> buckets) {
+
+    public MoodTrend {
+        buckets = List.copyOf(buckets);
+    }
+
+    public static MoodTrend empty(LocalDate from, LocalDate to) {
+        return new MoodTrend(from, to, TrendResolution.DAY, false, List.of());
+    }
+
+    public boolean isEmpty() { return buckets.isEmpty(); }
+}
@@ -0,0 +1,33 @@
+package app.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+
+// Jenis periode untuk navigasi view. Minggu dimulai hari Minggu (sama dengan tabel tracker).
+public enum PeriodType {
+    WEEK,
+    MONTH;
+
+    public LocalDate startOf(LocalDate date) {
+        return this == WEEK
+                ? date.with(TemporalAdjusters.previousOrSame(DayOfWeek.SUNDAY))
+                : date.withDayOfMonth(1);
+    }
+
+    public LocalDate next(LocalDate start) {
+        return this == WEEK ? start.plusWeeks(1) : start.plusMonths(1);
+    }
+
+    public LocalDate previous(LocalDate start) {
+        return this == WEEK ? start.minusWeeks(1) : start.minusMonths(1);
+    }
+
+    public LocalDate shift(LocalDate start, int periods) {
+        return this == WEEK ? start.plusWeeks(periods) : start.plusMonths(periods);
+    }
+
+    public int lengthInDays(LocalDate start) {
+        return this == WEEK ? WeekSnapshot.DAYS : start.lengthOfMonth();
+    }
+}
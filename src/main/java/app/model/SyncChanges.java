@@ -0,0 +1,38 @@
+package app.model;
+
+import java.time.LocalDate;
+import java.util.List;
+
+// Baris yang berubah di server sejak versi tertentu (lihat SchemaMigration V4).
+// Tombstone: baris yang dihapus; key = id habit, tanggal mood, atau "habit_id:date" untuk log.
+public record SyncChanges(List<HabitRow> habits, List<LogRow> logs, List<MoodRow> moods, List<Tombstone> tombstones) {
+
+    public record HabitRow(int id, String name, long version) {}
+
+    public record LogRow(int habitId, LocalDate date, long version) {}
+
+    public record MoodRow(LocalDate date, int value, long version) {}
+
+    public record Tombstone(String table, String key, long version) {}
+
+    public SyncChanges {
+        habits = List.copyOf(habits);
+        logs = List.copyOf(logs);
+        moods = List.copyOf(moods);
+        tombstones = List.copyOf(tombstones);
+    }
+
+    public boolean isEmpty() {
+        return habits.isEmpty() && logs.isEmpty() && moods.isEmpty() && tombstones.isEmpty();
+    }
+
+    // Versi tertinggi di batch ini (0 jika kosong)
+    public long maxVersion() {
+        long max = 0;
+        for (HabitRow row : habits) max = Math.max(max, row.version());
+        for (LogRow row : logs) max = Math.max(max, row.version());
+        for (MoodRow row : moods) max = Math.max(max, row.version());
+        for (Tombstone row : tombstones) max = Math.max(max, row.version());
+        return max;
+    }
+}
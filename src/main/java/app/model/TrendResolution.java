@@ -0,0 +1,68 @@
+package app.model;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.IsoFields;
+import java.time.temporal.TemporalAdjusters;
+
+// Ukuran bucket untuk grafik tren. Nama unit sama dengan date_trunc(...) di PostgreSQL,
+// jadi batas bucket di Java dan di database selalu sama (minggu = minggu ISO, mulai Senin).
+public enum TrendResolution {
+    DAY("day"),
+    WEEK("week"),
+    MONTH("month"),
+    QUARTER("quarter"),
+    YEAR("year");
+
+    private final String sqlUnit;
+
+    TrendResolution(String sqlUnit) {
+        this.sqlUnit = sqlUnit;
+    }
+
+    public String getSqlUnit() { return sqlUnit; }
+
+    public LocalDate startOf(LocalDate date) {
+        return switch (this) {
+            case DAY -> date;
+            case WEEK -> date.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY));
+            case MONTH -> date.withDayOfMonth(1);
+            case QUARTER -> date.with(IsoFields.DAY_OF_QUARTER, 1);
+            case YEAR -> date.withDayOfYear(1);
+        };
+    }
+
+    public LocalDate next(LocalDate start) {
+        return switch (this) {
+            case DAY -> start.plusDays(1);
+            case WEEK -> start.plusWeeks(1);
+            case MONTH -> start.plusMonths(1);
+            case QUARTER -> start.plusMonths(3);
+            case YEAR -> start.plusYears(1);
+        };
+    }
+
+    // Jumlah bucket yang menyentuh rentang [from, to]
+    public long bucketCount(LocalDate from, LocalDate to) {
+        LocalDate first = startOf(from);
+        LocalDate last = startOf(to);
+        return switch (this) {
+            case DAY -> ChronoUnit.DAYS.between(first, last) + 1;
+            case WEEK -> ChronoUnit.WEEKS.between(first, last) + 1;
+            case MONTH -> ChronoUnit.MONTHS.between(first, last) + 1;
+            case QUARTER -> ChronoUnit.MONTHS.between(first, last) / 3 + 1;
+            case YEAR -> ChronoUnit.YEARS.between(first, last) + 1;
+        };
+    }
+
+    // Resolusi paling halus yang jumlah bucket-nya muat di maxBuckets (mis. lebar grafik / piksel per titik)
+    public static TrendResolution forRange(LocalDate from, LocalDate to, int maxBuckets) {
+        for (TrendResolution resolution : values()) {
+            if (resolution.bucketCount(from, to) <= maxBuckets) {
+                return resolution;
+            }
+        }
+        return YEAR;
+    }
+}
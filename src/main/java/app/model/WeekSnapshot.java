@@ -0,0 +1,85 @@
+package app.model;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
+// Matriks habit x hari untuk satu minggu, ditambah nilai mood 7 hari.
+public class WeekSnapshot {
+
+    public static final int DAYS = 7;
+
+    private final LocalDate weekStart;
+    private final List<Habit> habits;
+    private final BitSet[] completions; // satu bitset per habit, bit ke-i = hari ke-i
+    private final int[] moodValues;     // 0 = belum ada mood
+
+    public WeekSnapshot(LocalDate weekStart, List<Habit> habits, BitSet[] completions, int[] moodValues) {
+        if (completions.length != habits.size() || moodValues.length != DAYS) {
+            throw new IllegalArgumentException("Ukuran snapshot tidak valid");
+        }
+        this.weekStart = weekStart;
+        this.habits = Collections.unmodifiableList(new ArrayList<>(habits));
+        this.completions = new BitSet[completions.length];
+        for (int i = 0; i < completions.length; i++) {
+            this.completions[i] = (BitSet) completions[i].clone();
+        }
+        this.moodValues = moodValues.clone();
+    }
+
+    public LocalDate getWeekStart() { return weekStart; }
+
+    public LocalDate getDate(int dayIndex) { return weekStart.plusDays(dayIndex); }
+
+    public List<Habit> getHabits() { return habits; }
+
+    public int getHabitCount() { return habits.size(); }
+
+    public boolean isDone(int habitIndex, int dayIndex) {
+        return completions[habitIndex].get(dayIndex);
+    }
+
+    public int getMoodValue(int dayIndex) {
+        return moodValues[dayIndex];
+    }
+
+    // Salinan snapshot dengan status sel tertentu ditimpa (mis. perubahan yang belum tersimpan)
+    public WeekSnapshot withCompletions(Map<HabitDay, Boolean> overrides) {
+        if (overrides.isEmpty()) return this;
+        BitSet[] bits = new BitSet[completions.length];
+        for (int i = 0; i < completions.length; i++) {
+            bits[i] = (BitSet) completions[i].clone();
+        }
+        for (Map.Entry<HabitDay, Boolean> entry : overrides.entrySet()) {
+            int row = indexOfHabit(entry.getKey().habitId());
+            int day = dayIndexOf(entry.getKey().date());
+            if (row >= 0 && day >= 0) {
+                bits[row].set(day, entry.getValue());
+            }
+        }
+        return new WeekSnapshot(weekStart, habits, bits, moodValues);
+    }
+
+    public WeekSnapshot withMood(LocalDate date, int moodValue) {
+        int day = dayIndexOf(date);
+        if (day < 0 || moodValues[day] == moodValue) return this;
+        int[] moods = moodValues.clone();
+        moods[day] = moodValue;
+        return new WeekSnapshot(weekStart, habits, completions, moods);
+    }
+
+    public int indexOfHabit(int habitId) {
+        for (int i = 0; i < habits.size(); i++) {
+            if (habits.get(i).getId() == habitId) return i;
+        }
+        return -1;
+    }
+
+    public int dayIndexOf(LocalDate date) {
+        long diff = date.toEpochDay() - weekStart.toEpochDay();
+        return (diff >= 0 && diff < DAYS) ? (int) diff : -1;
+    }
+}
@@ -0,0 +1,35 @@
+package app.observer;
+
+import java.time.LocalDate;
+
+// Perubahan data dari facade. habitId 0 / date null jika tidak relevan.
+// value: status habit (1 = selesai, 0 = batal) atau nilai mood (0 = dihapus).
+public record ChangeEvent(Source source, Type type, int habitId, LocalDate date, int value) {
+
+    public enum Source { HABIT, MOOD }
+
+    public enum Type { HABIT_ADDED, HABIT_DELETED, HABIT_STATUS, MOOD }
+
+    public static ChangeEvent habitAdded(int habitId) {
+        return new ChangeEvent(Source.HABIT, Type.HABIT_ADDED, habitId, null, 0);
+    }
+
+    public static ChangeEvent habitDeleted(int habitId) {
+        return new ChangeEvent(Source.HABIT, Type.HABIT_DELETED, habitId, null, 0);
+    }
+
+    public static ChangeEvent habitStatus(int habitId, LocalDate date, boolean done) {
+        return new ChangeEvent(Source.HABIT, Type.HABIT_STATUS, habitId, date, done ? 1 : 0);
+    }
+
+    public static ChangeEvent mood(LocalDate date, int moodValue) {
+        return new ChangeEvent(Source.MOOD, Type.MOOD, 0, date, moodValue);
+    }
+
+    // Dua event dengan key sama boleh digabung: yang terakhir yang berlaku
+    Object coalesceKey() {
+        return new Key(type, habitId, date);
+    }
+
+    private record Key(Type type, int habitId, LocalDate date) {}
+}
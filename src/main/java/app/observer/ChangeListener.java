@@ -0,0 +1,8 @@
+package app.observer;
+
+import java.util.List;
+
+@FunctionalInterface
+public interface ChangeListener {
+    void onChanges(List<ChangeEvent> events); // batch event yang sudah digabung, urut sesuai kejadian terakhir
+}
@@ -0,0 +1,96 @@
+package app.observer;
+
+import app.async.DbExecutor;
+
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.Executor;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Pengganti fan-out IObserver: event dikumpulkan lalu dikirim sebagai satu batch lewat dispatcher.
+// Dengan dispatcher EDT (default), semua event yang masuk sebelum EDT sempat memproses
+// digabung jadi satu batch -> satu kali update UI per burst. Event dengan key sama
+// (jenis, habit, tanggal) hanya dikirim yang terakhir.
+public class EventBus {
+
+    private static final Logger LOGGER = Logger.getLogger(EventBus.class.getName());
+
+    private final Executor dispatcher;
+    private final List<ChangeListener> listeners = new CopyOnWriteArrayList<>();
+
+    // guarded by this
+    private final Map<Object, ChangeEvent> pending = new LinkedHashMap<>();
+    private boolean dispatchScheduled;
+    private long publishedCount;
+    private long batchCount;
+
+    public EventBus() {
+        this(DbExecutor.EDT);
+    }
+
+    public EventBus(Executor dispatcher) {
+        this.dispatcher = dispatcher;
+    }
+
+    // Dikirim langsung di thread pemanggil, satu batch per publish (dipakai di test)
+    public static EventBus direct() {
+        return new EventBus(Runnable::run);
+    }
+
+    public void subscribe(ChangeListener listener) {
+        listeners.add(listener);
+    }
+
+    public void unsubscribe(ChangeListener listener) {
+        listeners.remove(listener);
+    }
+
+    public void publish(ChangeEvent event) {
+        publishAll(List.of(event));
+    }
+
+    // Beberapa event dari satu operasi (mis. simpan banyak mood) selalu masuk batch yang sama
+    public void publishAll(Collection<ChangeEvent> events) {
+        if (events.isEmpty()) return;
+        synchronized (this) {
+            for (ChangeEvent event : events) {
+                Object key = event.coalesceKey();
+                pending.remove(key); // pindah ke posisi terakhir
+                pending.put(key, event);
+                publishedCount++;
+            }
+            if (dispatchScheduled) return;
+            dispatchScheduled = true;
+        }
+        dispatcher.execute(this::dispatch);
+    }
+
+    public synchronized long getPublishedCount() {
+        return publishedCount;
+    }
+
+    public synchronized long getBatchCount() {
+        return batchCount;
+    }
+
+    private void dispatch() {
+        List<ChangeEvent> batch;
+        synchronized (this) {
+            batch = List.copyOf(pending.values());
+            pending.clear();
+            dispatchScheduled = false;
+            batchCount++;
+        }
+        for (ChangeListener listener : listeners) {
+            try {
+                listener.onChanges(batch);
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.SEVERE, "Change listener failed", e);
+            }
+        }
+    }
+}
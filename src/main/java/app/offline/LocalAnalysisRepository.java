@@ -0,0 +1,75 @@
+package app.offline;
+
+import app.model.AnalysisSnapshot;
+import app.repository.AnalysisRepository;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+
+// AnalysisRepository di atas LocalStore: analisis dashboard tetap jalan saat database tidak terjangkau.
+// Semua query dihitung dari snapshot yang dibangun di memori.
+public class LocalAnalysisRepository extends AnalysisRepository {
+
+    private final LocalStore store;
+
+    public LocalAnalysisRepository(LocalStore store) {
+        super((DataSource) null);
+        this.store = store;
+    }
+
+    @Override
+    public AnalysisSnapshot loadAnalysisSnapshot(LocalDate startDate, LocalDate endDate) {
+        return store.analysisSnapshot(startDate, endDate);
+    }
+
+    @Override
+    public List<LocalDate> getDatesWithMoodEntries(LocalDate startDate, LocalDate endDate) {
+        return new ArrayList<>(store.getMoods(startDate, endDate).keySet());
+    }
+
+    @Override
+    public List<LocalDate> getHabitCompletedDates(int habitId, LocalDate startDate, LocalDate endDate) {
+        List<LocalDate> dates = new ArrayList<>();
+        for (LocalDate date = startDate; !date.isAfter(endDate); date = date.plusDays(1)) {
+            if (store.isDone(habitId, date)) {
+                dates.add(date);
+            }
+        }
+        return dates;
+    }
+
+    @Override
+    public double getAverageMoodForDates(List<LocalDate> dates) {
+        double sum = 0;
+        int count = 0;
+        if (dates != null) {
+            for (LocalDate date : dates) {
+                int mood = store.getMood(date);
+                if (mood > 0) {
+                    sum += mood;
+                    count++;
+                }
+            }
+        }
+        return (count == 0) ? 0.0 : sum / count;
+    }
+
+    @Override
+    public int countHabitLogs(int habitId, LocalDate startDate, LocalDate endDate) {
+        return getHabitCompletedDates(habitId, startDate, endDate).size();
+    }
+
+    @Override
+    public List<String> getHabitsByMood(boolean isHighMood, int limit, LocalDate startDate, LocalDate endDate) {
+        return store.analysisSnapshot(startDate, endDate).getHabitsByMood(isHighMood, limit);
+    }
+
+    @Override
+    public Map<DayOfWeek, Double> getAverageMoodByDayOfWeek(LocalDate startDate, LocalDate endDate) {
+        return store.analysisSnapshot(startDate, endDate).getAverageMoodByDayOfWeek();
+    }
+}
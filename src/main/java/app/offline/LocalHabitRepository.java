@@ -0,0 +1,76 @@
+package app.offline;
+
+import app.model.Habit;
+import app.model.HabitDay;
+import app.model.WeekSnapshot;
+import app.repository.HabitRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import javax.sql.DataSource;
+
+// HabitRepository di atas LocalStore: tidak ada JDBC, semua operasi selesai di memori (+ satu baris journal).
+// Habit baru mendapat id lokal (negatif) sampai SyncEngine membuatnya di server.
+public class LocalHabitRepository extends HabitRepository {
+
+    private final LocalStore store;
+
+    public LocalHabitRepository(LocalStore store) {
+        super((DataSource) null);
+        this.store = store;
+    }
+
+    @Override
+    public boolean createHabit(Habit habit) {
+        habit.setId(store.addHabit(habit.getName()));
+        return true;
+    }
+
+    // Kunci hanya dipakai di server; store lokal memberi id lokal sendiri
+    @Override
+    public boolean createHabit(Habit habit, UUID clientKey) {
+        return createHabit(habit);
+    }
+
+    @Override
+    public Habit getHabitById(int id) {
+        return store.getHabit(id);
+    }
+
+    @Override
+    public List<Habit> getAllHabits() {
+        return store.getHabits();
+    }
+
+    @Override
+    public boolean deleteHabit(int id) {
+        store.deleteHabit(id);
+        return true;
+    }
+
+    @Override
+    public boolean isHabitDone(int habitId, LocalDate date) {
+        return store.isDone(habitId, date);
+    }
+
+    @Override
+    public boolean setHabitStatus(int habitId, LocalDate date, boolean status) {
+        store.setDone(habitId, date, status);
+        return true;
+    }
+
+    @Override
+    public boolean setHabitStatuses(Map<HabitDay, Boolean> changes) {
+        for (Map.Entry<HabitDay, Boolean> entry : changes.entrySet()) {
+            store.setDone(entry.getKey().habitId(), entry.getKey().date(), entry.getValue());
+        }
+        return true;
+    }
+
+    @Override
+    public WeekSnapshot loadWeekSnapshot(LocalDate weekStart) {
+        return store.weekSnapshot(weekStart);
+    }
+}
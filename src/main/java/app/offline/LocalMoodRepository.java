@@ -0,0 +1,86 @@
+package app.offline;
+
+import app.model.Mood;
+import app.model.MoodBucket;
+import app.model.TrendResolution;
+import app.repository.MoodRepository;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import javax.sql.DataSource;
+
+// MoodRepository di atas LocalStore. Id mood tidak disimpan lokal (selalu 0), kunci mood adalah tanggalnya.
+public class LocalMoodRepository extends MoodRepository {
+
+    private final LocalStore store;
+
+    public LocalMoodRepository(LocalStore store) {
+        super((DataSource) null);
+        this.store = store;
+    }
+
+    @Override
+    public Mood getMoodByDate(LocalDate date) {
+        int value = store.getMood(date);
+        return (value > 0) ? new Mood(0, value, date.toString()) : null;
+    }
+
+    @Override
+    public Map<LocalDate, Mood> getMoodsBetween(LocalDate startDate, LocalDate endDate) {
+        Map<LocalDate, Mood> moods = new LinkedHashMap<>();
+        for (Map.Entry<LocalDate, Integer> entry : store.getMoods(startDate, endDate).entrySet()) {
+            moods.put(entry.getKey(), new Mood(0, entry.getValue(), entry.getKey().toString()));
+        }
+        return moods;
+    }
+
+    // Sama dengan BUCKETS_SQL (date_trunc + AVG/MIN/MAX), dihitung dari data di memori
+    @Override
+    public List<MoodBucket> getMoodBuckets(LocalDate startDate, LocalDate endDate, TrendResolution resolution) {
+        List<MoodBucket> buckets = new ArrayList<>();
+        LocalDate bucketStart = null;
+        int sum = 0;
+        int min = 0;
+        int max = 0;
+        int days = 0;
+        for (Map.Entry<LocalDate, Integer> entry : store.getMoods(startDate, endDate).entrySet()) {
+            LocalDate start = resolution.startOf(entry.getKey());
+            if (!start.equals(bucketStart)) {
+                if (days > 0) {
+                    buckets.add(new MoodBucket(bucketStart, (double) sum / days, min, max, days));
+                }
+                bucketStart = start;
+                sum = 0;
+                min = Integer.MAX_VALUE;
+                max = Integer.MIN_VALUE;
+                days = 0;
+            }
+            int value = entry.getValue();
+            sum += value;
+            min = Math.min(min, value);
+            max = Math.max(max, value);
+            days++;
+        }
+        if (days > 0) {
+            buckets.add(new MoodBucket(bucketStart, (double) sum / days, min, max, days));
+        }
+        return buckets;
+    }
+
+    @Override
+    public boolean upsertMood(int moodValue, LocalDate date) {
+        store.setMood(date, moodValue);
+        return true;
+    }
+
+    @Override
+    public boolean upsertMoods(Map<LocalDate, Integer> moods) {
+        for (Map.Entry<LocalDate, Integer> entry : moods.entrySet()) {
+            store.setMood(entry.getKey(), entry.getValue());
+        }
+        return true;
+    }
+}
@@ -0,0 +1,685 @@
+package app.offline;
+
+import app.model.AnalysisSnapshot;
+import app.model.Habit;
+import app.model.HabitDay;
+import app.model.SyncChanges;
+import app.model.WeekSnapshot;
+import app.observer.ChangeEvent;
+
+import java.io.BufferedReader;
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.UUID;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Salinan lokal habit, log habit & mood: semua baca dari memori, tulis langsung berlaku.
+// Setiap baris menyimpan versi server terakhir yang diketahui (serverVersion) dan nomor perubahan lokal
+// yang belum terkirim (pending, 0 = sudah sinkron). SyncEngine mengirim yang pending dan menarik perubahan server.
+// Persistensi: setiap perubahan ditulis sebagai satu baris ke journal (append-only, state penuh per key,
+// jadi replay cukup menimpa); journal dipadatkan ke snapshot setiap COMPACT_AFTER baris.
+// Semua akses disinkronkan pada objek ini.
+public class LocalStore implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(LocalStore.class.getName());
+
+    static final String SNAPSHOT_FILE = "store.snapshot";
+    static final String JOURNAL_FILE = "store.journal";
+    static final int COMPACT_AFTER = 10_000;
+
+    // Habit baru mendapat id negatif sampai dibuat di server (id server selalu positif).
+    // Urutan tampil sama dengan server (id naik), habit lokal di belakang sesuai urutan dibuat.
+    private static final Comparator<Integer> HABIT_ORDER =
+            Comparator.comparingLong(id -> id > 0 ? id : (long) Integer.MAX_VALUE - id);
+
+    // value: 1 = habit ada / habit selesai, nilai mood untuk mood; 0 = dihapus (disimpan sampai terkirim)
+    static final class Entry {
+        String name; // hanya habit
+        int value;
+        long serverVersion;
+        long pending;
+
+        Entry(String name, int value, long serverVersion, long pending) {
+            this.name = name;
+            this.value = value;
+            this.serverVersion = serverVersion;
+            this.pending = pending;
+        }
+    }
+
+    // Perubahan lokal yang belum terkirim. Log milik habit yang belum punya id server belum ikut.
+    // stamp: nomor perubahan terakhir saat diambil; perubahan sesudahnya tetap pending setelah markSynced.
+    public record PendingChanges(Map<Integer, String> newHabits, Set<Integer> deletedHabits,
+                                 Map<HabitDay, Boolean> logs, Map<LocalDate, Integer> moods, long stamp) {
+
+        public boolean isEmpty() {
+            return newHabits.isEmpty() && deletedHabits.isEmpty() && logs.isEmpty() && moods.isEmpty();
+        }
+
+        public int size() {
+            return newHabits.size() + deletedHabits.size() + logs.size() + moods.size();
+        }
+    }
+
+    private final Map<Integer, Entry> habits = new TreeMap<>(HABIT_ORDER);
+    private final NavigableMap<LocalDate, Map<Integer, Entry>> logs = new TreeMap<>();
+    private final NavigableMap<LocalDate, Entry> moods = new TreeMap<>();
+    private final Map<Integer, Integer> remapped = new HashMap<>(); // id lokal -> id server
+    private long lastPulledVersion;
+    private long changeCounter;
+    private int nextLocalId = -1;
+    private UUID storeId; // acak, sekali per store; dasar clientKey habit lokal
+
+    private final Path snapshotFile;
+    private final Path journalFile;
+    private long generation;
+    private int journalLines;
+    private BufferedWriter journal;
+    private Runnable changeListener = () -> { };
+
+    public LocalStore(Path dir) {
+        this.snapshotFile = dir.resolve(SNAPSHOT_FILE);
+        this.journalFile = dir.resolve(JOURNAL_FILE);
+        try {
+            Files.createDirectories(dir);
+            load();
+            if (storeId == null) {
+                storeId = UUID.randomUUID();
+            }
+            // Journal sisa sesi sebelumnya langsung dipadatkan, start berikutnya cukup baca snapshot
+            compact();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Gagal membuka store lokal di " + dir, e);
+        }
+    }
+
+    // Dipanggil setelah setiap perubahan lokal (di luar lock), mis. untuk memicu sinkronisasi
+    public synchronized void setChangeListener(Runnable listener) {
+        this.changeListener = listener;
+    }
+
+    // --- BACA ---
+
+    public synchronized List<Habit> getHabits() {
+        List<Habit> result = new ArrayList<>();
+        for (Map.Entry<Integer, Entry> entry : habits.entrySet()) {
+            if (entry.getValue().value > 0) {
+                result.add(new Habit(entry.getKey(), entry.getValue().name));
+            }
+        }
+        return result;
+    }
+
+    public synchronized Habit getHabit(int id) {
+        int resolved = resolve(id);
+        Entry entry = habits.get(resolved);
+        return (entry == null || entry.value == 0) ? null : new Habit(resolved, entry.name);
+    }
+
+    public synchronized boolean isDone(int habitId, LocalDate date) {
+        Map<Integer, Entry> day = logs.get(date);
+        Entry entry = (day == null) ? null : day.get(resolve(habitId));
+        return entry != null && entry.value > 0;
+    }
+
+    // 0 = tidak ada mood
+    public synchronized int getMood(LocalDate date) {
+        Entry entry = moods.get(date);
+        return (entry == null) ? 0 : entry.value;
+    }
+
+    // Hanya hari yang punya mood, urut tanggal
+    public synchronized Map<LocalDate, Integer> getMoods(LocalDate from, LocalDate to) {
+        Map<LocalDate, Integer> result = new LinkedHashMap<>();
+        for (Map.Entry<LocalDate, Entry> entry : moods.subMap(from, true, to, true).entrySet()) {
+            if (entry.getValue().value > 0) {
+                result.put(entry.getKey(), entry.getValue().value);
+            }
+        }
+        return result;
+    }
+
+    public synchronized WeekSnapshot weekSnapshot(LocalDate weekStart) {
+        List<Habit> visible = getHabits();
+        BitSet[] completions = new BitSet[visible.size()];
+        Map<Integer, Integer> rows = new HashMap<>();
+        for (int i = 0; i < visible.size(); i++) {
+            completions[i] = new BitSet(WeekSnapshot.DAYS);
+            rows.put(visible.get(i).getId(), i);
+        }
+        int[] moodValues = new int[WeekSnapshot.DAYS];
+        for (int day = 0; day < WeekSnapshot.DAYS; day++) {
+            LocalDate date = weekStart.plusDays(day);
+            moodValues[day] = getMood(date);
+            Map<Integer, Entry> dayLogs = logs.get(date);
+            if (dayLogs == null) continue;
+            for (Map.Entry<Integer, Entry> entry : dayLogs.entrySet()) {
+                Integer row = rows.get(entry.getKey());
+                if (row != null && entry.getValue().value > 0) {
+                    completions[row].set(day);
+                }
+            }
+        }
+        return new WeekSnapshot(weekStart, visible, completions, moodValues);
+    }
+
+    // Sama dengan AnalysisRepository.loadAnalysisSnapshot, dibangun dari data di memori
+    public synchronized AnalysisSnapshot analysisSnapshot(LocalDate startDate, LocalDate endDate) {
+        int days = (int) (endDate.toEpochDay() - startDate.toEpochDay()) + 1;
+        List<Habit> visible = getHabits();
+        int[] habitIds = new int[visible.size()];
+        String[] habitNames = new String[visible.size()];
+        BitSet[] doneDays = new BitSet[visible.size()];
+        Map<Integer, Integer> rows = new HashMap<>();
+        for (int i = 0; i < visible.size(); i++) {
+            habitIds[i] = visible.get(i).getId();
+            habitNames[i] = visible.get(i).getName();
+            doneDays[i] = new BitSet(days);
+            rows.put(habitIds[i], i);
+        }
+        for (Map.Entry<LocalDate, Map<Integer, Entry>> day : logs.subMap(startDate, true, endDate, true).entrySet()) {
+            int dayIndex = (int) (day.getKey().toEpochDay() - startDate.toEpochDay());
+            for (Map.Entry<Integer, Entry> entry : day.getValue().entrySet()) {
+                Integer row = rows.get(entry.getKey());
+                if (row != null && entry.getValue().value > 0) {
+                    doneDays[row].set(dayIndex);
+                }
+            }
+        }
+        int[] moodByDay = new int[days];
+        for (Map.Entry<LocalDate, Entry> entry : moods.subMap(startDate, true, endDate, true).entrySet()) {
+            moodByDay[(int) (entry.getKey().toEpochDay() - startDate.toEpochDay())] = entry.getValue().value;
+        }
+        return new AnalysisSnapshot(startDate, days, habitIds, habitNames, doneDays, moodByDay);
+    }
+
+    // Kunci stabil untuk create habit lokal di server: sama di setiap percobaan ulang dan setelah restart,
+    // karena id lokal tidak pernah dipakai ulang dan storeId tersimpan di snapshot
+    public synchronized UUID clientKey(int localId) {
+        return UUID.nameUUIDFromBytes((storeId + ":" + localId).getBytes(StandardCharsets.UTF_8));
+    }
+
+    public synchronized long getLastPulledVersion() {
+        return lastPulledVersion;
+    }
+
+    public synchronized int getPendingCount() {
+        int count = 0;
+        for (Entry entry : habits.values()) {
+            if (entry.pending > 0) count++;
+        }
+        for (Map<Integer, Entry> day : logs.values()) {
+            for (Entry entry : day.values()) {
+                if (entry.pending > 0) count++;
+            }
+        }
+        for (Entry entry : moods.values()) {
+            if (entry.pending > 0) count++;
+        }
+        return count;
+    }
+
+    // --- TULIS LOKAL ---
+
+    // Id lokal (negatif), diganti id server oleh SyncEngine lewat habitCreated
+    public int addHabit(String name) {
+        int id;
+        synchronized (this) {
+            id = nextLocalId;
+            putHabit(id, new Entry(name, 1, 0, ++changeCounter));
+        }
+        listener().run();
+        return id;
+    }
+
+    public void deleteHabit(int habitId) {
+        synchronized (this) {
+            int id = resolve(habitId);
+            Entry entry = habits.get(id);
+            if (entry == null || entry.value == 0) return;
+            // Belum pernah sampai ke server: cukup dibuang
+            putHabit(id, new Entry(entry.name, 0, entry.serverVersion, id < 0 ? 0 : ++changeCounter));
+        }
+        listener().run();
+    }
+
+    public void setDone(int habitId, LocalDate date, boolean done) {
+        synchronized (this) {
+            int id = resolve(habitId);
+            Entry habit = habits.get(id);
+            if (habit == null || habit.value == 0) return;
+            Entry entry = logEntry(id, date);
+            putLog(id, date, new Entry(null, done ? 1 : 0, entry == null ? 0 : entry.serverVersion, ++changeCounter));
+        }
+        listener().run();
+    }
+
+    // Nilai 0 berarti mood dihapus
+    public void setMood(LocalDate date, int value) {
+        synchronized (this) {
+            Entry entry = moods.get(date);
+            putMood(date, new Entry(null, value, entry == null ? 0 : entry.serverVersion, ++changeCounter));
+        }
+        listener().run();
+    }
+
+    private synchronized Runnable listener() {
+        return changeListener;
+    }
+
+    // --- SINKRONISASI ---
+
+    public synchronized PendingChanges pendingChanges() {
+        Map<Integer, String> newHabits = new LinkedHashMap<>();
+        Set<Integer> deletedHabits = new LinkedHashSet<>();
+        for (Map.Entry<Integer, Entry> entry : habits.entrySet()) {
+            Entry habit = entry.getValue();
+            if (habit.pending == 0) continue;
+            if (entry.getKey() < 0) {
+                newHabits.put(entry.getKey(), habit.name);
+            } else if (habit.value == 0) {
+                deletedHabits.add(entry.getKey());
+            }
+        }
+        Map<HabitDay, Boolean> pendingLogs = new LinkedHashMap<>();
+        for (Map.Entry<LocalDate, Map<Integer, Entry>> day : logs.entrySet()) {
+            for (Map.Entry<Integer, Entry> entry : day.getValue().entrySet()) {
+                if (entry.getValue().pending > 0 && entry.getKey() > 0) {
+                    pendingLogs.put(new HabitDay(entry.getKey(), day.getKey()), entry.getValue().value > 0);
+                }
+            }
+        }
+        Map<LocalDate, Integer> pendingMoods = new LinkedHashMap<>();
+        for (Map.Entry<LocalDate, Entry> entry : moods.entrySet()) {
+            if (entry.getValue().pending > 0) {
+                pendingMoods.put(entry.getKey(), entry.getValue().value);
+            }
+        }
+        return new PendingChanges(newHabits, deletedHabits, pendingLogs, pendingMoods, changeCounter);
+    }
+
+    // Habit lokal sudah dibuat di server: id lokal diganti id server, termasuk di log-nya.
+    // Id lokal lama tetap dikenali (resolve) untuk penulisan yang masih antre di facade.
+    // Habit yang dihapus lokal selama create-nya terkirim (entry sudah dibuang) ditandai pending-delete,
+    // supaya push berikutnya menghapusnya di server dan pull tidak memunculkannya lagi.
+    public synchronized void habitCreated(int localId, int serverId, long stamp) {
+        Entry entry = habits.get(localId);
+        apply("R\t" + localId + "\t" + serverId);
+        if (entry == null || entry.value == 0) {
+            putHabit(serverId, new Entry(entry == null ? "" : entry.name, 0, 0, ++changeCounter));
+        } else if (entry.pending <= stamp) {
+            putHabit(serverId, new Entry(entry.name, entry.value, entry.serverVersion, 0));
+        }
+    }
+
+    // Dipanggil setelah seluruh isi PendingChanges tersimpan di server
+    public synchronized void markSynced(PendingChanges pushed) {
+        for (int id : pushed.deletedHabits()) {
+            Entry entry = habits.get(id);
+            if (entry != null && entry.pending <= pushed.stamp()) {
+                putHabit(id, new Entry(entry.name, entry.value, entry.serverVersion, 0));
+            }
+        }
+        for (HabitDay key : pushed.logs().keySet()) {
+            Entry entry = logEntry(key.habitId(), key.date());
+            if (entry != null && entry.pending <= pushed.stamp()) {
+                putLog(key.habitId(), key.date(), new Entry(null, entry.value, entry.serverVersion, 0));
+            }
+        }
+        for (LocalDate date : pushed.moods().keySet()) {
+            Entry entry = moods.get(date);
+            if (entry != null && entry.pending <= pushed.stamp()) {
+                putMood(date, new Entry(null, entry.value, entry.serverVersion, 0));
+            }
+        }
+    }
+
+    // Perubahan server hanya menimpa baris yang tidak punya perubahan lokal pending (perubahan lokal menang,
+    // akan terkirim di push berikutnya) dan yang versinya lebih baru. Hasil: event untuk data yang berubah.
+    public synchronized List<ChangeEvent> applyRemote(SyncChanges changes) {
+        List<ChangeEvent> events = new ArrayList<>();
+        // Tombstone dulu: baris yang masih ada di server selalu lebih baru dari penghapusan sebelumnya
+        for (SyncChanges.Tombstone tombstone : changes.tombstones()) {
+            applyTombstone(tombstone, events);
+        }
+        for (SyncChanges.HabitRow row : changes.habits()) {
+            Entry entry = habits.get(row.id());
+            if (entry == null) {
+                putHabit(row.id(), new Entry(row.name(), 1, row.version(), 0));
+                events.add(ChangeEvent.habitAdded(row.id()));
+            } else if (entry.pending == 0 && row.version() > entry.serverVersion) {
+                putHabit(row.id(), new Entry(row.name(), 1, row.version(), 0));
+            }
+        }
+        for (SyncChanges.LogRow row : changes.logs()) {
+            Entry habit = habits.get(row.habitId());
+            if (habit == null || habit.value == 0) continue; // habit dihapus lokal, log-nya ikut terhapus di server
+            Entry entry = logEntry(row.habitId(), row.date());
+            if (entry == null || (entry.pending == 0 && row.version() > entry.serverVersion)) {
+                putLog(row.habitId(), row.date(), new Entry(null, 1, row.version(), 0));
+                if (entry == null || entry.value == 0) {
+                    events.add(ChangeEvent.habitStatus(row.habitId(), row.date(), true));
+                }
+            }
+        }
+        for (SyncChanges.MoodRow row : changes.moods()) {
+            Entry entry = moods.get(row.date());
+            if (entry == null || (entry.pending == 0 && row.version() > entry.serverVersion)) {
+                putMood(row.date(), new Entry(null, row.value(), row.version(), 0));
+                if (entry == null || entry.value != row.value()) {
+                    events.add(ChangeEvent.mood(row.date(), row.value()));
+                }
+            }
+        }
+        long max = changes.maxVersion();
+        if (max > lastPulledVersion) {
+            apply("V\t" + max);
+        }
+        return events;
+    }
+
+    private void applyTombstone(SyncChanges.Tombstone tombstone, List<ChangeEvent> events) {
+        try {
+            switch (tombstone.table()) {
+                case "habits" -> {
+                    int id = Integer.parseInt(tombstone.key());
+                    Entry entry = habits.get(id);
+                    // Habit yang hilang di server dibuang beserta log-nya, termasuk yang pending (FK sudah tidak ada)
+                    if (entry != null && tombstone.version() > entry.serverVersion) {
+                        putHabit(id, new Entry(entry.name, 0, entry.serverVersion, 0));
+                        if (entry.value > 0) {
+                            events.add(ChangeEvent.habitDeleted(id));
+                        }
+                    }
+                }
+                case "habit_logs" -> {
+                    String[] key = tombstone.key().split(":", 2);
+                    int habitId = Integer.parseInt(key[0]);
+                    LocalDate date = LocalDate.parse(key[1]);
+                    Entry entry = logEntry(habitId, date);
+                    if (entry != null && entry.pending == 0 && tombstone.version() > entry.serverVersion) {
+                        putLog(habitId, date, new Entry(null, 0, tombstone.version(), 0));
+                        if (entry.value > 0) {
+                            events.add(ChangeEvent.habitStatus(habitId, date, false));
+                        }
+                    }
+                }
+                case "mood" -> {
+                    LocalDate date = LocalDate.parse(tombstone.key());
+                    Entry entry = moods.get(date);
+                    if (entry != null && entry.pending == 0 && tombstone.version() > entry.serverVersion) {
+                        putMood(date, new Entry(null, 0, tombstone.version(), 0));
+                        if (entry.value > 0) {
+                            events.add(ChangeEvent.mood(date, 0));
+                        }
+                    }
+                }
+                default -> LOGGER.log(Level.FINE, "Tombstone tabel tidak dikenal: {0}", tombstone.table());
+            }
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Tombstone tidak valid dilewati: " + tombstone, e);
+        }
+    }
+
+    // --- STATE ---
+    // Semua perubahan lewat apply(baris): baris yang sama ditulis ke journal, dan dipakai lagi saat replay.
+    //   H id value serverVersion pending name   habit (value 0 + pending 0 = dibuang beserta log-nya)
+    //   L habitId date value serverVersion pending
+    //   M date value serverVersion pending       (value 0 + pending 0 = dibuang)
+    //   R idLokal idServer                       habit lokal mendapat id server
+    //   V versi                                   versi server terakhir yang sudah ditarik
+    //   I id                                      id lokal berikutnya (hanya di snapshot)
+    //   S uuid                                    id store untuk clientKey (hanya di snapshot)
+
+    private Entry logEntry(int habitId, LocalDate date) {
+        Map<Integer, Entry> day = logs.get(date);
+        return (day == null) ? null : day.get(habitId);
+    }
+
+    private int resolve(int id) {
+        Integer serverId = remapped.get(id);
+        return (serverId == null) ? id : serverId;
+    }
+
+    private void putHabit(int id, Entry entry) {
+        apply("H\t" + id + "\t" + entry.value + "\t" + entry.serverVersion + "\t" + entry.pending + "\t"
+                + entry.name.replace('\t', ' ').replace('\n', ' '));
+    }
+
+    private void putLog(int habitId, LocalDate date, Entry entry) {
+        apply("L\t" + habitId + "\t" + date + "\t" + entry.value + "\t" + entry.serverVersion + "\t" + entry.pending);
+    }
+
+    private void putMood(LocalDate date, Entry entry) {
+        apply("M\t" + date + "\t" + entry.value + "\t" + entry.serverVersion + "\t" + entry.pending);
+    }
+
+    private void apply(String line) {
+        replay(line);
+        append(line);
+    }
+
+    private void replay(String line) {
+        String[] f = line.split("\t", 6);
+        switch (f[0]) {
+            case "H" -> {
+                int id = Integer.parseInt(f[1]);
+                Entry entry = new Entry(f[5], Integer.parseInt(f[2]), Long.parseLong(f[3]), Long.parseLong(f[4]));
+                if (entry.value == 0) {
+                    removeLogs(id);
+                }
+                if (entry.value == 0 && entry.pending == 0) {
+                    habits.remove(id);
+                } else {
+                    habits.put(id, entry);
+                }
+                noteIds(id, entry.pending);
+            }
+            case "L" -> {
+                int habitId = Integer.parseInt(f[1]);
+                LocalDate date = LocalDate.parse(f[2]);
+                Entry entry = new Entry(null, Integer.parseInt(f[3]), Long.parseLong(f[4]), Long.parseLong(f[5]));
+                if (entry.value == 0 && entry.pending == 0) {
+                    Map<Integer, Entry> day = logs.get(date);
+                    if (day != null && day.remove(habitId) != null && day.isEmpty()) {
+                        logs.remove(date);
+                    }
+                } else {
+                    logs.computeIfAbsent(date, d -> new HashMap<>()).put(habitId, entry);
+                }
+                noteIds(0, entry.pending);
+            }
+            case "M" -> {
+                LocalDate date = LocalDate.parse(f[1]);
+                Entry entry = new Entry(null, Integer.parseInt(f[2]), Long.parseLong(f[3]), Long.parseLong(f[4]));
+                if (entry.value == 0 && entry.pending == 0) {
+                    moods.remove(date);
+                } else {
+                    moods.put(date, entry);
+                }
+                noteIds(0, entry.pending);
+            }
+            case "R" -> {
+                int localId = Integer.parseInt(f[1]);
+                int serverId = Integer.parseInt(f[2]);
+                remapped.put(localId, serverId);
+                Entry entry = habits.remove(localId);
+                if (entry != null) {
+                    habits.put(serverId, entry);
+                }
+                for (Map<Integer, Entry> day : logs.values()) {
+                    Entry log = day.remove(localId);
+                    if (log != null) {
+                        day.put(serverId, log);
+                    }
+                }
+                noteIds(localId, 0);
+            }
+            case "V" -> lastPulledVersion = Math.max(lastPulledVersion, Long.parseLong(f[1]));
+            case "I" -> nextLocalId = Math.min(nextLocalId, Integer.parseInt(f[1]));
+            case "S" -> storeId = UUID.fromString(f[1]);
+            default -> throw new IllegalArgumentException("Baris store tidak dikenal: " + line);
+        }
+    }
+
+    private void removeLogs(int habitId) {
+        Iterator<Map<Integer, Entry>> days = logs.values().iterator();
+        while (days.hasNext()) {
+            Map<Integer, Entry> day = days.next();
+            if (day.remove(habitId) != null && day.isEmpty()) {
+                days.remove();
+            }
+        }
+    }
+
+    // Counter perubahan & id lokal berikutnya dipulihkan dari isi store saat replay
+    private void noteIds(int id, long pending) {
+        changeCounter = Math.max(changeCounter, pending);
+        if (id < 0) {
+            nextLocalId = Math.min(nextLocalId, id - 1);
+        }
+    }
+
+    // --- PERSISTENSI ---
+
+    private void load() throws IOException {
+        long snapshotGeneration = -1;
+        if (Files.exists(snapshotFile)) {
+            snapshotGeneration = readFile(snapshotFile, -1);
+        }
+        if (Files.exists(journalFile)) {
+            // Journal dari generasi lama sudah masuk snapshot (crash di tengah compact)
+            readFile(journalFile, Math.max(snapshotGeneration, 0));
+        }
+        generation = Math.max(snapshotGeneration, 0);
+    }
+
+    // Baris pertama "G <generasi>"; isi file dilewati jika generasinya bukan expectedGeneration
+    // (-1 = terima generasi apa pun). Baris rusak di ekor journal (crash saat menulis) dilewati.
+    private long readFile(Path file, long expectedGeneration) throws IOException {
+        try (BufferedReader in = Files.newBufferedReader(file, StandardCharsets.UTF_8)) {
+            String header = in.readLine();
+            if (header == null || !header.startsWith("G\t")) {
+                LOGGER.log(Level.WARNING, "File store tanpa header dilewati: {0}", file);
+                return -1;
+            }
+            long fileGeneration = Long.parseLong(header.substring(2));
+            if (expectedGeneration >= 0 && fileGeneration != expectedGeneration) {
+                return fileGeneration;
+            }
+            String line;
+            while ((line = in.readLine()) != null) {
+                try {
+                    replay(line);
+                    if (file.equals(journalFile)) journalLines++;
+                } catch (RuntimeException e) {
+                    LOGGER.log(Level.WARNING, "Baris store dilewati: {0}", line);
+                }
+            }
+            return fileGeneration;
+        }
+    }
+
+    private void append(String line) {
+        try {
+            if (journal == null) {
+                journal = Files.newBufferedWriter(journalFile, StandardCharsets.UTF_8,
+                        StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+            }
+            journal.write(line);
+            journal.newLine();
+            journal.flush();
+            if (++journalLines >= COMPACT_AFTER) {
+                compact();
+            }
+        } catch (IOException e) {
+            // Data tetap ada di memori dan ikut snapshot berikutnya
+            LOGGER.log(Level.WARNING, "Gagal menulis journal store lokal " + journalFile, e);
+        }
+    }
+
+    // Snapshot baru (generasi + 1) ditulis ke file sementara lalu di-rename atomik, baru journal dikosongkan.
+    // Crash di antaranya aman: journal generasi lama diabaikan saat load.
+    synchronized void compact() throws IOException {
+        long next = generation + 1;
+        Path temp = snapshotFile.resolveSibling(SNAPSHOT_FILE + ".tmp");
+        try (BufferedWriter out = Files.newBufferedWriter(temp, StandardCharsets.UTF_8)) {
+            out.write("G\t" + next);
+            out.newLine();
+            for (String line : snapshotLines()) {
+                out.write(line);
+                out.newLine();
+            }
+        }
+        Files.move(temp, snapshotFile, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        generation = next;
+
+        if (journal != null) {
+            journal.close();
+        }
+        journal = Files.newBufferedWriter(journalFile, StandardCharsets.UTF_8);
+        journal.write("G\t" + next);
+        journal.newLine();
+        journal.flush();
+        journalLines = 0;
+    }
+
+    private List<String> snapshotLines() {
+        List<String> lines = new ArrayList<>();
+        lines.add("V\t" + lastPulledVersion);
+        lines.add("I\t" + nextLocalId);
+        lines.add("S\t" + storeId);
+        // Remap dulu, supaya replay log dengan id server tidak ikut dipindah lagi
+        for (Map.Entry<Integer, Integer> entry : remapped.entrySet()) {
+            lines.add("R\t" + entry.getKey() + "\t" + entry.getValue());
+        }
+        for (Map.Entry<Integer, Entry> entry : habits.entrySet()) {
+            Entry e = entry.getValue();
+            lines.add("H\t" + entry.getKey() + "\t" + e.value + "\t" + e.serverVersion + "\t" + e.pending + "\t"
+                    + e.name.replace('\t', ' ').replace('\n', ' '));
+        }
+        for (Map.Entry<LocalDate, Map<Integer, Entry>> day : logs.entrySet()) {
+            for (Map.Entry<Integer, Entry> entry : day.getValue().entrySet()) {
+                Entry e = entry.getValue();
+                lines.add("L\t" + entry.getKey() + "\t" + day.getKey() + "\t" + e.value + "\t" + e.serverVersion
+                        + "\t" + e.pending);
+            }
+        }
+        for (Map.Entry<LocalDate, Entry> entry : moods.entrySet()) {
+            Entry e = entry.getValue();
+            lines.add("M\t" + entry.getKey() + "\t" + e.value + "\t" + e.serverVersion + "\t" + e.pending);
+        }
+        return lines;
+    }
+
+    @Override
+    public synchronized void close() {
+        if (journal == null) return;
+        try {
+            journal.close();
+        } catch (IOException e) {
+            LOGGER.log(Level.WARNING, "Gagal menutup journal store lokal", e);
+        }
+        journal = null;
+    }
+}
@@ -0,0 +1,93 @@
+package app.offline;
+
+import app.config.DatabaseConnection;
+import app.facade.HabitFacade;
+import app.facade.MoodFacade;
+import app.observer.EventBus;
+import app.service.AnalysisService;
+import app.repository.HabitRepository;
+import app.repository.MoodRepository;
+import app.repository.SyncRepository;
+
+import java.nio.file.Paths;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+// Mode offline-first, aktif dengan -Dmoodflow.offline.dir=<folder>:
+// facade membaca & menulis LocalStore di folder itu, SyncEngine menyinkronkannya dengan PostgreSQL di belakang.
+// Interval sinkronisasi: -Dmoodflow.offline.syncInterval (detik, default 30).
+// Analisis dashboard juga dihitung dari LocalStore, jadi tetap jalan saat database tidak terjangkau.
+// memberitahu SonarQube agar mengabaikan peringatan Singleton
+@SuppressWarnings("java:S6548")
+public final class OfflineMode {
+
+    private static final Logger LOGGER = Logger.getLogger(OfflineMode.class.getName());
+
+    private static final String DIR_PROPERTY = "moodflow.offline.dir";
+    private static final String INTERVAL_PROPERTY = "moodflow.offline.syncInterval";
+
+    // Tulis ke store lokal murah; write-behind HabitFacade cukup menggabungkan klik beruntun
+    private static final long FLUSH_DELAY_MS = 50;
+
+    private static OfflineMode instance;
+    private static boolean resolved;
+
+    private final LocalStore store;
+    private final SyncEngine syncEngine;
+
+    private OfflineMode(LocalStore store) {
+        this.store = store;
+        // Pool baru dibuat saat sync pertama (di thread sync), startup tidak menunggu database
+        DataSource remote = DatabaseConnection.lazyDataSource();
+        long intervalMillis = Long.getLong(INTERVAL_PROPERTY, SyncEngine.DEFAULT_INTERVAL_MS / 1000) * 1000;
+        this.syncEngine = new SyncEngine(store, new SyncRepository(remote), new HabitRepository(remote),
+                new MoodRepository(remote), intervalMillis);
+        syncEngine.registerMetrics("SyncEngine");
+        store.setChangeListener(syncEngine::requestSync);
+    }
+
+    // null jika mode offline tidak aktif
+    public static synchronized OfflineMode getInstance() {
+        if (!resolved) {
+            resolved = true;
+            String dir = System.getProperty(DIR_PROPERTY);
+            if (dir != null && !dir.isBlank()) {
+                instance = new OfflineMode(new LocalStore(Paths.get(dir)));
+                LOGGER.info("Offline mode: local store at " + dir);
+            }
+        }
+        return instance;
+    }
+
+    public LocalStore getStore() {
+        return store;
+    }
+
+    public SyncEngine getSyncEngine() {
+        return syncEngine;
+    }
+
+    public void start() {
+        syncEngine.start();
+    }
+
+    public HabitFacade newHabitFacade(EventBus eventBus) {
+        return new HabitFacade(new LocalHabitRepository(store), FLUSH_DELAY_MS, eventBus);
+    }
+
+    public MoodFacade newMoodFacade(EventBus eventBus) {
+        return new MoodFacade(new LocalMoodRepository(store), eventBus);
+    }
+
+    public AnalysisService newAnalysisService() {
+        return new AnalysisService(new LocalAnalysisRepository(store));
+    }
+
+    // Perubahan hasil sinkronisasi diteruskan lewat facade, supaya cache-nya ikut diperbarui
+    public void attach(HabitFacade habitFacade, MoodFacade moodFacade) {
+        syncEngine.setRemoteChangeListener(events -> {
+            habitFacade.applyRemoteChanges(events);
+            moodFacade.applyRemoteChanges(events);
+        });
+    }
+}
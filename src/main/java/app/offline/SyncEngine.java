@@ -0,0 +1,212 @@
+package app.offline;
+
+import app.async.DbExecutor;
+import app.metrics.Metrics;
+import app.model.Habit;
+import app.model.SyncChanges;
+import app.observer.ChangeEvent;
+import app.repository.HabitRepository;
+import app.repository.MoodRepository;
+import app.repository.SyncRepository;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+// Sinkronisasi LocalStore <-> PostgreSQL di thread sendiri, UI tidak pernah menunggu:
+// 1. push: habit baru dibuat dulu (id lokal diganti id server), lalu log, mood & habit yang dihapus;
+//    semua statement idempoten (habit dibuat dengan clientKey dari store lokal, upsert untuk log & mood),
+//    jadi kalau gagal di tengah atau balasannya hilang cukup diulang di putaran berikutnya
+// 2. pull: baris dengan versi > versi terakhir yang ditarik, diterapkan ke baris yang tidak pending
+// Jalan berkala, dan segera (digabung) setelah ada tulisan lokal. Saat database tidak terjangkau
+// jeda antar percobaan digandakan sampai MAX_BACKOFF_MS.
+public class SyncEngine implements AutoCloseable {
+
+    private static final Logger LOGGER = Logger.getLogger(SyncEngine.class.getName());
+
+    public static final long DEFAULT_INTERVAL_MS = 30_000;
+    private static final long REQUEST_DELAY_MS = 500;
+    private static final long MAX_BACKOFF_MS = 5 * 60 * 1000L;
+    // Versi diambil dari sequence sebelum commit: transaksi lain yang commit belakangan bisa membawa versi
+    // sedikit di bawah yang sudah ditarik. Pull mundur sekian versi; baris yang sudah diterapkan dilewati.
+    static final long PULL_OVERLAP = 1000;
+
+    private final LocalStore store;
+    private final SyncRepository remote;
+    private final HabitRepository habits;
+    private final MoodRepository moods;
+    private final long intervalMillis;
+
+    private volatile Consumer<List<ChangeEvent>> remoteChangeListener = events -> { };
+    private volatile boolean online;
+    private volatile long lastSyncMillis;
+    // Putaran sync memakai lock sendiri: requestSync dari thread penulis tidak menunggu query ke server
+    private final Object syncLock = new Object();
+
+    // Penjadwalan (guarded by this)
+    private ScheduledExecutorService timer;
+    private ScheduledFuture<?> scheduled;
+    private long scheduledAt;
+    private long backoffMillis;
+
+    public SyncEngine(LocalStore store, SyncRepository remote, HabitRepository habits, MoodRepository moods,
+                      long intervalMillis) {
+        this.store = store;
+        this.remote = remote;
+        this.habits = habits;
+        this.moods = moods;
+        this.intervalMillis = intervalMillis;
+    }
+
+    // Dipanggil di thread sync dengan event untuk data yang berubah karena sinkronisasi
+    // (perubahan dari server, habit lokal yang mendapat id server)
+    public void setRemoteChangeListener(Consumer<List<ChangeEvent>> listener) {
+        this.remoteChangeListener = listener;
+    }
+
+    public boolean isOnline() {
+        return online;
+    }
+
+    // 0 = belum pernah berhasil
+    public long getLastSyncMillis() {
+        return lastSyncMillis;
+    }
+
+    public void registerMetrics(String name) {
+        Metrics metrics = Metrics.global();
+        metrics.gauge(name + ".pending", store::getPendingCount);
+        metrics.gauge(name + ".online", () -> online ? 1 : 0);
+        metrics.gauge(name + ".lastPulledVersion", store::getLastPulledVersion);
+    }
+
+    // --- PENJADWALAN ---
+
+    public synchronized void start() {
+        if (timer != null) return;
+        timer = Executors.newSingleThreadScheduledExecutor(DbExecutor.daemonThreadFactory("moodflow-sync"));
+        schedule(0);
+    }
+
+    // Tulisan lokal baru: sinkron sebentar lagi, kecuali sedang backoff karena offline
+    public synchronized void requestSync() {
+        if (timer == null || backoffMillis > 0) return;
+        if (scheduled == null || scheduledAt - System.currentTimeMillis() > REQUEST_DELAY_MS) {
+            schedule(REQUEST_DELAY_MS);
+        }
+    }
+
+    // Harus dipanggil sambil memegang lock objek ini
+    private void schedule(long delayMillis) {
+        if (scheduled != null) {
+            scheduled.cancel(false);
+        }
+        scheduledAt = System.currentTimeMillis() + delayMillis;
+        scheduled = timer.schedule(this::runScheduled, delayMillis, TimeUnit.MILLISECONDS);
+    }
+
+    private void runScheduled() {
+        boolean success;
+        try {
+            success = syncOnce();
+        } catch (RuntimeException e) {
+            LOGGER.log(Level.SEVERE, "Sinkronisasi gagal", e);
+            success = false;
+        }
+        synchronized (this) {
+            if (timer == null) return;
+            backoffMillis = success ? 0 : Math.min(Math.max(backoffMillis * 2, intervalMillis), MAX_BACKOFF_MS);
+            scheduled = null;
+            schedule(success ? intervalMillis : backoffMillis);
+        }
+    }
+
+    @Override
+    public synchronized void close() {
+        if (timer != null) {
+            timer.shutdownNow();
+            timer = null;
+            scheduled = null;
+        }
+    }
+
+    // --- SINKRONISASI ---
+
+    // Satu putaran push + pull; true jika keduanya berhasil. Pull tetap dicoba walau push gagal:
+    // tombstone dari server (mis. habit dihapus di perangkat lain) bisa jadi penyebab push ditolak.
+    public boolean syncOnce() {
+        synchronized (syncLock) {
+            return syncLocked();
+        }
+    }
+
+    private boolean syncLocked() {
+        long startNanos = System.nanoTime();
+        try {
+            List<ChangeEvent> events = new ArrayList<>();
+            boolean pushed = push(events);
+            boolean pulled = pull(events);
+            online = pulled;
+            if (pulled) {
+                lastSyncMillis = System.currentTimeMillis();
+            }
+            if (!events.isEmpty()) {
+                remoteChangeListener.accept(events);
+            }
+            if (!pushed) {
+                Metrics.increment("SyncEngine.push.errors");
+            }
+            return pushed && pulled;
+        } finally {
+            Metrics.global().latency("SyncEngine.sync").record(System.nanoTime() - startNanos);
+        }
+    }
+
+    private boolean push(List<ChangeEvent> events) {
+        LocalStore.PendingChanges pending = store.pendingChanges();
+        if (pending.isEmpty()) return true;
+
+        for (Map.Entry<Integer, String> entry : pending.newHabits().entrySet()) {
+            Habit habit = new Habit(entry.getValue());
+            if (!habits.createHabit(habit, store.clientKey(entry.getKey())) || habit.getId() <= 0) {
+                return false;
+            }
+            store.habitCreated(entry.getKey(), habit.getId(), pending.stamp());
+            events.add(ChangeEvent.habitDeleted(entry.getKey()));
+            events.add(ChangeEvent.habitAdded(habit.getId()));
+        }
+        // Log habit baru ikut setelah id-nya diganti
+        if (!pending.newHabits().isEmpty()) {
+            pending = store.pendingChanges();
+        }
+
+        boolean success = habits.setHabitStatuses(pending.logs()) && moods.upsertMoods(pending.moods());
+        for (int id : pending.deletedHabits()) {
+            success = success && habits.deleteHabit(id);
+        }
+        if (!success) return false;
+
+        store.markSynced(pending);
+        Metrics.global().counter("SyncEngine.pushed").add(pending.size());
+        return true;
+    }
+
+    private boolean pull(List<ChangeEvent> events) {
+        SyncChanges changes = remote.pullChanges(Math.max(0, store.getLastPulledVersion() - PULL_OVERLAP));
+        if (changes == null) return false;
+        events.addAll(store.applyRemote(changes));
+        if (!changes.isEmpty()) {
+            LOGGER.log(Level.FINE, "Pulled {0} change(s) up to version {1}",
+                    new Object[] {changes.habits().size() + changes.logs().size() + changes.moods().size()
+                            + changes.tombstones().size(), store.getLastPulledVersion()});
+        }
+        return true;
+    }
+}
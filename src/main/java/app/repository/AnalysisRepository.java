@@ -1,31 +1,41 @@
 package app.repository;
 
 import app.config.DatabaseConnection;
-import app.model.Habit;
+import app.metrics.MeteredDataSource;
+import app.model.AnalysisSnapshot;
 
 import java.sql.*;
 import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.EnumMap; 
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.sql.DataSource;
 
 public class AnalysisRepository {
   
     private static final Logger LOGGER = Logger.getLogger(AnalysisRepository.class.getName());
-    private final Connection conn;
+    private static final int SNAPSHOT_FETCH_SIZE = 2000;
+    private final DataSource dataSource;
 
     public AnalysisRepository() {
-        conn = DatabaseConnection.getInstance().getConnection();
+        this(DatabaseConnection.getInstance().getDataSource());
+    }
+
+    public AnalysisRepository(DataSource dataSource) {
+        this.dataSource = MeteredDataSource.wrap(dataSource, AnalysisRepository.class);
     }
 
     public List<LocalDate> getDatesWithMoodEntries(LocalDate startDate, LocalDate endDate) {
         List<LocalDate> dates = new ArrayList<>();
         String sql = "SELECT DISTINCT date FROM mood WHERE date BETWEEN ? AND ? ORDER BY date";
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setDate(1, Date.valueOf(startDate));
             stmt.setDate(2, Date.valueOf(endDate));
             ResultSet rs = stmt.executeQuery();
@@ -41,7 +51,8 @@ public class AnalysisRepository {
     public List<LocalDate> getHabitCompletedDates(int habitId, LocalDate startDate, LocalDate endDate) {
         List<LocalDate> dates = new ArrayList<>();
         String sql = "SELECT date FROM habit_logs WHERE habit_id = ? AND date BETWEEN ? AND ? ORDER BY date";
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, habitId);
             stmt.setDate(2, Date.valueOf(startDate));
             stmt.setDate(3, Date.valueOf(endDate));
@@ -55,27 +66,29 @@ public class AnalysisRepository {
         return dates;
     }
 
+    // Satu parameter array (= ANY), jadi teks SQL selalu sama berapa pun jumlah tanggalnya
+    // dan tidak mentok di batas jumlah parameter driver
     public double getAverageMoodForDates(List<LocalDate> dates) {
         if (dates == null || dates.isEmpty()) {
             return 0.0;
         }
-        String sql = "SELECT AVG(mood_value) FROM mood WHERE date IN (";
-        StringBuilder sb = new StringBuilder(sql);
+        String sql = "SELECT AVG(mood_value) FROM mood WHERE date = ANY(?)";
+        Date[] values = new Date[dates.size()];
         for (int i = 0; i < dates.size(); i++) {
-            sb.append("?");
-            if (i < dates.size() - 1) {
-                sb.append(",");
-            }
+            values[i] = Date.valueOf(dates.get(i));
         }
-        sb.append(")");
 
-        try (PreparedStatement stmt = conn.prepareStatement(sb.toString())) {
-            for (int i = 0; i < dates.size(); i++) {
-                stmt.setDate(i + 1, Date.valueOf(dates.get(i)));
-            }
-            ResultSet rs = stmt.executeQuery();
-            if (rs.next()) {
-                return rs.getDouble(1);
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            Array array = conn.createArrayOf("date", values);
+            try {
+                stmt.setArray(1, array);
+                ResultSet rs = stmt.executeQuery();
+                if (rs.next()) {
+                    return rs.getDouble(1);
+                }
+            } finally {
+                array.free();
             }
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error calculating average mood", e);
@@ -83,22 +96,10 @@ public class AnalysisRepository {
         return 0.0;
     }
 
-    public Habit getRandomHabit() {
-        String sql = "SELECT id, name FROM habits ORDER BY RANDOM() LIMIT 1";
-        try (Statement stmt = conn.createStatement();
-             ResultSet rs = stmt.executeQuery(sql)) {
-            if (rs.next()) {
-                return new Habit(rs.getInt("id"), rs.getString("name"));
-            }
-        } catch (SQLException e) {
-            LOGGER.log(Level.SEVERE, "Error getting random habit", e);
-        }
-        return null;
-    }
-
     public int countHabitLogs(int habitId, LocalDate startDate, LocalDate endDate) {
         String sql = "SELECT COUNT(*) FROM habit_logs WHERE habit_id = ? AND date BETWEEN ? AND ?";
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, habitId);
             stmt.setDate(2, Date.valueOf(startDate));
             stmt.setDate(3, Date.valueOf(endDate));
@@ -122,9 +123,10 @@ public class AnalysisRepository {
                      "JOIN mood m ON hl.date = m.date " +
                      "WHERE " + moodCondition + " AND m.date BETWEEN ? AND ? " +
                      "GROUP BY h.name " +
-                     "ORDER BY habit_count DESC " +
+                     "ORDER BY habit_count DESC, h.name " +
                      "LIMIT ?";
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setDate(1, Date.valueOf(startDate));
             stmt.setDate(2, Date.valueOf(endDate));
             stmt.setInt(3, limit);
@@ -145,7 +147,8 @@ public class AnalysisRepository {
                      "FROM mood " +
                      "WHERE date BETWEEN ? AND ? " +
                      "GROUP BY day_of_week";
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setDate(1, Date.valueOf(startDate));
             stmt.setDate(2, Date.valueOf(endDate));
             ResultSet rs = stmt.executeQuery();
@@ -158,4 +161,62 @@ public class AnalysisRepository {
         }
         return moodByDay;
     }
+
+    // Semua habit, habit log & mood dalam rentang tanggal: satu query, dipakai semua analyzer
+    public AnalysisSnapshot loadAnalysisSnapshot(LocalDate startDate, LocalDate endDate) {
+        int days = (int) (endDate.toEpochDay() - startDate.toEpochDay()) + 1;
+        String sql = "SELECT h.id, h.name, hl.date, NULL AS mood_value " +
+                     "FROM habits h " +
+                     "LEFT JOIN habit_logs hl ON hl.habit_id = h.id AND hl.date BETWEEN ? AND ? " +
+                     "UNION ALL " +
+                     "SELECT NULL, NULL, m.date, m.mood_value FROM mood m WHERE m.date BETWEEN ? AND ? " +
+                     "ORDER BY 1";
+
+        Map<Integer, String> names = new LinkedHashMap<>();
+        Map<Integer, BitSet> done = new LinkedHashMap<>();
+        int[] moodByDay = new int[days];
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            // Rentang bertahun-tahun: baris dibaca bertahap lewat cursor (butuh autocommit off),
+            // bukan seluruh hasil dimuat driver ke memori dulu. Pool mengembalikan autocommit saat koneksi kembali.
+            conn.setAutoCommit(false);
+            stmt.setFetchSize(SNAPSHOT_FETCH_SIZE);
+            stmt.setDate(1, Date.valueOf(startDate));
+            stmt.setDate(2, Date.valueOf(endDate));
+            stmt.setDate(3, Date.valueOf(startDate));
+            stmt.setDate(4, Date.valueOf(endDate));
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                Date date = rs.getDate("date");
+                int dayIndex = (date == null) ? -1
+                        : (int) (date.toLocalDate().toEpochDay() - startDate.toEpochDay());
+
+                int id = rs.getInt("id");
+                if (rs.wasNull()) {
+                    if (dayIndex >= 0) moodByDay[dayIndex] = rs.getInt("mood_value");
+                    continue;
+                }
+                if (!names.containsKey(id)) {
+                    names.put(id, rs.getString("name"));
+                    done.put(id, new BitSet(days));
+                }
+                if (dayIndex >= 0) done.get(id).set(dayIndex);
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error loading analysis snapshot", e);
+        }
+
+        int[] habitIds = new int[names.size()];
+        String[] habitNames = new String[names.size()];
+        BitSet[] doneDays = new BitSet[names.size()];
+        int i = 0;
+        for (Map.Entry<Integer, String> entry : names.entrySet()) {
+            habitIds[i] = entry.getKey();
+            habitNames[i] = entry.getValue();
+            doneDays[i] = done.get(entry.getKey());
+            i++;
+        }
+        return new AnalysisSnapshot(startDate, days, habitIds, habitNames, doneDays, moodByDay);
+    }
 }
\ No newline at end of file
@@ -3,27 +3,46 @@ package app.repository;
 import java.sql.*;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.UUID;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.sql.DataSource;
 
 import app.config.DatabaseConnection;
+import app.metrics.MeteredDataSource;
 import app.model.Habit;
+import app.model.HabitDay;
+import app.model.WeekSnapshot;
 
 public class HabitRepository {
 
     private static final Logger LOGGER = Logger.getLogger(HabitRepository.class.getName());
-    private final Connection conn;
+    private final DataSource dataSource;
 
     public HabitRepository() {
-        conn = DatabaseConnection.getInstance().getConnection();
+        this(DatabaseConnection.getInstance().getDataSource());
+    }
+
+    public HabitRepository(DataSource dataSource) {
+        this.dataSource = MeteredDataSource.wrap(dataSource, HabitRepository.class);
     }
 
     public boolean createHabit(Habit habit) {
         String sql = "INSERT INTO habits (name) VALUES (?)";
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql, Statement.RETURN_GENERATED_KEYS)) {
             stmt.setString(1, habit.getName());
             stmt.executeUpdate();
+            // Id baru diisi ke objek, supaya facade bisa langsung menaruhnya di cache
+            try (ResultSet keys = stmt.getGeneratedKeys()) {
+                if (keys.next()) {
+                    habit.setId(keys.getInt(1));
+                }
+            }
             return true;
         } catch (SQLException e) {
             LOGGER.log(Level.SEVERE, "Error creating habit", e);
@@ -31,9 +50,32 @@ public class HabitRepository {
         }
     }
 
+    // Idempoten per clientKey: jika habit dengan kunci ini sudah ada (create sebelumnya berhasil tapi
+    // balasannya hilang), id yang sudah ada dikembalikan, bukan baris baru
+    public boolean createHabit(Habit habit, UUID clientKey) {
+        String sql = "WITH ins AS (" +
+                     "INSERT INTO habits (name, client_key) VALUES (?, ?) ON CONFLICT (client_key) DO NOTHING RETURNING id" +
+                     ") SELECT id FROM ins UNION ALL SELECT id FROM habits WHERE client_key = ? LIMIT 1";
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setString(1, habit.getName());
+            stmt.setObject(2, clientKey);
+            stmt.setObject(3, clientKey);
+            ResultSet rs = stmt.executeQuery();
+            if (rs.next()) {
+                habit.setId(rs.getInt(1));
+                return true;
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error creating habit with client key", e);
+        }
+        return false;
+    }
+
     public Habit getHabitById(int id) {
         String sql = "SELECT id, name FROM habits WHERE id = ?";
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, id);
             ResultSet rs = stmt.executeQuery();
             if (rs.next()) {
@@ -49,7 +91,8 @@ public class HabitRepository {
         List<Habit> habits = new ArrayList<>();
         String sql = "SELECT id, name FROM habits ORDER BY id ASC";
 
-        try (Statement stmt = conn.createStatement()) {
+        try (Connection conn = dataSource.getConnection();
+             Statement stmt = conn.createStatement()) {
             ResultSet rs = stmt.executeQuery(sql);
             while (rs.next()) {
                 habits.add(new Habit(rs.getInt("id"), rs.getString("name")));
@@ -60,9 +103,11 @@ public class HabitRepository {
         return habits;
     }
 
+    // Log habit ikut terhapus lewat FK ON DELETE CASCADE (lihat SchemaMigration V3)
     public boolean deleteHabit(int id) {
         String sql = "DELETE FROM habits WHERE id = ?";
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, id);
             stmt.executeUpdate();
             return true;
@@ -74,7 +119,8 @@ public class HabitRepository {
 
     public boolean isHabitDone(int habitId, LocalDate date) {
         String sql = "SELECT 1 FROM habit_logs WHERE habit_id = ? AND date = ?";
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setInt(1, habitId);
             stmt.setDate(2, Date.valueOf(date));
             ResultSet rs = stmt.executeQuery();
@@ -88,7 +134,8 @@ public class HabitRepository {
     public boolean setHabitStatus(int habitId, LocalDate date, boolean status) {
         if (status) {
             String sql = "INSERT INTO habit_logs (habit_id, date) VALUES (?, ?) ON CONFLICT DO NOTHING";
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
                 stmt.setInt(1, habitId);
                 stmt.setDate(2, Date.valueOf(date));
                 stmt.executeUpdate();
@@ -99,7 +146,8 @@ public class HabitRepository {
             }
         } else {
             String sql = "DELETE FROM habit_logs WHERE habit_id = ? AND date = ?";
-            try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            try (Connection conn = dataSource.getConnection();
+                 PreparedStatement stmt = conn.prepareStatement(sql)) {
                 stmt.setInt(1, habitId);
                 stmt.setDate(2, Date.valueOf(date));
                 stmt.executeUpdate();
@@ -110,4 +158,84 @@ public class HabitRepository {
             }
         }
     }
+
+    // Banyak perubahan status sekaligus dalam satu transaksi (dipakai write-behind HabitFacade)
+    public boolean setHabitStatuses(Map<HabitDay, Boolean> changes) {
+        if (changes.isEmpty()) return true;
+        String insertSql = "INSERT INTO habit_logs (habit_id, date) VALUES (?, ?) ON CONFLICT DO NOTHING";
+        String deleteSql = "DELETE FROM habit_logs WHERE habit_id = ? AND date = ?";
+
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement insert = conn.prepareStatement(insertSql);
+                 PreparedStatement delete = conn.prepareStatement(deleteSql)) {
+                boolean hasInsert = false;
+                boolean hasDelete = false;
+                for (Map.Entry<HabitDay, Boolean> entry : changes.entrySet()) {
+                    PreparedStatement stmt = entry.getValue() ? insert : delete;
+                    stmt.setInt(1, entry.getKey().habitId());
+                    stmt.setDate(2, Date.valueOf(entry.getKey().date()));
+                    stmt.addBatch();
+                    if (entry.getValue()) hasInsert = true; else hasDelete = true;
+                }
+                if (hasInsert) insert.executeBatch();
+                if (hasDelete) delete.executeBatch();
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error setting habit statuses (batch)", e);
+            return false;
+        }
+    }
+
+    // Satu query untuk seluruh matriks habit x hari + mood 7 hari (pengganti loop isHabitDone)
+    public WeekSnapshot loadWeekSnapshot(LocalDate weekStart) {
+        LocalDate weekEnd = weekStart.plusDays(WeekSnapshot.DAYS - 1L);
+        String sql = "SELECT h.id, h.name, hl.date, NULL AS mood_value " +
+                     "FROM habits h " +
+                     "LEFT JOIN habit_logs hl ON hl.habit_id = h.id AND hl.date BETWEEN ? AND ? " +
+                     "UNION ALL " +
+                     "SELECT NULL, NULL, m.date, m.mood_value FROM mood m WHERE m.date BETWEEN ? AND ? " +
+                     "ORDER BY 1";
+
+        Map<Integer, Habit> habits = new LinkedHashMap<>();
+        Map<Integer, BitSet> completions = new LinkedHashMap<>();
+        int[] moodValues = new int[WeekSnapshot.DAYS];
+
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setDate(1, Date.valueOf(weekStart));
+            stmt.setDate(2, Date.valueOf(weekEnd));
+            stmt.setDate(3, Date.valueOf(weekStart));
+            stmt.setDate(4, Date.valueOf(weekEnd));
+            ResultSet rs = stmt.executeQuery();
+            while (rs.next()) {
+                Date date = rs.getDate("date");
+                int dayIndex = (date == null) ? -1
+                        : (int) (date.toLocalDate().toEpochDay() - weekStart.toEpochDay());
+
+                int id = rs.getInt("id");
+                if (rs.wasNull()) {
+                    // Baris mood
+                    if (dayIndex >= 0) moodValues[dayIndex] = rs.getInt("mood_value");
+                    continue;
+                }
+                if (!habits.containsKey(id)) {
+                    habits.put(id, new Habit(id, rs.getString("name")));
+                    completions.put(id, new BitSet(WeekSnapshot.DAYS));
+                }
+                if (dayIndex >= 0) completions.get(id).set(dayIndex);
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error loading week snapshot", e);
+        }
+        return new WeekSnapshot(weekStart, new ArrayList<>(habits.values()),
+                completions.values().toArray(new BitSet[0]), moodValues);
+    }
 }
\ No newline at end of file
@@ -2,25 +2,47 @@ package app.repository;
 
 import java.sql.*;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import javax.sql.DataSource;
 
 import app.config.DatabaseConnection;
+import app.metrics.MeteredDataSource;
 import app.model.Mood;
+import app.model.MoodBucket;
+import app.model.TrendResolution;
 
 public class MoodRepository {
 
     private static final Logger LOGGER = Logger.getLogger(MoodRepository.class.getName());
-    private Connection conn;
+    private static final int BATCH_SIZE = 500;
+    private static final String UPSERT_SQL = "INSERT INTO mood (mood_value, date) VALUES (?, ?) " +
+                                             "ON CONFLICT (date) DO UPDATE SET mood_value = EXCLUDED.mood_value";
+    private static final String DELETE_SQL = "DELETE FROM mood WHERE date = ?";
+    private static final String BUCKETS_SQL =
+        "SELECT date_trunc(?, date)::date AS bucket_start, AVG(mood_value) AS avg_mood, " +
+        "MIN(mood_value) AS min_mood, MAX(mood_value) AS max_mood, COUNT(*) AS days " +
+        "FROM mood WHERE date BETWEEN ? AND ? GROUP BY 1 ORDER BY 1";
+
+    private final DataSource dataSource;
 
     public MoodRepository() {
-        conn = DatabaseConnection.getInstance().getConnection();
+        this(DatabaseConnection.getInstance().getDataSource());
+    }
+
+    public MoodRepository(DataSource dataSource) {
+        this.dataSource = MeteredDataSource.wrap(dataSource, MoodRepository.class);
     }
 
     public Mood getMoodByDate(LocalDate date) {
         String sql = "SELECT id, mood_value, date FROM mood WHERE date = ?";
         
-        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
             stmt.setDate(1, Date.valueOf(date));
             try (ResultSet rs = stmt.executeQuery()) { 
                 if (rs.next()) {
@@ -33,21 +55,60 @@ public class MoodRepository {
         return null;
     }
 
-    public boolean upsertMood(int moodValue, LocalDate date) {
-        String deleteSql = "DELETE FROM mood WHERE date = ?";
-        String insertSql = "INSERT INTO mood (mood_value, date) VALUES (?, ?)";
+    public Map<LocalDate, Mood> getMoodsBetween(LocalDate startDate, LocalDate endDate) {
+        Map<LocalDate, Mood> moods = new LinkedHashMap<>();
+        String sql = "SELECT id, mood_value, date FROM mood WHERE date BETWEEN ? AND ? ORDER BY date";
 
-        try {
-            try (PreparedStatement delStmt = conn.prepareStatement(deleteSql)) {
-                delStmt.setDate(1, Date.valueOf(date));
-                delStmt.executeUpdate();
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setDate(1, Date.valueOf(startDate));
+            stmt.setDate(2, Date.valueOf(endDate));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    LocalDate date = rs.getDate("date").toLocalDate();
+                    moods.put(date, new Mood(rs.getInt("id"), rs.getInt("mood_value"), date.toString()));
+                }
             }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error getting moods between dates", e);
+        }
+        return moods;
+    }
+
+    // Rata-rata/min/max per bucket dihitung di database: tren bertahun-tahun cukup ratusan baris
+    public List<MoodBucket> getMoodBuckets(LocalDate startDate, LocalDate endDate, TrendResolution resolution) {
+        List<MoodBucket> buckets = new ArrayList<>();
 
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(BUCKETS_SQL)) {
+            stmt.setString(1, resolution.getSqlUnit());
+            stmt.setDate(2, Date.valueOf(startDate));
+            stmt.setDate(3, Date.valueOf(endDate));
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    buckets.add(new MoodBucket(rs.getDate("bucket_start").toLocalDate(), rs.getDouble("avg_mood"),
+                            rs.getInt("min_mood"), rs.getInt("max_mood"), rs.getInt("days")));
+                }
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error getting mood buckets", e);
+        }
+        return buckets;
+    }
+
+    // Nilai 0 berarti mood dihapus untuk tanggal tersebut
+    public boolean upsertMood(int moodValue, LocalDate date) {
+        try (Connection conn = dataSource.getConnection()) {
             if (moodValue > 0) {
-                try (PreparedStatement insStmt = conn.prepareStatement(insertSql)) {
-                    insStmt.setInt(1, moodValue);
-                    insStmt.setDate(2, Date.valueOf(date));
-                    insStmt.executeUpdate();
+                try (PreparedStatement stmt = conn.prepareStatement(UPSERT_SQL)) {
+                    stmt.setInt(1, moodValue);
+                    stmt.setDate(2, Date.valueOf(date));
+                    stmt.executeUpdate();
+                }
+            } else {
+                try (PreparedStatement stmt = conn.prepareStatement(DELETE_SQL)) {
+                    stmt.setDate(1, Date.valueOf(date));
+                    stmt.executeUpdate();
                 }
             }
             return true;
@@ -56,4 +117,48 @@ public class MoodRepository {
             return false;
         }
     }
-}
\ No newline at end of file
+
+    // Batch upsert dalam satu transaksi: satu round trip per BATCH_SIZE baris
+    public boolean upsertMoods(Map<LocalDate, Integer> moods) {
+        if (moods.isEmpty()) return true;
+
+        try (Connection conn = dataSource.getConnection()) {
+            conn.setAutoCommit(false);
+            try (PreparedStatement upsert = conn.prepareStatement(UPSERT_SQL);
+                 PreparedStatement delete = conn.prepareStatement(DELETE_SQL)) {
+                int pendingUpserts = 0;
+                int pendingDeletes = 0;
+                for (Map.Entry<LocalDate, Integer> entry : moods.entrySet()) {
+                    if (entry.getValue() > 0) {
+                        upsert.setInt(1, entry.getValue());
+                        upsert.setDate(2, Date.valueOf(entry.getKey()));
+                        upsert.addBatch();
+                        if (++pendingUpserts == BATCH_SIZE) {
+                            upsert.executeBatch();
+                            pendingUpserts = 0;
+                        }
+                    } else {
+                        delete.setDate(1, Date.valueOf(entry.getKey()));
+                        delete.addBatch();
+                        if (++pendingDeletes == BATCH_SIZE) {
+                            delete.executeBatch();
+                            pendingDeletes = 0;
+                        }
+                    }
+                }
+                if (pendingUpserts > 0) upsert.executeBatch();
+                if (pendingDeletes > 0) delete.executeBatch();
+                conn.commit();
+                return true;
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.SEVERE, "Error batch upserting moods", e);
+            return false;
+        }
+    }
+}
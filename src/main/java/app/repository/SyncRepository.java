@@ -0,0 +1,87 @@
+package app.repository;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import javax.sql.DataSource;
+
+import app.config.DatabaseConnection;
+import app.metrics.MeteredDataSource;
+import app.model.SyncChanges;
+
+// Sisi server dari sinkronisasi store lokal: semua baris dengan version > sinceVersion.
+// Push tetap lewat HabitRepository / MoodRepository biasa (trigger V4 yang mengisi versinya).
+public class SyncRepository {
+
+    private static final Logger LOGGER = Logger.getLogger(SyncRepository.class.getName());
+
+    private final DataSource dataSource;
+
+    public SyncRepository() {
+        this(DatabaseConnection.getInstance().getDataSource());
+    }
+
+    public SyncRepository(DataSource dataSource) {
+        this.dataSource = MeteredDataSource.wrap(dataSource, SyncRepository.class);
+    }
+
+    // null jika gagal (mis. database tidak terjangkau)
+    public SyncChanges pullChanges(long sinceVersion) {
+        try (Connection conn = dataSource.getConnection()) {
+            // Keempat query dibaca dari snapshot yang sama
+            conn.setAutoCommit(false);
+            conn.setTransactionIsolation(Connection.TRANSACTION_REPEATABLE_READ);
+            conn.setReadOnly(true);
+            try {
+                List<SyncChanges.HabitRow> habits = new ArrayList<>();
+                query(conn, "SELECT id, name, version FROM habits WHERE version > ?", sinceVersion, rs ->
+                        habits.add(new SyncChanges.HabitRow(rs.getInt("id"), rs.getString("name"), rs.getLong("version"))));
+                List<SyncChanges.LogRow> logs = new ArrayList<>();
+                query(conn, "SELECT habit_id, date, version FROM habit_logs WHERE version > ?", sinceVersion, rs ->
+                        logs.add(new SyncChanges.LogRow(rs.getInt("habit_id"), rs.getDate("date").toLocalDate(),
+                                rs.getLong("version"))));
+                List<SyncChanges.MoodRow> moods = new ArrayList<>();
+                query(conn, "SELECT date, mood_value, version FROM mood WHERE version > ?", sinceVersion, rs ->
+                        moods.add(new SyncChanges.MoodRow(rs.getDate("date").toLocalDate(), rs.getInt("mood_value"),
+                                rs.getLong("version"))));
+                List<SyncChanges.Tombstone> tombstones = new ArrayList<>();
+                query(conn, "SELECT table_name, row_key, version FROM sync_tombstones WHERE version > ?", sinceVersion, rs ->
+                        tombstones.add(new SyncChanges.Tombstone(rs.getString("table_name"), rs.getString("row_key"),
+                                rs.getLong("version"))));
+                conn.commit();
+                return new SyncChanges(habits, logs, moods, tombstones);
+            } catch (SQLException e) {
+                conn.rollback();
+                throw e;
+            } finally {
+                conn.setReadOnly(false);
+                conn.setTransactionIsolation(Connection.TRANSACTION_READ_COMMITTED);
+                conn.setAutoCommit(true);
+            }
+        } catch (SQLException e) {
+            LOGGER.log(Level.WARNING, "Error pulling changes from server", e);
+            return null;
+        }
+    }
+
+    @FunctionalInterface
+    private interface RowReader {
+        void read(ResultSet rs) throws SQLException;
+    }
+
+    private static void query(Connection conn, String sql, long sinceVersion, RowReader reader) throws SQLException {
+        try (PreparedStatement stmt = conn.prepareStatement(sql)) {
+            stmt.setLong(1, sinceVersion);
+            try (ResultSet rs = stmt.executeQuery()) {
+                while (rs.next()) {
+                    reader.read(rs);
+                }
+            }
+        }
+    }
+}
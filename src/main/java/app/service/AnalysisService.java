@@ -1,52 +1,199 @@
 package app.service;
 
+import app.async.DbExecutor;
+import app.model.AnalysisHabitMood;
+import app.model.AnalysisSnapshot;
 import app.repository.AnalysisRepository;
 
 import java.time.LocalDate;
 import java.time.format.TextStyle;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 import java.util.function.Function;
 import java.util.function.Predicate;
 import java.util.function.Supplier;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 
 public class AnalysisService {
+    private static final Logger LOGGER = Logger.getLogger(AnalysisService.class.getName());
+
+    private static final long DEFAULT_SNAPSHOT_TIMEOUT_MS = 2000;
+    // Query yang hang menahan satu thread; thread kedua melayani refresh berikutnya
+    private static final int SNAPSHOT_LOAD_THREADS = 2;
+
+    // Prefix teks untuk analyzer yang tidak sempat jalan karena snapshot belum dimuat sebelum deadline
+    public static final String PLACEHOLDER_PREFIX = "⏳ ";
+
     private final AnalysisRepository analysisRepository;
-    private final List<Supplier<String>> analysisPool;
+    private final List<Analyzer> analysisPool;
+    private final Random random = new Random();
+    private final HabitSampler habitSampler;
+
+    private final long snapshotTimeoutMillis;
+    private final ExecutorService snapshotExecutor =
+            Executors.newFixedThreadPool(SNAPSHOT_LOAD_THREADS, DbExecutor.daemonThreadFactory("moodflow-analysis"));
+    private final Map<String, AnalyzerStats> stats = new ConcurrentHashMap<>();
+
+    private record Analyzer(String name, String label, Function<AnalysisContext, String> function) {}
+
+    // Input satu refresh: snapshot + index habit yang sudah diundi (berbeda satu sama lain)
+    private record AnalysisContext(AnalysisSnapshot data, int[] habitPicks) {
+        int habitPick(int slot) {
+            return slot < habitPicks.length ? habitPicks[slot] : -1;
+        }
+    }
+
+    // Slot undian untuk dua analyzer konsistensi, agar tidak memilih habit yang sama
+    private static final int CONSISTENCY_SLOT = 0;
+    private static final int RECOMMENDATION_SLOT = 1;
 
     public AnalysisService() {
-        this.analysisRepository = new AnalysisRepository();
-        
-        // Method Reference digunakan di sini untuk inisialisasi
+        this(new AnalysisRepository());
+    }
+
+    public AnalysisService(AnalysisRepository analysisRepository) {
+        this(analysisRepository, DEFAULT_SNAPSHOT_TIMEOUT_MS);
+    }
+
+    public AnalysisService(AnalysisRepository analysisRepository, long snapshotTimeoutMillis) {
+        this(analysisRepository, snapshotTimeoutMillis, new HabitSampler());
+    }
+
+    public AnalysisService(AnalysisRepository analysisRepository, long snapshotTimeoutMillis, HabitSampler habitSampler) {
+        this.analysisRepository = analysisRepository;
+        this.snapshotTimeoutMillis = snapshotTimeoutMillis;
+        this.habitSampler = habitSampler;
+
+        // Method Reference digunakan di sini untuk inisialisasi.
+        // Semua analyzer membaca snapshot yang sama, jadi analyzer baru tidak menambah query.
         this.analysisPool = Arrays.asList(
-            this::analyzeHabitConsistency,
-            this::analyzeHabitsWithHighMood,
-            this::analyzeHabitsWithLowMood,
-            this::analyzeHighestMoodDay,
-            this::analyzeLowestMoodDay,
-            this::generatePositiveImpactRecommendation,
-            this::generateConsistencyRecommendation
+            new Analyzer("habitConsistency", "konsistensi habit", this::analyzeHabitConsistency),
+            new Analyzer("habitsWithHighMood", "habit saat mood baik", this::analyzeHabitsWithHighMood),
+            new Analyzer("habitsWithLowMood", "habit saat mood kurang baik", this::analyzeHabitsWithLowMood),
+            new Analyzer("highestMoodDay", "hari mood tertinggi", this::analyzeHighestMoodDay),
+            new Analyzer("lowestMoodDay", "hari mood terendah", this::analyzeLowestMoodDay),
+            new Analyzer("positiveImpactRecommendation", "rekomendasi habit positif", this::generatePositiveImpactRecommendation),
+            new Analyzer("consistencyRecommendation", "saran konsistensi", this::generateConsistencyRecommendation)
         );
+        for (Analyzer analyzer : analysisPool) {
+            stats.put(analyzer.name(), new AnalyzerStats(analyzer.name()));
+        }
     }
 
+    // Satu-satunya bagian yang bisa lambat adalah load snapshot, jadi deadline dipasang di situ.
+    // Analyzer hanya menghitung di memori (mikrodetik) dan jalan berurutan di thread pemanggil.
+    // Jika snapshot belum datang sebelum deadline, semua analyzer terpilih diganti placeholder.
     public List<String> getSevenRandomAnalyses() {
-        List<String> analyses = new ArrayList<>();
-        List<Supplier<String>> shuffledPool = new ArrayList<>(analysisPool);
+        List<Analyzer> shuffledPool = new ArrayList<>(analysisPool);
         Collections.shuffle(shuffledPool);
+        if (shuffledPool.size() > 7) {
+            shuffledPool = shuffledPool.subList(0, 7);
+        }
+
+        AnalysisContext context;
+        try {
+            context = loadContext();
+        } catch (TimeoutException e) {
+            LOGGER.log(Level.WARNING, "Analysis snapshot not loaded within {0} ms", snapshotTimeoutMillis);
+            List<String> placeholders = new ArrayList<>();
+            for (Analyzer analyzer : shuffledPool) {
+                stats.get(analyzer.name()).recordTimeout();
+                placeholders.add(PLACEHOLDER_PREFIX + "Analisis " + analyzer.label() + " belum selesai dimuat.");
+            }
+            return placeholders;
+        }
+        if (context == null) {
+            return new ArrayList<>();
+        }
 
-        for (Supplier<String> analysisSupplier : shuffledPool) {
-            if (analyses.size() >= 7) break;
-            
-            String result = analysisSupplier.get();
-            if (result != null && !result.isEmpty()) {
-                analyses.add(result);
+        List<String> analyses = new ArrayList<>();
+        for (Analyzer analyzer : shuffledPool) {
+            try {
+                String text = runAnalyzer(analyzer, context);
+                if (text != null && !text.isEmpty()) {
+                    analyses.add(text);
+                }
+            } catch (RuntimeException e) {
+                LOGGER.log(Level.WARNING, "Analyzer " + analyzer.name() + " gagal", e);
             }
         }
         return analyses;
     }
 
+    // null jika load gagal (sudah di-log)
+    private AnalysisContext loadContext() throws TimeoutException {
+        LocalDate end = LocalDate.now();
+        Future<AnalysisSnapshot> load = snapshotExecutor.submit(
+                () -> analysisRepository.loadAnalysisSnapshot(end.minusWeeks(1), end));
+        try {
+            return sampleHabits(load.get(snapshotTimeoutMillis, TimeUnit.MILLISECONDS));
+        } catch (TimeoutException e) {
+            load.cancel(true);
+            throw e;
+        } catch (ExecutionException | RuntimeException e) {
+            LOGGER.log(Level.WARNING, "Analysis snapshot load failed", e);
+            return null;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return null;
+        }
+    }
+
+    public CompletableFuture<List<String>> getSevenRandomAnalysesAsync() {
+        return DbExecutor.read(this::getSevenRandomAnalyses);
+    }
+
+    // Dampak semua habit terhadap mood dalam `days` hari terakhir (satu snapshot, satu pass di memori)
+    public List<AnalysisHabitMood> getHabitImpacts(int days, int lagDays) {
+        LocalDate end = LocalDate.now();
+        AnalysisSnapshot data = analysisRepository.loadAnalysisSnapshot(end.minusDays(days - 1L), end);
+        return HabitImpactEngine.compute(data, lagDays);
+    }
+
+    // Didaftarkan sebagai observer HabitFacade agar undian mengikuti perubahan habit
+    public HabitSampler getHabitSampler() {
+        return habitSampler;
+    }
+
+    // Snapshot latency & timeout per analyzer
+    public Map<String, AnalyzerStats> getAnalyzerStats() {
+        return Collections.unmodifiableMap(stats);
+    }
+
+    private AnalysisContext sampleHabits(AnalysisSnapshot data) {
+        habitSampler.refreshIfStale(data);
+        int[] ids = habitSampler.sampleDistinct(2, random);
+        int[] indices = new int[ids.length];
+        for (int i = 0; i < ids.length; i++) {
+            indices[i] = data.indexOfHabit(ids[i]);
+        }
+        return new AnalysisContext(data, indices);
+    }
+
+    private String runAnalyzer(Analyzer analyzer, AnalysisContext data) {
+        AnalyzerStats analyzerStats = stats.get(analyzer.name());
+        long start = System.nanoTime();
+        try {
+            return analyzer.function().apply(data);
+        } catch (RuntimeException e) {
+            analyzerStats.recordFailure();
+            throw e;
+        } finally {
+            analyzerStats.recordRun(System.nanoTime() - start);
+        }
+    }
+
     // GENERIC METHOD CORE
-    private <T> String executeAnalysis(Supplier<T> dataSupplier, 
-                                       Predicate<T> validator, 
+    private <T> String executeAnalysis(Supplier<T> dataSupplier,
+                                       Predicate<T> validator,
                                        Function<T, String> resultFormatter) {
         try {
             T data = dataSupplier.get();
@@ -54,68 +201,60 @@ public class AnalysisService {
                 return resultFormatter.apply(data);
             }
         } catch (Exception e) {
-            e.printStackTrace(); 
+            e.printStackTrace();
         }
         return null;
     }
 
 
-    // 1. Kasus T = Habit
-    private String analyzeHabitConsistency() {
+    // 1. Kasus T = Habit (index di snapshot)
+    private String analyzeHabitConsistency(AnalysisContext ctx) {
+        AnalysisSnapshot data = ctx.data();
         return executeAnalysis(
-            analysisRepository::getRandomHabit,
-            
-            Objects::nonNull,
-            
-            habit -> {
-                LocalDate endDate = LocalDate.now();
+            () -> ctx.habitPick(CONSISTENCY_SLOT),
+
+            index -> index >= 0,
+
+            index -> {
+                LocalDate endDate = data.getEndDate();
                 LocalDate startDate = endDate.minusDays(6);
-                int count = analysisRepository.countHabitLogs(habit.getId(), startDate, endDate);
-                
+                int count = data.countDone(index, startDate, endDate);
+
                 if (count > 0) {
                     long percentage = (count * 100) / 7;
                     return String.format("Konsistensi: '%s' dilakukan %d dari 7 hari terakhir (%d%%).",
-                            habit.getName(), count, percentage);
+                            data.getHabitName(index), count, percentage);
                 }
-                return null; 
+                return null;
             }
         );
     }
 
     // 2. Kasus T = List<String>
-    private String analyzeHabitsWithHighMood() {
+    private String analyzeHabitsWithHighMood(AnalysisContext ctx) {
         return executeAnalysis(
-            () -> {
-                LocalDate end = LocalDate.now();
-                return analysisRepository.getHabitsByMood(true, 3, end.minusWeeks(1), end);
-            },
+            () -> ctx.data().getHabitsByMood(true, 3),
             list -> !list.isEmpty(),
             list -> "Saat mood sedang baik, Anda sering melakukan: " + String.join(", ", list) + "."
         );
     }
 
     // 3. Kasus T = List<String> (Low Mood)
-    private String analyzeHabitsWithLowMood() {
+    private String analyzeHabitsWithLowMood(AnalysisContext ctx) {
         return executeAnalysis(
-            () -> {
-                LocalDate end = LocalDate.now();
-                return analysisRepository.getHabitsByMood(false, 3, end.minusWeeks(1), end);
-            },
+            () -> ctx.data().getHabitsByMood(false, 3),
             list -> !list.isEmpty(),
             list -> "Saat mood sedang kurang baik, Anda tercatat melakukan: " + String.join(", ", list) + "."
         );
     }
 
     // 4. Kasus T = Map<DayOfWeek, Double>
-    private String analyzeHighestMoodDay() {
+    private String analyzeHighestMoodDay(AnalysisContext ctx) {
         return executeAnalysis(
-            () -> {
-                LocalDate end = LocalDate.now();
-                return analysisRepository.getAverageMoodByDayOfWeek(end.minusWeeks(1), end);
-            },
-            
+            ctx.data()::getAverageMoodByDayOfWeek,
+
             map -> !map.isEmpty(),
-            
+
             map -> map.entrySet().stream()
                     .max(Map.Entry.comparingByValue())
                     .map(entry -> {
@@ -127,14 +266,11 @@ public class AnalysisService {
     }
 
     // 5. Kasus T = Map<DayOfWeek, Double> (Lowest)
-    private String analyzeLowestMoodDay() {
+    private String analyzeLowestMoodDay(AnalysisContext ctx) {
         return executeAnalysis(
-            () -> {
-                LocalDate end = LocalDate.now();
-                return analysisRepository.getAverageMoodByDayOfWeek(end.minusWeeks(1), end);
-            },
+            ctx.data()::getAverageMoodByDayOfWeek,
             map -> !map.isEmpty(),
-            
+
             map -> map.entrySet().stream()
                     .min(Map.Entry.comparingByValue())
                     .map(entry -> {
@@ -146,33 +282,31 @@ public class AnalysisService {
     }
 
     // 6. Kasus T = List<String> (Rekomendasi)
-    private String generatePositiveImpactRecommendation() {
+    private String generatePositiveImpactRecommendation(AnalysisContext ctx) {
         return executeAnalysis(
-            () -> {
-                LocalDate end = LocalDate.now();
-                return analysisRepository.getHabitsByMood(true, 1, end.minusWeeks(1), end);
-            },
+            () -> ctx.data().getHabitsByMood(true, 1),
             list -> !list.isEmpty(),
             list -> String.format("Rekomendasi: Melakukan '%s' terbukti membantu menjaga mood tetap stabil. Pertahankan!", list.get(0))
         );
     }
 
     // 7. Kasus T = Habit (Saran Konsistensi)
-    private String generateConsistencyRecommendation() {
+    private String generateConsistencyRecommendation(AnalysisContext ctx) {
+        AnalysisSnapshot data = ctx.data();
         return executeAnalysis(
-            analysisRepository::getRandomHabit,
-            
-            Objects::nonNull,
-            
-            habit -> {
-                LocalDate end = LocalDate.now();
-                int count = analysisRepository.countHabitLogs(habit.getId(), end.minusDays(6), end);
-                
+            () -> ctx.habitPick(RECOMMENDATION_SLOT),
+
+            index -> index >= 0,
+
+            index -> {
+                LocalDate end = data.getEndDate();
+                int count = data.countDone(index, end.minusDays(6), end);
+
                 if (count > 0 && count < 3) {
-                    return String.format("Saran: Untuk meningkatkan mood, coba tingkatkan frekuensi '%s' menjadi 4x/minggu.", habit.getName());
+                    return String.format("Saran: Untuk meningkatkan mood, coba tingkatkan frekuensi '%s' menjadi 4x/minggu.", data.getHabitName(index));
                 }
                 return null;
             }
         );
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,46 @@
+package app.service;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+// Counter latency & timeout untuk satu analyzer (timeout = snapshot belum termuat saat analyzer terpilih)
+public class AnalyzerStats {
+
+    private final String name;
+    private final AtomicLong runs = new AtomicLong();
+    private final AtomicLong timeouts = new AtomicLong();
+    private final AtomicLong failures = new AtomicLong();
+    private final AtomicLong totalNanos = new AtomicLong();
+    private final AtomicLong maxNanos = new AtomicLong();
+
+    public AnalyzerStats(String name) {
+        this.name = name;
+    }
+
+    void recordRun(long nanos) {
+        runs.incrementAndGet();
+        totalNanos.addAndGet(nanos);
+        maxNanos.accumulateAndGet(nanos, Math::max);
+    }
+
+    void recordTimeout() { timeouts.incrementAndGet(); }
+
+    void recordFailure() { failures.incrementAndGet(); }
+
+    public String getName() { return name; }
+    public long getRuns() { return runs.get(); }
+    public long getTimeouts() { return timeouts.get(); }
+    public long getFailures() { return failures.get(); }
+
+    public double getAverageMillis() {
+        long n = runs.get();
+        return n == 0 ? 0.0 : totalNanos.get() / 1_000_000.0 / n;
+    }
+
+    public double getMaxMillis() { return maxNanos.get() / 1_000_000.0; }
+
+    @Override
+    public String toString() {
+        return String.format("%s{runs=%d, timeouts=%d, failures=%d, avgMs=%.3f, maxMs=%.3f}",
+                name, getRuns(), getTimeouts(), getFailures(), getAverageMillis(), getMaxMillis());
+    }
+}
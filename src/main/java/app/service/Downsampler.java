@@ -0,0 +1,71 @@
+package app.service;
+
+// Largest-Triangle-Three-Buckets: memilih threshold titik dari deret panjang
+// sambil mempertahankan bentuk visualnya (puncak & lembah tidak hilang seperti pada rata-rata).
+// x harus terurut naik. Hasilnya indeks titik yang dipertahankan, terurut, selalu termasuk titik pertama & terakhir.
+public final class Downsampler {
+
+    private Downsampler() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    public static int[] lttb(double[] x, double[] y, int threshold) {
+        int n = x.length;
+        if (y.length != n) {
+            throw new IllegalArgumentException("Panjang x dan y harus sama");
+        }
+        if (threshold >= n || n <= 2) {
+            return identity(n);
+        }
+        if (threshold <= 2) {
+            return new int[] {0, n - 1};
+        }
+
+        int[] sampled = new int[threshold];
+        int count = 0;
+        sampled[count++] = 0;
+
+        // Titik pertama & terakhir tetap, sisanya dibagi rata ke (threshold - 2) bucket
+        double every = (double) (n - 2) / (threshold - 2);
+        int a = 0;
+        for (int i = 0; i < threshold - 2; i++) {
+            // Rata-rata bucket berikutnya sebagai titik ketiga segitiga
+            int avgStart = (int) Math.floor((i + 1) * every) + 1;
+            int avgEnd = Math.min((int) Math.floor((i + 2) * every) + 1, n);
+            double avgX = 0;
+            double avgY = 0;
+            for (int j = avgStart; j < avgEnd; j++) {
+                avgX += x[j];
+                avgY += y[j];
+            }
+            int avgLength = avgEnd - avgStart;
+            avgX /= avgLength;
+            avgY /= avgLength;
+
+            // Titik di bucket ini yang membentuk segitiga terbesar dengan titik terpilih sebelumnya
+            int rangeStart = (int) Math.floor(i * every) + 1;
+            int rangeEnd = (int) Math.floor((i + 1) * every) + 1;
+            double maxArea = -1;
+            int next = rangeStart;
+            for (int j = rangeStart; j < rangeEnd; j++) {
+                double area = Math.abs((x[a] - avgX) * (y[j] - y[a]) - (x[a] - x[j]) * (avgY - y[a]));
+                if (area > maxArea) {
+                    maxArea = area;
+                    next = j;
+                }
+            }
+            sampled[count++] = next;
+            a = next;
+        }
+        sampled[count] = n - 1;
+        return sampled;
+    }
+
+    private static int[] identity(int n) {
+        int[] all = new int[n];
+        for (int i = 0; i < n; i++) {
+            all[i] = i;
+        }
+        return all;
+    }
+}
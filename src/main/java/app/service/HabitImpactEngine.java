@@ -0,0 +1,100 @@
+package app.service;
+
+import app.model.AnalysisHabitMood;
+import app.model.AnalysisSnapshot;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Comparator;
+import java.util.List;
+
+// Skor dampak habit terhadap mood untuk semua habit sekaligus.
+// impact = rata-rata mood di hari habit dilakukan - rata-rata mood di hari ber-mood tanpa habit.
+// Dengan lag k, habit di hari t dibandingkan dengan mood di hari t + k.
+//
+// Jumlah & jumlah kuadrat mood semua hari dihitung sekali; per habit cukup menjumlah hari "done"
+// (iterasi bit yang menyala), sisi "tidak done" = total - done. Biaya O(hari + jumlah log), tanpa objek per hari.
+public final class HabitImpactEngine {
+
+    public static final int MAX_LAG_DAYS = 7;
+
+    private HabitImpactEngine() {
+        throw new IllegalStateException("Utility class");
+    }
+
+    // Diurutkan dari dampak paling positif; habit yang salah satu sisinya kosong tidak dikembalikan
+    public static List<AnalysisHabitMood> compute(AnalysisSnapshot data, int lagDays) {
+        if (lagDays < 0 || lagDays > MAX_LAG_DAYS) {
+            throw new IllegalArgumentException("lagDays harus 0.." + MAX_LAG_DAYS);
+        }
+        int days = data.getDays();
+
+        // Hari habit t dipasangkan dengan mood t + lag; hanya pasangan yang keduanya di dalam rentang
+        int[] moods = new int[Math.max(0, days - lagDays)];
+        long totalSum = 0;
+        long totalSumSq = 0;
+        int totalCount = 0;
+        for (int t = 0; t < moods.length; t++) {
+            int mood = data.getMood(t + lagDays);
+            moods[t] = mood;
+            if (mood > 0) {
+                totalSum += mood;
+                totalSumSq += (long) mood * mood;
+                totalCount++;
+            }
+        }
+
+        List<AnalysisHabitMood> results = new ArrayList<>();
+        for (int h = 0; h < data.getHabitCount(); h++) {
+            BitSet done = data.getDoneDays(h);
+            long doneSum = 0;
+            long doneSumSq = 0;
+            int doneCount = 0;
+            for (int t = done.nextSetBit(0); t >= 0 && t < moods.length; t = done.nextSetBit(t + 1)) {
+                int mood = moods[t];
+                if (mood > 0) {
+                    doneSum += mood;
+                    doneSumSq += (long) mood * mood;
+                    doneCount++;
+                }
+            }
+            int otherCount = totalCount - doneCount;
+            if (doneCount == 0 || otherCount == 0) continue;
+
+            double doneMean = (double) doneSum / doneCount;
+            double otherMean = (double) (totalSum - doneSum) / otherCount;
+            double standardError = Math.sqrt(
+                    sampleVariance(doneSum, doneSumSq, doneCount) / doneCount
+                  + sampleVariance(totalSum - doneSum, totalSumSq - doneSumSq, otherCount) / otherCount);
+            double impact = doneMean - otherMean;
+
+            results.add(new AnalysisHabitMood(data.getHabitId(h), data.getHabitName(h), impact,
+                    doneCount, otherCount, lagDays, standardError, confidence(impact, standardError, doneCount, otherCount)));
+        }
+        results.sort(Comparator.comparingDouble(AnalysisHabitMood::getMoodImpact).reversed()
+                .thenComparing(AnalysisHabitMood::getHabitName));
+        return results;
+    }
+
+    // Varians sampel dari jumlah & jumlah kuadrat; satu sampel dianggap tanpa informasi varians (0)
+    private static double sampleVariance(long sum, long sumSq, int n) {
+        if (n < 2) return 0;
+        double variance = (sumSq - (double) sum * sum / n) / (n - 1);
+        return Math.max(0, variance);
+    }
+
+    // 1 - p dua sisi untuk statistik t Welch, didekati distribusi normal.
+    // Sampel < 2 di salah satu sisi -> 0 (belum bisa disimpulkan).
+    static double confidence(double impact, double standardError, int doneCount, int otherCount) {
+        if (doneCount < 2 || otherCount < 2) return 0;
+        if (standardError == 0) return impact == 0 ? 0 : 1;
+        double z = Math.abs(impact) / standardError;
+        return erf(z / Math.sqrt(2));
+    }
+
+    // Abramowitz & Stegun 7.1.26 (error maks ~1.5e-7), cukup untuk label keyakinan
+    private static double erf(double x) {
+        double t = 1 / (1 + 0.3275911 * x);
+        double poly = t * (0.254829592 + t * (-0.284496736 + t * (1.421413741 + t * (-1.453152027 + t * 1.061405429))));
+        return 1 - poly * Math.exp(-x * x);
+    }
+}
@@ -0,0 +1,111 @@
+package app.service;
+
+import app.model.AnalysisSnapshot;
+import app.observer.IObserver;
+
+import java.util.Arrays;
+import java.util.Random;
+
+// Pemilih habit acak di memori (pengganti ORDER BY RANDOM() di DB).
+// Bobot = 1 + jumlah hari habit dilakukan dalam 7 hari terakhir, atau seragam.
+// Ditandai basi lewat event HabitFacade, lalu diisi ulang dari snapshot analisis berikutnya.
+public class HabitSampler implements IObserver {
+
+    private static final int RECENT_DAYS = 7;
+
+    // Data immutable yang diganti utuh saat refresh
+    private record State(int[] habitIds, long[] cumulativeWeights) {}
+
+    private final boolean weighted;
+    private volatile State state = new State(new int[0], new long[0]);
+    private volatile boolean stale = true;
+
+    public HabitSampler() {
+        this(true);
+    }
+
+    public HabitSampler(boolean weighted) {
+        this.weighted = weighted;
+    }
+
+    // Dipanggil HabitFacade saat habit ditambah/dihapus atau status berubah
+    @Override
+    public void onDataChanged() {
+        stale = true;
+    }
+
+    public boolean isStale() {
+        return stale;
+    }
+
+    public void refresh(AnalysisSnapshot data) {
+        int count = data.getHabitCount();
+        int[] ids = new int[count];
+        long[] cumulative = new long[count];
+        long total = 0;
+        for (int i = 0; i < count; i++) {
+            ids[i] = data.getHabitId(i);
+            total += weighted ? 1 + data.countDone(i, data.getEndDate().minusDays(RECENT_DAYS - 1L), data.getEndDate()) : 1;
+            cumulative[i] = total;
+        }
+        state = new State(ids, cumulative);
+        stale = false;
+    }
+
+    public void refreshIfStale(AnalysisSnapshot data) {
+        if (stale) {
+            refresh(data);
+        }
+    }
+
+    public int size() {
+        return state.habitIds().length;
+    }
+
+    // Ambil sampai k id habit yang berbeda (tanpa pengembalian)
+    public int[] sampleDistinct(int k, Random random) {
+        State current = state;
+        int n = current.habitIds().length;
+        int take = Math.min(k, n);
+        int[] result = new int[take];
+        boolean[] used = new boolean[n];
+        long[] cumulative = current.cumulativeWeights();
+        long remaining = n == 0 ? 0 : cumulative[n - 1];
+
+        for (int picked = 0; picked < take; picked++) {
+            long target = (long) (random.nextDouble() * remaining);
+            int index = indexAt(cumulative, used, target);
+            used[index] = true;
+            remaining -= weightOf(cumulative, index);
+            result[picked] = current.habitIds()[index];
+        }
+        return result;
+    }
+
+    // Untuk satu habit saja: binary search di bobot kumulatif
+    public int sample(Random random) {
+        State current = state;
+        long[] cumulative = current.cumulativeWeights();
+        if (cumulative.length == 0) return -1;
+        long target = (long) (random.nextDouble() * cumulative[cumulative.length - 1]);
+        int index = Arrays.binarySearch(cumulative, target + 1);
+        if (index < 0) index = -index - 1;
+        return current.habitIds()[index];
+    }
+
+    private static int indexAt(long[] cumulative, boolean[] used, long target) {
+        long acc = 0;
+        int last = -1;
+        for (int i = 0; i < cumulative.length; i++) {
+            if (used[i]) continue;
+            acc += weightOf(cumulative, i);
+            last = i;
+            if (target < acc) return i;
+        }
+        return last;
+    }
+
+    private static long weightOf(long[] cumulative, int index) {
+        return index == 0 ? cumulative[0] : cumulative[index] - cumulative[index - 1];
+    }
+}
@@ -0,0 +1,74 @@
+package app.view;
+
+import javax.swing.JTextArea;
+import javax.swing.text.BadLocationException;
+
+import app.activity.ActivityEvent;
+import app.activity.ActivityLog;
+
+import java.util.List;
+
+// Text area untuk ActivityLog (yang terbaru di atas). Hanya event baru yang disisipkan,
+// teks tidak dibangun ulang setiap ada perubahan. Jumlah baris dibatasi kapasitas log.
+class ActivityLogArea extends JTextArea {
+
+    private final transient ActivityLog log;
+    private final String emptyMessage;
+    private long renderedSequence = -1; // -1 = belum pernah dirender
+
+    ActivityLogArea(ActivityLog log, String emptyMessage) {
+        this.log = log;
+        this.emptyMessage = emptyMessage;
+    }
+
+    // Dipanggil di EDT
+    void refresh() {
+        List<ActivityEvent> fresh = log.eventsSince(Math.max(0, renderedSequence));
+        if (fresh.isEmpty()) {
+            if (renderedSequence < 0) {
+                setText(emptyMessage);
+                renderedSequence = 0;
+            }
+            return;
+        }
+
+        boolean gap = fresh.get(0).sequence() != renderedSequence + 1;
+        if (renderedSequence <= 0 || gap) {
+            rebuild(fresh);
+        } else {
+            for (ActivityEvent event : fresh) {
+                insert(line(event), 0);
+            }
+            trimToCapacity();
+        }
+        renderedSequence = fresh.get(fresh.size() - 1).sequence();
+        setCaretPosition(0);
+    }
+
+    // Dipakai saat pertama kali atau jika event yang belum dirender sudah tertimpa di ring buffer
+    private void rebuild(List<ActivityEvent> fresh) {
+        List<ActivityEvent> events = renderedSequence <= 0 ? fresh : log.eventsSince(0);
+        StringBuilder sb = new StringBuilder();
+        for (int i = events.size() - 1; i >= 0; i--) {
+            sb.append(line(events.get(i)));
+        }
+        setText(sb.toString());
+    }
+
+    private void trimToCapacity() {
+        int capacity = log.getCapacity();
+        // Teks diakhiri "\n", jadi ada satu baris kosong di akhir
+        if (getLineCount() - 1 <= capacity) return;
+        try {
+            int start = getLineStartOffset(capacity);
+            replaceRange(null, start, getDocument().getLength());
+        } catch (BadLocationException e) {
+            setText("");
+            renderedSequence = -1;
+        }
+    }
+
+    private static String line(ActivityEvent event) {
+        return "• " + event.message() + "\n";
+    }
+}
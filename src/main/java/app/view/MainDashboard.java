@@ -1,28 +1,68 @@
 package app.view;
 
+import app.async.CoalescingLoader;
+import app.async.DbExecutor;
+import app.cache.PeriodCache;
+import app.config.DatabaseConnection;
+import app.facade.HabitFacade;
 import app.facade.MoodFacade;
-import app.model.Mood;
+import app.model.MoodSeries;
+import app.model.PeriodType;
+import app.observer.ChangeEvent;
+import app.observer.EventBus;
+import app.offline.OfflineMode;
+import app.repository.AnalysisRepository;
 import app.service.AnalysisService;
 import java.awt.*;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
 import java.awt.geom.Ellipse2D;
-import java.time.DayOfWeek;
+import java.awt.image.VolatileImage;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.time.temporal.TemporalAdjusters;
+import java.util.EnumMap;
 import java.util.List;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 
 public class MainDashboard extends JFrame {
 
-    private final transient MoodFacade moodFacade = new MoodFacade();
-    private final transient AnalysisService analysisService = new AnalysisService();
-    
-    private LocalDate weekStart = LocalDate.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.SUNDAY));
+    private static final Logger LOGGER = Logger.getLogger(MainDashboard.class.getName());
+
+    // Satu bus untuk kedua facade: event dalam satu burst dikirim sebagai satu batch di EDT
+    private final transient EventBus eventBus = new EventBus();
+    // Mode offline: facade & analisis memakai store lokal (null = langsung ke PostgreSQL)
+    private final transient OfflineMode offline = OfflineMode.getInstance();
+    private final transient HabitFacade habitFacade =
+            (offline != null) ? offline.newHabitFacade(eventBus) : new HabitFacade(eventBus);
+    private final transient MoodFacade moodFacade =
+            (offline != null) ? offline.newMoodFacade(eventBus) : new MoodFacade(eventBus);
+    // Pool dibuat saat analisis pertama dimuat (di DbExecutor), bukan di EDT
+    private final transient AnalysisService analysisService = (offline != null) ? offline.newAnalysisService()
+            : new AnalysisService(new AnalysisRepository(DatabaseConnection.lazyDataSource()));
+    private final transient CoalescingLoader<String, List<String>> analysisLoader =
+            new CoalescingLoader<>("MainDashboard.analysis",
+                    key -> analysisService.getSevenRandomAnalyses(), this::showAnalyses);
     
+    // Periode yang sedang ditampilkan grafik (minggu atau bulan)
+    private record Period(PeriodType type, LocalDate start) {}
+
+    private PeriodType periodType = PeriodType.WEEK;
+    private LocalDate periodStart = periodType.startOf(LocalDate.now());
+
+    // Satu cache per jenis periode; periode sebelum/sesudah ikut dimuat supaya navigasi instan
+    private final transient Map<PeriodType, PeriodCache<MoodSeries>> seriesCaches = new EnumMap<>(PeriodType.class);
+
     private JPanel analysisContentPanel;
+    private JLabel graphTitle;
+    private JLabel graphSubtitle;
+    private final MoodGraphPanel moodGraphPanel = new MoodGraphPanel();
+    private final transient CoalescingLoader<Period, MoodSeries> seriesLoader =
+            new CoalescingLoader<>("MainDashboard.series",
+                    p -> seriesCaches.get(p.type()).get(p.start()), this::applySeries);
 
     // --- PALETTE COLORS ---
     private static final Color BG_MAIN = Color.WHITE;
@@ -38,7 +78,26 @@ public class MainDashboard extends JFrame {
 
     private static final String FONT_POPPINS = "Poppins";
 
+    // Objek grafis untuk grafik, dibuat sekali saja (bukan per repaint)
+    private static final String[] MOOD_EMOJIS = {"", "😭", "😞", "😐", "😊", "😄"};
+    private static final Font GRAPH_EMOJI_FONT = new Font("Segoe UI Emoji", Font.PLAIN, 24);
+    private static final Font GRAPH_DAY_FONT = new Font(FONT_POPPINS, Font.BOLD, 14);
+    private static final BasicStroke AXIS_STROKE = new BasicStroke(2);
+    private static final BasicStroke GRID_STROKE = new BasicStroke(1);
+    private static final BasicStroke LINE_STROKE = new BasicStroke(3f);
+    private static final DateTimeFormatter DAY_FMT = DateTimeFormatter.ofPattern("EEE");
+    private static final DateTimeFormatter DATE_FMT = DateTimeFormatter.ofPattern("d");
+    private static final DateTimeFormatter RANGE_FMT = DateTimeFormatter.ofPattern("dd MMM yyyy");
+    private static final int MAX_DAY_LABELS = 10;
+
     public MainDashboard() {
+        for (PeriodType type : PeriodType.values()) {
+            PeriodCache<MoodSeries> cache = new PeriodCache<>(type,
+                    start -> moodFacade.getMoodSeries(start, type.lengthInDays(start)), DbExecutor.READ);
+            cache.registerMetrics("MainDashboard.seriesCache." + type.name().toLowerCase());
+            seriesCaches.put(type, cache);
+        }
+
         setTitle("MoodFlow • Dashboard");
         setSize(1200, 800);
         setDefaultCloseOperation(EXIT_ON_CLOSE);
@@ -54,11 +113,70 @@ public class MainDashboard extends JFrame {
         northContainer.add(createWeeklyHeader());       
         
         add(northContainer, BorderLayout.NORTH);
-        add(new MoodGraphPanel(), BorderLayout.CENTER);
+        add(moodGraphPanel, BorderLayout.CENTER);
         add(createBottomPanel(), BorderLayout.SOUTH);
         add(createAnalysisPanel(), BorderLayout.EAST);
-        
-        SwingUtilities.invokeLater(this::loadRandomAnalyses);
+
+        // Perubahan habit yang masih di antrean write-behind tetap tersimpan saat aplikasi ditutup
+        Runtime.getRuntime().addShutdownHook(new Thread(habitFacade::close, "moodflow-flush-on-exit"));
+
+        // Grafik hanya di-refresh saat data mood berubah (sekali per batch)
+        eventBus.subscribe(events -> {
+            boolean moodChanged = false;
+            for (ChangeEvent event : events) {
+                if (event.source() == ChangeEvent.Source.MOOD) {
+                    moodChanged = true;
+                    for (PeriodCache<MoodSeries> cache : seriesCaches.values()) {
+                        cache.update(event.date(), series -> series.withValue(event.date(), event.value()));
+                    }
+                }
+            }
+            if (moodChanged) {
+                refreshMoodSeries();
+            }
+        });
+        habitFacade.addObserver(analysisService.getHabitSampler());
+        if (offline != null) {
+            offline.attach(habitFacade, moodFacade);
+        }
+
+        SwingUtilities.invokeLater(() -> {
+            showPeriod(periodType, periodStart);
+            loadRandomAnalyses();
+        });
+    }
+
+    // Periode yang sudah di-cache langsung digambar; loader tetap jalan supaya hasil load lama tidak menimpa
+    private void showPeriod(PeriodType type, LocalDate start) {
+        periodType = type;
+        periodStart = type.startOf(start);
+        updateGraphHeader();
+
+        PeriodCache<MoodSeries> cache = seriesCaches.get(type);
+        MoodSeries cached = cache.peek(periodStart);
+        if (cached != null) {
+            applySeries(cached);
+        }
+        refreshMoodSeries();
+        cache.prefetchAround(periodStart);
+    }
+
+    private void refreshMoodSeries() {
+        seriesLoader.request(new Period(periodType, periodStart));
+    }
+
+    private void applySeries(MoodSeries series) {
+        // Hasil untuk periode lain (user sudah pindah lagi) dibuang
+        if (series.getStart().equals(periodStart) && series.size() == periodType.lengthInDays(periodStart)) {
+            moodGraphPanel.setSeries(series);
+        }
+    }
+
+    private void updateGraphHeader() {
+        LocalDate end = periodStart.plusDays(periodType.lengthInDays(periodStart) - 1L);
+        graphTitle.setText(periodType == PeriodType.WEEK ? "Weekly Mood Analysis" : "Monthly Mood Analysis");
+        graphSubtitle.setText("Overview of your emotional journey (" + periodStart.format(RANGE_FMT)
+                + " - " + end.format(RANGE_FMT) + ")");
     }
 
     private JPanel createTopDashboardBanner() {
@@ -79,22 +197,52 @@ public class MainDashboard extends JFrame {
         header.setBackground(BG_MAIN);
         header.setBorder(new EmptyBorder(30, 40, 10, 40)); 
 
-        JLabel title = new JLabel("Weekly Mood Analysis");
-        title.setFont(new Font(FONT_POPPINS, Font.BOLD, 36)); 
-        title.setForeground(TEXT_DARK);
+        graphTitle = new JLabel();
+        graphTitle.setFont(new Font(FONT_POPPINS, Font.BOLD, 36)); 
+        graphTitle.setForeground(TEXT_DARK);
 
-        JLabel subtitle = new JLabel("Overview of your emotional journey this week (" + 
-                weekStart.format(DateTimeFormatter.ofPattern("dd MMM")) + " - " + 
-                weekStart.plusDays(6).format(DateTimeFormatter.ofPattern("dd MMM")) + ")");
-        title.setFont(new Font(FONT_POPPINS, Font.PLAIN, 16));
-        subtitle.setForeground(Color.GRAY);
+        graphSubtitle = new JLabel();
+        graphTitle.setFont(new Font(FONT_POPPINS, Font.PLAIN, 16));
+        graphSubtitle.setForeground(Color.GRAY);
+        updateGraphHeader();
 
-        header.add(title, BorderLayout.NORTH);
-        header.add(subtitle, BorderLayout.SOUTH);
+        header.add(graphTitle, BorderLayout.NORTH);
+        header.add(graphSubtitle, BorderLayout.SOUTH);
+        header.add(createPeriodNavigation(), BorderLayout.EAST);
 
         return header;
     }
 
+    private JPanel createPeriodNavigation() {
+        JPanel nav = new JPanel(new FlowLayout(FlowLayout.RIGHT, 5, 0));
+        nav.setBackground(BG_MAIN);
+
+        JComboBox<String> typeBox = new JComboBox<>(new String[] {"Mingguan", "Bulanan"});
+        typeBox.setFont(new Font(FONT_POPPINS, Font.PLAIN, 13));
+        typeBox.addActionListener(e -> {
+            PeriodType type = typeBox.getSelectedIndex() == 0 ? PeriodType.WEEK : PeriodType.MONTH;
+            if (type != periodType) {
+                showPeriod(type, periodStart);
+            }
+        });
+
+        nav.add(typeBox);
+        nav.add(createNavButton("◀", "Periode sebelumnya", () -> showPeriod(periodType, periodType.previous(periodStart))));
+        nav.add(createNavButton("Hari Ini", "Kembali ke periode sekarang", () -> showPeriod(periodType, LocalDate.now())));
+        nav.add(createNavButton("▶", "Periode berikutnya", () -> showPeriod(periodType, periodType.next(periodStart))));
+        return nav;
+    }
+
+    private JButton createNavButton(String text, String tooltip, Runnable action) {
+        JButton button = new JButton(text);
+        button.setToolTipText(tooltip);
+        button.setFont(new Font(FONT_POPPINS, Font.PLAIN, 13));
+        button.setFocusPainted(false);
+        button.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+        button.addActionListener(e -> action.run());
+        return button;
+    }
+
     private JPanel createBottomPanel() {
         JPanel panel = new JPanel(new FlowLayout(FlowLayout.CENTER));
         panel.setBackground(BG_MAIN);
@@ -109,19 +257,32 @@ public class MainDashboard extends JFrame {
         btnOpenTracker.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
 
         btnOpenTracker.addActionListener(e -> SwingUtilities.invokeLater(() -> {
-            WeeklyTrackerView tracker = new WeeklyTrackerView();
+            WeeklyTrackerView tracker = new WeeklyTrackerView(habitFacade, moodFacade);
             tracker.setVisible(true);
             
             tracker.addWindowListener(new java.awt.event.WindowAdapter() {
                 @Override
                 public void windowClosed(java.awt.event.WindowEvent windowEvent) {
-                    repaint(); 
-                    loadRandomAnalyses(); 
+                    // Analisis baru dimuat setelah perubahan habit tertunda sudah ditulis
+                    habitFacade.flushPendingWritesAsync()
+                            .thenRunAsync(MainDashboard.this::loadRandomAnalyses, DbExecutor.EDT);
                 }
             });
         }));
 
+        JButton btnOpenTrend = new JButton("Mood Trend");
+        btnOpenTrend.setFont(new Font(FONT_POPPINS, Font.BOLD, 18));
+        btnOpenTrend.setBackground(Color.WHITE);
+        btnOpenTrend.setForeground(ACCENT_BROWN);
+        btnOpenTrend.setFocusPainted(false);
+        btnOpenTrend.setBorder(BorderFactory.createCompoundBorder(
+                BorderFactory.createLineBorder(ACCENT_BROWN, 2), new EmptyBorder(13, 30, 13, 30)));
+        btnOpenTrend.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+        btnOpenTrend.addActionListener(e -> SwingUtilities.invokeLater(() -> new MoodTrendView(moodFacade).setVisible(true)));
+
         panel.add(btnOpenTracker);
+        panel.add(Box.createHorizontalStrut(15));
+        panel.add(btnOpenTrend);
         return panel;
     }
 
@@ -172,9 +333,11 @@ public class MainDashboard extends JFrame {
     }
 
     private void loadRandomAnalyses() {
+        analysisLoader.request("analyses");
+    }
+
+    private void showAnalyses(List<String> analyses) {
         analysisContentPanel.removeAll();
-        
-        List<String> analyses = analysisService.getSevenRandomAnalyses();
 
         if (analyses.isEmpty()) {
             JTextArea noDataText = createAnalysisTextArea("Belum ada cukup data untuk dianalisis. Terus catat mood dan kebiasaanmu setiap hari!");
@@ -183,6 +346,10 @@ public class MainDashboard extends JFrame {
         } else {
             for (String analysisText : analyses) {
                 JTextArea item = createAnalysisTextArea("• " + analysisText);
+                // Analyzer yang melewati deadline tampil sebagai placeholder abu-abu
+                if (analysisText.startsWith(AnalysisService.PLACEHOLDER_PREFIX)) {
+                    item.setForeground(Color.GRAY);
+                }
                 analysisContentPanel.add(item);
                 analysisContentPanel.add(Box.createRigidArea(new Dimension(0, 15))); 
             }
@@ -205,82 +372,152 @@ public class MainDashboard extends JFrame {
     }
 
     private class MoodGraphPanel extends JPanel {
-        
+
+        private static final int PADDING = 60;
+
+        private transient MoodSeries series = MoodSeries.empty(periodStart, periodType.lengthInDays(periodStart));
+
+        // Layer background (sumbu, grid, emoji) di-cache sampai ukuran panel berubah
+        private transient VolatileImage background;
+
+        private final Ellipse2D.Double point = new Ellipse2D.Double();
+        private long lastPaintNanos;
+        private long maxPaintNanos;
+
         public MoodGraphPanel() {
             setBackground(Color.WHITE);
             setBorder(new EmptyBorder(20, 20, 20, 20));
         }
 
+        void setSeries(MoodSeries series) {
+            this.series = series;
+            repaint();
+        }
+
+        long getLastPaintNanos() { return lastPaintNanos; }
+
+        long getMaxPaintNanos() { return maxPaintNanos; }
+
         @Override
         protected void paintComponent(Graphics g) {
+            long start = System.nanoTime();
             super.paintComponent(g);
             Graphics2D g2 = (Graphics2D) g;
             g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
 
             int w = getWidth();
             int h = getHeight();
-            int padding = 60;
-            double graphW = (double) w - (2 * padding);
-            double graphH = (double) h - (2 * padding);
+            paintBackgroundLayer(g2, w, h);
+            paintSeries(g2, series, w, h);
+
+            lastPaintNanos = System.nanoTime() - start;
+            maxPaintNanos = Math.max(maxPaintNanos, lastPaintNanos);
+            if (LOGGER.isLoggable(Level.FINE)) {
+                LOGGER.fine(String.format("MoodGraphPanel paint: %.3f ms (max %.3f ms)",
+                        lastPaintNanos / 1_000_000.0, maxPaintNanos / 1_000_000.0));
+            }
+        }
+
+        private void paintBackgroundLayer(Graphics2D g2, int w, int h) {
+            GraphicsConfiguration gc = getGraphicsConfiguration();
+            if (gc == null || w <= 0 || h <= 0) {
+                drawAxesAndGrid(g2, w, h);
+                return;
+            }
+            do {
+                boolean sizeChanged = background == null
+                        || background.getWidth() != w || background.getHeight() != h;
+                if (sizeChanged) {
+                    if (background != null) background.flush();
+                    background = gc.createCompatibleVolatileImage(w, h);
+                    renderBackground(w, h);
+                } else {
+                    int status = background.validate(gc);
+                    if (status == VolatileImage.IMAGE_INCOMPATIBLE) {
+                        background.flush();
+                        background = gc.createCompatibleVolatileImage(w, h);
+                        renderBackground(w, h);
+                    } else if (status == VolatileImage.IMAGE_RESTORED) {
+                        renderBackground(w, h);
+                    }
+                }
+                g2.drawImage(background, 0, 0, null);
+            } while (background.contentsLost());
+        }
+
+        private void renderBackground(int w, int h) {
+            Graphics2D bg = background.createGraphics();
+            try {
+                bg.setColor(getBackground());
+                bg.fillRect(0, 0, w, h);
+                bg.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+                drawAxesAndGrid(bg, w, h);
+            } finally {
+                bg.dispose();
+            }
+        }
+
+        private void drawAxesAndGrid(Graphics2D g2, int w, int h) {
+            double graphH = (double) h - (2 * PADDING);
 
             g2.setColor(Color.LIGHT_GRAY);
-            g2.setStroke(new BasicStroke(2));
-            g2.drawLine(padding, h - padding, padding, padding); 
-            g2.drawLine(padding, h - padding, w - padding, h - padding); 
+            g2.setStroke(AXIS_STROKE);
+            g2.drawLine(PADDING, h - PADDING, PADDING, PADDING); 
+            g2.drawLine(PADDING, h - PADDING, w - PADDING, h - PADDING); 
 
-            String[] emojis = {"", "😭", "😞", "😐", "😊", "😄"};
+            g2.setFont(GRAPH_EMOJI_FONT);
+            g2.setStroke(GRID_STROKE);
             for (int i = 1; i <= 5; i++) {
-                int y = (h - padding) - (int)((i * graphH) / 6.0);
+                int y = (h - PADDING) - (int)((i * graphH) / 6.0);
                 g2.setColor(GRID_COLOR);
-                g2.setStroke(new BasicStroke(1));
-                g2.drawLine(padding, y, w - padding, y);
-                g2.setFont(new Font("Segoe UI Emoji", Font.PLAIN, 24));
+                g2.drawLine(PADDING, y, w - PADDING, y);
                 g2.setColor(TEXT_DARK);
-                g2.drawString(emojis[i], padding - 45, y + 10);
+                g2.drawString(MOOD_EMOJIS[i], PADDING - 45, y + 10);
             }
+        }
+
+        private void paintSeries(Graphics2D g2, MoodSeries data, int w, int h) {
+            int n = data.size();
+            double graphW = (double) w - (2 * PADDING);
+            double graphH = (double) h - (2 * PADDING);
 
-            int[] xPoints = new int[7];
-            int[] yPoints = new int[7];
-            boolean[] hasData = new boolean[7];
+            int[] xPoints = new int[n];
+            int[] yPoints = new int[n];
 
-            g2.setFont(new Font(FONT_POPPINS, Font.BOLD, 14));
-            DateTimeFormatter dayFmt = DateTimeFormatter.ofPattern("EEE");
+            // Tampilan bulanan: label tanggal saja, dan tidak semua hari diberi label
+            DateTimeFormatter labelFmt = n <= 7 ? DAY_FMT : DATE_FMT;
+            int labelStep = (n + MAX_DAY_LABELS - 1) / MAX_DAY_LABELS;
 
-            for (int i = 0; i < 7; i++) {
-                LocalDate date = weekStart.plusDays(i);
-                Mood mood = moodFacade.getMood(date);
-                // [FIX 5]
-                int x = padding + (int)((i * graphW) / 6.0);
+            g2.setFont(GRAPH_DAY_FONT);
+            g2.setColor(Color.GRAY);
+            for (int i = 0; i < n; i++) {
+                int x = PADDING + (int)((i * graphW) / (n - 1.0));
                 xPoints[i] = x;
-                g2.setColor(Color.GRAY);
-                g2.drawString(date.format(dayFmt), x - 15, h - padding + 25);
-                if (mood != null && mood.getMoodValue() > 0) {
-                    int val = mood.getMoodValue();
-                    // [FIX 5]
-                    int y = (h - padding) - (int)((val * graphH) / 6.0);
-                    yPoints[i] = y;
-                    hasData[i] = true;
-                } else {
-                    hasData[i] = false;
+                if (i % labelStep == 0) {
+                    g2.drawString(data.getDate(i).format(labelFmt), x - 15, h - PADDING + 25);
+                }
+                if (data.hasValue(i)) {
+                    yPoints[i] = (h - PADDING) - (int)((data.getValue(i) * graphH) / 6.0);
                 }
             }
 
             g2.setColor(GRAPH_LINE);
-            g2.setStroke(new BasicStroke(3f));
-            for (int i = 0; i < 6; i++) {
-                if (hasData[i] && hasData[i+1]) {
+            g2.setStroke(LINE_STROKE);
+            for (int i = 0; i < n - 1; i++) {
+                if (data.hasValue(i) && data.hasValue(i + 1)) {
                     g2.drawLine(xPoints[i], yPoints[i], xPoints[i+1], yPoints[i+1]);
                 }
             }
 
-            for (int i = 0; i < 7; i++) {
-                if (hasData[i]) {
+            for (int i = 0; i < n; i++) {
+                if (data.hasValue(i)) {
+                    point.setFrame(xPoints[i] - 6.0, yPoints[i] - 6.0, 12, 12);
                     g2.setColor(GRAPH_POINT);
-                    g2.fill(new Ellipse2D.Double(xPoints[i] - 6.0, yPoints[i] - 6.0, 12, 12));
+                    g2.fill(point);
                     g2.setColor(BG_MAIN);
-                    g2.draw(new Ellipse2D.Double(xPoints[i] - 6.0, yPoints[i] - 6.0, 12, 12));
+                    g2.draw(point);
                 }
             }
         }
     }
-}
\ No newline at end of file
+}
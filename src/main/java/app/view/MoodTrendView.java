@@ -0,0 +1,344 @@
+package app.view;
+
+import app.async.CoalescingLoader;
+import app.facade.MoodFacade;
+import app.model.MoodBucket;
+import app.model.MoodTrend;
+import app.model.TrendResolution;
+import app.observer.ChangeEvent;
+import app.observer.ChangeListener;
+import java.awt.*;
+import java.awt.event.ComponentAdapter;
+import java.awt.event.ComponentEvent;
+import java.awt.event.MouseAdapter;
+import java.awt.event.MouseEvent;
+import java.awt.event.MouseWheelEvent;
+import java.awt.geom.Path2D;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.Map;
+import javax.swing.*;
+import javax.swing.border.EmptyBorder;
+
+// Grafik tren mood rentang panjang (bulan sampai tahun), bisa di-zoom (scroll) dan digeser (drag).
+// Jumlah titik mengikuti lebar grafik: database mengembalikan rata-rata/min/max per bucket,
+// atau deret harian yang sudah di-downsample (LTTB). Paint hanya menggambar dua Path2D.
+public class MoodTrendView extends JFrame {
+
+    private static final long serialVersionUID = 1L;
+
+    private record TrendRequest(LocalDate from, LocalDate to, int maxPoints, boolean raw) {}
+
+    private static final Color BG_MAIN = Color.WHITE;
+    private static final Color TEXT_DARK = new Color(33, 37, 41);
+    private static final Color ACCENT_BROWN = new Color(139, 115, 85);
+    private static final Color GRID_COLOR = new Color(230, 230, 230);
+    private static final Color BAND_COLOR = new Color(139, 115, 85, 50);
+    private static final String FONT_POPPINS = "Poppins";
+
+    private static final BasicStroke LINE_STROKE = new BasicStroke(2f);
+    private static final BasicStroke GRID_STROKE = new BasicStroke(1);
+    private static final DateTimeFormatter AXIS_FMT = DateTimeFormatter.ofPattern("MMM yyyy");
+    private static final DateTimeFormatter RANGE_FMT = DateTimeFormatter.ofPattern("dd MMM yyyy");
+
+    private static final int PIXELS_PER_POINT = 4;
+    private static final long MIN_RANGE_DAYS = 14;
+    private static final long MAX_RANGE_DAYS = 365L * 20;
+    private static final double ZOOM_STEP = 1.25;
+
+    private static final Map<String, Integer> PRESETS_MONTHS = Map.of(
+            "3 Bulan", 3, "1 Tahun", 12, "3 Tahun", 36, "5 Tahun", 60);
+    private static final String[] PRESET_ORDER = {"3 Bulan", "1 Tahun", "3 Tahun", "5 Tahun"};
+
+    private final transient MoodFacade moodFacade;
+    private final transient CoalescingLoader<TrendRequest, MoodTrend> trendLoader;
+    private final transient ChangeListener changeListener = this::onChanges;
+
+    private LocalDate from;
+    private LocalDate to;
+    private boolean raw = false;
+
+    private final TrendPanel trendPanel = new TrendPanel();
+    private final JLabel infoLabel = new JLabel();
+
+    public MoodTrendView(MoodFacade moodFacade) {
+        this.moodFacade = moodFacade;
+        this.trendLoader = new CoalescingLoader<>("MoodTrendView.trend",
+                r -> r.raw() ? moodFacade.getRawMoodTrend(r.from(), r.to(), r.maxPoints())
+                             : moodFacade.getMoodTrend(r.from(), r.to(), r.maxPoints()),
+                this::applyTrend);
+
+        to = LocalDate.now();
+        from = to.minusYears(1);
+
+        setTitle("MoodFlow • Mood Trend");
+        setSize(1100, 600);
+        setDefaultCloseOperation(DISPOSE_ON_CLOSE);
+        setLocationRelativeTo(null);
+        getContentPane().setBackground(BG_MAIN);
+        setLayout(new BorderLayout());
+
+        add(createToolbar(), BorderLayout.NORTH);
+        add(trendPanel, BorderLayout.CENTER);
+
+        // Lebar berubah -> jumlah titik yang muat ikut berubah
+        trendPanel.addComponentListener(new ComponentAdapter() {
+            @Override
+            public void componentResized(ComponentEvent e) {
+                reload();
+            }
+        });
+        moodFacade.getEventBus().subscribe(changeListener);
+    }
+
+    private JPanel createToolbar() {
+        JPanel bar = new JPanel(new BorderLayout());
+        bar.setBackground(BG_MAIN);
+        bar.setBorder(new EmptyBorder(20, 30, 10, 30));
+
+        JLabel title = new JLabel("Mood Trend");
+        title.setFont(new Font(FONT_POPPINS, Font.BOLD, 28));
+        title.setForeground(TEXT_DARK);
+
+        infoLabel.setFont(new Font(FONT_POPPINS, Font.PLAIN, 13));
+        infoLabel.setForeground(Color.GRAY);
+
+        JPanel titleBox = new JPanel(new BorderLayout());
+        titleBox.setOpaque(false);
+        titleBox.add(title, BorderLayout.NORTH);
+        titleBox.add(infoLabel, BorderLayout.SOUTH);
+
+        JComboBox<String> presetBox = new JComboBox<>(PRESET_ORDER);
+        presetBox.setSelectedItem("1 Tahun");
+        presetBox.setFont(new Font(FONT_POPPINS, Font.PLAIN, 13));
+        presetBox.addActionListener(e -> {
+            to = LocalDate.now();
+            from = to.minusMonths(PRESETS_MONTHS.get((String) presetBox.getSelectedItem()));
+            reload();
+        });
+
+        JCheckBox rawBox = new JCheckBox("Harian (downsample)");
+        rawBox.setToolTipText("Tampilkan nilai harian asli yang dikurangi dengan LTTB, bukan rata-rata per periode");
+        rawBox.setFont(new Font(FONT_POPPINS, Font.PLAIN, 13));
+        rawBox.setOpaque(false);
+        rawBox.addActionListener(e -> {
+            raw = rawBox.isSelected();
+            reload();
+        });
+
+        JPanel controls = new JPanel(new FlowLayout(FlowLayout.RIGHT));
+        controls.setOpaque(false);
+        controls.add(rawBox);
+        controls.add(presetBox);
+
+        bar.add(titleBox, BorderLayout.WEST);
+        bar.add(controls, BorderLayout.EAST);
+        return bar;
+    }
+
+    private void reload() {
+        int plotWidth = trendPanel.getPlotWidth();
+        if (plotWidth <= 0) return; // belum tampil, componentResized akan memanggil lagi
+        infoLabel.setText(from.format(RANGE_FMT) + " - " + to.format(RANGE_FMT) + " • memuat...");
+        trendLoader.request(new TrendRequest(from, to, Math.max(2, plotWidth / PIXELS_PER_POINT), raw));
+    }
+
+    private void applyTrend(MoodTrend trend) {
+        String resolution = trend.raw() ? "harian (LTTB)" : resolutionLabel(trend.resolution());
+        infoLabel.setText(trend.from().format(RANGE_FMT) + " - " + trend.to().format(RANGE_FMT)
+                + " • " + resolution + " • " + trend.buckets().size() + " titik"
+                + " • scroll untuk zoom, drag untuk geser");
+        trendPanel.setTrend(trend);
+    }
+
+    private static String resolutionLabel(TrendResolution resolution) {
+        return switch (resolution) {
+            case DAY -> "per hari";
+            case WEEK -> "rata-rata per minggu";
+            case MONTH -> "rata-rata per bulan";
+            case QUARTER -> "rata-rata per kuartal";
+            case YEAR -> "rata-rata per tahun";
+        };
+    }
+
+    private void onChanges(List<ChangeEvent> events) {
+        if (!SwingUtilities.isEventDispatchThread()) {
+            SwingUtilities.invokeLater(() -> onChanges(events));
+            return;
+        }
+        for (ChangeEvent event : events) {
+            if (event.source() == ChangeEvent.Source.MOOD
+                    && !event.date().isBefore(from) && !event.date().isAfter(to)) {
+                reload();
+                return;
+            }
+        }
+    }
+
+    // Zoom di sekitar tanggal yang ditunjuk mouse; rentang dibatasi supaya tetap masuk akal
+    private void zoom(double factor, double anchorFraction) {
+        long days = ChronoUnit.DAYS.between(from, to);
+        long newDays = Math.max(MIN_RANGE_DAYS, Math.min(MAX_RANGE_DAYS, Math.round(days * factor)));
+        if (newDays == days) return;
+        LocalDate anchor = from.plusDays(Math.round(days * anchorFraction));
+        from = anchor.minusDays(Math.round(newDays * anchorFraction));
+        to = from.plusDays(newDays);
+        reload();
+    }
+
+    private void pan(long days) {
+        if (days == 0) return;
+        from = from.plusDays(days);
+        to = to.plusDays(days);
+        reload();
+    }
+
+    @Override
+    public void dispose() {
+        moodFacade.getEventBus().unsubscribe(changeListener);
+        super.dispose();
+    }
+
+    private class TrendPanel extends JPanel {
+
+        private static final int PADDING = 60;
+
+        private transient MoodTrend trend;
+        private final Path2D.Double averagePath = new Path2D.Double();
+        private final Path2D.Double bandPath = new Path2D.Double();
+        private int pathWidth = -1;
+        private int pathHeight = -1;
+
+        private int dragX;
+
+        TrendPanel() {
+            setBackground(Color.WHITE);
+            MouseAdapter mouse = new MouseAdapter() {
+                @Override
+                public void mouseWheelMoved(MouseWheelEvent e) {
+                    double fraction = Math.max(0, Math.min(1, (e.getX() - PADDING) / (double) getPlotWidth()));
+                    zoom(e.getWheelRotation() > 0 ? ZOOM_STEP : 1 / ZOOM_STEP, fraction);
+                }
+
+                @Override
+                public void mousePressed(MouseEvent e) {
+                    dragX = e.getX();
+                }
+
+                @Override
+                public void mouseReleased(MouseEvent e) {
+                    long days = ChronoUnit.DAYS.between(from, to);
+                    pan(Math.round((dragX - e.getX()) * days / (double) getPlotWidth()));
+                }
+            };
+            addMouseWheelListener(mouse);
+            addMouseListener(mouse);
+        }
+
+        int getPlotWidth() {
+            return getWidth() - 2 * PADDING;
+        }
+
+        void setTrend(MoodTrend trend) {
+            this.trend = trend;
+            pathWidth = -1;
+            repaint();
+        }
+
+        @Override
+        protected void paintComponent(Graphics g) {
+            super.paintComponent(g);
+            Graphics2D g2 = (Graphics2D) g;
+            g2.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+
+            int w = getWidth();
+            int h = getHeight();
+            drawGrid(g2, w, h);
+            if (trend == null) return;
+            if (trend.isEmpty()) {
+                g2.setColor(Color.GRAY);
+                g2.drawString("Belum ada data mood di rentang ini.", PADDING + 10, PADDING + 20);
+                return;
+            }
+
+            // Path hanya dibangun ulang saat data atau ukuran berubah
+            if (w != pathWidth || h != pathHeight) {
+                buildPaths(w, h);
+            }
+            g2.setColor(BAND_COLOR);
+            g2.fill(bandPath);
+            g2.setColor(ACCENT_BROWN);
+            g2.setStroke(LINE_STROKE);
+            g2.draw(averagePath);
+        }
+
+        private void drawGrid(Graphics2D g2, int w, int h) {
+            g2.setStroke(GRID_STROKE);
+            g2.setFont(new Font(FONT_POPPINS, Font.PLAIN, 12));
+            for (int mood = 1; mood <= 5; mood++) {
+                int y = yOf(mood, h);
+                g2.setColor(GRID_COLOR);
+                g2.drawLine(PADDING, y, w - PADDING, y);
+                g2.setColor(Color.GRAY);
+                g2.drawString(String.valueOf(mood), PADDING - 20, y + 5);
+            }
+            // Label sumbu x: awal, tengah, dan akhir rentang
+            for (int i = 0; i <= 2; i++) {
+                LocalDate date = from.plusDays(ChronoUnit.DAYS.between(from, to) * i / 2);
+                int x = PADDING + (getPlotWidth() * i / 2);
+                g2.drawString(date.format(AXIS_FMT), x - 25, h - PADDING + 25);
+            }
+        }
+
+        private void buildPaths(int w, int h) {
+            averagePath.reset();
+            bandPath.reset();
+            List<MoodBucket> buckets = trend.buckets();
+
+            double[] xs = new double[buckets.size()];
+            for (int i = 0; i < buckets.size(); i++) {
+                MoodBucket bucket = buckets.get(i);
+                xs[i] = xOf(bucketCenter(bucket));
+                double y = yOf(bucket.average(), h);
+                if (i == 0) averagePath.moveTo(xs[i], y);
+                else averagePath.lineTo(xs[i], y);
+            }
+
+            // Pita min-max: sisi atas (max) maju, sisi bawah (min) mundur
+            if (!trend.raw()) {
+                for (int i = 0; i < buckets.size(); i++) {
+                    double y = yOf(buckets.get(i).max(), h);
+                    if (i == 0) bandPath.moveTo(xs[i], y);
+                    else bandPath.lineTo(xs[i], y);
+                }
+                for (int i = buckets.size() - 1; i >= 0; i--) {
+                    bandPath.lineTo(xs[i], yOf(buckets.get(i).min(), h));
+                }
+                bandPath.closePath();
+            }
+            pathWidth = w;
+            pathHeight = h;
+        }
+
+        private LocalDate bucketCenter(MoodBucket bucket) {
+            if (trend.raw()) return bucket.start();
+            LocalDate start = bucket.start();
+            long length = ChronoUnit.DAYS.between(start, trend.resolution().next(start));
+            LocalDate center = start.plusDays(length / 2);
+            if (center.isBefore(trend.from())) return trend.from();
+            return center.isAfter(trend.to()) ? trend.to() : center;
+        }
+
+        private double xOf(LocalDate date) {
+            double span = Math.max(1, ChronoUnit.DAYS.between(trend.from(), trend.to()));
+            return PADDING + ChronoUnit.DAYS.between(trend.from(), date) * getPlotWidth() / span;
+        }
+
+        private int yOf(double mood, int h) {
+            double graphH = (double) h - (2 * PADDING);
+            return (h - PADDING) - (int) (((mood - 0.5) * graphH) / 5.0);
+        }
+    }
+}
@@ -0,0 +1,285 @@
+package app.view;
+
+import javax.swing.table.AbstractTableModel;
+
+import app.model.Habit;
+import app.model.WeekSnapshot;
+
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+// Model tabel tracker: baris habit (checkbox per hari) + satu baris mood di bawah.
+// Data baru dibandingkan dengan isi sekarang, lalu hanya sel/baris yang berubah
+// yang di-fire, jadi editor, seleksi & posisi scroll tidak hilang.
+class WeekTableModel extends AbstractTableModel {
+
+    private static final long serialVersionUID = 1L;
+
+    static final String[] MOOD_OPTIONS = {"", "😭", "😞", "😐", "😊", "😄"};
+
+    static final int COL_NO = 0;
+    static final int COL_NAME = 1;
+    static final int COL_FIRST_DAY = 2;
+    static final int COL_ACTION = 9;
+    private static final int COLUMN_COUNT = 10;
+
+    private static final DateTimeFormatter HEADER_FMT = DateTimeFormatter.ofPattern("EEE dd/MM");
+
+    // Dipanggil saat user mengubah sel lewat editor (bukan saat data dimuat)
+    interface EditListener {
+        void habitToggled(Habit habit, LocalDate date, boolean done);
+        void moodSelected(LocalDate date, int moodValue);
+    }
+
+    private transient EditListener editListener;
+    private LocalDate weekStart;
+    private final List<Habit> habits = new ArrayList<>();
+    private final List<BitSet> done = new ArrayList<>();
+    private final Map<Integer, Integer> rowById = new HashMap<>();
+    private final int[] moods = new int[WeekSnapshot.DAYS];
+
+    WeekTableModel(LocalDate weekStart) {
+        this.weekStart = weekStart;
+    }
+
+    void setEditListener(EditListener editListener) {
+        this.editListener = editListener;
+    }
+
+    LocalDate getWeekStart() { return weekStart; }
+
+    int getHabitCount() { return habits.size(); }
+
+    Habit getHabitAt(int row) { return habits.get(row); }
+
+    int getMoodRow() { return habits.size(); }
+
+    boolean isMoodRow(int row) { return row == habits.size(); }
+
+    // --- SINKRONISASI DENGAN SNAPSHOT ---
+
+    // true jika susunan baris habit akan berubah (editor yang aktif sebaiknya dihentikan dulu)
+    boolean changesRows(WeekSnapshot snapshot) {
+        if (!snapshot.getWeekStart().equals(weekStart) || snapshot.getHabitCount() != habits.size()) return true;
+        for (int i = 0; i < habits.size(); i++) {
+            if (habits.get(i).getId() != snapshot.getHabits().get(i).getId()) return true;
+        }
+        return false;
+    }
+
+    void setSnapshot(WeekSnapshot snapshot) {
+        if (!snapshot.getWeekStart().equals(weekStart)) {
+            // Minggu lain: semua sel & judul kolom berubah
+            weekStart = snapshot.getWeekStart();
+            replaceAll(snapshot);
+            fireTableDataChanged();
+            return;
+        }
+        if (!alignRows(snapshot)) {
+            replaceAll(snapshot);
+            fireTableDataChanged();
+            return;
+        }
+
+        // Susunan baris sudah sama; tinggal sel yang berbeda
+        for (int row = 0; row < habits.size(); row++) {
+            Habit fresh = snapshot.getHabits().get(row);
+            if (!fresh.getName().equals(habits.get(row).getName())) {
+                habits.set(row, fresh);
+                fireTableCellUpdated(row, COL_NAME);
+            }
+            BitSet bits = done.get(row);
+            for (int day = 0; day < WeekSnapshot.DAYS; day++) {
+                boolean value = snapshot.isDone(row, day);
+                if (bits.get(day) != value) {
+                    bits.set(day, value);
+                    fireTableCellUpdated(row, COL_FIRST_DAY + day);
+                }
+            }
+        }
+        for (int day = 0; day < WeekSnapshot.DAYS; day++) {
+            setMoodValue(day, snapshot.getMoodValue(day));
+        }
+    }
+
+    // Hapus baris yang hilang dan sisipkan yang baru, masing-masing dengan event sendiri.
+    // false jika urutan habit yang tersisa berbeda (jarang; caller akan memuat ulang semuanya).
+    private boolean alignRows(WeekSnapshot snapshot) {
+        List<Habit> target = snapshot.getHabits();
+        Set<Integer> targetIds = new HashSet<>();
+        for (Habit h : target) targetIds.add(h.getId());
+
+        int firstChanged = Integer.MAX_VALUE;
+        for (int row = habits.size() - 1; row >= 0; row--) {
+            if (!targetIds.contains(habits.get(row).getId())) {
+                habits.remove(row);
+                done.remove(row);
+                fireTableRowsDeleted(row, row);
+                firstChanged = row;
+            }
+        }
+
+        Set<Integer> currentIds = new HashSet<>();
+        for (Habit h : habits) currentIds.add(h.getId());
+        for (int row = 0; row < target.size(); row++) {
+            Habit h = target.get(row);
+            if (row < habits.size() && habits.get(row).getId() == h.getId()) continue;
+            if (currentIds.contains(h.getId())) {
+                reindex();
+                return false;
+            }
+            habits.add(row, h);
+            BitSet bits = new BitSet(WeekSnapshot.DAYS);
+            for (int day = 0; day < WeekSnapshot.DAYS; day++) {
+                bits.set(day, snapshot.isDone(row, day));
+            }
+            done.add(row, bits);
+            fireTableRowsInserted(row, row);
+            firstChanged = Math.min(firstChanged, row);
+        }
+        reindex();
+
+        // Nomor urut di kolom "No" bergeser setelah baris pertama yang berubah
+        if (firstChanged < habits.size()) {
+            fireTableRowsUpdated(firstChanged, habits.size() - 1);
+        }
+        return true;
+    }
+
+    private void replaceAll(WeekSnapshot snapshot) {
+        habits.clear();
+        done.clear();
+        for (int row = 0; row < snapshot.getHabitCount(); row++) {
+            habits.add(snapshot.getHabits().get(row));
+            BitSet bits = new BitSet(WeekSnapshot.DAYS);
+            for (int day = 0; day < WeekSnapshot.DAYS; day++) {
+                bits.set(day, snapshot.isDone(row, day));
+            }
+            done.add(bits);
+        }
+        for (int day = 0; day < WeekSnapshot.DAYS; day++) {
+            moods[day] = snapshot.getMoodValue(day);
+        }
+        reindex();
+    }
+
+    private void reindex() {
+        rowById.clear();
+        for (int row = 0; row < habits.size(); row++) {
+            rowById.put(habits.get(row).getId(), row);
+        }
+    }
+
+    // --- UPDATE SATU SEL (dari event, tanpa memanggil EditListener) ---
+
+    // false jika habit tidak ada di tabel; tanggal di luar minggu ini diabaikan
+    boolean setHabitStatus(int habitId, LocalDate date, boolean value) {
+        Integer row = rowById.get(habitId);
+        if (row == null) return false;
+        int day = dayIndexOf(date);
+        if (day >= 0 && done.get(row).get(day) != value) {
+            done.get(row).set(day, value);
+            fireTableCellUpdated(row, COL_FIRST_DAY + day);
+        }
+        return true;
+    }
+
+    void setMood(LocalDate date, int moodValue) {
+        int day = dayIndexOf(date);
+        if (day >= 0) {
+            setMoodValue(day, moodValue);
+        }
+    }
+
+    private void setMoodValue(int day, int moodValue) {
+        if (moods[day] != moodValue) {
+            moods[day] = moodValue;
+            fireTableCellUpdated(getMoodRow(), COL_FIRST_DAY + day);
+        }
+    }
+
+    private int dayIndexOf(LocalDate date) {
+        long day = date.toEpochDay() - weekStart.toEpochDay();
+        return (day >= 0 && day < WeekSnapshot.DAYS) ? (int) day : -1;
+    }
+
+    // --- TableModel ---
+
+    @Override
+    public int getRowCount() {
+        return habits.size() + 1;
+    }
+
+    @Override
+    public int getColumnCount() {
+        return COLUMN_COUNT;
+    }
+
+    @Override
+    public String getColumnName(int column) {
+        if (column == COL_NO) return "No";
+        if (column == COL_NAME) return "Activity";
+        if (column == COL_ACTION) return "Action";
+        return weekStart.plusDays(column - (long) COL_FIRST_DAY).format(HEADER_FMT);
+    }
+
+    @Override
+    public Class<?> getColumnClass(int columnIndex) {
+        return Object.class;
+    }
+
+    @Override
+    public boolean isCellEditable(int row, int column) {
+        return column >= COL_FIRST_DAY && column < COL_ACTION;
+    }
+
+    @Override
+    public Object getValueAt(int row, int column) {
+        boolean moodRow = isMoodRow(row);
+        if (column == COL_NO) return moodRow ? "" : row + 1;
+        if (column == COL_NAME) return moodRow ? "Daily Mood" : habits.get(row).getName();
+        if (column == COL_ACTION) return "";
+
+        int day = column - COL_FIRST_DAY;
+        if (moodRow) {
+            int mood = moods[day];
+            return (mood >= 1 && mood <= 5) ? MOOD_OPTIONS[mood] : "";
+        }
+        return done.get(row).get(day);
+    }
+
+    // Nilai dari editor: ubah di model lalu teruskan ke EditListener
+    @Override
+    public void setValueAt(Object value, int row, int column) {
+        if (!isCellEditable(row, column)) return;
+        int day = column - COL_FIRST_DAY;
+        LocalDate date = weekStart.plusDays(day);
+
+        if (isMoodRow(row)) {
+            int moodValue = moodValueOf(value);
+            if (moods[day] == moodValue) return;
+            setMoodValue(day, moodValue);
+            if (editListener != null) editListener.moodSelected(date, moodValue);
+        } else {
+            boolean checked = Boolean.TRUE.equals(value);
+            if (done.get(row).get(day) == checked) return;
+            done.get(row).set(day, checked);
+            fireTableCellUpdated(row, column);
+            if (editListener != null) editListener.habitToggled(habits.get(row), date, checked);
+        }
+    }
+
+    private static int moodValueOf(Object emoji) {
+        for (int i = 1; i < MOOD_OPTIONS.length; i++) {
+            if (MOOD_OPTIONS[i].equals(emoji)) return i;
+        }
+        return 0;
+    }
+}
@@ -4,55 +4,69 @@ import javax.swing.*;
 import javax.swing.border.EmptyBorder;
 import javax.swing.border.MatteBorder;
 import javax.swing.table.DefaultTableCellRenderer;
-import javax.swing.table.DefaultTableModel;
 import javax.swing.table.TableCellEditor;
 import javax.swing.table.TableColumn;
 
+import app.async.CoalescingLoader;
+import app.async.DbExecutor;
+import app.cache.PeriodCache;
 import app.facade.HabitFacade;
 import app.facade.MoodFacade;
 import app.model.Habit;
-import app.model.Mood;
-import app.observer.IObserver;
+import app.model.HabitDay;
+import app.model.PeriodType;
+import app.model.WeekSnapshot;
+import app.observer.ChangeEvent;
+import app.observer.ChangeListener;
+import app.observer.EventBus;
 
 import java.awt.*;
 import java.awt.event.FocusAdapter;
 import java.awt.event.FocusEvent;
 import java.awt.event.MouseAdapter;
 import java.awt.event.MouseEvent;
-import java.time.DayOfWeek;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
-import java.time.temporal.TemporalAdjusters;
 import java.util.List;
-import java.util.ListIterator;
+import java.util.Map;
+import java.util.function.IntConsumer;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
-public class WeeklyTrackerView extends JFrame implements IObserver {
+public class WeeklyTrackerView extends JFrame {
 
     private static final long serialVersionUID = 1L; 
 
-    private final transient HabitFacade habitFacade = new HabitFacade();
-    private final transient MoodFacade moodFacade = new MoodFacade();
+    private final transient HabitFacade habitFacade;
+    private final transient MoodFacade moodFacade;
+
+    // Minggu yang pernah/akan dibuka (+ tetangganya) di-cache, jadi pindah minggu tidak perlu query lagi
+    private final transient PeriodCache<WeekSnapshot> weekCache;
+
+    // Load data minggu yang sedang dibuka di background, hasilnya diterapkan di EDT
+    private final transient CoalescingLoader<LocalDate, WeekSnapshot> weekLoader;
 
     private static final String FONT_POPPINS = "Poppins";
     private static final String FONT_EMOJI = "Segoe UI Emoji";
     private static final String TXT_INPUT_HABIT = "Input habit baru...";
     private static final String TXT_SELECT = "Select ▼";
+    private static final DateTimeFormatter WEEK_FMT = DateTimeFormatter.ofPattern("dd MMM yyyy");
     
-    private static final String[] MOOD_OPTIONS = {"", "😭", "😞", "😐", "😊", "😄"};
+    private static final String[] MOOD_OPTIONS = WeekTableModel.MOOD_OPTIONS;
 
     private JTable trackerTable;
-    private DefaultTableModel tableModel;
-    private transient List<Habit> habitList; 
+    private WeekTableModel tableModel;
+    private boolean dataLoaded = false;
     
-    private JTextArea habitLogArea; 
-    private JTextArea moodLogArea;
-
-    // Flag untuk mencegah loop saat loading data
-    private boolean isLoading = false; 
+    private ActivityLogArea habitLogArea;
+    private ActivityLogArea moodLogArea;
+    private JLabel pendingLabel;
+    private JLabel weekLabel;
+    private final transient ChangeListener changeListener = this::onChanges;
+    private final transient IntConsumer pendingListener =
+            count -> SwingUtilities.invokeLater(() -> updatePendingLabel(count));
 
-    private LocalDate weekStart = LocalDate.now().with(TemporalAdjusters.previousOrSame(DayOfWeek.SUNDAY));
+    private LocalDate weekStart = PeriodType.WEEK.startOf(LocalDate.now());
 
     // Colors
     private static final Color BG_MAIN = Color.WHITE; 
@@ -66,13 +80,27 @@ public class WeeklyTrackerView extends JFrame implements IObserver {
     private static final Color REF_RED = new Color(255, 100, 120); 
 
     public WeeklyTrackerView() {
+        this(new HabitFacade(), new MoodFacade());
+    }
+
+    // Facade dibagi dengan dashboard supaya perubahan di sini langsung terlihat di grafik
+    public WeeklyTrackerView(HabitFacade habitFacade, MoodFacade moodFacade) {
+        this.habitFacade = habitFacade;
+        this.moodFacade = moodFacade;
+        this.weekCache = new PeriodCache<>(PeriodType.WEEK, habitFacade::getWeekSnapshot, DbExecutor.READ);
+        this.weekLoader = new CoalescingLoader<>("WeeklyTrackerView.week",
+                weekCache::get, this::applySnapshot);
+        weekCache.registerMetrics("WeeklyTrackerView.weekCache");
+
         setupLookAndFeel();
         initFrame();
         
-        habitFacade.addObserver(this);
-        moodFacade.addObserver(this);
+        for (EventBus bus : eventBuses()) {
+            bus.subscribe(changeListener);
+        }
+        habitFacade.addPendingWritesListener(pendingListener);
         
-        loadData(); 
+        showWeek(weekStart);
     }
 
     private void setupLookAndFeel() {
@@ -126,13 +154,13 @@ public class WeeklyTrackerView extends JFrame implements IObserver {
             Color.GRAY
         ));
 
-        habitLogArea = createStyledTextArea();
+        habitLogArea = styleLogArea(new ActivityLogArea(habitFacade.getActivityLog(), "- Belum ada aktivitas habit -"));
         JScrollPane scrollHabit = new JScrollPane(habitLogArea);
         scrollHabit.setBorder(BorderFactory.createTitledBorder(
             BorderFactory.createEmptyBorder(), "✅ Habit Log", 0, 0, new Font(FONT_POPPINS, Font.BOLD, 11), ACCENT_BROWN
         ));
         
-        moodLogArea = createStyledTextArea();
+        moodLogArea = styleLogArea(new ActivityLogArea(moodFacade.getActivityLog(), "- Belum ada aktivitas mood -"));
         JScrollPane scrollMood = new JScrollPane(moodLogArea);
         scrollMood.setBorder(BorderFactory.createTitledBorder(
             BorderFactory.createEmptyBorder(), "🎭 Mood Log", 0, 0, new Font(FONT_POPPINS, Font.BOLD, 11), ACCENT_BROWN
@@ -149,8 +177,7 @@ public class WeeklyTrackerView extends JFrame implements IObserver {
         return wrapper;
     }
 
-    private JTextArea createStyledTextArea() {
-        JTextArea area = new JTextArea();
+    private <T extends JTextArea> T styleLogArea(T area) {
         area.setFont(new Font(FONT_EMOJI, Font.PLAIN, 13)); 
         area.setForeground(new Color(80, 80, 80));
         area.setBackground(new Color(252, 252, 252));
@@ -162,22 +189,8 @@ public class WeeklyTrackerView extends JFrame implements IObserver {
     }
 
     private void updateLogView() {
-        updateSingleLogArea(habitFacade.getActivityLog(), habitLogArea, "- Belum ada aktivitas habit -");
-        updateSingleLogArea(moodFacade.getActivityLog(), moodLogArea, "- Belum ada aktivitas mood -");
-    }
-
-    private void updateSingleLogArea(List<String> logs, JTextArea area, String emptyMsg) {
-        StringBuilder sb = new StringBuilder();
-        if (logs.isEmpty()) {
-            sb.append(emptyMsg);
-        } else {
-            ListIterator<String> it = logs.listIterator(logs.size());
-            while (it.hasPrevious()) {
-                sb.append("• ").append(it.previous()).append("\n");
-            }
-        }
-        area.setText(sb.toString());
-        area.setCaretPosition(0);
+        habitLogArea.refresh();
+        moodLogArea.refresh();
     }
 
     private Component createHeader() {
@@ -213,7 +226,7 @@ public class WeeklyTrackerView extends JFrame implements IObserver {
         addBtn.addActionListener(e -> {
             String text = input.getText().trim();
             if (!text.isEmpty() && !text.equals(TXT_INPUT_HABIT)) {
-                habitFacade.addHabit(text);
+                habitFacade.addHabitAsync(text);
                 input.setText("");
                 setupPlaceholder(input, TXT_INPUT_HABIT); 
                 addBtn.requestFocusInWindow(); 
@@ -224,11 +237,52 @@ public class WeeklyTrackerView extends JFrame implements IObserver {
         right.add(Box.createHorizontalStrut(15));
         right.add(addBtn);
 
-        header.add(title, BorderLayout.WEST);
+        // Jumlah perubahan checkbox yang belum tersimpan ke DB (write-behind)
+        pendingLabel = new JLabel();
+        pendingLabel.setFont(new Font(FONT_POPPINS, Font.PLAIN, 12));
+        pendingLabel.setForeground(Color.GRAY);
+        updatePendingLabel(habitFacade.getPendingWriteCount());
+
+        JPanel titleBox = new JPanel(new BorderLayout());
+        titleBox.setOpaque(false);
+        titleBox.add(title, BorderLayout.NORTH);
+        titleBox.add(createWeekNavigation(), BorderLayout.CENTER);
+        titleBox.add(pendingLabel, BorderLayout.SOUTH);
+
+        header.add(titleBox, BorderLayout.WEST);
         header.add(right, BorderLayout.EAST);
         return header;
     }
 
+    private JPanel createWeekNavigation() {
+        JPanel nav = new JPanel(new FlowLayout(FlowLayout.LEFT, 5, 5));
+        nav.setOpaque(false);
+
+        weekLabel = new JLabel();
+        weekLabel.setFont(new Font(FONT_POPPINS, Font.BOLD, 14));
+        weekLabel.setForeground(ACCENT_BROWN);
+
+        nav.add(createNavButton("◀", "Minggu sebelumnya", () -> showWeek(PeriodType.WEEK.previous(weekStart))));
+        nav.add(weekLabel);
+        nav.add(createNavButton("▶", "Minggu berikutnya", () -> showWeek(PeriodType.WEEK.next(weekStart))));
+        nav.add(createNavButton("Minggu Ini", "Kembali ke minggu ini", () -> showWeek(PeriodType.WEEK.startOf(LocalDate.now()))));
+        return nav;
+    }
+
+    private JButton createNavButton(String text, String tooltip, Runnable action) {
+        JButton button = new JButton(text);
+        button.setToolTipText(tooltip);
+        button.setFont(new Font(FONT_POPPINS, Font.PLAIN, 12));
+        button.setFocusPainted(false);
+        button.setCursor(Cursor.getPredefinedCursor(Cursor.HAND_CURSOR));
+        button.addActionListener(e -> action.run());
+        return button;
+    }
+
+    private void updatePendingLabel(int count) {
+        pendingLabel.setText(count == 0 ? "✓ Semua perubahan tersimpan" : "⏳ " + count + " perubahan belum tersimpan");
+    }
+
     private void setupPlaceholder(JTextField field, String placeholder) {
         field.setText(placeholder);
         field.setForeground(TEXT_PLACEHOLDER);
@@ -264,16 +318,18 @@ public class WeeklyTrackerView extends JFrame implements IObserver {
     }
 
     private void setupTable() {
-        DateTimeFormatter formatter = DateTimeFormatter.ofPattern("EEE dd/MM");
-        String[] columns = new String[10];
-        columns[0] = "No";
-        columns[1] = "Activity"; 
-        for (int i = 0; i < 7; i++) {
-            columns[i + 2] = weekStart.plusDays(i).format(formatter);
-        }
-        columns[9] = "Action"; 
+        tableModel = new WeekTableModel(weekStart);
+        tableModel.setEditListener(new WeekTableModel.EditListener() {
+            @Override
+            public void habitToggled(Habit habit, LocalDate date, boolean done) {
+                habitFacade.updateHabitStatusAsync(habit.getId(), date, done);
+            }
 
-        tableModel = new TrackerTableModel(columns, 0);
+            @Override
+            public void moodSelected(LocalDate date, int moodValue) {
+                moodFacade.saveMoodAsync(moodValue, date);
+            }
+        });
 
         trackerTable = new JTable(tableModel);
         trackerTable.setDefaultRenderer(Object.class, new TrackerCellRenderer());
@@ -292,51 +348,19 @@ public class WeeklyTrackerView extends JFrame implements IObserver {
         trackerTable.getTableHeader().setPreferredSize(new Dimension(0, 50)); 
         trackerTable.getTableHeader().setBorder(BorderFactory.createMatteBorder(0, 0, 2, 0, BORDER_COLOR));
 
-        TableColumn deleteCol = trackerTable.getColumnModel().getColumn(9);
+        TableColumn deleteCol = trackerTable.getColumnModel().getColumn(WeekTableModel.COL_ACTION);
         deleteCol.setMaxWidth(80); 
         
         trackerTable.addMouseListener(new MouseAdapter() {
             @Override
             public void mouseClicked(MouseEvent evt) {
-                if (isLoading) return; 
                 int row = trackerTable.rowAtPoint(evt.getPoint());
                 int col = trackerTable.columnAtPoint(evt.getPoint());
-                if (col == 9 && row >= 0 && row < habitList.size()) {
+                if (col == WeekTableModel.COL_ACTION && row >= 0 && row < tableModel.getHabitCount()) {
                     confirmAndDelete(row);
                 }
             }
         });
-
-        tableModel.addTableModelListener(e -> {
-            if (isLoading) return;
-
-            if (e.getType() == javax.swing.event.TableModelEvent.UPDATE) {
-                int row = e.getFirstRow();
-                int col = e.getColumn();
-                if (col >= 2 && col <= 8) {
-                    handleDataChange(row, col);
-                }
-            }
-        });
-    }
-
-
-    private static class TrackerTableModel extends DefaultTableModel {
-        private static final long serialVersionUID = 1L;
-
-        public TrackerTableModel(Object[] columnNames, int rowCount) {
-            super(columnNames, rowCount);
-        }
-
-        @Override
-        public Class<?> getColumnClass(int columnIndex) {
-            return Object.class;
-        }
-
-        @Override
-        public boolean isCellEditable(int row, int column) {
-            return column >= 2 && column <= 8; 
-        }
     }
 
     private class TrackerCellRenderer extends DefaultTableCellRenderer {
@@ -479,31 +503,8 @@ public class WeeklyTrackerView extends JFrame implements IObserver {
         }
     }
 
-    private void handleDataChange(int row, int col) {
-        // Tidak perlu stopCellEditing disini karena Editor sudah otomatis stop saat ActionEvent.
-        
-        int dayIndex = col - 2;
-        LocalDate date = weekStart.plusDays(dayIndex);
-
-        if (row == tableModel.getRowCount() - 1) {
-            String emoji = (String) tableModel.getValueAt(row, col);
-            int moodVal = 0;
-            for (int i=1; i<MOOD_OPTIONS.length; i++) {
-                if (MOOD_OPTIONS[i].equals(emoji)) {
-                    moodVal = i;
-                    break;
-                }
-            }
-            moodFacade.saveMood(moodVal, date);
-        } else if (row < habitList.size()) {
-            boolean isChecked = Boolean.TRUE.equals(tableModel.getValueAt(row, col));
-            Habit h = habitList.get(row);
-            habitFacade.updateHabitStatus(h.getId(), date, isChecked);
-        }
-    }
-
     private void confirmAndDelete(int row) {
-        Habit h = habitList.get(row);
+        Habit h = tableModel.getHabitAt(row);
         int choice = JOptionPane.showConfirmDialog(this, 
             "Apakah Anda yakin ingin menghapus habit '" + h.getName() + "'?", 
             "Konfirmasi Hapus", 
@@ -511,64 +512,103 @@ public class WeeklyTrackerView extends JFrame implements IObserver {
             JOptionPane.WARNING_MESSAGE);
             
         if (choice == JOptionPane.YES_OPTION) {
-            habitFacade.deleteHabit(h.getId());
+            habitFacade.deleteHabitAsync(h.getId());
         }
     }
 
     @Override
-    public void onDataChanged() {
-        SwingUtilities.invokeLater(this::loadData);
+    public void dispose() {
+        for (EventBus bus : eventBuses()) {
+            bus.unsubscribe(changeListener);
+        }
+        habitFacade.removePendingWritesListener(pendingListener);
+        habitFacade.flushPendingWritesAsync();
+        super.dispose();
     }
 
-    private void loadData() {
-        if (isLoading) return;
-        
-        isLoading = true;
+    private List<EventBus> eventBuses() {
+        EventBus habitBus = habitFacade.getEventBus();
+        EventBus moodBus = moodFacade.getEventBus();
+        return habitBus == moodBus ? List.of(habitBus) : List.of(habitBus, moodBus);
+    }
 
-        try {
-            // Defensive cleanup sebelum reset tabel
-            if (trackerTable != null && trackerTable.isEditing()) {
-                trackerTable.getCellEditor().stopCellEditing();
-                trackerTable.clearSelection();
+    // Satu batch event -> update sel yang berubah saja; reload penuh hanya jika baris habit berubah
+    private void onChanges(List<ChangeEvent> events) {
+        if (!SwingUtilities.isEventDispatchThread()) {
+            SwingUtilities.invokeLater(() -> onChanges(events));
+            return;
+        }
+        updateWeekCache(events);
+        if (!dataLoaded) return; // data awal belum dimuat, loadData sudah berjalan
+
+        boolean structural = false;
+        for (ChangeEvent event : events) {
+            switch (event.type()) {
+                case HABIT_ADDED, HABIT_DELETED -> structural = true;
+                case HABIT_STATUS -> structural |= !tableModel.setHabitStatus(event.habitId(), event.date(), event.value() == 1);
+                case MOOD -> tableModel.setMood(event.date(), event.value());
             }
+        }
+        if (structural) {
+            loadData();
+            weekCache.prefetchAround(weekStart);
+        }
+        updateLogView();
+    }
 
-            tableModel.setRowCount(0); 
-            habitList = habitFacade.getHabits();
-            
-            // Populate Habits
-            int no = 1;
-            for (Habit h : habitList) {
-                Object[] row = new Object[10];
-                row[0] = no++;
-                row[1] = h.getName();
-                for (int i = 0; i < 7; i++) {
-                    row[i + 2] = habitFacade.getHabitStatus(h.getId(), weekStart.plusDays(i));
-                }
-                row[9] = ""; 
-                tableModel.addRow(row);
+    // Sel yang berubah ditambal di snapshot yang sudah di-cache; daftar habit berubah -> semua minggu basi
+    private void updateWeekCache(List<ChangeEvent> events) {
+        for (ChangeEvent event : events) {
+            switch (event.type()) {
+                case HABIT_ADDED, HABIT_DELETED -> weekCache.invalidateAll();
+                case HABIT_STATUS -> weekCache.update(event.date(), snapshot -> snapshot.withCompletions(
+                        Map.of(new HabitDay(event.habitId(), event.date()), event.value() == 1)));
+                case MOOD -> weekCache.update(event.date(), snapshot -> snapshot.withMood(event.date(), event.value()));
             }
+        }
+    }
 
-            // Populate Mood
-            Object[] moodRow = new Object[10];
-            moodRow[0] = "";
-            moodRow[1] = "Daily Mood"; 
-            
-            for (int i = 0; i < 7; i++) {
-                LocalDate d = weekStart.plusDays(i);
-                Mood m = moodFacade.getMood(d);
-                if (m != null && m.getMoodValue() >= 1 && m.getMoodValue() <= 5) {
-                    moodRow[i+2] = MOOD_OPTIONS[m.getMoodValue()];
-                } else {
-                    moodRow[i+2] = ""; 
-                }
-            }
-            moodRow[9] = "";
-            tableModel.addRow(moodRow);
-            
-            updateLogView(); 
+    // Minggu yang sudah di-cache langsung tampil; loader tetap jalan supaya hasil load lama tidak menimpa
+    private void showWeek(LocalDate start) {
+        weekStart = start;
+        weekLabel.setText(start.format(WEEK_FMT) + " - " + start.plusDays(6).format(WEEK_FMT));
+
+        WeekSnapshot cached = weekCache.peek(start);
+        if (cached != null) {
+            applySnapshot(cached);
+        }
+        loadData();
+        weekCache.prefetchAround(start);
+    }
+
+    private void loadData() {
+        weekLoader.request(weekStart);
+    }
+
+    private void applySnapshot(WeekSnapshot snapshot) {
+        if (!snapshot.getWeekStart().equals(weekStart)) return; // user sudah pindah minggu lagi
+
+        boolean weekChanged = !snapshot.getWeekStart().equals(tableModel.getWeekStart());
+        // Editor hanya dihentikan jika baris habit berubah; update sel biasa tidak mengganggu editor.
+        // Pindah minggu -> edit yang belum selesai dibatalkan, jangan sampai tersimpan ke minggu lain.
+        if (trackerTable.isEditing() && weekChanged) {
+            trackerTable.getCellEditor().cancelCellEditing();
+        } else if (trackerTable.isEditing() && tableModel.changesRows(snapshot)) {
+            trackerTable.getCellEditor().stopCellEditing();
+        }
+        tableModel.setSnapshot(snapshot);
+        if (weekChanged) {
+            updateDayHeaders();
+        }
+        dataLoaded = true;
+        updateLogView();
+    }
 
-        } finally {
-            isLoading = false; 
+    // fireTableDataChanged tidak memperbarui judul kolom, jadi tanggal di header di-set manual
+    private void updateDayHeaders() {
+        for (int col = WeekTableModel.COL_FIRST_DAY; col < WeekTableModel.COL_ACTION; col++) {
+            trackerTable.getColumnModel().getColumn(col).setHeaderValue(tableModel.getColumnName(col));
         }
+        trackerTable.getTableHeader().repaint();
     }
-}
\ No newline at end of file
+}
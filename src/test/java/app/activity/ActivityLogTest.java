@@ -0,0 +1,72 @@
+package app.activity;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test ActivityLog (Ring Buffer)")
+class ActivityLogTest {
+
+    @Test
+    @DisplayName("RING BUFFER: Kapasitas tetap, event paling lama ditimpa")
+    void testCapacity() {
+        ActivityLog log = new ActivityLog(3);
+        for (int i = 1; i <= 5; i++) {
+            log.append(ActivityEvent.Type.HABIT_DONE, i, LocalDate.of(2024, 1, i), "event " + i);
+        }
+
+        assertEquals(3, log.size());
+        assertEquals(List.of("event 3", "event 4", "event 5"), List.copyOf(log));
+        assertEquals(5, log.getLastSequence());
+        assertEquals(3, log.getEvent(0).habitId());
+    }
+
+    @Test
+    @DisplayName("INCREMENTAL: eventsSince hanya mengembalikan event baru")
+    void testEventsSince() {
+        ActivityLog log = new ActivityLog(3);
+        log.append(ActivityEvent.Type.MOOD_SET, 0, null, "a");
+        log.append(ActivityEvent.Type.MOOD_SET, 0, null, "b");
+
+        assertEquals(2, log.eventsSince(0).size());
+        assertEquals("b", log.eventsSince(1).get(0).message());
+        assertTrue(log.eventsSince(2).isEmpty());
+
+        // Tertimpa: yang belum dibaca (seq 2..5) sebagian sudah hilang -> mulai dari seq 3
+        log.append(ActivityEvent.Type.MOOD_SET, 0, null, "c");
+        log.append(ActivityEvent.Type.MOOD_SET, 0, null, "d");
+        log.append(ActivityEvent.Type.MOOD_SET, 0, null, "e");
+        List<ActivityEvent> fresh = log.eventsSince(1);
+        assertEquals(3, fresh.get(0).sequence());
+        assertEquals(3, fresh.size());
+    }
+
+    @Test
+    @DisplayName("PERSISTENSI: Event ditulis ke file dan dimuat lagi saat start")
+    void testPersistence(@TempDir Path dir) throws Exception {
+        Path file = dir.resolve("habit.log");
+        ActivityLog log = new ActivityLog(2, file);
+        log.append(ActivityEvent.Type.HABIT_ADDED, 7, null, "Menambahkan habit baru: Lari");
+        log.append(ActivityEvent.Type.HABIT_DONE, 7, LocalDate.of(2024, 5, 1), "[v] Selesai: Lari");
+        log.append(ActivityEvent.Type.HABIT_UNDONE, 7, LocalDate.of(2024, 5, 1), "[x] Batal: Lari");
+
+        // Penulisan berjalan di thread terpisah
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while ((!Files.exists(file) || Files.readAllLines(file).size() < 3) && System.nanoTime() < deadline) {
+            Thread.sleep(10);
+        }
+
+        ActivityLog reloaded = new ActivityLog(2, file);
+        assertEquals(List.of("[v] Selesai: Lari", "[x] Batal: Lari"), List.copyOf(reloaded));
+        assertEquals(ActivityEvent.Type.HABIT_UNDONE, reloaded.getEvent(1).type());
+        assertEquals(LocalDate.of(2024, 5, 1), reloaded.getEvent(1).date());
+    }
+}
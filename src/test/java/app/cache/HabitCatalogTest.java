@@ -0,0 +1,66 @@
+package app.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import app.model.Habit;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test HabitCatalog (Snapshot Immutable & Versi)")
+class HabitCatalogTest {
+
+    @Test
+    @DisplayName("LOOKUP: Banyak habit, semua id ketemu lewat map int")
+    void testLookup() {
+        List<Habit> habits = new ArrayList<>();
+        for (int id = 1; id <= 1000; id += 3) {
+            habits.add(new Habit(id, "Habit " + id));
+        }
+        HabitCatalog catalog = new HabitCatalog();
+        assertTrue(catalog.replaceAll(habits, catalog.snapshot().getVersion()));
+
+        HabitCatalog.Snapshot snapshot = catalog.snapshot();
+        assertTrue(snapshot.isComplete());
+        assertEquals(habits.size(), snapshot.size());
+        for (Habit h : habits) {
+            assertSame(h, snapshot.get(h.getId()));
+        }
+        assertNull(snapshot.get(2));
+        assertNull(snapshot.get(0));
+    }
+
+    @Test
+    @DisplayName("VERSI: Hasil load lama tidak menimpa perubahan yang lebih baru")
+    void testStaleReplaceIgnored() {
+        HabitCatalog catalog = new HabitCatalog();
+        long versionAtLoadStart = catalog.snapshot().getVersion();
+
+        // Selama load berjalan, UI menambah habit
+        catalog.put(new Habit(5, "Baru"));
+
+        assertFalse(catalog.replaceAll(List.of(new Habit(1, "Lama")), versionAtLoadStart));
+        assertFalse(catalog.snapshot().isComplete());
+        assertNotNull(catalog.snapshot().get(5));
+    }
+
+    @Test
+    @DisplayName("SNAPSHOT: Snapshot lama tidak ikut berubah saat katalog dimutasi")
+    void testSnapshotIsImmutable() {
+        HabitCatalog catalog = new HabitCatalog();
+        catalog.replaceAll(List.of(new Habit(1, "A"), new Habit(2, "B")), 0);
+        HabitCatalog.Snapshot before = catalog.snapshot();
+
+        catalog.remove(1);
+        catalog.invalidate();
+
+        assertEquals(2, before.size());
+        assertTrue(before.isComplete());
+        assertEquals(1, catalog.snapshot().size());
+        assertFalse(catalog.snapshot().isComplete());
+        assertThrows(UnsupportedOperationException.class, () -> before.getHabits().add(new Habit(3, "C")));
+    }
+}
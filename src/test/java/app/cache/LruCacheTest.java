@@ -0,0 +1,58 @@
+package app.cache;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test LruCache (Ukuran Terbatas & Statistik)")
+class LruCacheTest {
+
+    @Test
+    @DisplayName("EVICTION: Entri paling lama tidak dipakai dibuang saat penuh")
+    void testEvictsLeastRecentlyUsed() {
+        LruCache<Integer, String> cache = new LruCache<>(2);
+        cache.put(1, "satu");
+        cache.put(2, "dua");
+
+        // Akses 1 -> 2 jadi yang paling lama tidak dipakai
+        assertEquals("satu", cache.get(1));
+        cache.put(3, "tiga");
+
+        assertEquals(2, cache.size());
+        assertNull(cache.get(2));
+        assertEquals("satu", cache.get(1));
+        assertEquals("tiga", cache.get(3));
+        assertEquals(1, cache.getEvictionCount());
+    }
+
+    @Test
+    @DisplayName("STATISTIK: Hit & miss tercatat")
+    void testStats() {
+        LruCache<String, String> cache = new LruCache<>(10);
+        cache.put("a", "A");
+
+        cache.get("a");
+        cache.get("a");
+        cache.get("b");
+
+        assertEquals(2, cache.getHitCount());
+        assertEquals(1, cache.getMissCount());
+        assertEquals(2.0 / 3, cache.getHitRate(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("TTL: Entri kedaluwarsa dianggap miss")
+    void testExpiry() throws InterruptedException {
+        LruCache<String, String> cache = new LruCache<>(10);
+        cache.put("sebentar", "x", 20);
+        cache.put("selamanya", "y");
+
+        assertEquals("x", cache.get("sebentar"));
+        Thread.sleep(40);
+
+        assertNull(cache.get("sebentar"));
+        assertEquals("y", cache.get("selamanya"));
+        assertEquals(1, cache.size());
+    }
+}
@@ -0,0 +1,159 @@
+package app.cache;
+
+import app.model.PeriodType;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.Executor;
+import java.util.function.Function;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test PeriodCache (Navigasi Minggu/Bulan & Prefetch)")
+class PeriodCacheTest {
+
+    // Minggu, 7 Januari 2024
+    private static final LocalDate WEEK = LocalDate.of(2024, 1, 7);
+
+    private final List<LocalDate> loaded = new ArrayList<>();
+    private final Function<LocalDate, String> loader = start -> {
+        synchronized (loaded) {
+            loaded.add(start);
+        }
+        return "data " + start;
+    };
+
+    // ==========================================
+    // 1. LOAD & CACHE
+    // ==========================================
+
+    @Test
+    @DisplayName("GET: Periode yang sama hanya dimuat sekali, tanggal di tengah periode memakai kunci awal periode")
+    void testLoadsOncePerPeriod() {
+        PeriodCache<String> cache = new PeriodCache<>(PeriodType.WEEK, loader, Runnable::run);
+
+        assertEquals("data " + WEEK, cache.get(WEEK));
+        assertEquals("data " + WEEK, cache.get(WEEK.plusDays(3)));
+
+        assertEquals(List.of(WEEK), loaded);
+        assertEquals(1, cache.getMissCount());
+        assertEquals(1, cache.getHitCount());
+    }
+
+    @Test
+    @DisplayName("PEEK: Hanya mengembalikan hasil yang sudah selesai dimuat")
+    void testPeekOnlyReturnsCompletedResults() {
+        Queue<Runnable> pending = new ArrayDeque<>();
+        Executor manual = pending::add;
+        PeriodCache<String> cache = new PeriodCache<>(PeriodType.WEEK, loader, manual, 1);
+
+        cache.prefetchAround(WEEK);
+        assertNull(cache.peek(WEEK.plusWeeks(1)), "Prefetch belum jalan");
+
+        pending.forEach(Runnable::run);
+        assertEquals("data " + WEEK.plusWeeks(1), cache.peek(WEEK.plusWeeks(1)));
+        assertNull(cache.peek(WEEK), "Periode tengah tidak di-prefetch");
+    }
+
+    @Test
+    @DisplayName("ERROR: Load yang gagal tidak di-cache, request berikutnya mencoba lagi")
+    void testFailedLoadIsRetried() {
+        int[] calls = {0};
+        PeriodCache<String> cache = new PeriodCache<>(PeriodType.WEEK, start -> {
+            if (calls[0]++ == 0) throw new IllegalStateException("DB down");
+            return "ok";
+        }, Runnable::run);
+
+        assertThrows(RuntimeException.class, () -> cache.get(WEEK));
+        assertFalse(cache.contains(WEEK));
+        assertEquals("ok", cache.get(WEEK));
+    }
+
+    // ==========================================
+    // 2. PREFETCH & EVICTION
+    // ==========================================
+
+    @Test
+    @DisplayName("PREFETCH: Minggu sebelum & sesudah dimuat, lalu pindah minggu tidak query lagi")
+    void testPrefetchMakesAdjacentPeriodsInstant() {
+        PeriodCache<String> cache = new PeriodCache<>(PeriodType.WEEK, loader, Runnable::run, 1);
+
+        cache.get(WEEK);
+        cache.prefetchAround(WEEK);
+        assertEquals(3, loaded.size());
+        assertEquals(2, cache.getPrefetchCount());
+
+        assertEquals("data " + WEEK.minusWeeks(1), cache.peek(WEEK.minusWeeks(1)));
+        assertEquals("data " + WEEK.plusWeeks(1), cache.get(WEEK.plusWeeks(1)));
+        assertEquals(3, loaded.size(), "Tidak ada load tambahan");
+    }
+
+    @Test
+    @DisplayName("EVICTION: Periode yang lebih jauh dari radius dibuang saat navigasi")
+    void testEvictsDistantPeriods() {
+        PeriodCache<String> cache = new PeriodCache<>(PeriodType.WEEK, loader, Runnable::run, 1);
+
+        cache.prefetchAround(WEEK);            // W-1, W+1
+        cache.prefetchAround(WEEK.plusWeeks(3)); // W+2, W+4; W-1 & W+1 terlalu jauh
+
+        assertFalse(cache.contains(WEEK.minusWeeks(1)));
+        assertFalse(cache.contains(WEEK.plusWeeks(1)));
+        assertTrue(cache.contains(WEEK.plusWeeks(2)));
+        assertTrue(cache.contains(WEEK.plusWeeks(4)));
+        assertEquals(2, cache.getEvictionCount());
+        assertEquals(2, cache.size());
+    }
+
+    @Test
+    @DisplayName("BULAN: Prefetch memakai awal bulan sebelum & sesudah")
+    void testMonthPeriods() {
+        PeriodCache<String> cache = new PeriodCache<>(PeriodType.MONTH, loader, Runnable::run, 1);
+
+        cache.prefetchAround(LocalDate.of(2024, 3, 15));
+
+        assertEquals(List.of(LocalDate.of(2024, 2, 1), LocalDate.of(2024, 4, 1)), loaded);
+        assertEquals(29, PeriodType.MONTH.lengthInDays(LocalDate.of(2024, 2, 1)));
+    }
+
+    // ==========================================
+    // 3. PERUBAHAN DATA
+    // ==========================================
+
+    @Test
+    @DisplayName("UPDATE: Hasil yang sudah ada ditambal tanpa load ulang, load yang masih berjalan dibuang")
+    void testUpdatePatchesCompletedEntries() {
+        Queue<Runnable> pending = new ArrayDeque<>();
+        PeriodCache<String> cache = new PeriodCache<>(PeriodType.WEEK, loader, pending::add, 1);
+        cache.get(WEEK);
+        cache.prefetchAround(WEEK); // W-1 & W+1 masih antre
+
+        cache.update(WEEK.plusDays(2), value -> value + " (diubah)");
+        cache.update(WEEK.plusWeeks(1), value -> value + " (diubah)");
+
+        assertEquals("data " + WEEK + " (diubah)", cache.peek(WEEK));
+        assertFalse(cache.contains(WEEK.plusWeeks(1)), "Load lama mungkin belum melihat perubahan");
+        assertTrue(cache.contains(WEEK.minusWeeks(1)));
+        assertEquals(1, loaded.size());
+    }
+
+    @Test
+    @DisplayName("INVALIDATE: Periode yang berubah dimuat ulang saat dibuka lagi")
+    void testInvalidate() {
+        PeriodCache<String> cache = new PeriodCache<>(PeriodType.WEEK, loader, Runnable::run);
+        cache.get(WEEK);
+        cache.get(WEEK.plusWeeks(1));
+
+        cache.invalidate(WEEK.plusDays(6));
+        assertFalse(cache.contains(WEEK));
+        assertTrue(cache.contains(WEEK.plusWeeks(1)));
+
+        cache.invalidateAll();
+        assertEquals(0, cache.size());
+        cache.get(WEEK);
+        assertEquals(3, loaded.size());
+    }
+}
@@ -0,0 +1,327 @@
+package app.config;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+// Import Java Utilities
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.SQLTimeoutException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+// Import JUnit & Mockito Static
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Test ConnectionPool (Pool, Validasi, Self-Healing)")
+class ConnectionPoolTest {
+
+    private final FakeDatabase db = new FakeDatabase();
+    private ConnectionPool pool;
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) pool.close();
+    }
+
+    // Pengganti PostgreSQL: membuat koneksi mock yang bisa "dimatikan" di tengah jalan
+    private static class FakeDatabase {
+        private final List<Connection> opened = new ArrayList<>();
+        private final AtomicBoolean down = new AtomicBoolean(false);
+
+        Connection connect() throws SQLException {
+            if (down.get()) throw new SQLException("Connection refused", "08001");
+            AtomicBoolean alive = new AtomicBoolean(true);
+            Connection c = mock(Connection.class);
+            PreparedStatement stmt = mock(PreparedStatement.class);
+
+            when(c.isValid(anyInt())).thenAnswer(inv -> alive.get());
+            when(c.isClosed()).thenAnswer(inv -> !alive.get());
+            when(c.getAutoCommit()).thenReturn(true);
+            when(c.prepareStatement(anyString())).thenAnswer(inv -> {
+                if (!alive.get()) throw new SQLException("An I/O error occurred", "08006");
+                return stmt;
+            });
+            doAnswer(inv -> { alive.set(false); return null; }).when(c).close();
+
+            opened.add(c);
+            return c;
+        }
+
+        // Fault injection: server restart -> semua koneksi lama mati
+        void killAll() throws SQLException {
+            for (Connection c : opened) c.close();
+        }
+
+        int openedCount() { return opened.size(); }
+    }
+
+    private ConnectionPool newPool(int size, long borrowTimeoutMs, long idleMs, long lifetimeMs) {
+        return new ConnectionPool(db::connect, size, borrowTimeoutMs, idleMs, lifetimeMs, 0);
+    }
+
+    @Test
+    @DisplayName("REUSE: Koneksi yang dikembalikan dipakai ulang")
+    void testReuse() throws SQLException {
+        pool = newPool(2, 500, 60_000, 60_000);
+
+        try (Connection c = pool.getConnection()) {
+            c.prepareStatement("SELECT 1");
+        }
+        try (Connection c = pool.getConnection()) {
+            c.prepareStatement("SELECT 1");
+        }
+
+        assertEquals(1, db.openedCount(), "Koneksi fisik harusnya hanya dibuat sekali");
+        assertEquals(2, pool.getBorrowCount());
+        assertEquals(1, pool.getIdleCount());
+    }
+
+    @Test
+    @DisplayName("BOUNDED: Pool penuh -> timeout dan tercatat di metrics")
+    void testBorrowTimeout() throws SQLException {
+        pool = newPool(1, 50, 60_000, 60_000);
+
+        try (Connection held = pool.getConnection()) {
+            assertThrows(SQLTimeoutException.class, pool::getConnection);
+            assertEquals(1, pool.getActiveCount());
+        }
+        assertEquals(1, pool.getBorrowTimeouts());
+        assertEquals(0, pool.getActiveCount());
+    }
+
+    @Test
+    @DisplayName("SELF-HEALING: Server restart -> validasi gagal, koneksi baru dibuat")
+    void testReconnectAfterServerRestart() throws SQLException {
+        pool = newPool(2, 500, 60_000, 60_000);
+        try (Connection c = pool.getConnection()) {
+            c.prepareStatement("SELECT 1");
+        }
+
+        db.killAll();
+
+        try (Connection c = pool.getConnection()) {
+            assertNotNull(c.prepareStatement("SELECT 1"));
+        }
+        assertEquals(2, db.openedCount());
+        assertEquals(1, pool.getValidationFailures());
+    }
+
+    @Test
+    @DisplayName("FAULT MID-RUN: Koneksi mati saat dipakai -> dibuang, bukan dikembalikan")
+    void testConnectionKilledWhileBorrowed() throws SQLException {
+        pool = newPool(2, 500, 60_000, 60_000);
+
+        try (Connection c = pool.getConnection()) {
+            db.killAll();
+            assertThrows(SQLException.class, () -> c.prepareStatement("SELECT 1"));
+        }
+        assertEquals(0, pool.getIdleCount(), "Koneksi rusak tidak boleh masuk idle");
+        assertEquals(1, pool.getBrokenConnections());
+
+        try (Connection c = pool.getConnection()) {
+            assertNotNull(c.prepareStatement("SELECT 1"));
+        }
+        assertEquals(2, db.openedCount());
+    }
+
+    @Test
+    @DisplayName("DB DOWN: Gagal connect tidak membocorkan slot pool")
+    void testDatabaseDownDoesNotLeakPermits() {
+        pool = newPool(1, 50, 60_000, 60_000);
+        db.down.set(true);
+
+        assertThrows(SQLException.class, pool::getConnection);
+        assertThrows(SQLException.class, pool::getConnection);
+        assertEquals(0, pool.getActiveCount());
+        assertEquals(0, pool.getBorrowTimeouts());
+    }
+
+    @Test
+    @DisplayName("EVICTION: Idle terlalu lama & melewati max lifetime -> ditutup")
+    void testIdleEvictionAndMaxLifetime() throws Exception {
+        pool = newPool(2, 500, 20, 60_000);
+        pool.getConnection().close();
+        Thread.sleep(40);
+        pool.evictIdle();
+        assertEquals(0, pool.getIdleCount());
+        assertEquals(1, pool.getDestroyedCount());
+
+        ConnectionPool shortLived = newPool(2, 500, 60_000, 20);
+        try {
+            shortLived.getConnection().close();
+            Thread.sleep(40);
+            shortLived.getConnection().close();
+            assertEquals(3, db.openedCount(), "Koneksi yang melewati max lifetime harus diganti");
+        } finally {
+            shortLived.close();
+        }
+    }
+
+    @Test
+    @DisplayName("LEASE: Koneksi yang sudah di-close tidak bisa dipakai lagi")
+    void testUseAfterClose() throws SQLException {
+        pool = newPool(1, 500, 60_000, 60_000);
+        Connection c = pool.getConnection();
+        c.close();
+        c.close(); // close dua kali aman
+
+        assertTrue(c.isClosed());
+        assertThrows(SQLException.class, () -> c.prepareStatement("SELECT 1"));
+        assertEquals(0, pool.getActiveCount());
+    }
+
+    // ==========================================
+    // STATEMENT CACHE
+    // ==========================================
+
+    // Koneksi mock yang membuat PreparedStatement baru setiap prepareStatement
+    private Connection statementConnection;
+    private final List<PreparedStatement> created = new ArrayList<>();
+
+    private ConnectionPool newStatementPool(int cacheSize) {
+        return new ConnectionPool(() -> {
+            statementConnection = mock(Connection.class);
+            when(statementConnection.isValid(anyInt())).thenReturn(true);
+            when(statementConnection.getAutoCommit()).thenReturn(true);
+            when(statementConnection.prepareStatement(anyString())).thenAnswer(inv -> {
+                PreparedStatement stmt = mock(PreparedStatement.class);
+                when(stmt.executeQuery()).thenAnswer(q -> mock(ResultSet.class));
+                created.add(stmt);
+                return stmt;
+            });
+            return statementConnection;
+        }, 1, 500, 60_000, 60_000, 0, cacheSize);
+    }
+
+    @Test
+    @DisplayName("STATEMENT CACHE: SQL yang sama di pinjaman berikutnya memakai statement fisik yang sama")
+    void testStatementReusedAcrossBorrows() throws SQLException {
+        pool = newStatementPool(8);
+        PreparedStatement first;
+        try (Connection c = pool.getConnection();
+             PreparedStatement stmt = c.prepareStatement("SELECT 1 WHERE id = ?")) {
+            stmt.setInt(1, 1);
+            stmt.executeQuery();
+            first = stmt;
+        }
+        try (Connection c = pool.getConnection();
+             PreparedStatement stmt = c.prepareStatement("SELECT 1 WHERE id = ?")) {
+            stmt.setInt(1, 2);
+            stmt.executeQuery();
+            assertSame(c, stmt.getConnection(), "getConnection tidak membocorkan koneksi fisik");
+        }
+
+        assertEquals(1, created.size());
+        PreparedStatement physical = created.get(0);
+        verify(physical, times(2)).executeQuery();
+        verify(physical, times(2)).clearParameters();
+        verify(physical, never()).close();
+        assertTrue(first.isClosed());
+        assertThrows(SQLException.class, () -> first.setInt(1, 3));
+        assertEquals(1, pool.getStatementCacheHits());
+        assertEquals(1, pool.getStatementCacheMisses());
+    }
+
+    @Test
+    @DisplayName("STATEMENT CACHE LRU: Statement paling lama tidak dipakai ditutup saat cache penuh")
+    void testStatementCacheEvictsLeastRecentlyUsed() throws SQLException {
+        pool = newStatementPool(2);
+        try (Connection c = pool.getConnection()) {
+            c.prepareStatement("A").close();
+            c.prepareStatement("B").close();
+            c.prepareStatement("A").close(); // A jadi yang terbaru
+            c.prepareStatement("C").close(); // B dibuang
+            c.prepareStatement("A").close();
+        }
+
+        assertEquals(3, created.size());
+        verify(created.get(0), never()).close();
+        verify(created.get(1)).close();
+        assertEquals(1, pool.getStatementCacheEvictions());
+        assertEquals(2, pool.getStatementCacheHits());
+    }
+
+    @Test
+    @DisplayName("STATEMENT CACHE: Statement yang masih terbuka atau setting-nya diubah tidak dipakai bersama")
+    void testOpenOrModifiedStatementsAreNotShared() throws SQLException {
+        pool = newStatementPool(8);
+        try (Connection c = pool.getConnection()) {
+            try (PreparedStatement outer = c.prepareStatement("A");
+                 PreparedStatement inner = c.prepareStatement("A")) {
+                assertEquals(2, created.size(), "Query bersarang dengan SQL yang sama memakai statement terpisah");
+            }
+
+            PreparedStatement cursor = c.prepareStatement("B");
+            cursor.setCursorName("snapshot");
+            cursor.close();
+            verify(created.get(2)).close();
+
+            c.prepareStatement("B").close();
+        }
+        verify(statementConnection, times(2)).prepareStatement("A");
+        verify(statementConnection, times(2)).prepareStatement("B");
+    }
+
+    @Test
+    @DisplayName("STATEMENT CACHE: Fetch size dipulihkan saat kembali ke cache, statement tetap dipakai ulang")
+    void testFetchSizeRestoredAndReused() throws SQLException {
+        pool = newStatementPool(8);
+        for (int i = 0; i < 2; i++) {
+            try (Connection c = pool.getConnection();
+                 PreparedStatement stmt = c.prepareStatement("SELECT * FROM habit_logs")) {
+                stmt.setFetchSize(2000);
+                stmt.setFetchSize(500);
+                stmt.executeQuery();
+            }
+        }
+
+        assertEquals(1, created.size());
+        PreparedStatement physical = created.get(0);
+        verify(physical, never()).close();
+        verify(physical, times(2)).setFetchSize(2000);
+        verify(physical, times(2)).setFetchSize(0); // nilai awal dari getFetchSize(), sekali per pinjaman
+        assertEquals(1, pool.getStatementCacheHits());
+    }
+
+    @Test
+    @DisplayName("STATEMENT CACHE: Statement & ResultSet yang lupa ditutup diambil kembali saat koneksi dikembalikan")
+    void testForgottenStatementsAreReclaimed() throws SQLException {
+        pool = newStatementPool(8);
+        PreparedStatement leaked;
+        ResultSet rs;
+        try (Connection c = pool.getConnection()) {
+            leaked = c.prepareStatement("SELECT 1");
+            rs = leaked.executeQuery();
+        }
+
+        verify(rs).close();
+        assertTrue(leaked.isClosed());
+        try (Connection c = pool.getConnection()) {
+            c.prepareStatement("SELECT 1").close();
+        }
+        assertEquals(1, created.size());
+        assertEquals(1, pool.getStatementCacheHits());
+    }
+
+    @Test
+    @DisplayName("STATEMENT CACHE OFF: Ukuran 0 -> prepareStatement langsung ke koneksi fisik")
+    void testStatementCacheDisabled() throws SQLException {
+        pool = newStatementPool(0);
+        for (int i = 0; i < 2; i++) {
+            try (Connection c = pool.getConnection()) {
+                c.prepareStatement("SELECT 1").close();
+            }
+        }
+        assertEquals(2, created.size());
+        verify(created.get(0)).close();
+        assertEquals(0, pool.getStatementCacheMisses());
+    }
+}
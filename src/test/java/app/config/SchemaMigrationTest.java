@@ -0,0 +1,115 @@
+package app.config;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+// Import Java Utilities
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+// Import JUnit & Mockito Static
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Test SchemaMigration (Versi, Checksum, Idempoten)")
+class SchemaMigrationTest {
+
+    private static final SchemaMigration.Migration V1 =
+            new SchemaMigration.Migration(1, "Tabel a", List.of("CREATE TABLE a (id INT)"));
+    private static final SchemaMigration.Migration V2 =
+            new SchemaMigration.Migration(2, "Index a", List.of("CREATE INDEX a_idx ON a (id)"));
+
+    private Connection conn;
+    private final List<String> executed = new ArrayList<>();
+    // Isi tabel schema_migrations: version -> checksum
+    private final Map<Integer, String> history = new LinkedHashMap<>();
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        conn = mock(Connection.class);
+
+        Statement stmt = mock(Statement.class);
+        when(stmt.execute(anyString())).thenAnswer(inv -> executed.add(inv.getArgument(0)));
+        when(conn.createStatement()).thenReturn(stmt);
+
+        when(conn.prepareStatement(anyString())).thenAnswer(inv -> {
+            String sql = inv.getArgument(0);
+            PreparedStatement ps = mock(PreparedStatement.class);
+            if (sql.startsWith("SELECT")) {
+                List<Map.Entry<Integer, String>> rows = new ArrayList<>(history.entrySet());
+                ResultSet rs = mock(ResultSet.class);
+                int[] cursor = {-1};
+                when(rs.next()).thenAnswer(i -> ++cursor[0] < rows.size());
+                when(rs.getInt("version")).thenAnswer(i -> rows.get(cursor[0]).getKey());
+                when(rs.getString("checksum")).thenAnswer(i -> rows.get(cursor[0]).getValue());
+                when(ps.executeQuery()).thenReturn(rs);
+            } else {
+                Object[] params = new Object[4];
+                doAnswer(i -> params[(int) i.getArgument(0)] = i.getArgument(1)).when(ps).setInt(anyInt(), anyInt());
+                doAnswer(i -> params[(int) i.getArgument(0)] = i.getArgument(1)).when(ps).setString(anyInt(), anyString());
+                when(ps.executeUpdate()).thenAnswer(i -> {
+                    history.put((Integer) params[1], (String) params[3]);
+                    return 1;
+                });
+            }
+            return ps;
+        });
+    }
+
+    @Test
+    @DisplayName("DB BARU: Semua migrasi dijalankan berurutan, dicatat, lalu commit sekali")
+    void testAppliesPendingMigrations() throws SQLException {
+        assertTrue(SchemaMigration.apply(conn, List.of(V1, V2)));
+
+        assertTrue(executed.indexOf("CREATE TABLE a (id INT)") < executed.indexOf("CREATE INDEX a_idx ON a (id)"));
+        assertEquals(List.of(1, 2), new ArrayList<>(history.keySet()));
+        assertEquals(V1.checksum(), history.get(1));
+        verify(conn, times(1)).commit();
+        verify(conn, never()).rollback();
+    }
+
+    @Test
+    @DisplayName("IDEMPOTEN: Versi yang sudah tercatat tidak dijalankan lagi")
+    void testSkipsAppliedMigrations() {
+        history.put(1, V1.checksum());
+
+        assertTrue(SchemaMigration.apply(conn, List.of(V1, V2)));
+
+        assertFalse(executed.contains("CREATE TABLE a (id INT)"));
+        assertTrue(executed.contains("CREATE INDEX a_idx ON a (id)"));
+    }
+
+    @Test
+    @DisplayName("CHECKSUM: Migrasi yang diubah setelah dijalankan -> rollback, tidak ada yang diterapkan")
+    void testChecksumMismatchRollsBack() throws SQLException {
+        history.put(1, new SchemaMigration.Migration(1, "Tabel a", List.of("CREATE TABLE a (id BIGINT)")).checksum());
+
+        assertFalse(SchemaMigration.apply(conn, List.of(V1, V2)));
+
+        verify(conn).rollback();
+        verify(conn, never()).commit();
+        verify(conn).setAutoCommit(true);
+    }
+
+    @Test
+    @DisplayName("DAFTAR MIGRASI: Versi unik & naik, checksum stabil")
+    void testMigrationListIsOrdered() {
+        List<SchemaMigration.Migration> migrations = SchemaMigration.MIGRATIONS;
+        for (int i = 1; i < migrations.size(); i++) {
+            assertTrue(migrations.get(i).version() > migrations.get(i - 1).version());
+        }
+        assertEquals(64, V1.checksum().length());
+        assertEquals(V1.checksum(), new SchemaMigration.Migration(1, "Nama lain", V1.statements()).checksum());
+        assertNotEquals(V1.checksum(), V2.checksum());
+    }
+}
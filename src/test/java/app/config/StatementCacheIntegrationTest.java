@@ -0,0 +1,76 @@
+package app.config;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfEnvironmentVariable;
+import org.postgresql.PGStatement;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+// Butuh PostgreSQL sungguhan, jadi hanya jalan jika MOODFLOW_TEST_DB_URL diset, mis.
+//   MOODFLOW_TEST_DB_URL=jdbc:postgresql://localhost/moodflow_test MOODFLOW_TEST_DB_USERNAME=... mvn test
+@EnabledIfEnvironmentVariable(named = "MOODFLOW_TEST_DB_URL", matches = ".+")
+@DisplayName("Test Statement Cache dengan PostgreSQL (Server-Side Prepared Plan)")
+class StatementCacheIntegrationTest {
+
+    private static final String SQL = "SELECT ?::int + 1";
+    private static final int PREPARE_THRESHOLD = 5; // default pgjdbc
+
+    private ConnectionPool pool;
+
+    @AfterEach
+    void tearDown() {
+        if (pool != null) pool.close();
+    }
+
+    private ConnectionPool newPool(int statementCacheSize) {
+        return new ConnectionPool(
+                () -> DriverManager.getConnection(System.getenv("MOODFLOW_TEST_DB_URL"),
+                        System.getenv("MOODFLOW_TEST_DB_USERNAME"), System.getenv("MOODFLOW_TEST_DB_PASSWORD")),
+                1, 5000, 60_000, 60_000, 0, statementCacheSize);
+    }
+
+    private static int runOnce(ConnectionPool pool, int value) throws SQLException {
+        try (Connection conn = pool.getConnection();
+             PreparedStatement stmt = conn.prepareStatement(SQL)) {
+            stmt.setInt(1, value);
+            try (ResultSet rs = stmt.executeQuery()) {
+                assertTrue(rs.next());
+                return rs.getInt(1);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("WARM-UP: Setelah prepareThreshold eksekusi lewat pinjaman berbeda, plan server-side dipakai ulang")
+    void testServerPreparedPlanReusedAfterWarmUp() throws SQLException {
+        pool = newPool(ConnectionPool.DEFAULT_STATEMENT_CACHE_SIZE);
+        for (int i = 0; i < PREPARE_THRESHOLD + 2; i++) {
+            assertEquals(i + 1, runOnce(pool, i));
+        }
+
+        try (Connection conn = pool.getConnection()) {
+            try (PreparedStatement stmt = conn.prepareStatement(SQL)) {
+                assertTrue(stmt.unwrap(PGStatement.class).isUseServerPrepare(),
+                        "Statement fisik yang sama sudah melewati prepareThreshold");
+            }
+            // Statement bernama dari protokol extended (bukan PREPARE SQL) milik sesi ini
+            try (PreparedStatement check = conn.prepareStatement(
+                    "SELECT count(*) FROM pg_prepared_statements WHERE NOT from_sql AND statement = ?")) {
+                check.setString(1, SQL.replace("?", "$1"));
+                try (ResultSet rs = check.executeQuery()) {
+                    assertTrue(rs.next());
+                    assertEquals(1, rs.getInt(1), "Satu plan server-side untuk semua eksekusi");
+                }
+            }
+        }
+        assertEquals(PREPARE_THRESHOLD + 2, pool.getStatementCacheHits());
+        assertEquals(2, pool.getStatementCacheMisses()); // SQL uji + query pg_prepared_statements
+    }
+}
@@ -0,0 +1,157 @@
+package app.debug;
+
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import javax.sql.DataSource;
+import javax.swing.SwingUtilities;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Test QueryInspector (N+1, Slow Query & Query di EDT)")
+class QueryInspectorTest {
+
+    private static final String IS_DONE_SQL = "SELECT 1 FROM habit_logs WHERE habit_id = ? AND date = ?";
+
+    private final List<QueryAction> finished = new ArrayList<>();
+    private QueryInspector inspector;
+    private DataSource dataSource;
+    private PreparedStatement stmt;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        DataSource raw = mock(DataSource.class);
+        Connection conn = mock(Connection.class);
+        stmt = mock(PreparedStatement.class);
+        when(raw.getConnection()).thenReturn(conn);
+        when(conn.prepareStatement(anyString())).thenReturn(stmt);
+        when(conn.createStatement()).thenReturn(mock(Statement.class));
+        when(stmt.executeQuery()).thenReturn(mock(ResultSet.class));
+
+        inspector = new QueryInspector(100, 5, action -> {
+            synchronized (finished) {
+                finished.add(action);
+            }
+        });
+        dataSource = inspector.wrap(raw);
+    }
+
+    private void query(String sql) {
+        try (Connection conn = dataSource.getConnection();
+             PreparedStatement ps = conn.prepareStatement(sql)) {
+            ps.executeQuery();
+        } catch (SQLException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // ==========================================
+    // 1. TEMUAN PER AKSI
+    // ==========================================
+
+    @Test
+    @DisplayName("N+1: Statement berbentuk sama >= threshold dalam satu aksi ditandai, dilaporkan saat aksi ditutup")
+    void testDetectsRepeatedStatements() {
+        try (QueryAction action = inspector.begin("WeeklyTrackerView.week")) {
+            for (int cell = 0; cell < 7; cell++) {
+                query(IS_DONE_SQL);
+            }
+            query("SELECT id, name FROM habits ORDER BY id ASC");
+            assertTrue(finished.isEmpty(), "Belum dilaporkan selama aksi masih terbuka");
+        }
+
+        assertEquals(1, finished.size());
+        QueryAction action = finished.get(0);
+        assertEquals(8, action.getExecutions().size());
+        assertEquals(List.of("N+1: 7x " + QueryAction.shapeOf(IS_DONE_SQL)), action.getFindings());
+        assertTrue(action.report().contains("WeeklyTrackerView.week: 8 statement"));
+    }
+
+    @Test
+    @DisplayName("BENTUK: Literal angka & string di Statement biasa dianggap parameter")
+    void testShapeIgnoresLiterals() throws SQLException {
+        try (QueryAction action = inspector.begin("aksi")) {
+            for (int id = 1; id <= 5; id++) {
+                try (Connection conn = dataSource.getConnection();
+                     Statement s = conn.createStatement()) {
+                    s.executeQuery("SELECT name FROM habits WHERE id = " + id + " AND name <> 'x''y'");
+                }
+            }
+        }
+
+        assertEquals(List.of("N+1: 5x SELECT name FROM habits WHERE id = ? AND name <> ?"),
+                finished.get(0).getFindings());
+    }
+
+    @Test
+    @DisplayName("SLOW: Statement di atas threshold latensi ditandai")
+    void testDetectsSlowStatements() throws SQLException {
+        when(stmt.executeQuery()).thenAnswer(invocation -> {
+            Thread.sleep(120);
+            return mock(ResultSet.class);
+        });
+
+        try (QueryAction action = inspector.begin("MoodTrendView.trend")) {
+            query("SELECT * FROM mood");
+        }
+
+        List<String> findings = finished.get(0).getFindings();
+        assertEquals(1, findings.size());
+        assertTrue(findings.get(0).startsWith("SLOW: "));
+        assertTrue(findings.get(0).endsWith("SELECT * FROM mood"));
+    }
+
+    // ==========================================
+    // 2. AKSI LINTAS THREAD & EDT
+    // ==========================================
+
+    @Test
+    @DisplayName("PROPAGASI: Query di task background masuk ke aksi pembuatnya, laporan menunggu task selesai")
+    void testActionFollowsBackgroundTask() throws Exception {
+        CompletableFuture<Void> gate = new CompletableFuture<>();
+        CompletableFuture<Void> task;
+        try (QueryAction action = inspector.begin("MainDashboard.series")) {
+            query(IS_DONE_SQL);
+            Supplier<Void> bound = inspector.bind(() -> {
+                gate.join();
+                query(IS_DONE_SQL);
+                return null;
+            });
+            task = CompletableFuture.supplyAsync(bound);
+        }
+        assertTrue(finished.isEmpty(), "Task background masih berjalan");
+
+        gate.complete(null);
+        task.get();
+        assertEquals(1, finished.size());
+        assertEquals(2, finished.get(0).getExecutions().size());
+        assertFalse(finished.get(0).getExecutions().get(1).onEdt());
+    }
+
+    @Test
+    @DisplayName("EDT: Query di EDT tanpa aksi dikumpulkan per event dan ditandai")
+    void testGroupsEdtStatementsPerEvent() throws Exception {
+        SwingUtilities.invokeAndWait(() -> {
+            for (int day = 0; day < 3; day++) {
+                query("SELECT id, mood_value, date FROM mood WHERE date = ?");
+            }
+        });
+        SwingUtilities.invokeAndWait(() -> { }); // event berikutnya: aksi EDT sebelumnya sudah dilaporkan
+
+        assertEquals(1, finished.size());
+        QueryAction action = finished.get(0);
+        assertTrue(action.getName().endsWith("(EDT)"));
+        assertEquals(List.of("3 statement dijalankan di EDT"), action.getFindings());
+    }
+}
@@ -6,13 +6,18 @@ import org.junit.jupiter.api.Test;
 
 // Import Package Aplikasi
 import app.model.Habit;
+import app.model.HabitDay;
+import app.model.WeekSnapshot;
 import app.observer.IObserver;
 import app.repository.HabitRepository;
 
 // Import Java Utilities
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
 
 // Import JUnit & Mockito Static
 import static org.junit.jupiter.api.Assertions.*;
@@ -88,6 +93,24 @@ class HabitFacadeTest {
         verify(observerMock, never()).onDataChanged(); 
     }
 
+    @Test
+    @DisplayName("ADD ASYNC: Dijalankan di thread DbExecutor, bukan thread pemanggil")
+    void testAddHabitAsync() throws Exception {
+        Thread caller = Thread.currentThread();
+        when(repositoryMock.createHabit(any(Habit.class))).thenAnswer(inv -> {
+            assertNotSame(caller, Thread.currentThread(), "Repo tidak boleh dipanggil dari thread pemanggil");
+            return true;
+        });
+
+        // EKSEKUSI
+        boolean result = habitFacade.addHabitAsync("Meditasi").get(5, TimeUnit.SECONDS);
+
+        // VERIFIKASI
+        assertTrue(result);
+        verify(repositoryMock, times(1)).createHabit(any(Habit.class));
+        verify(observerMock, times(1)).onDataChanged();
+    }
+
     // ==========================================
     // 2. TEST FITUR DELETE HABIT
     // ==========================================
@@ -142,6 +165,69 @@ class HabitFacadeTest {
         assertEquals("Test 1", result.get(0).getName());
     }
 
+    @Test
+    @DisplayName("GET ALL: Dari memori sampai ada habit baru ditambahkan")
+    void testGetHabits_Catalog() {
+        when(repositoryMock.getAllHabits()).thenReturn(new ArrayList<>(List.of(new Habit(1, "Test 1"))));
+        when(repositoryMock.createHabit(any(Habit.class))).thenReturn(true); // id tidak terisi
+
+        habitFacade.getHabits();
+        habitFacade.getHabits();
+        assertEquals("Test 1", habitFacade.getHabit(1).getName());
+        verify(repositoryMock, times(1)).getAllHabits();
+        verify(repositoryMock, never()).getHabitById(anyInt());
+
+        // Katalog lengkap -> id yang tidak ada langsung null, tanpa query
+        assertNull(habitFacade.getHabit(42));
+        verify(repositoryMock, never()).getHabitById(42);
+
+        habitFacade.addHabit("Baru");
+        habitFacade.getHabits();
+        verify(repositoryMock, times(2)).getAllHabits();
+    }
+
+    @Test
+    @DisplayName("GET ALL: Habit baru dengan id & habit terhapus diperbarui tanpa query ulang")
+    void testGetHabits_CatalogMutations() {
+        when(repositoryMock.getAllHabits()).thenReturn(new ArrayList<>(List.of(new Habit(1, "A"), new Habit(2, "B"))));
+        when(repositoryMock.createHabit(any(Habit.class))).thenAnswer(inv -> {
+            inv.<Habit>getArgument(0).setId(3);
+            return true;
+        });
+        when(repositoryMock.deleteHabit(1)).thenReturn(true);
+
+        habitFacade.getHabits();
+        habitFacade.addHabit("C");
+        habitFacade.deleteHabit(1);
+
+        List<Habit> result = habitFacade.getHabits();
+        assertEquals(List.of("B", "C"), result.stream().map(Habit::getName).toList());
+        verify(repositoryMock, times(1)).getAllHabits();
+    }
+
+    @Test
+    @DisplayName("GET ALL: Habit lokal (id negatif, mode offline) ikut katalog, log & hapus")
+    void testGetHabits_LocalNegativeId() {
+        LocalDate monday = LocalDate.of(2024, 5, 6);
+        List<Habit> habits = List.of(new Habit(1, "A"), new Habit(-3, "Lokal"));
+        when(repositoryMock.loadWeekSnapshot(monday)).thenReturn(new WeekSnapshot(monday, habits,
+                new BitSet[] { new BitSet(), new BitSet() }, new int[WeekSnapshot.DAYS]));
+        when(repositoryMock.deleteHabit(-3)).thenReturn(true);
+
+        habitFacade.getWeekSnapshot(monday);
+        assertEquals("Lokal", habitFacade.getHabit(-3).getName());
+
+        habitFacade.updateHabitStatus(-3, monday, true);
+        assertTrue(habitFacade.getActivityLog().get(0).contains("Selesai: Lokal"));
+
+        assertTrue(habitFacade.deleteHabit(-3));
+        assertTrue(habitFacade.getActivityLog().get(1).contains("Menghapus habit: Lokal"));
+        assertEquals(List.of("A"), habitFacade.getHabits().stream().map(Habit::getName).toList());
+        assertNull(habitFacade.getHabitCatalog().get(-3));
+        verify(repositoryMock, never()).getAllHabits();
+        verify(repositoryMock, never()).getHabitById(anyInt());
+    }
+
     @Test
     @DisplayName("GET BY ID: Data ditemukan vs Tidak ditemukan")
     void testGetHabitById() {
@@ -178,21 +264,116 @@ class HabitFacadeTest {
         assertFalse(habitFacade.getHabitStatus(1, today));
     }
 
+    @Test
+    @DisplayName("TRACKING: Snapshot mingguan -> satu panggilan repo, tanpa isHabitDone per sel")
+    void testGetWeekSnapshot() {
+        LocalDate weekStart = LocalDate.of(2024, 1, 7);
+        BitSet done = new BitSet();
+        done.set(0);
+        done.set(3);
+        WeekSnapshot dummy = new WeekSnapshot(weekStart,
+                List.of(new Habit(1, "Olahraga")),
+                new BitSet[] { done },
+                new int[] {4, 0, 0, 0, 0, 0, 2});
+        when(repositoryMock.loadWeekSnapshot(weekStart)).thenReturn(dummy);
+
+        // EKSEKUSI
+        WeekSnapshot result = habitFacade.getWeekSnapshot(weekStart);
+
+        // VERIFIKASI
+        assertTrue(result.isDone(0, 0));
+        assertFalse(result.isDone(0, 1));
+        assertTrue(result.isDone(0, 3));
+        assertEquals(4, result.getMoodValue(0));
+        assertEquals(3, result.dayIndexOf(weekStart.plusDays(3)));
+        verify(repositoryMock, times(1)).loadWeekSnapshot(weekStart);
+        verify(repositoryMock, never()).isHabitDone(anyInt(), any());
+
+        // Habit dari snapshot ikut masuk cache
+        assertEquals("Olahraga", habitFacade.getHabit(1).getName());
+        verify(repositoryMock, never()).getHabitById(anyInt());
+    }
+
     @Test
     @DisplayName("TRACKING: Update Status (Centang/Uncentang)")
     void testUpdateHabitStatus() {
         LocalDate today = LocalDate.now();
         // Setup repo sukses
-        when(repositoryMock.setHabitStatus(anyInt(), any(), anyBoolean())).thenReturn(true);
+        when(repositoryMock.setHabitStatuses(any())).thenReturn(true);
 
         // EKSEKUSI: Centang (True)
         habitFacade.updateHabitStatus(1, today, true);
+        verify(observerMock).onDataChanged(); // UI update langsung
+        habitFacade.flushPendingWrites();
 
         // VERIFIKASI: Pastikan method di repo dipanggil dengan parameter yg benar
-        verify(repositoryMock).setHabitStatus(1, today, true);
-        verify(observerMock).onDataChanged(); // UI update
+        verify(repositoryMock).setHabitStatuses(Map.of(new HabitDay(1, today), true));
+        assertEquals(0, habitFacade.getPendingWriteCount());
+    }
+
+    // ==========================================
+    // 4b. TEST WRITE-BEHIND
+    // ==========================================
+
+    @Test
+    @DisplayName("WRITE-BEHIND: Toggle berulang di sel yang sama digabung, status langsung terbaca")
+    void testWriteBehind_CollapsesToggles() {
+        HabitFacade facade = new HabitFacade(repositoryMock, 60_000);
+        LocalDate today = LocalDate.now();
+        when(repositoryMock.setHabitStatuses(any())).thenReturn(true);
+
+        facade.updateHabitStatus(1, today, true);
+        facade.updateHabitStatus(1, today, false);
+        facade.updateHabitStatus(1, today, true);
+        facade.updateHabitStatus(2, today, true);
+
+        // Belum ada yang ditulis ke DB, tapi status sudah berlaku di memori
+        verify(repositoryMock, never()).setHabitStatuses(any());
+        verify(repositoryMock, never()).setHabitStatus(anyInt(), any(), anyBoolean());
+        assertEquals(2, facade.getPendingWriteCount());
+        assertTrue(facade.getHabitStatus(1, today));
+        verify(repositoryMock, never()).isHabitDone(anyInt(), any());
+
+        assertTrue(facade.flushPendingWrites());
+        verify(repositoryMock, times(1)).setHabitStatuses(Map.of(
+                new HabitDay(1, today), true,
+                new HabitDay(2, today), true));
+        assertEquals(0, facade.getPendingWriteCount());
     }
 
+    @Test
+    @DisplayName("WRITE-BEHIND: Flush gagal -> perubahan tetap di antrean, close() mencoba lagi")
+    void testWriteBehind_FailedFlushIsKept() {
+        HabitFacade facade = new HabitFacade(repositoryMock, 60_000);
+        LocalDate today = LocalDate.now();
+        when(repositoryMock.setHabitStatuses(any())).thenReturn(false, true);
+
+        facade.updateHabitStatus(1, today, true);
+        assertFalse(facade.flushPendingWrites());
+        assertEquals(1, facade.getPendingWriteCount());
+
+        facade.close();
+        assertEquals(0, facade.getPendingWriteCount());
+        verify(repositoryMock, times(2)).setHabitStatuses(Map.of(new HabitDay(1, today), true));
+    }
+
+    @Test
+    @DisplayName("WRITE-BEHIND: Snapshot minggu ditimpa perubahan yang belum tersimpan")
+    void testWriteBehind_SnapshotOverlay() {
+        HabitFacade facade = new HabitFacade(repositoryMock, 60_000);
+        LocalDate weekStart = LocalDate.of(2024, 1, 7);
+        WeekSnapshot fromDb = new WeekSnapshot(weekStart,
+                List.of(new Habit(1, "Olahraga")),
+                new BitSet[] { new BitSet() },
+                new int[7]);
+        when(repositoryMock.loadWeekSnapshot(weekStart)).thenReturn(fromDb);
+
+        facade.updateHabitStatus(1, weekStart.plusDays(2), true);
+        WeekSnapshot result = facade.getWeekSnapshot(weekStart);
+
+        assertTrue(result.isDone(0, 2));
+        assertFalse(fromDb.isDone(0, 2), "Snapshot asli tidak boleh berubah");
+    }
 
     // ==========================================
     // 5. TEST KHUSUS JCF (HashMap & LinkedList)
@@ -247,4 +428,4 @@ class HabitFacadeTest {
         // Verify times(1) artinya tidak nambah panggilan ke repo, berarti cache jalan
         verify(repositoryMock, times(1)).getHabitById(testId);
     }
-}
\ No newline at end of file
+}
@@ -6,12 +6,19 @@ import org.junit.jupiter.api.Test;
 
 // Import Package Aplikasi
 import app.model.Mood;
+import app.model.MoodBucket;
+import app.model.MoodSeries;
+import app.model.MoodTrend;
+import app.model.TrendResolution;
 import app.observer.IObserver;
 import app.repository.MoodRepository;
 
 // Import Java Utilities
 import java.time.LocalDate;
 import java.util.List; // Penting: Pakai List generic
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
 
 // Import JUnit & Mockito
 import static org.junit.jupiter.api.Assertions.*;
@@ -60,6 +67,30 @@ class MoodFacadeTest {
         verify(observerMock, times(1)).onDataChanged();
     }
 
+    @Test
+    @DisplayName("SAVE BATCH: Banyak hari -> satu panggilan repo, observer sekali, nilai invalid dibuang")
+    void testSaveMoods_Batch() {
+        LocalDate day1 = LocalDate.of(2024, 2, 1);
+        LocalDate day2 = day1.plusDays(1);
+        LocalDate day3 = day1.plusDays(2);
+        when(repoMock.upsertMoods(any())).thenReturn(true);
+
+        Map<LocalDate, Integer> input = new HashMap<>();
+        input.put(day1, 4);
+        input.put(day2, 0);  // hapus mood
+        input.put(day3, 9);  // invalid
+
+        // EKSEKUSI
+        boolean result = moodFacade.saveMoods(input);
+
+        // VERIFIKASI
+        assertTrue(result);
+        verify(repoMock, times(1)).upsertMoods(Map.of(day1, 4, day2, 0));
+        verify(repoMock, never()).upsertMood(anyInt(), any());
+        verify(observerMock, times(1)).onDataChanged();
+        assertEquals(4, moodFacade.getMood(day1).getMoodValue());
+    }
+
     @Test
     @DisplayName("SAVE GAGAL: Mood diluar range (misal -1) -> Jangan panggil Repo")
     void testSaveMood_Fail_InvalidValue() {
@@ -110,6 +141,29 @@ class MoodFacadeTest {
         assertNull(result);
     }
 
+    @Test
+    @DisplayName("GET SERIES: Satu query untuk 7 hari & cache ikut terisi")
+    void testGetMoodSeries() {
+        LocalDate start = LocalDate.of(2024, 1, 7);
+        when(repoMock.getMoodsBetween(start, start.plusDays(6))).thenReturn(Map.of(
+                start, new Mood(1, 3, start.toString()),
+                start.plusDays(2), new Mood(2, 5, start.plusDays(2).toString())));
+
+        // EKSEKUSI
+        MoodSeries series = moodFacade.getMoodSeries(start, 7);
+
+        // VERIFIKASI
+        assertEquals(7, series.size());
+        assertEquals(3, series.getValue(0));
+        assertFalse(series.hasValue(1));
+        assertEquals(5, series.getValue(2));
+        verify(repoMock, times(1)).getMoodsBetween(start, start.plusDays(6));
+
+        // Hari yang ada mood-nya sudah di cache
+        assertEquals(5, moodFacade.getMood(start.plusDays(2)).getMoodValue());
+        verify(repoMock, never()).getMoodByDate(start.plusDays(2));
+    }
+
     // ==========================================
     // 3. TEST KHUSUS JCF (HashMap & LinkedList)
     // ==========================================
@@ -161,4 +215,89 @@ class MoodFacadeTest {
         // Artinya panggilan kedua murni diambil dari Memory (HashMap).
         verify(repoMock, times(1)).getMoodByDate(testDate);
     }
-}
\ No newline at end of file
+
+    @Test
+    @DisplayName("NEGATIVE CACHE: Hari tanpa mood tidak query ulang ke DB")
+    void testNegativeCache() {
+        LocalDate emptyDay = LocalDate.of(2023, 12, 2);
+        when(repoMock.getMoodByDate(emptyDay)).thenReturn(null);
+
+        assertNull(moodFacade.getMood(emptyDay));
+        assertNull(moodFacade.getMood(emptyDay));
+
+        verify(repoMock, times(1)).getMoodByDate(emptyDay);
+        assertEquals(1, moodFacade.getCache().getHitCount());
+    }
+
+    @Test
+    @DisplayName("PREFETCH RANGE: Satu query mengisi cache seluruh rentang, termasuk hari kosong")
+    void testGetMoods_Prefetch() {
+        LocalDate from = LocalDate.of(2024, 3, 1);
+        LocalDate to = LocalDate.of(2024, 3, 31);
+        when(repoMock.getMoodsBetween(from, to)).thenReturn(Map.of(
+                from.plusDays(4), new Mood(1, 2, from.plusDays(4).toString())));
+
+        Map<LocalDate, Mood> moods = moodFacade.getMoods(from, to);
+
+        assertEquals(1, moods.size());
+        assertEquals(31, moodFacade.getCache().size());
+        assertEquals(2, moodFacade.getMood(from.plusDays(4)).getMoodValue());
+        assertNull(moodFacade.getMood(from.plusDays(10)));
+        verify(repoMock, never()).getMoodByDate(any());
+    }
+
+    @Test
+    @DisplayName("SAVE NILAI 0: Mood dihapus -> cache mencatat hari kosong")
+    void testSaveMood_ZeroCachesEmpty() {
+        LocalDate date = LocalDate.of(2024, 4, 1);
+        when(repoMock.upsertMood(0, date)).thenReturn(true);
+
+        moodFacade.saveMood(0, date);
+
+        assertNull(moodFacade.getMood(date));
+        verify(repoMock, never()).getMoodByDate(date);
+    }
+
+    // ==========================================
+    // GRAFIK TREN
+    // ==========================================
+
+    @Test
+    @DisplayName("TREN: Ukuran bucket mengikuti jumlah titik yang muat, agregasi di repository")
+    void testMoodTrendPicksResolution() {
+        LocalDate from = LocalDate.of(2022, 1, 1);
+        LocalDate to = LocalDate.of(2024, 12, 31);
+        List<MoodBucket> buckets = List.of(new MoodBucket(from, 3.5, 2, 5, 20));
+        when(repoMock.getMoodBuckets(from, to, TrendResolution.MONTH)).thenReturn(buckets);
+
+        // 3 tahun = ~157 minggu / 36 bulan -> 100 titik cukup untuk bulanan
+        MoodTrend trend = moodFacade.getMoodTrend(from, to, 100);
+
+        assertEquals(TrendResolution.MONTH, trend.resolution());
+        assertFalse(trend.raw());
+        assertEquals(buckets, trend.buckets());
+        assertEquals(TrendResolution.DAY, TrendResolution.forRange(from, from.plusDays(29), 30));
+        assertEquals(TrendResolution.WEEK, TrendResolution.forRange(from, from.plusDays(30), 30));
+        verify(repoMock, never()).getMoodsBetween(any(), any());
+    }
+
+    @Test
+    @DisplayName("TREN HARIAN: Deret mentah di-downsample, puncak tetap ada & cache tidak tersentuh")
+    void testRawMoodTrendIsDownsampled() {
+        LocalDate from = LocalDate.of(2024, 1, 1);
+        Map<LocalDate, Mood> moods = new LinkedHashMap<>();
+        for (int i = 0; i < 365; i++) {
+            LocalDate date = from.plusDays(i);
+            moods.put(date, new Mood(i == 150 ? 5 : 3, date.toString()));
+        }
+        when(repoMock.getMoodsBetween(from, from.plusDays(364))).thenReturn(moods);
+
+        MoodTrend trend = moodFacade.getRawMoodTrend(from, from.plusDays(364), 40);
+
+        assertTrue(trend.raw());
+        assertEquals(40, trend.buckets().size());
+        assertEquals(from, trend.buckets().get(0).start());
+        assertTrue(trend.buckets().stream().anyMatch(b -> b.max() == 5 && b.start().equals(from.plusDays(150))));
+        assertEquals(0, moodFacade.getCache().size());
+    }
+}
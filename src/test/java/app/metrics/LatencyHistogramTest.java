@@ -0,0 +1,66 @@
+package app.metrics;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test LatencyHistogram (Bucket Log-Linear)")
+class LatencyHistogramTest {
+
+    // ==========================================
+    // 1. BUCKET
+    // ==========================================
+
+    @Test
+    @DisplayName("BUCKET: Nilai selalu jatuh di bucket yang batas atasnya >= nilai, dengan error relatif <= 1/16")
+    void testBucketBoundsAreTight() {
+        long[] values = {0, 1, 15, 16, 17, 31, 32, 1_000, 123_456, 5_000_000, 987_654_321_000L, Long.MAX_VALUE};
+        for (long value : values) {
+            int index = LatencyHistogram.indexOf(value);
+            long upper = LatencyHistogram.highestValueIn(index);
+            assertTrue(upper >= value, "Batas atas untuk " + value);
+            assertTrue(upper - value <= value / 16, "Error relatif untuk " + value);
+            if (index > 0) {
+                assertTrue(LatencyHistogram.highestValueIn(index - 1) < value, "Bucket sebelumnya untuk " + value);
+            }
+        }
+    }
+
+    // ==========================================
+    // 2. PERCENTILE
+    // ==========================================
+
+    @Test
+    @DisplayName("PERCENTILE: p50/p99/max dari 1..1000 ms mendekati nilai sebenarnya")
+    void testPercentiles() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long ms = 1; ms <= 1000; ms++) {
+            histogram.record(ms * 1_000_000);
+        }
+
+        assertEquals(1000, histogram.getCount());
+        assertEquals(500.5e6, histogram.getMeanNanos(), 1);
+        assertEquals(1_000_000_000L, histogram.getMaxNanos());
+        assertEquals(500e6, histogram.getValueAtPercentile(50), 500e6 / 16);
+        assertEquals(990e6, histogram.getValueAtPercentile(99), 990e6 / 16);
+        assertEquals(1_000_000_000L, histogram.getValueAtPercentile(100), "Tidak melebihi max yang tercatat");
+    }
+
+    @Test
+    @DisplayName("KOSONG & RESET: Histogram kosong mengembalikan 0, nilai negatif dianggap 0")
+    void testEmptyAndReset() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        assertEquals(0, histogram.getValueAtPercentile(99));
+        assertEquals(0.0, histogram.getMeanNanos());
+
+        histogram.record(-5);
+        histogram.record(2_000);
+        assertEquals(0, histogram.getValueAtPercentile(50));
+
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMaxNanos());
+        assertThrows(IllegalArgumentException.class, () -> histogram.getValueAtPercentile(101));
+    }
+}
@@ -0,0 +1,139 @@
+package app.metrics;
+
+import app.repository.MoodRepository;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.Map;
+import javax.management.ObjectName;
+import javax.sql.DataSource;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Test Metrics (Registry, Repository Timer, JMX & Dump File)")
+class MetricsTest {
+
+    @TempDir
+    Path tempDir;
+
+    @BeforeEach
+    void resetGlobal() {
+        Metrics.global().reset();
+    }
+
+    // ==========================================
+    // 1. REGISTRY
+    // ==========================================
+
+    @Test
+    @DisplayName("REGISTRY: Counter, gauge dan timer dengan nama sama memakai objek yang sama")
+    void testRegistry() {
+        Metrics metrics = new Metrics();
+        metrics.counter("a.calls").increment();
+        metrics.counter("a.calls").add(2);
+        metrics.gauge("a.size", () -> 42);
+        metrics.latency("a.load").record(3_000_000);
+
+        assertSame(metrics.counter("a.calls"), metrics.counter("a.calls"));
+        assertEquals(Map.of("a.calls", 3L), metrics.getCounters());
+        assertEquals(Map.of("a.size", 42L), metrics.getGauges());
+        assertEquals(Map.of("a.load", 1L), metrics.getLatencyCounts());
+        assertEquals(3.0, metrics.getLatencyMaxMillis().get("a.load"), 1e-9);
+
+        metrics.reset();
+        assertEquals(0L, metrics.getCounters().get("a.calls"));
+        assertEquals(42L, metrics.getGauges().get("a.size"), "Gauge tidak ikut di-reset");
+    }
+
+    @Test
+    @DisplayName("TIMER: Method repository tercatat per nama method, error dihitung terpisah")
+    void testRepositoryMethodsAreTimed() throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        Connection conn = mock(Connection.class);
+        PreparedStatement stmt = mock(PreparedStatement.class);
+        ResultSet rs = mock(ResultSet.class);
+        when(dataSource.getConnection()).thenReturn(conn);
+        when(conn.prepareStatement(anyString())).thenReturn(stmt);
+        when(stmt.executeQuery()).thenReturn(rs);
+
+        MoodRepository repo = new MoodRepository(dataSource);
+        repo.getMoodByDate(LocalDate.of(2024, 1, 1));
+        repo.getMoodByDate(LocalDate.of(2024, 1, 2));
+
+        when(dataSource.getConnection()).thenThrow(new SQLException("DB down"));
+        repo.getMoodByDate(LocalDate.of(2024, 1, 3));
+
+        Metrics metrics = Metrics.global();
+        assertEquals(3L, metrics.getLatencyCounts().get("MoodRepository.getMoodByDate"));
+        assertEquals(1L, metrics.getCounters().get("MoodRepository.getMoodByDate.errors"));
+    }
+
+    @Test
+    @DisplayName("TIMER: Error dari statement/result set ikut dihitung, satu kali per peminjaman koneksi")
+    void testStatementErrorsAreCounted() throws SQLException {
+        DataSource dataSource = mock(DataSource.class);
+        Connection conn = mock(Connection.class);
+        PreparedStatement stmt = mock(PreparedStatement.class);
+        ResultSet rs = mock(ResultSet.class);
+        when(dataSource.getConnection()).thenReturn(conn);
+        when(conn.prepareStatement(anyString())).thenReturn(stmt);
+        when(stmt.executeQuery()).thenReturn(rs);
+        when(rs.next()).thenThrow(new SQLException("Connection reset"));
+
+        MoodRepository repo = new MoodRepository(dataSource);
+        assertTrue(repo.getMoodsBetween(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 1, 7)).isEmpty());
+
+        Metrics metrics = Metrics.global();
+        assertEquals(1L, metrics.getLatencyCounts().get("MoodRepository.getMoodsBetween"));
+        assertEquals(1L, metrics.getCounters().get("MoodRepository.getMoodsBetween.errors"));
+        verify(conn).close();
+    }
+
+    // ==========================================
+    // 2. JMX & DUMP
+    // ==========================================
+
+    @Test
+    @DisplayName("JMX: MBean terdaftar sekali dan laporan bisa dibaca lewat MBeanServer")
+    void testMBean() throws Exception {
+        Metrics.global().registerMBean();
+        Metrics.global().registerMBean();
+        Metrics.increment("jmx.test");
+
+        ObjectName name = new ObjectName(Metrics.MBEAN_NAME);
+        String report = (String) ManagementFactory.getPlatformMBeanServer().getAttribute(name, "Report");
+        assertTrue(report.contains("jmx.test"));
+    }
+
+    @Test
+    @DisplayName("DUMP: Laporan ditulis utuh ke file, dan sekali lagi saat reporter ditutup")
+    void testReporterDump() throws Exception {
+        Metrics metrics = new Metrics();
+        metrics.latency("MoodRepository.getMoodsBetween").record(12_000_000);
+        Path file = tempDir.resolve("metrics/moodflow.txt");
+
+        try (MetricsReporter reporter = new MetricsReporter(metrics, file, 3600)) {
+            reporter.dump();
+            String content = Files.readString(file, StandardCharsets.UTF_8);
+            assertTrue(content.startsWith("# MoodFlow metrics"));
+            assertTrue(content.contains("MoodRepository.getMoodsBetween"));
+            assertTrue(content.contains("count=1"));
+
+            metrics.counter("after.dump").increment();
+        }
+        assertTrue(Files.readString(file, StandardCharsets.UTF_8).contains("after.dump"));
+        assertFalse(Files.exists(tempDir.resolve("metrics/moodflow.txt.tmp")));
+    }
+}
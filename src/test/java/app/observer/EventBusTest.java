@@ -0,0 +1,87 @@
+package app.observer;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test EventBus (Batch & Coalescing)")
+class EventBusTest {
+
+    // Dispatcher manual: meniru invokeLater, Runnable baru jalan saat run() dipanggil
+    private final Deque<Runnable> queue = new ArrayDeque<>();
+    private final EventBus bus = new EventBus(queue::add);
+    private final List<List<ChangeEvent>> received = new ArrayList<>();
+
+    private void runQueue() {
+        while (!queue.isEmpty()) {
+            queue.poll().run();
+        }
+    }
+
+    @Test
+    @DisplayName("BURST: Sepuluh toggle -> satu batch ke listener")
+    void testBurstIsOneBatch() {
+        bus.subscribe(received::add);
+        LocalDate date = LocalDate.of(2024, 1, 1);
+
+        for (int i = 0; i < 10; i++) {
+            bus.publish(ChangeEvent.habitStatus(i, date, true));
+        }
+        assertEquals(1, queue.size(), "Hanya satu dispatch yang dijadwalkan");
+        runQueue();
+
+        assertEquals(1, received.size());
+        assertEquals(10, received.get(0).size());
+        assertEquals(10, bus.getPublishedCount());
+        assertEquals(1, bus.getBatchCount());
+    }
+
+    @Test
+    @DisplayName("COALESCE: Sel yang sama di-toggle berkali-kali -> hanya nilai terakhir")
+    void testSameKeyCoalesced() {
+        bus.subscribe(received::add);
+        LocalDate date = LocalDate.of(2024, 1, 1);
+
+        bus.publish(ChangeEvent.habitStatus(1, date, true));
+        bus.publish(ChangeEvent.mood(date, 3));
+        bus.publish(ChangeEvent.habitStatus(1, date, false));
+        runQueue();
+
+        List<ChangeEvent> batch = received.get(0);
+        assertEquals(2, batch.size());
+        assertEquals(ChangeEvent.mood(date, 3), batch.get(0));
+        assertEquals(ChangeEvent.habitStatus(1, date, false), batch.get(1));
+    }
+
+    @Test
+    @DisplayName("DIRECT: Tanpa dispatcher, setiap publish langsung terkirim")
+    void testDirectBus() {
+        EventBus direct = EventBus.direct();
+        direct.subscribe(received::add);
+
+        direct.publish(ChangeEvent.habitAdded(1));
+        direct.publishAll(List.of(ChangeEvent.habitDeleted(1), ChangeEvent.habitDeleted(2)));
+
+        assertEquals(2, received.size());
+        assertEquals(2, received.get(1).size());
+    }
+
+    @Test
+    @DisplayName("LISTENER ERROR: Satu listener gagal tidak menghentikan yang lain")
+    void testListenerFailureIsolated() {
+        bus.subscribe(events -> { throw new IllegalStateException("boom"); });
+        bus.subscribe(received::add);
+
+        bus.publish(ChangeEvent.habitAdded(1));
+        runQueue();
+
+        assertEquals(1, received.size());
+    }
+}
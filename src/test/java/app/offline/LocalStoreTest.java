@@ -0,0 +1,230 @@
+package app.offline;
+
+import app.model.AnalysisSnapshot;
+import app.model.Habit;
+import app.model.HabitDay;
+import app.model.SyncChanges;
+import app.model.WeekSnapshot;
+import app.observer.ChangeEvent;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test LocalStore (Journal, Snapshot & Versi per Baris)")
+class LocalStoreTest {
+
+    private static final LocalDate MON = LocalDate.of(2024, 5, 6);
+
+    @TempDir
+    Path dir;
+
+    private static SyncChanges changes(List<SyncChanges.HabitRow> habits, List<SyncChanges.LogRow> logs,
+                                       List<SyncChanges.MoodRow> moods, List<SyncChanges.Tombstone> tombstones) {
+        return new SyncChanges(habits, logs, moods, tombstones);
+    }
+
+    // ==========================================
+    // 1. TULIS LOKAL & PERSISTENSI
+    // ==========================================
+
+    @Test
+    @DisplayName("LOKAL: Tulisan langsung terbaca, habit baru mendapat id lokal negatif")
+    void testLocalWrites() {
+        try (LocalStore store = new LocalStore(dir)) {
+            int lari = store.addHabit("Lari");
+            int baca = store.addHabit("Baca");
+            store.setDone(lari, MON, true);
+            store.setMood(MON.plusDays(1), 4);
+
+            assertEquals(-1, lari);
+            assertEquals(-2, baca);
+            assertEquals(List.of("Lari", "Baca"), store.getHabits().stream().map(Habit::getName).toList());
+            assertTrue(store.isDone(lari, MON));
+            assertEquals(Map.of(MON.plusDays(1), 4), store.getMoods(MON, MON.plusDays(6)));
+
+            WeekSnapshot week = store.weekSnapshot(MON);
+            assertTrue(week.isDone(0, 0));
+            assertFalse(week.isDone(1, 0));
+            assertEquals(4, week.getMoodValue(1));
+            assertEquals(4, store.getPendingCount());
+        }
+    }
+
+    @Test
+    @DisplayName("PERSISTENSI: Journal di-replay saat dibuka lagi, lalu dipadatkan ke snapshot")
+    void testReplayAndCompaction() throws Exception {
+        try (LocalStore store = new LocalStore(dir)) {
+            int lari = store.addHabit("Lari");
+            store.setDone(lari, MON, true);
+            store.setDone(lari, MON, false);
+            store.setDone(lari, MON.plusDays(2), true);
+            store.setMood(MON, 5);
+            store.setMood(MON, 0);
+        }
+
+        try (LocalStore reopened = new LocalStore(dir)) {
+            assertEquals("Lari", reopened.getHabit(-1).getName());
+            assertFalse(reopened.isDone(-1, MON));
+            assertTrue(reopened.isDone(-1, MON.plusDays(2)));
+            assertEquals(0, reopened.getMood(MON));
+            // Hapus mood yang belum terkirim tetap pending, supaya ikut dihapus di server
+            assertEquals(Map.of(MON, 0), reopened.pendingChanges().moods());
+            assertEquals(-2, reopened.addHabit("Baca"), "Id lokal tidak dipakai ulang");
+        }
+        // Saat dibuka journal dipadatkan: tinggal header generasi baru + tulisan sesudahnya
+        assertEquals(2, Files.readAllLines(dir.resolve(LocalStore.JOURNAL_FILE)).size());
+    }
+
+    @Test
+    @DisplayName("PERSISTENSI: clientKey habit lokal tetap sama setelah dibuka lagi, berbeda per habit & per store")
+    void testClientKeyStable() throws Exception {
+        UUID lari;
+        try (LocalStore store = new LocalStore(dir)) {
+            lari = store.clientKey(store.addHabit("Lari"));
+            assertNotEquals(lari, store.clientKey(-2));
+        }
+        try (LocalStore reopened = new LocalStore(dir)) {
+            assertEquals(lari, reopened.clientKey(-1));
+        }
+        try (LocalStore other = new LocalStore(dir.resolve("lain"))) {
+            assertNotEquals(lari, other.clientKey(-1));
+        }
+    }
+
+    @Test
+    @DisplayName("CRASH: Journal generasi lama (sudah masuk snapshot) diabaikan")
+    void testStaleJournalIgnored() throws Exception {
+        try (LocalStore store = new LocalStore(dir)) {
+            store.setMood(MON, 3);
+        }
+        new LocalStore(dir).close(); // snapshot generasi 2 berisi mood di atas
+        // Simulasi crash setelah snapshot di-rename tapi sebelum journal dikosongkan
+        Files.writeString(dir.resolve(LocalStore.JOURNAL_FILE), "G\t1\nM\t" + MON + "\t1\t0\t9\n");
+
+        try (LocalStore reopened = new LocalStore(dir)) {
+            assertEquals(3, reopened.getMood(MON));
+        }
+    }
+
+    // ==========================================
+    // 2. SINKRONISASI
+    // ==========================================
+
+    @Test
+    @DisplayName("PUSH: Id lokal diganti id server (termasuk log), perubahan setelah pengambilan tetap pending")
+    void testHabitCreatedAndMarkSynced() {
+        try (LocalStore store = new LocalStore(dir)) {
+            int lari = store.addHabit("Lari");
+            store.setDone(lari, MON, true);
+
+            LocalStore.PendingChanges pending = store.pendingChanges();
+            assertEquals(Map.of(lari, "Lari"), pending.newHabits());
+            assertTrue(pending.logs().isEmpty(), "Log habit lokal menunggu id server");
+
+            store.habitCreated(lari, 42, pending.stamp());
+            assertNull(store.getHabit(99));
+            assertEquals(42, store.getHabit(lari).getId(), "Id lokal lama tetap dikenali");
+
+            pending = store.pendingChanges();
+            assertEquals(Map.of(new HabitDay(42, MON), true), pending.logs());
+            store.setMood(MON, 2); // terjadi saat push berjalan
+            store.markSynced(pending);
+
+            assertEquals(Set.of(MON), store.pendingChanges().moods().keySet());
+            assertEquals(1, store.getPendingCount());
+        }
+    }
+
+    @Test
+    @DisplayName("PULL: Baris server diterapkan jika versinya lebih baru dan tidak ada perubahan lokal pending")
+    void testApplyRemote() {
+        try (LocalStore store = new LocalStore(dir)) {
+            List<ChangeEvent> events = store.applyRemote(changes(
+                    List.of(new SyncChanges.HabitRow(7, "Lari", 10)),
+                    List.of(new SyncChanges.LogRow(7, MON, 11)),
+                    List.of(new SyncChanges.MoodRow(MON, 3, 12), new SyncChanges.MoodRow(MON.plusDays(1), 4, 13)),
+                    List.of()));
+            assertEquals(4, events.size());
+            assertEquals(13, store.getLastPulledVersion());
+
+            store.setMood(MON, 5); // lokal, belum terkirim
+            events = store.applyRemote(changes(List.of(), List.of(),
+                    List.of(new SyncChanges.MoodRow(MON, 1, 20), new SyncChanges.MoodRow(MON.plusDays(1), 2, 21)),
+                    List.of(new SyncChanges.Tombstone("habit_logs", "7:" + MON, 22))));
+
+            assertEquals(5, store.getMood(MON), "Perubahan lokal pending menang");
+            assertEquals(2, store.getMood(MON.plusDays(1)));
+            assertFalse(store.isDone(7, MON));
+            assertEquals(List.of(ChangeEvent.habitStatus(7, MON, false), ChangeEvent.mood(MON.plusDays(1), 2)), events);
+
+            // Pull ulang (overlap) dengan versi lama tidak mengubah apa pun
+            events = store.applyRemote(changes(List.of(), List.of(),
+                    List.of(new SyncChanges.MoodRow(MON.plusDays(1), 4, 13)), List.of()));
+            assertTrue(events.isEmpty());
+            assertEquals(2, store.getMood(MON.plusDays(1)));
+        }
+    }
+
+    @Test
+    @DisplayName("TOMBSTONE: Habit yang dihapus di server dibuang beserta log-nya, termasuk yang pending")
+    void testHabitTombstone() {
+        try (LocalStore store = new LocalStore(dir)) {
+            store.applyRemote(changes(List.of(new SyncChanges.HabitRow(7, "Lari", 10)), List.of(), List.of(), List.of()));
+            store.setDone(7, MON, true);
+
+            List<ChangeEvent> events = store.applyRemote(changes(List.of(), List.of(), List.of(),
+                    List.of(new SyncChanges.Tombstone("habits", "7", 11))));
+
+            assertEquals(List.of(ChangeEvent.habitDeleted(7)), events);
+            assertTrue(store.getHabits().isEmpty());
+            assertFalse(store.isDone(7, MON));
+            assertTrue(store.pendingChanges().isEmpty());
+        }
+    }
+
+    // ==========================================
+    // 3. ANALISIS OFFLINE
+    // ==========================================
+
+    @Test
+    @DisplayName("ANALISIS: Snapshot analisis dibangun dari store lokal, habit & mood terhapus tidak ikut")
+    void testAnalysisSnapshot() {
+        try (LocalStore store = new LocalStore(dir)) {
+            int lari = store.addHabit("Lari");
+            int baca = store.addHabit("Baca");
+            int hapus = store.addHabit("Hapus");
+            store.setDone(lari, MON, true);
+            store.setDone(lari, MON.plusDays(1), true);
+            store.setDone(lari, MON.plusDays(1), false);
+            store.setDone(baca, MON.plusDays(2), true);
+            store.setDone(baca, MON.plusDays(9), true); // di luar rentang
+            store.setDone(hapus, MON, true);
+            store.deleteHabit(hapus);
+            store.setMood(MON, 5);
+            store.setMood(MON.plusDays(2), 1);
+            store.setMood(MON.plusDays(3), 4);
+            store.setMood(MON.plusDays(3), 0);
+
+            AnalysisSnapshot data = store.analysisSnapshot(MON, MON.plusDays(6));
+
+            assertEquals(7, data.getDays());
+            assertEquals(2, data.getHabitCount());
+            assertEquals("Lari", data.getHabitName(data.indexOfHabit(lari)));
+            assertEquals(1, data.countDone(data.indexOfHabit(lari), MON, MON.plusDays(6)));
+            assertEquals(1, data.countDone(data.indexOfHabit(baca), MON, MON.plusDays(6)));
+            assertEquals(List.of(5, 0, 1, 0), List.of(data.getMood(0), data.getMood(1), data.getMood(2), data.getMood(3)));
+            assertEquals(List.of("Lari"), data.getHabitsByMood(true, 3));
+            assertEquals(List.of("Baca"), data.getHabitsByMood(false, 3));
+        }
+    }
+}
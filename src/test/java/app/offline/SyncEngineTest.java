@@ -0,0 +1,172 @@
+package app.offline;
+
+import app.model.Habit;
+import app.model.HabitDay;
+import app.model.SyncChanges;
+import app.observer.ChangeEvent;
+import app.repository.HabitRepository;
+import app.repository.MoodRepository;
+import app.repository.SyncRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyMap;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Test SyncEngine (Push, Pull & Offline)")
+class SyncEngineTest {
+
+    private static final LocalDate MON = LocalDate.of(2024, 5, 6);
+    private static final SyncChanges NO_CHANGES = new SyncChanges(List.of(), List.of(), List.of(), List.of());
+
+    @TempDir
+    Path dir;
+
+    private LocalStore store;
+    private SyncRepository remote;
+    private HabitRepository habits;
+    private MoodRepository moods;
+    private SyncEngine engine;
+    private final List<ChangeEvent> received = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        store = new LocalStore(dir);
+        remote = mock(SyncRepository.class);
+        habits = mock(HabitRepository.class);
+        moods = mock(MoodRepository.class);
+        when(habits.setHabitStatuses(anyMap())).thenReturn(true);
+        when(habits.deleteHabit(anyInt())).thenReturn(true);
+        when(moods.upsertMoods(anyMap())).thenReturn(true);
+        when(remote.pullChanges(anyLong())).thenReturn(NO_CHANGES);
+
+        engine = new SyncEngine(store, remote, habits, moods, 60_000);
+        engine.setRemoteChangeListener(received::addAll);
+    }
+
+    @AfterEach
+    void tearDown() {
+        engine.close();
+        store.close();
+    }
+
+    // ==========================================
+    // 1. PUSH
+    // ==========================================
+
+    @Test
+    @DisplayName("PUSH: Habit baru dibuat dulu, log-nya dikirim dengan id server")
+    void testPushNewHabitThenLogs() {
+        doAnswer(invocation -> {
+            invocation.<Habit>getArgument(0).setId(42);
+            return true;
+        }).when(habits).createHabit(any(Habit.class), any(UUID.class));
+        int local = store.addHabit("Lari");
+        store.setDone(local, MON, true);
+        store.setMood(MON, 4);
+
+        assertTrue(engine.syncOnce());
+
+        verify(habits).setHabitStatuses(Map.of(new HabitDay(42, MON), true));
+        verify(moods).upsertMoods(Map.of(MON, 4));
+        assertEquals(List.of(ChangeEvent.habitDeleted(local), ChangeEvent.habitAdded(42)), received);
+        assertEquals(0, store.getPendingCount());
+        assertEquals(42, store.getHabits().get(0).getId());
+        assertTrue(engine.isOnline());
+    }
+
+    @Test
+    @DisplayName("PUSH: Habit dihapus lokal saat create-nya sedang terkirim -> dihapus di server, tidak muncul lagi")
+    void testDeleteWhileCreatePushed() {
+        int local = store.addHabit("Lari");
+        doAnswer(invocation -> {
+            invocation.<Habit>getArgument(0).setId(42);
+            store.deleteHabit(local); // terjadi di UI selama INSERT berjalan
+            return true;
+        }).when(habits).createHabit(any(Habit.class), any(UUID.class));
+        when(remote.pullChanges(anyLong())).thenReturn(new SyncChanges(List.of(), List.of(), List.of(),
+                List.of(new SyncChanges.Tombstone("habits", "42", 50))));
+
+        assertTrue(engine.syncOnce());
+
+        verify(habits).deleteHabit(42);
+        assertTrue(store.getHabits().isEmpty());
+        assertNull(store.getHabit(local));
+        assertEquals(0, store.getPendingCount());
+
+        // Pull berikutnya (overlap) tidak memunculkan habit lagi, create tidak diulang
+        assertTrue(engine.syncOnce());
+        assertTrue(store.getHabits().isEmpty());
+        verify(habits, times(1)).createHabit(any(Habit.class), any(UUID.class));
+    }
+
+    @Test
+    @DisplayName("PUSH: Create habit diulang dengan clientKey yang sama setelah balasan hilang")
+    void testCreateRetriedWithSameKey() {
+        int local = store.addHabit("Lari");
+        when(habits.createHabit(any(Habit.class), any(UUID.class)))
+                .thenReturn(false) // INSERT sudah commit di server, tapi balasannya hilang
+                .thenAnswer(invocation -> {
+                    invocation.<Habit>getArgument(0).setId(42);
+                    return true;
+                });
+
+        assertFalse(engine.syncOnce());
+        assertTrue(engine.syncOnce());
+
+        verify(habits, times(2)).createHabit(any(Habit.class), eq(store.clientKey(local)));
+        assertEquals(42, store.getHabit(local).getId());
+    }
+
+    @Test
+    @DisplayName("OFFLINE: Push & pull gagal, tulisan lokal tetap pending dan terkirim di putaran berikutnya")
+    void testOfflineKeepsPendingChanges() {
+        when(moods.upsertMoods(anyMap())).thenReturn(false);
+        when(remote.pullChanges(anyLong())).thenReturn(null);
+        store.setMood(MON, 2);
+
+        assertFalse(engine.syncOnce());
+        assertFalse(engine.isOnline());
+        assertEquals(2, store.getMood(MON), "Data lokal tetap terbaca saat offline");
+        assertEquals(1, store.getPendingCount());
+
+        when(moods.upsertMoods(anyMap())).thenReturn(true);
+        when(remote.pullChanges(anyLong())).thenReturn(NO_CHANGES);
+        assertTrue(engine.syncOnce());
+        assertEquals(0, store.getPendingCount());
+        verify(moods, times(2)).upsertMoods(Map.of(MON, 2));
+    }
+
+    // ==========================================
+    // 2. PULL
+    // ==========================================
+
+    @Test
+    @DisplayName("PULL: Mulai dari versi terakhir dikurangi overlap, perubahan server diteruskan ke listener")
+    void testPullFromLastVersion() {
+        when(remote.pullChanges(0)).thenReturn(new SyncChanges(List.of(), List.of(),
+                List.of(new SyncChanges.MoodRow(MON, 5, 5000)), List.of()));
+
+        assertTrue(engine.syncOnce());
+        assertEquals(List.of(ChangeEvent.mood(MON, 5)), received);
+        assertEquals(5, store.getMood(MON));
+
+        assertTrue(engine.syncOnce());
+        verify(remote).pullChanges(5000 - SyncEngine.PULL_OVERLAP);
+        verify(habits, never()).setHabitStatuses(anyMap());
+    }
+}
@@ -0,0 +1,84 @@
+package app.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+// Import Java Utilities
+import java.sql.Array;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import javax.sql.DataSource;
+
+// Import JUnit & Mockito Static
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Test AnalysisRepository (Query Set-Based)")
+class AnalysisRepositoryTest {
+
+    private Connection conn;
+    private PreparedStatement stmt;
+    private Array array;
+    private final List<String> preparedSql = new ArrayList<>();
+    private AnalysisRepository repository;
+
+    @BeforeEach
+    void setUp() throws SQLException {
+        conn = mock(Connection.class);
+        stmt = mock(PreparedStatement.class);
+        array = mock(Array.class);
+        ResultSet rs = mock(ResultSet.class);
+        when(rs.next()).thenReturn(true);
+        when(rs.getDouble(1)).thenReturn(3.5);
+        when(stmt.executeQuery()).thenReturn(rs);
+        when(conn.prepareStatement(anyString())).thenAnswer(inv -> {
+            preparedSql.add(inv.getArgument(0));
+            return stmt;
+        });
+        when(conn.createArrayOf(eq("date"), any())).thenReturn(array);
+
+        DataSource dataSource = mock(DataSource.class);
+        when(dataSource.getConnection()).thenReturn(conn);
+        repository = new AnalysisRepository(dataSource);
+    }
+
+    private static List<LocalDate> days(int count) {
+        List<LocalDate> dates = new ArrayList<>();
+        LocalDate start = LocalDate.of(2015, 1, 1);
+        for (int i = 0; i < count; i++) {
+            dates.add(start.plusDays(i));
+        }
+        return dates;
+    }
+
+    @Test
+    @DisplayName("RATA-RATA MOOD: Teks SQL sama untuk 1 maupun 40.000 tanggal, satu parameter array")
+    void testAverageMoodUsesStableArrayQuery() throws SQLException {
+        assertEquals(3.5, repository.getAverageMoodForDates(days(1)));
+        assertEquals(3.5, repository.getAverageMoodForDates(days(40_000)));
+
+        assertEquals(2, preparedSql.size());
+        assertEquals(preparedSql.get(0), preparedSql.get(1));
+        assertTrue(preparedSql.get(0).contains("= ANY(?)"));
+        verify(stmt, times(2)).setArray(1, array);
+        verify(stmt, never()).setDate(anyInt(), any());
+        verify(array, times(2)).free();
+    }
+
+    @Test
+    @DisplayName("RATA-RATA MOOD: Daftar kosong tidak menyentuh database")
+    void testAverageMoodEmptyList() throws SQLException {
+        assertEquals(0.0, repository.getAverageMoodForDates(List.of()));
+        verify(conn, never()).prepareStatement(anyString());
+    }
+}
@@ -0,0 +1,196 @@
+package app.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+// Import Package Aplikasi
+import app.model.AnalysisSnapshot;
+import app.repository.AnalysisRepository;
+
+// Import Java Utilities
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+// Import JUnit & Mockito Static
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.*;
+
+@DisplayName("Test AnalysisService (Snapshot Sekali Muat)")
+class AnalysisServiceTest {
+
+    private AnalysisRepository repoMock;
+    private AnalysisService service;
+
+    private final LocalDate end = LocalDate.now();
+    private final LocalDate start = end.minusWeeks(1);
+
+    @BeforeEach
+    void setUp() {
+        repoMock = mock(AnalysisRepository.class);
+        service = new AnalysisService(repoMock);
+    }
+
+    // 8 hari: mood tinggi di hari 1 & 2, rendah di hari 5
+    private AnalysisSnapshot sampleSnapshot() {
+        BitSet lari = new BitSet();
+        lari.set(1);
+        lari.set(2);
+        BitSet baca = new BitSet();
+        baca.set(2);
+        baca.set(5);
+        int[] mood = {0, 5, 4, 3, 0, 1, 0, 0};
+        return new AnalysisSnapshot(start, 8,
+                new int[] {1, 2},
+                new String[] {"Lari", "Baca"},
+                new BitSet[] {lari, baca},
+                mood);
+    }
+
+    @Test
+    @DisplayName("SINGLE PASS: Satu kali load snapshot untuk semua analyzer")
+    void testSingleSnapshotLoad() {
+        when(repoMock.loadAnalysisSnapshot(start, end)).thenReturn(sampleSnapshot());
+
+        // EKSEKUSI
+        List<String> analyses = service.getSevenRandomAnalyses();
+
+        // VERIFIKASI: tidak ada query per-analyzer lagi
+        assertFalse(analyses.isEmpty());
+        verify(repoMock, times(1)).loadAnalysisSnapshot(start, end);
+        verify(repoMock, never()).getHabitsByMood(anyBoolean(), anyInt(), any(), any());
+        verify(repoMock, never()).getAverageMoodByDayOfWeek(any(), any());
+        verify(repoMock, never()).countHabitLogs(anyInt(), any(), any());
+    }
+
+    @Test
+    @DisplayName("SNAPSHOT: Perhitungan sama dengan query SQL lama")
+    void testSnapshotAggregates() {
+        AnalysisSnapshot data = sampleSnapshot();
+
+        // Mood > 3 di hari 1 & 2: Lari 2x, Baca 1x
+        assertEquals(List.of("Lari", "Baca"), data.getHabitsByMood(true, 3));
+        assertEquals(List.of("Lari"), data.getHabitsByMood(true, 1));
+        // Mood < 3 hanya hari 5
+        assertEquals(List.of("Baca"), data.getHabitsByMood(false, 3));
+
+        // 7 hari terakhir = hari 1..7
+        assertEquals(2, data.countDone(0, end.minusDays(6), end));
+        assertEquals(1, data.countDone(1, end.minusDays(2), end));
+
+        Map<DayOfWeek, Double> byDay = data.getAverageMoodByDayOfWeek();
+        assertEquals(4, byDay.size());
+        assertEquals(5.0, byDay.get(start.plusDays(1).getDayOfWeek()));
+    }
+
+    @Test
+    @DisplayName("DATA KOSONG: Tidak ada habit & mood -> tidak ada analisis, tidak error")
+    void testEmptySnapshot() {
+        when(repoMock.loadAnalysisSnapshot(start, end)).thenReturn(
+                new AnalysisSnapshot(start, 8, new int[0], new String[0], new BitSet[0], new int[8]));
+
+        assertTrue(service.getSevenRandomAnalyses().isEmpty());
+    }
+
+    // ==========================================
+    // DEADLINE LOAD SNAPSHOT
+    // ==========================================
+
+    @Test
+    @DisplayName("TIMEOUT: Load snapshot lambat -> placeholder untuk semua analyzer, tanpa menunggu query")
+    void testAnalyzerTimeout() {
+        AnalysisService fastDeadline = new AnalysisService(repoMock, 50);
+        when(repoMock.loadAnalysisSnapshot(start, end)).thenAnswer(inv -> {
+            Thread.sleep(500);
+            return sampleSnapshot();
+        });
+
+        long startNanos = System.nanoTime();
+        List<String> analyses = fastDeadline.getSevenRandomAnalyses();
+        long elapsedMillis = (System.nanoTime() - startNanos) / 1_000_000;
+
+        assertTrue(elapsedMillis < 400, "Harus kembali sebelum query selesai, butuh " + elapsedMillis + " ms");
+        assertEquals(7, analyses.size());
+        assertTrue(analyses.stream().allMatch(a -> a.startsWith(AnalysisService.PLACEHOLDER_PREFIX)));
+
+        Map<String, AnalyzerStats> stats = fastDeadline.getAnalyzerStats();
+        assertEquals(7, stats.size());
+        stats.values().forEach(s -> assertEquals(1, s.getTimeouts()));
+    }
+
+    @Test
+    @DisplayName("STATISTIK: Setiap analyzer tercatat satu kali jalan tanpa timeout")
+    void testAnalyzerStats() {
+        when(repoMock.loadAnalysisSnapshot(start, end)).thenReturn(sampleSnapshot());
+
+        List<String> analyses = service.getSevenRandomAnalyses();
+
+        assertTrue(analyses.stream().noneMatch(a -> a.startsWith(AnalysisService.PLACEHOLDER_PREFIX)));
+        for (AnalyzerStats s : service.getAnalyzerStats().values()) {
+            assertEquals(1, s.getRuns());
+            assertEquals(0, s.getTimeouts());
+            assertEquals(0, s.getFailures());
+        }
+    }
+
+    // ==========================================
+    // HABIT SAMPLER (PENGGANTI ORDER BY RANDOM())
+    // ==========================================
+
+    @Test
+    @DisplayName("SAMPLER: Dua undian selalu habit berbeda")
+    void testSamplerDistinct() {
+        HabitSampler sampler = new HabitSampler();
+        sampler.refresh(sampleSnapshot());
+        Random random = new Random(42);
+
+        for (int i = 0; i < 100; i++) {
+            int[] picks = sampler.sampleDistinct(2, random);
+            assertEquals(2, picks.length);
+            assertNotEquals(picks[0], picks[1]);
+        }
+        // Minta lebih banyak dari jumlah habit -> dibatasi jumlah habit
+        assertEquals(2, sampler.sampleDistinct(5, random).length);
+    }
+
+    @Test
+    @DisplayName("SAMPLER: Bobot mengikuti aktivitas terbaru")
+    void testSamplerWeighted() {
+        BitSet aktif = new BitSet();
+        aktif.set(1, 8); // 7 hari terakhir -> bobot 8
+        AnalysisSnapshot data = new AnalysisSnapshot(start, 8,
+                new int[] {1, 2}, new String[] {"Aktif", "Jarang"},
+                new BitSet[] {aktif, new BitSet()}, new int[8]);
+        HabitSampler sampler = new HabitSampler();
+        sampler.refresh(data);
+
+        Random random = new Random(7);
+        int aktifCount = 0;
+        for (int i = 0; i < 9000; i++) {
+            if (sampler.sample(random) == 1) aktifCount++;
+        }
+        // Harapan 8/9 = 8000
+        assertTrue(aktifCount > 7600 && aktifCount < 8400, "aktifCount=" + aktifCount);
+    }
+
+    @Test
+    @DisplayName("SAMPLER: Event perubahan habit menandai sampler untuk diisi ulang")
+    void testSamplerRefreshOnChange() {
+        HabitSampler sampler = service.getHabitSampler();
+        when(repoMock.loadAnalysisSnapshot(start, end)).thenReturn(sampleSnapshot());
+
+        service.getSevenRandomAnalyses();
+        assertFalse(sampler.isStale());
+        assertEquals(2, sampler.size());
+
+        sampler.onDataChanged();
+        assertTrue(sampler.isStale());
+        service.getSevenRandomAnalyses();
+        assertFalse(sampler.isStale());
+    }
+}
@@ -0,0 +1,68 @@
+package app.service;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test Downsampler (LTTB)")
+class DownsamplerTest {
+
+    private static double[] range(int n) {
+        double[] x = new double[n];
+        for (int i = 0; i < n; i++) {
+            x[i] = i;
+        }
+        return x;
+    }
+
+    @Test
+    @DisplayName("KECIL: Deret yang sudah muat dikembalikan utuh")
+    void testShortSeriesUnchanged() {
+        assertArrayEquals(new int[] {0, 1, 2, 3}, Downsampler.lttb(range(4), new double[] {1, 5, 2, 4}, 10));
+        assertArrayEquals(new int[] {0, 2}, Downsampler.lttb(range(3), new double[] {1, 5, 2}, 2));
+    }
+
+    @Test
+    @DisplayName("UKURAN: Tepat threshold titik, terurut, termasuk titik pertama & terakhir")
+    void testThresholdAndOrdering() {
+        int n = 1000;
+        double[] y = new double[n];
+        for (int i = 0; i < n; i++) {
+            y[i] = 3 + 2 * Math.sin(i / 20.0);
+        }
+
+        int[] kept = Downsampler.lttb(range(n), y, 50);
+
+        assertEquals(50, kept.length);
+        assertEquals(0, kept[0]);
+        assertEquals(n - 1, kept[kept.length - 1]);
+        for (int i = 1; i < kept.length; i++) {
+            assertTrue(kept[i] > kept[i - 1], "Indeks harus naik");
+        }
+    }
+
+    @Test
+    @DisplayName("BENTUK: Puncak tunggal tetap terpilih (tidak hilang seperti pada rata-rata)")
+    void testKeepsSpike() {
+        int n = 365;
+        double[] y = new double[n];
+        Arrays.fill(y, 3);
+        y[200] = 5;
+        y[100] = 1;
+
+        int[] kept = Downsampler.lttb(range(n), y, 20);
+
+        assertTrue(Arrays.stream(kept).anyMatch(i -> i == 200), "Puncak hilang");
+        assertTrue(Arrays.stream(kept).anyMatch(i -> i == 100), "Lembah hilang");
+    }
+
+    @Test
+    @DisplayName("VALIDASI: Panjang x dan y harus sama")
+    void testMismatchedLengths() {
+        double[] x = range(5);
+        double[] y = new double[4];
+        assertThrows(IllegalArgumentException.class, () -> Downsampler.lttb(x, y, 3));
+    }
+}
@@ -0,0 +1,125 @@
+package app.service;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+// Import Package Aplikasi
+import app.model.AnalysisHabitMood;
+import app.model.AnalysisSnapshot;
+
+// Import Java Utilities
+import java.time.LocalDate;
+import java.util.BitSet;
+import java.util.List;
+import java.util.Random;
+
+// Import JUnit Static
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test HabitImpactEngine (Dampak Habit, Lag, Sampel)")
+class HabitImpactEngineTest {
+
+    private static final LocalDate START = LocalDate.of(2024, 1, 1);
+
+    private static BitSet bits(int... days) {
+        BitSet set = new BitSet();
+        for (int d : days) set.set(d);
+        return set;
+    }
+
+    // 6 hari. "Lari" di hari 0,1,2 (mood 5,5,4), tidak di hari 3,4,5 (mood 2,2,3).
+    // "Begadang" di hari 2 & 3: mood keesokan harinya 2 & 2.
+    private static AnalysisSnapshot sample() {
+        return new AnalysisSnapshot(START, 6, new int[] {1, 2}, new String[] {"Lari", "Begadang"},
+                new BitSet[] {bits(0, 1, 2), bits(2, 3)}, new int[] {5, 5, 4, 2, 2, 3});
+    }
+
+    @Test
+    @DisplayName("DAMPAK: Selisih rata-rata mood hari done vs tidak done, plus ukuran sampel")
+    void testImpactAndSampleSizes() {
+        List<AnalysisHabitMood> impacts = HabitImpactEngine.compute(sample(), 0);
+
+        AnalysisHabitMood lari = impacts.get(0);
+        assertEquals("Lari", lari.getHabitName());
+        assertEquals(1, lari.getHabitId());
+        assertEquals(14.0 / 3 - 7.0 / 3, lari.getMoodImpact(), 1e-9);
+        assertEquals(3, lari.getDaysDone());
+        assertEquals(3, lari.getDaysNotDone());
+        assertEquals(6, lari.getSampleSize());
+        assertTrue(lari.getConfidence() > 0.95, "Perbedaan besar & konsisten -> yakin");
+
+        AnalysisHabitMood begadang = impacts.get(1);
+        assertEquals(3.0 - 15.0 / 4, begadang.getMoodImpact(), 1e-9);
+    }
+
+    @Test
+    @DisplayName("LAG: Habit kemarin dibandingkan dengan mood hari ini")
+    void testLag() {
+        List<AnalysisHabitMood> impacts = HabitImpactEngine.compute(sample(), 1);
+
+        // Pasangan (t, t+1) untuk t = 0..4; begadang di t=2,3 -> mood 2 & 2, sisanya 5, 4, 3
+        AnalysisHabitMood begadang = impacts.stream()
+                .filter(i -> i.getHabitName().equals("Begadang")).findFirst().orElseThrow();
+        assertEquals(2.0 - 4.0, begadang.getMoodImpact(), 1e-9);
+        assertEquals(2, begadang.getDaysDone());
+        assertEquals(3, begadang.getDaysNotDone());
+        assertEquals(1, begadang.getLagDays());
+        assertThrows(IllegalArgumentException.class, () -> HabitImpactEngine.compute(sample(), -1));
+    }
+
+    @Test
+    @DisplayName("DATA KURANG: Hari tanpa mood diabaikan, habit tanpa pembanding tidak dikembalikan")
+    void testSkipsHabitsWithoutComparison() {
+        AnalysisSnapshot data = new AnalysisSnapshot(START, 4, new int[] {1, 2}, new String[] {"Selalu", "Jarang"},
+                new BitSet[] {bits(0, 1, 2, 3), bits(3)}, new int[] {4, 0, 3, 5});
+
+        List<AnalysisHabitMood> impacts = HabitImpactEngine.compute(data, 0);
+
+        assertEquals(1, impacts.size());
+        AnalysisHabitMood jarang = impacts.get(0);
+        assertEquals("Jarang", jarang.getHabitName());
+        assertEquals(5 - 3.5, jarang.getMoodImpact(), 1e-9);
+        assertEquals(2, jarang.getDaysNotDone());
+        assertEquals(0.0, jarang.getConfidence(), "Satu hari done belum cukup untuk yakin");
+    }
+
+    @Test
+    @DisplayName("SKALA: 2.000 habit x 5 tahun dihitung cepat & konsisten dengan hitungan naif")
+    void testScalesToLargeSnapshots() {
+        int days = 5 * 365;
+        int habits = 2000;
+        Random random = new Random(42);
+        int[] moods = new int[days];
+        for (int d = 0; d < days; d++) moods[d] = random.nextInt(6);
+        int[] ids = new int[habits];
+        String[] names = new String[habits];
+        BitSet[] done = new BitSet[habits];
+        for (int h = 0; h < habits; h++) {
+            ids[h] = h + 1;
+            names[h] = "H" + h;
+            done[h] = new BitSet(days);
+            for (int d = 0; d < days; d++) if (random.nextInt(3) == 0) done[h].set(d);
+        }
+        AnalysisSnapshot data = new AnalysisSnapshot(START, days, ids, names, done, moods);
+
+        long start = System.nanoTime();
+        List<AnalysisHabitMood> impacts = HabitImpactEngine.compute(data, 1);
+        long millis = (System.nanoTime() - start) / 1_000_000;
+
+        assertEquals(habits, impacts.size());
+        assertTrue(millis < 2000, "Terlalu lambat: " + millis + " ms");
+
+        // Cek satu habit dengan hitungan langsung
+        AnalysisHabitMood first = impacts.stream().filter(i -> i.getHabitId() == 1).findFirst().orElseThrow();
+        double doneSum = 0, otherSum = 0;
+        int doneCount = 0, otherCount = 0;
+        for (int t = 0; t + 1 < days; t++) {
+            int mood = moods[t + 1];
+            if (mood == 0) continue;
+            if (done[0].get(t)) { doneSum += mood; doneCount++; } else { otherSum += mood; otherCount++; }
+        }
+        assertEquals(doneSum / doneCount - otherSum / otherCount, first.getMoodImpact(), 1e-9);
+        assertEquals(doneCount, first.getDaysDone());
+        assertEquals(otherCount, first.getDaysNotDone());
+    }
+}
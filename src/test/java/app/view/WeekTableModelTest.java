@@ -0,0 +1,107 @@
+package app.view;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import app.model.Habit;
+import app.model.WeekSnapshot;
+
+import javax.swing.event.TableModelEvent;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@DisplayName("Test WeekTableModel (Event Per Sel/Baris)")
+class WeekTableModelTest {
+
+    private final LocalDate weekStart = LocalDate.of(2024, 1, 7);
+    private WeekTableModel model;
+    private final List<TableModelEvent> events = new ArrayList<>();
+
+    private WeekSnapshot snapshot(List<Habit> habits, int doneDay) {
+        BitSet[] bits = new BitSet[habits.size()];
+        for (int i = 0; i < bits.length; i++) {
+            bits[i] = new BitSet();
+            if (doneDay >= 0) bits[i].set(doneDay);
+        }
+        return new WeekSnapshot(weekStart, habits, bits, new int[7]);
+    }
+
+    @BeforeEach
+    void setUp() {
+        model = new WeekTableModel(weekStart);
+        model.setSnapshot(snapshot(List.of(new Habit(1, "Lari"), new Habit(2, "Baca")), -1));
+        model.addTableModelListener(events::add);
+    }
+
+    @Test
+    @DisplayName("SEL: Satu checkbox berubah -> satu event sel, bukan rebuild")
+    void testSingleCellUpdate() {
+        assertTrue(model.setHabitStatus(2, weekStart.plusDays(3), true));
+
+        assertEquals(1, events.size());
+        TableModelEvent e = events.get(0);
+        assertEquals(TableModelEvent.UPDATE, e.getType());
+        assertEquals(1, e.getFirstRow());
+        assertEquals(WeekTableModel.COL_FIRST_DAY + 3, e.getColumn());
+        assertEquals(Boolean.TRUE, model.getValueAt(1, WeekTableModel.COL_FIRST_DAY + 3));
+
+        // Habit tidak dikenal -> caller harus reload
+        assertFalse(model.setHabitStatus(99, weekStart, true));
+    }
+
+    @Test
+    @DisplayName("SNAPSHOT: Hanya sel yang berbeda yang di-fire")
+    void testSnapshotDiff() {
+        model.setSnapshot(snapshot(List.of(new Habit(1, "Lari"), new Habit(2, "Baca")), 0));
+
+        assertEquals(2, events.size());
+        assertTrue(events.stream().allMatch(e -> e.getColumn() == WeekTableModel.COL_FIRST_DAY));
+    }
+
+    @Test
+    @DisplayName("BARIS: Habit baru & terhapus -> event insert/delete per baris")
+    void testRowInsertDelete() {
+        model.setSnapshot(snapshot(List.of(new Habit(2, "Baca"), new Habit(3, "Tidur")), -1));
+
+        assertEquals(TableModelEvent.DELETE, events.get(0).getType());
+        assertEquals(0, events.get(0).getFirstRow());
+        assertEquals(TableModelEvent.INSERT, events.get(1).getType());
+        assertEquals(1, events.get(1).getFirstRow());
+        assertTrue(events.stream().noneMatch(e -> e.getFirstRow() == TableModelEvent.HEADER_ROW));
+
+        assertEquals(3, model.getRowCount()); // 2 habit + baris mood
+        assertEquals("Baca", model.getValueAt(0, WeekTableModel.COL_NAME));
+        assertEquals(1, model.getValueAt(0, WeekTableModel.COL_NO));
+        assertEquals("Daily Mood", model.getValueAt(2, WeekTableModel.COL_NAME));
+    }
+
+    @Test
+    @DisplayName("EDITOR: Perubahan dari user diteruskan ke EditListener")
+    void testEditListener() {
+        List<String> calls = new ArrayList<>();
+        model.setEditListener(new WeekTableModel.EditListener() {
+            @Override
+            public void habitToggled(Habit habit, LocalDate date, boolean done) {
+                calls.add(habit.getName() + " " + date + " " + done);
+            }
+
+            @Override
+            public void moodSelected(LocalDate date, int moodValue) {
+                calls.add("mood " + date + " " + moodValue);
+            }
+        });
+
+        model.setValueAt(true, 0, WeekTableModel.COL_FIRST_DAY + 1);
+        model.setValueAt(WeekTableModel.MOOD_OPTIONS[4], model.getMoodRow(), WeekTableModel.COL_FIRST_DAY);
+        // Update dari event tidak memanggil listener
+        model.setMood(weekStart.plusDays(2), 5);
+
+        assertEquals(List.of("Lari 2024-01-08 true", "mood 2024-01-07 4"), calls);
+        assertEquals("😄", model.getValueAt(model.getMoodRow(), WeekTableModel.COL_FIRST_DAY + 2));
+    }
+}